@@ -0,0 +1,197 @@
+package minesweeper.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.Difficulty;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.MinePlacer;
+import minesweeper.engine.NeighbourCounts;
+import minesweeper.engine.Xoroshiro128PlusPlus;
+import minesweeper.model.Cell;
+import minesweeper.model.MinesweeperModel;
+
+/**
+ * Checks that the hot paths of the engine allocate nothing once they are warmed up: generating a new game on a reused
+ * board, finding the cells opened by a click, and checking a chord. Run it with the GC profiler, the
+ * {@code gc.alloc.rate.norm} of these should be close to 0 B/op:
+ *
+ * <pre>
+ * java -jar minesweeper-benchmark.jar AllocationBenchmark -prof gc
+ * </pre>
+ * <p>
+ * The {@code model} benchmarks go through {@link MinesweeperModel}, whose moves also keep the undo journal and the
+ * board snapshot. Their allocations should only come from these, see the benchmarks: about 2 KB for a move and its
+ * undo on a <i>Hard</i> board, and about 20 KB for a new game.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AllocationBenchmark
+{
+	private final static Difficulty DIFFICULTY = Difficulty.HARD;
+
+	private ArrayBoard board;
+	private Xoroshiro128PlusPlus random;
+	private MinePlacer placer;
+	private long seed;
+
+	private ArrayBoard openedBoard;
+	private FloodFill floodFill;
+	private NeighbourCounts neighbourCounts;
+	private int[] chordCells;
+	private int[] starts;
+	private int nextStart;
+	private int number;
+	private int mine;
+
+	@Setup(Level.Trial)
+	public void createBoards()
+	{
+		board = new ArrayBoard(DIFFICULTY.getRows(), DIFFICULTY.getCols());
+		random = new Xoroshiro128PlusPlus(0);
+		placer = new MinePlacer(random);
+
+		// A board with a number next to a single mine, and the safe cells far from the mines to start the fill from.
+		openedBoard = new ArrayBoard(100, 100);
+		random.setSeed(1);
+		new MinePlacer(random).place(openedBoard, openedBoard.size() / 10, 0);
+		openedBoard.countNeighbours();
+		floodFill = new FloodFill(openedBoard);
+		neighbourCounts = new NeighbourCounts(openedBoard);
+		chordCells = new int[8];
+
+		starts = new int[openedBoard.size()];
+		int count = 0;
+		for (int i = 0; i < openedBoard.size(); i++)
+		{
+			if (openedBoard.getValue(i) == CellValues.CELL_EMPTY)
+				starts[count++] = i;
+			if (openedBoard.getValue(i) == CellValues.CELL_1 && mine == 0)
+			{
+				number = i;
+				neighbourCounts.setState(i, Board.STATE_CLICKED);
+				int hidden = neighbourCounts.getHiddenNeighbours(i, chordCells);
+				for (int j = 0; j < hidden; j++)
+				{
+					if (openedBoard.getValue(chordCells[j]) == CellValues.CELL_MINE)
+						mine = chordCells[j];
+				}
+			}
+		}
+		starts = Arrays.copyOf(starts, count);
+	}
+
+	/**
+	 * Generates a new <i>Hard</i> game on the same board: places the mines, then counts the neighbours.
+	 */
+	@Benchmark
+	public Board newGame()
+	{
+		board.clear();
+		random.setSeed(seed++);
+		placer.place(board, DIFFICULTY.getMines(), 0);
+		board.countNeighbours();
+		return board;
+	}
+
+	/**
+	 * Finds the cells opened by clicking an empty cell. The board is not changed, so every click opens a region.
+	 */
+	@Benchmark
+	public int reveal()
+	{
+		if (nextStart == starts.length)
+			nextStart = 0;
+		return floodFill.fill(starts[nextStart++]);
+	}
+
+	/**
+	 * Flags the mine next to a number, checks the chord, then takes the flag back.
+	 */
+	@Benchmark
+	public boolean chord()
+	{
+		neighbourCounts.setState(mine, Board.STATE_FLAGGED);
+		boolean canChord = neighbourCounts.canChord(number) && neighbourCounts.getHiddenNeighbours(number, chordCells) > 0;
+		neighbourCounts.setState(mine, Board.STATE_HIDDEN);
+		return canChord;
+	}
+
+	/**
+	 * A model with a started <i>Hard</i> game, and a hidden number in it.
+	 */
+	@State(Scope.Thread)
+	public static class Model
+	{
+		private final MinesweeperModel model = new MinesweeperModel();
+		private long seed;
+		private Cell number;
+
+		@Setup(Level.Trial)
+		public void startGame()
+		{
+			model.initCells(DIFFICULTY.getRows(), DIFFICULTY.getCols(), DIFFICULTY.getMines());
+			model.firstClick(0, 0);
+
+			Board board = model.getBoard();
+			for (int i = board.size() - 1; i >= 0 && number == null; i--)
+			{
+				int value = board.getValue(i);
+				if (board.getState(i) == Board.STATE_HIDDEN && value != CellValues.CELL_EMPTY && value != CellValues.CELL_MINE)
+					number = model.getCell(i);
+			}
+		}
+	}
+
+	/**
+	 * Opens a hidden number through the model, then undoes the move, so the board is the same for every invocation.
+	 * The mines are not placed again. Besides the cell itself, both moves record their delta in the
+	 * {@link minesweeper.model.MoveJournal MoveJournal}, and publish a new board snapshot, which take about 2 KB
+	 * together, proportional to the number of changed cells, not to the number of mines.
+	 */
+	@Benchmark
+	public int modelOpen(Model state)
+	{
+		state.model.open(state.number);
+		state.model.undo();
+		return state.model.getNotClickedCells();
+	}
+
+	/**
+	 * Starts a new <i>Hard</i> game in the model, with a seed which is not pregenerated, then makes the first click,
+	 * which places the mines with the reused generator, and counts the neighbours without allocating. The new game
+	 * still allocates its board, its neighbour counts, its {@link minesweeper.engine.OpeningIndex OpeningIndex} and its
+	 * board snapshot, a few bytes per cell, and the layout of a later game is generated in the background.
+	 */
+	@Benchmark
+	public Board modelNewGame(Model state)
+	{
+		state.model.initCells(DIFFICULTY.getRows(), DIFFICULTY.getCols(), DIFFICULTY.getMines());
+		state.model.setSeed(state.seed++);
+		state.model.firstClick(DIFFICULTY.getRows() / 2, DIFFICULTY.getCols() / 2);
+		return state.model.getBoard();
+	}
+}
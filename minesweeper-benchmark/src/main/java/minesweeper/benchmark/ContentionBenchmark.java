@@ -0,0 +1,98 @@
+package minesweeper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.bot.HeadlessGame;
+import minesweeper.bot.Simulator;
+import minesweeper.bot.Strategy;
+import minesweeper.solver.ProbabilityEngine;
+
+/**
+ * Measures how the number of games played per second scales with the number of threads, each thread playing whole
+ * <i>Medium</i> games of its own with the standard strategy.
+ * <p>
+ * With the {@code confined} engine every thread has its own {@link ProbabilityEngine#confined() confined} probability
+ * engine, so the threads share nothing, and the throughput should grow linearly up to the number of cores, then stay
+ * flat. With the {@code shared} engine every thread uses one engine, with one cache and the common pool, like the
+ * workers of a {@link Simulator} created with a single strategy.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ContentionBenchmark
+{
+	private final static int ROWS = 16;
+	private final static int COLS = 16;
+	private final static int MINES = 40;
+
+	@Param({ "confined", "shared" })
+	public String engine;
+
+	private Strategy strategy;
+	private long seed;
+	private int game;
+
+	/**
+	 * The state shared by the threads: the shared engine, and the numbers of the threads.
+	 */
+	@State(Scope.Benchmark)
+	public static class Shared
+	{
+		private final ProbabilityEngine engine = new ProbabilityEngine();
+		private final AtomicInteger threads = new AtomicInteger();
+	}
+
+	@Setup
+	public void createStrategy(Shared shared)
+	{
+		strategy = Strategy.standard("shared".equals(engine) ? shared.engine : ProbabilityEngine.confined());
+		seed = (long) shared.threads.getAndIncrement() << 32;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean oneThread()
+	{
+		return playGame();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public boolean eightThreads()
+	{
+		return playGame();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public boolean sixtyFourThreads()
+	{
+		return playGame();
+	}
+
+	private boolean playGame()
+	{
+		return Simulator.play(new HeadlessGame(ROWS, COLS, MINES, Simulator.gameSeed(seed, game++)), strategy);
+	}
+}
@@ -0,0 +1,104 @@
+package minesweeper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.OpeningIndex;
+
+/**
+ * Compares the iterative {@link FloodFill} with the recursive open logic it replaced.
+ * <p>
+ * The board has no mines, so opening its middle cell opens the whole board as one region. This is the worst case for
+ * both implementations, and the deepest possible recursion for the old one, which is why the forks run with a 1 GB
+ * thread stack: with the default stack size, the recursive version overflows long before one million cells.
+ * </p>
+ * <p>
+ * The {@code indexed} benchmark opens the same region with the {@link OpeningIndex} of the board, which is built once
+ * per trial, like it is built once per game when the mines are placed.
+ * </p>
+ * 
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xss1g")
+public class FloodFillBenchmark
+{
+	/**
+	 * The number of rows and columns of the board, 1000 means one million cells.
+	 */
+	@Param({ "100", "300", "1000" })
+	public int size;
+
+	private Board board;
+	private FloodFill floodFill;
+	private FloodFill indexedFloodFill;
+
+	@Setup(Level.Trial)
+	public void createBoard()
+	{
+		board = new ArrayBoard(size, size);
+		floodFill = new FloodFill(board);
+		indexedFloodFill = new FloodFill(board);
+		indexedFloodFill.setOpenings(OpeningIndex.of(board));
+	}
+
+	@Setup(Level.Invocation)
+	public void hideCells()
+	{
+		for (int i = 0; i < board.size(); i++)
+		{
+			board.setState(i, Board.STATE_HIDDEN);
+		}
+	}
+
+	@Benchmark
+	public int iterative()
+	{
+		int[] revealed = floodFill.reveal(board.indexOf(size / 2, size / 2));
+		for (int index : revealed)
+		{
+			board.setState(index, Board.STATE_CLICKED);
+		}
+
+		return revealed.length;
+	}
+
+	@Benchmark
+	public int indexed()
+	{
+		int count = indexedFloodFill.fill(board.indexOf(size / 2, size / 2));
+		int[] filled = indexedFloodFill.getFilled();
+		for (int i = 0; i < count; i++)
+		{
+			board.setState(filled[i], Board.STATE_CLICKED);
+		}
+
+		return count;
+	}
+
+	@Benchmark
+	public int recursive()
+	{
+		return new RecursiveFloodFill(board).open(board.indexOf(size / 2, size / 2));
+	}
+}
@@ -0,0 +1,118 @@
+package minesweeper.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.GameSeed;
+import minesweeper.solver.FrontierSolver;
+
+/**
+ * Measures the cost of a move with the {@link FrontierSolver}: opening a random safe cell, and updating the solver
+ * incrementally, compared to rebuilding it from the whole board.
+ * <p>
+ * Every iteration starts from a new board, and the moves follow a random order of the safe cells, skipping the ones
+ * already opened.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FrontierSolverBenchmark
+{
+	/**
+	 * The number of rows and columns of the board, large enough to not run out of moves in an iteration.
+	 */
+	@Param({ "1000", "3000" })
+	public int size;
+
+	private Board board;
+	private FloodFill floodFill;
+	private FrontierSolver solver;
+	private int[] moves;
+	private int nextMove;
+
+	@Setup(Level.Iteration)
+	public void createBoard()
+	{
+		board = new ArrayBoard(size, size);
+		new GameSeed(size, size, board.size() / 6, size, size / 2, size / 2).generate(board);
+		floodFill = new FloodFill(board);
+		solver = new FrontierSolver(board);
+
+		moves = new int[board.size()];
+		int count = 0;
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (board.getValue(i) != CellValues.CELL_MINE)
+				moves[count++] = i;
+		}
+
+		Random random = new Random(size);
+		for (int i = count - 1; i > 0; i--)
+		{
+			int swap = random.nextInt(i + 1);
+			int move = moves[swap];
+			moves[swap] = moves[i];
+			moves[i] = move;
+		}
+		moves = Arrays.copyOf(moves, count);
+		nextMove = 0;
+	}
+
+	private int[] move()
+	{
+		while (nextMove < moves.length && board.getState(moves[nextMove]) == Board.STATE_CLICKED)
+		{
+			nextMove++;
+		}
+		if (nextMove == moves.length)
+			return new int[0];
+
+		int[] opened = floodFill.reveal(moves[nextMove]);
+		for (int cell : opened)
+		{
+			board.setState(cell, Board.STATE_CLICKED);
+		}
+
+		return opened;
+	}
+
+	@Benchmark
+	public FrontierSolver incremental()
+	{
+		solver.update(move());
+		return solver;
+	}
+
+	@Benchmark
+	public FrontierSolver rebuild()
+	{
+		move();
+		solver.rebuild();
+		return solver;
+	}
+}
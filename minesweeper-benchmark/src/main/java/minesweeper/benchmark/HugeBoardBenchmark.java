@@ -0,0 +1,80 @@
+package minesweeper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.model.MinesweeperModel;
+
+/**
+ * Measures the huge board mode of {@link MinesweeperModel}: how long it takes to start a new game, and how long the
+ * first click takes, which places the mines, counts the neighbours and opens the clicked cell.
+ * <p>
+ * Both are measured as single shots, because a 10000x10000 game is too large to be generated thousands of times. About
+ * a fifth of the cells are mines, so the first click usually opens only a few cells.
+ * </p>
+ * <p>
+ * The 20000x20000 board is stored in an {@link minesweeper.engine.OffHeapBoard OffHeapBoard}, and every size runs with
+ * a 256 MB heap, which is enough because the largest board is not on the heap. Only these two steps are measured with
+ * that heap, the moves after the first click and the end of the game are not played here.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class HugeBoardBenchmark
+{
+	/**
+	 * The number of rows and columns of the board, 20000 means four hundred million cells.
+	 */
+	@Param({ "1000", "3000", "10000", "20000" })
+	public int size;
+
+	private MinesweeperModel model;
+
+	@Setup(Level.Trial)
+	public void createModel()
+	{
+		model = new MinesweeperModel();
+		model.setHugeBoardMode(true);
+	}
+
+	@Setup(Level.Invocation)
+	public void startGame()
+	{
+		model.newGame(size, size, size * size / 5);
+	}
+
+	@Benchmark
+	public int newGame()
+	{
+		model.newGame(size, size, size * size / 5);
+
+		return model.getBoard().size();
+	}
+
+	@Benchmark
+	public int firstClick()
+	{
+		model.open(model.getCell(size / 2, size / 2));
+
+		return model.getNotClickedCells();
+	}
+}
@@ -0,0 +1,136 @@
+package minesweeper.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.MineLayout;
+import minesweeper.engine.MinePlacer;
+import minesweeper.engine.RandomSource;
+import minesweeper.engine.Xoroshiro128PlusPlus;
+
+/**
+ * Compares the two algorithms of {@link MinePlacer} with the boxed list shuffle they replaced, on sparse, normal and
+ * near-full boards, with every kind of {@link RandomSource}.
+ * <p>
+ * The {@code pregenerated} benchmark applies a {@link MineLayout} generated in advance, like on the first click of a
+ * game whose layout was generated in the background. It doesn't depend on the random source.
+ * </p>
+ * <p>
+ * The board is cleared before every invocation, outside of the measured time, so only the placement is measured.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MinePlacementBenchmark
+{
+	/**
+	 * The number of rows and columns of the board.
+	 */
+	@Param({ "100", "1000" })
+	public int size;
+
+	/**
+	 * The ratio of mines to cells: sparse, the density of the built-in difficulties, and near-full.
+	 */
+	@Param({ "0.01", "0.2", "0.9" })
+	public double density;
+
+	/**
+	 * The source of the random numbers.
+	 */
+	@Param({ "splittable", "xoroshiro", "random" })
+	public String random;
+
+	private ArrayBoard board;
+	private MinePlacer placer;
+	private MineLayout layout;
+	private int mines;
+	private int excludedIndex;
+
+	@Setup(Level.Trial)
+	public void createBoard()
+	{
+		board = new ArrayBoard(size, size);
+		mines = (int) (board.size() * density);
+		excludedIndex = board.indexOf(size / 2, size / 2);
+		layout = MineLayout.generate(size, size, mines, size);
+
+		switch (random)
+		{
+		case "xoroshiro":
+			placer = new MinePlacer(new Xoroshiro128PlusPlus(size));
+			break;
+		case "random":
+			placer = new MinePlacer(RandomSource.of(new Random(size)));
+			break;
+		default:
+			placer = new MinePlacer(RandomSource.splittable(size));
+			break;
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void clearBoard()
+	{
+		for (int i = 0; i < board.size(); i++)
+		{
+			board.setValue(i, 0);
+		}
+	}
+
+	@Benchmark
+	public ArrayBoard sampled()
+	{
+		placer.placeSampled(board, mines, excludedIndex);
+		return board;
+	}
+
+	@Benchmark
+	public ArrayBoard shuffled()
+	{
+		placer.placeShuffled(board, mines, excludedIndex);
+		return board;
+	}
+
+	@Benchmark
+	public ArrayBoard chosen()
+	{
+		placer.place(board, mines, excludedIndex);
+		return board;
+	}
+
+	@Benchmark
+	public ArrayBoard pregenerated()
+	{
+		layout.apply(board, excludedIndex);
+		return board;
+	}
+
+	@Benchmark
+	public ArrayBoard shuffledList()
+	{
+		ShuffledListPlacement.place(board, mines, excludedIndex);
+		return board;
+	}
+}
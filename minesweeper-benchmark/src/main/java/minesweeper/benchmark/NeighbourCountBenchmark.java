@@ -0,0 +1,158 @@
+package minesweeper.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.MineBitboard;
+
+/**
+ * Compares the ways of computing the number layer of a board, where a fifth of the cells are mines.
+ * <p>
+ * {@code bitboard} only computes the counts of every row as bit planes, {@code arrayBoard} also writes them into the
+ * values of an {@link ArrayBoard}, and {@code perMine} is the default {@link Board#countNeighbours()}, which increments
+ * the neighbours of every mine one by one.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class NeighbourCountBenchmark
+{
+	/**
+	 * The number of rows and columns of the board, 10000 means one hundred million cells.
+	 */
+	@Param({ "1000", "3000", "10000" })
+	public int size;
+
+	private ArrayBoard board;
+	private Board defaultBoard;
+	private MineBitboard mines;
+	private long[] planes;
+
+	@Setup(Level.Trial)
+	public void createBoard()
+	{
+		board = new ArrayBoard(size, size);
+
+		Random random = new Random(size);
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (random.nextInt(5) == 0)
+				board.setValue(i, CellValues.CELL_MINE);
+		}
+
+		defaultBoard = new DefaultCountingBoard(board);
+		mines = MineBitboard.of(board);
+		planes = new long[MineBitboard.COUNT_PLANES * mines.getWordsPerRow()];
+	}
+
+	@Setup(Level.Invocation)
+	public void clearCounts()
+	{
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (board.getValue(i) != CellValues.CELL_MINE)
+				board.setValue(i, CellValues.CELL_EMPTY);
+		}
+	}
+
+	@Benchmark
+	public long bitboard()
+	{
+		long checksum = 0;
+		for (int row = 0; row < size; row++)
+		{
+			mines.countRow(row, planes);
+			checksum ^= planes[0];
+		}
+
+		return checksum;
+	}
+
+	@Benchmark
+	public int arrayBoard()
+	{
+		board.countNeighbours();
+
+		return board.getValue(0);
+	}
+
+	@Benchmark
+	public int perMine()
+	{
+		defaultBoard.countNeighbours();
+
+		return board.getValue(0);
+	}
+
+	/**
+	 * A board delegating to an {@link ArrayBoard}, but keeping the default {@link Board#countNeighbours()}.
+	 */
+	private static class DefaultCountingBoard implements Board
+	{
+		private final Board board;
+
+		private DefaultCountingBoard(Board board)
+		{
+			this.board = board;
+		}
+
+		@Override
+		public int getRows()
+		{
+			return board.getRows();
+		}
+
+		@Override
+		public int getCols()
+		{
+			return board.getCols();
+		}
+
+		@Override
+		public int getState(int index)
+		{
+			return board.getState(index);
+		}
+
+		@Override
+		public void setState(int index, int state)
+		{
+			board.setState(index, state);
+		}
+
+		@Override
+		public int getValue(int index)
+		{
+			return board.getValue(index);
+		}
+
+		@Override
+		public void setValue(int index, int value)
+		{
+			board.setValue(index, value);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package minesweeper.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.GameSeed;
+import minesweeper.engine.NoGuessGenerator;
+
+/**
+ * Measures the latency of generating a no guessing board with the {@link NoGuessGenerator}, on the built-in
+ * difficulties, with one worker and with every core.
+ * <p>
+ * The number of rejected candidates varies a lot between seeds, so this runs in sample mode, and the interesting
+ * numbers are the high percentiles. Every invocation uses a new seed and a random first click.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class NoGuessBenchmark
+{
+	/**
+	 * The difficulty, as rows x columns / mines.
+	 */
+	@Param({ "9x9/10", "16x16/40", "16x30/99" })
+	public String difficulty;
+
+	/**
+	 * The number of workers, 0 means one per core.
+	 */
+	@Param({ "1", "0" })
+	public int workers;
+
+	private int rows;
+	private int cols;
+	private int mines;
+	private ForkJoinPool pool;
+	private NoGuessGenerator generator;
+	private SplittableRandom random;
+
+	@Setup
+	public void createGenerator()
+	{
+		String[] parts = difficulty.split("[x/]");
+		rows = Integer.parseInt(parts[0]);
+		cols = Integer.parseInt(parts[1]);
+		mines = Integer.parseInt(parts[2]);
+
+		pool = new ForkJoinPool(workers == 0 ? Runtime.getRuntime().availableProcessors() : workers);
+		generator = new NoGuessGenerator(pool, NoGuessGenerator.DEFAULT_MAX_ATTEMPTS);
+		random = new SplittableRandom(rows * cols);
+	}
+
+	@TearDown
+	public void shutdownPool()
+	{
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public GameSeed generate()
+	{
+		return generator.generate(rows, cols, mines, random.nextLong(), random.nextInt(rows), random.nextInt(cols));
+	}
+}
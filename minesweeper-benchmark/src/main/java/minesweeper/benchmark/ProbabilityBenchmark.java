@@ -0,0 +1,130 @@
+package minesweeper.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.GameSeed;
+import minesweeper.solver.MineProbabilities;
+import minesweeper.solver.ProbabilityEngine;
+
+/**
+ * Measures the {@link ProbabilityEngine} on positions of real <i>Hard</i> games, recorded by always opening the safest
+ * cell, with one worker and with every core.
+ * <p>
+ * Every invocation computes the next position of the recorded games in order, like a heatmap following a game. The
+ * {@code cached} benchmark keeps the solved components between the positions, {@code uncached} empties the cache
+ * every time.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ProbabilityBenchmark
+{
+	/**
+	 * The number of workers, 0 means one per core.
+	 */
+	@Param({ "1", "0" })
+	public int workers;
+
+	private List<Board> positions;
+	private int nextPosition;
+	private ForkJoinPool pool;
+	private ProbabilityEngine engine;
+
+	@Setup
+	public void recordGames()
+	{
+		pool = new ForkJoinPool(workers == 0 ? Runtime.getRuntime().availableProcessors() : workers);
+		engine = new ProbabilityEngine(pool);
+		positions = new ArrayList<Board>();
+
+		Random random = new Random(99);
+		for (int game = 0; game < 50; game++)
+		{
+			Board board = new ArrayBoard(16, 30);
+			new GameSeed(16, 30, 99, random.nextLong(), 8, 15).generate(board);
+			FloodFill floodFill = new FloodFill(board);
+
+			int next = board.indexOf(8, 15);
+			int hidden = board.size();
+			while (board.getValue(next) != CellValues.CELL_MINE)
+			{
+				for (int cell : floodFill.reveal(next))
+				{
+					board.setState(cell, Board.STATE_CLICKED);
+					hidden--;
+				}
+				if (hidden == 99)
+					break;
+
+				positions.add(copy(board));
+				next = engine.compute(board, 99).getSafest();
+			}
+		}
+	}
+
+	private static Board copy(Board board)
+	{
+		Board copy = new ArrayBoard(board.getRows(), board.getCols());
+		for (int i = 0; i < board.size(); i++)
+		{
+			copy.setState(i, board.getState(i));
+			copy.setValue(i, board.getValue(i));
+		}
+
+		return copy;
+	}
+
+	@TearDown
+	public void shutdownPool()
+	{
+		pool.shutdown();
+	}
+
+	private Board nextPosition()
+	{
+		Board board = positions.get(nextPosition);
+		nextPosition = (nextPosition + 1) % positions.size();
+		return board;
+	}
+
+	@Benchmark
+	public MineProbabilities cached()
+	{
+		return engine.compute(nextPosition(), 99);
+	}
+
+	@Benchmark
+	public MineProbabilities uncached()
+	{
+		engine.clearCache();
+		return engine.compute(nextPosition(), 99);
+	}
+}
@@ -0,0 +1,73 @@
+package minesweeper.benchmark;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+
+/**
+ * The recursive open logic that {@link minesweeper.engine.FloodFill FloodFill} replaced, kept only as the baseline of
+ * {@link FloodFillBenchmark}.
+ * <p>
+ * It is the same algorithm the model used before: opening an empty cell opens its hidden neighbours, which recurses
+ * for every empty neighbour, so the stack depth grows with the size of the region.
+ * </p>
+ * 
+ * @author Eperjesi Ádám
+ *
+ */
+class RecursiveFloodFill
+{
+	private final Board board;
+	private int opened;
+
+	RecursiveFloodFill(Board board)
+	{
+		this.board = board;
+	}
+
+	/**
+	 * Opens the cell at the given index, and recursively every empty cell around it.
+	 * 
+	 * @param index The index of the cell.
+	 * @return The number of opened cells.
+	 */
+	int open(int index)
+	{
+		opened = 0;
+		openCell(index);
+		return opened;
+	}
+
+	private void openCell(int index)
+	{
+		opened++;
+		board.setState(index, Board.STATE_CLICKED);
+
+		if (board.getValue(index) == CellValues.CELL_EMPTY)
+		{
+			openEmpty(index);
+		}
+	}
+
+	private void openEmpty(int centerIndex)
+	{
+		int row = board.rowOf(centerIndex);
+		int col = board.colOf(centerIndex);
+
+		int rowBegin = (row - 1 < 0) ? row : row - 1;
+		int rowEnd = (row + 1 >= board.getRows()) ? board.getRows() - 1 : row + 1;
+		int colBegin = (col - 1 < 0) ? col : col - 1;
+		int colEnd = (col + 1 >= board.getCols()) ? board.getCols() - 1 : col + 1;
+
+		for (int i = rowBegin; i <= rowEnd; i++)
+		{
+			for (int j = colBegin; j <= colEnd; j++)
+			{
+				int index = board.indexOf(i, j);
+				if (index != centerIndex && board.getState(index) == Board.STATE_HIDDEN)
+				{
+					openCell(index);
+				}
+			}
+		}
+	}
+}
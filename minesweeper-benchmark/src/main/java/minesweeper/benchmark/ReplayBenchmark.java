@@ -0,0 +1,116 @@
+package minesweeper.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.GameSeed;
+import minesweeper.replay.ReplayFormat;
+import minesweeper.replay.ReplayPlayer;
+import minesweeper.replay.ReplayReader;
+import minesweeper.replay.ReplayWriter;
+
+/**
+ * Measures seeking in a replay of {@link #MOVES} moves with the {@link ReplayPlayer}: jumping to a random move, like
+ * dragging the slider of the replay window, and stepping to the next move, like playing it back.
+ * <p>
+ * The replay opens the safe cells of a 300x300 board in a random order, and flags a random mine after every fourth
+ * move. The snapshot interval trades seeking time for memory, an interval of {@link Integer#MAX_VALUE} means there
+ * are no snapshots, and every seek backwards plays the replay from the start.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReplayBenchmark
+{
+	/**
+	 * The number of moves of the replay.
+	 */
+	public final static int MOVES = 10000;
+	private final static int SIZE = 300;
+
+	@Param({ "8", "32", "128", "2147483647" })
+	public int snapshotInterval;
+
+	private ReplayPlayer player;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void createReplay() throws IOException
+	{
+		int mines = SIZE * SIZE / 10;
+		long seed = 1;
+		Board board = new ArrayBoard(SIZE, SIZE);
+		new GameSeed(SIZE, SIZE, mines, seed, SIZE / 2, SIZE / 2).generate(board);
+
+		int[] safe = new int[board.size()];
+		int[] mine = new int[mines];
+		int safeCount = 0;
+		int mineCount = 0;
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (board.getValue(i) == CellValues.CELL_MINE)
+				mine[mineCount++] = i;
+			else
+				safe[safeCount++] = i;
+		}
+
+		random = new Random(seed);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), SIZE, SIZE, mines, seed))
+		{
+			writer.write(ReplayFormat.ACTION_OPEN, board.indexOf(SIZE / 2, SIZE / 2), 0);
+			for (int move = 1; move < MOVES; move++)
+			{
+				if (move % 4 == 0)
+					writer.write(ReplayFormat.ACTION_MARK, mine[random.nextInt(mineCount)], move * 100L);
+				else
+					writer.write(ReplayFormat.ACTION_OPEN, safe[random.nextInt(safeCount)], move * 100L);
+			}
+		}
+
+		player = new ReplayPlayer(new ReplayReader(Channels.newChannel(new ByteArrayInputStream(out.toByteArray()))), snapshotInterval);
+	}
+
+	@Benchmark
+	public ReplayPlayer seekRandom()
+	{
+		player.seek(random.nextInt(MOVES + 1));
+		player.drainChangedCells();
+		return player;
+	}
+
+	@Benchmark
+	public ReplayPlayer seekNext()
+	{
+		player.seek(player.getPosition() < MOVES ? player.getPosition() + 1 : 0);
+		player.drainChangedCells();
+		return player;
+	}
+}
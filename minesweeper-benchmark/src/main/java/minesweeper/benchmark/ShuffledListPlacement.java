@@ -0,0 +1,45 @@
+package minesweeper.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+
+/**
+ * The mine placement that {@link minesweeper.engine.MinePlacer MinePlacer} replaced, kept only as the baseline of
+ * {@link MinePlacementBenchmark}.
+ * <p>
+ * It boxes the index of every cell except the excluded one into a list, shuffles the whole list, and makes the first
+ * cells of it mines.
+ * </p>
+ * 
+ * @author Eperjesi Ádám
+ *
+ */
+class ShuffledListPlacement
+{
+	private ShuffledListPlacement()
+	{
+	}
+
+	static void place(Board board, int mines, int excludedIndex)
+	{
+		ArrayList<Integer> randoms = new ArrayList<>();
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (i == excludedIndex)
+			{
+				continue;
+			}
+			randoms.add(new Integer(i));
+		}
+		Collections.shuffle(randoms);
+
+		for (int i = 0; i < mines; i++)
+		{
+			board.setValue(randoms.get(i), CellValues.CELL_MINE);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package minesweeper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.BoardSnapshot;
+
+/**
+ * Measures how fast readers on other threads can read a whole <i>Expert</i> board, while one writer keeps changing
+ * it, one cell per move, like a game played on the JavaFX thread.
+ * <p>
+ * In the {@code snapshot} group the writer publishes a new {@link BoardSnapshot} after every move, through a volatile
+ * field, and the readers read the latest snapshot without locking, so a reader never waits for the writer or for the
+ * other readers. In the {@code locked} group the writer changes the board under the write lock of a
+ * {@link ReadWriteLock}, and the readers read it under the read lock, so they wait while a move is being made, and
+ * every lock and unlock writes the shared state of the lock.
+ * </p>
+ * <p>
+ * The score of a reader is the number of boards read per second, the number of opened cells is returned, so the reads
+ * can't be left out.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SnapshotBenchmark
+{
+	private final static int ROWS = 16;
+	private final static int COLS = 30;
+
+	private Board board;
+	private volatile BoardSnapshot snapshot;
+	private ReadWriteLock lock;
+	private int[] changed;
+	private int move;
+
+	@Setup
+	public void createBoard()
+	{
+		board = new ArrayBoard(ROWS, COLS);
+		snapshot = BoardSnapshot.of(board);
+		lock = new ReentrantReadWriteLock();
+		changed = new int[1];
+	}
+
+	@Benchmark
+	@Group("snapshot")
+	@GroupThreads(1)
+	public void snapshotWriter()
+	{
+		changed[0] = nextMove();
+		snapshot = snapshot.update(board, changed);
+	}
+
+	@Benchmark
+	@Group("snapshot")
+	@GroupThreads(3)
+	public int snapshotReader()
+	{
+		return countClicked(snapshot);
+	}
+
+	@Benchmark
+	@Group("locked")
+	@GroupThreads(1)
+	public void lockedWriter()
+	{
+		lock.writeLock().lock();
+		try
+		{
+			nextMove();
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Benchmark
+	@Group("locked")
+	@GroupThreads(3)
+	public int lockedReader()
+	{
+		lock.readLock().lock();
+		try
+		{
+			return countClicked(board);
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Opens the next cell of the board, or hides it again on the second pass.
+	 *
+	 * @return The index of the changed cell.
+	 */
+	private int nextMove()
+	{
+		int index = move++ % board.size();
+		board.setState(index, board.getState(index) == Board.STATE_CLICKED ? Board.STATE_HIDDEN : Board.STATE_CLICKED);
+		return index;
+	}
+
+	private static int countClicked(Board board)
+	{
+		int clicked = 0;
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (board.getState(i) == Board.STATE_CLICKED)
+				clicked++;
+		}
+		return clicked;
+	}
+}
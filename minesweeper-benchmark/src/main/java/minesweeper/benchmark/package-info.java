@@ -0,0 +1,6 @@
+/**
+ * JMH benchmarks of the game engine. Each benchmark compares the engine with the implementation it replaced, or
+ * measures it on board sizes that the GUI doesn't support, so they can be used to check that a change to the engine
+ * didn't make it slower.
+ */
+package minesweeper.benchmark;
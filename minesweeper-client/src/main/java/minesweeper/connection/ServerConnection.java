@@ -195,9 +195,13 @@ public class ServerConnection implements AutoCloseable
 			Integer totalMines = (Integer) extracted.get(4);
 			String diff = (String) extracted.get(5);
 			LocalDateTime date = (LocalDateTime) extracted.get(6);
+			// Older servers don't send the 3BV.
+			Integer threeBV = extracted.size() > 7 ? (Integer) extracted.get(7) : 0;
 
 			Image img = new Image("https://graph.facebook.com/" + id + "/picture?type=square");
-			scoreList.add(new ScoreData(img, name, diff, time, remainingMines, totalMines, date));
+			ScoreData scoreData = new ScoreData(img, name, diff, time, remainingMines, totalMines, date);
+			scoreData.set3BV(threeBV);
+			scoreList.add(scoreData);
 		}
 
 		return scoreList;
@@ -282,6 +286,7 @@ public class ServerConnection implements AutoCloseable
 		objects.add(scoreData.getFoundMines());
 		objects.add(scoreData.getTotalMines());
 		objects.add(scoreData.getDate());
+		objects.add(scoreData.getGameCode());
 
 		return objects;
 	}
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextFormatter;
 
@@ -18,6 +19,11 @@ import javafx.scene.control.TextFormatter;
  * be a one or two digit number, mines can also be a three digit number.<br>
  * If the values are off, like rows are greater than the maximum (30 by default), the game initialization will try to adjust them.
  * </p>
+ * <p>
+ * When the <i>Huge board</i> box is checked, the game is started in
+ * {@link minesweeper.model.MinesweeperModel#setHugeBoardMode(boolean) huge board mode}, so rows and columns can be up to
+ * five digits, and mines up to nine digits.
+ * </p>
  * 
  * @author Eperjesi Ádám
  *
@@ -33,6 +39,8 @@ public class CustomGameWindowController extends Controller
 	@FXML
 	private TextField mineText;
 	@FXML
+	private CheckBox hugeBoardCheck;
+	@FXML
 	private Button cancelButton;
 	@FXML
 	private Button okButton;
@@ -40,9 +48,9 @@ public class CustomGameWindowController extends Controller
 	@Override
 	public void initialize(URL location, ResourceBundle resources)
 	{
-		rowText.setTextFormatter(createMaxLengthTextFormatter(2));
-		colText.setTextFormatter(createMaxLengthTextFormatter(2));
-		mineText.setTextFormatter(createMaxLengthTextFormatter(4));
+		rowText.setTextFormatter(createMaxLengthTextFormatter(2, 5));
+		colText.setTextFormatter(createMaxLengthTextFormatter(2, 5));
+		mineText.setTextFormatter(createMaxLengthTextFormatter(4, 9));
 
 		cancelButton.setOnAction(action ->
 		{
@@ -58,6 +66,7 @@ public class CustomGameWindowController extends Controller
 				int colNum = Integer.parseInt(colText.getText());
 				int mineNum = Integer.parseInt(mineText.getText());
 
+				model.setHugeBoardMode(hugeBoardCheck.isSelected());
 				model.newGame(rowNum, colNum, mineNum);
 				getStage().hide();
 
@@ -76,13 +85,14 @@ public class CustomGameWindowController extends Controller
 	 * Also limits the input to numbers only.
 	 * 
 	 * @param maxLength The maximum length of the input text.
+	 * @param hugeMaxLength The maximum length of the input text, when the huge board box is checked.
 	 * @return A {@link TextFormatter} object.
 	 */
-	private TextFormatter<String> createMaxLengthTextFormatter(int maxLength)
+	private TextFormatter<String> createMaxLengthTextFormatter(int maxLength, int hugeMaxLength)
 	{
 		return new TextFormatter<String>(change ->
 		{
-			if (change.getControlNewText().length() > maxLength)
+			if (change.getControlNewText().length() > (hugeBoardCheck.isSelected() ? hugeMaxLength : maxLength))
 			{
 				return null;
 			}
@@ -47,6 +47,11 @@ public class GameBarController extends Controller
 {
 	private static Logger logger = LoggerFactory.getLogger(GameBarController.class);
 
+	/**
+	 * The number of seconds between two saves of the unfinished game.
+	 */
+	public final static int AUTOSAVE_SECONDS = 5;
+
 	@FXML
 	private FadeLabel fbLoginMessage;
 	@FXML
@@ -170,6 +175,28 @@ public class GameBarController extends Controller
 			{
 				getTimer().pause();
 			}
+			else if (model.getFirstClickOccurred() && !model.isReplayMode())
+			{
+				// A lost game was continued by undoing the losing move.
+				getTimer().play();
+			}
+		});
+
+		model.replayModeProperty().addListener((observable, oldValue, newValue) ->
+		{
+			// The replay shows the time of its moves instead.
+			if (newValue == true)
+			{
+				getTimer().pause();
+			}
+		});
+
+		model.elapsedTimeProperty().addListener((observable, oldValue, newValue) ->
+		{
+			if (model.isReplayMode())
+			{
+				timeLabel.setText(String.valueOf(newValue));
+			}
 		});
 
 		model.colorProperty().addListener((observable, oldValue, newValue) ->
@@ -268,6 +295,10 @@ public class GameBarController extends Controller
 	/**
 	 * Increases the elapsed time by 1 second, and updates the model and the timer view. This method is executed every
 	 * second, when the timer has reached the end of a period.
+	 * <p>
+	 * Every {@link #AUTOSAVE_SECONDS} seconds the game is also {@link MinesweeperModel#autosave() saved}, which only
+	 * starts flushing the save file in the background.
+	 * </p>
 	 */
 	private void updateTime()
 	{
@@ -275,6 +306,9 @@ public class GameBarController extends Controller
 
 		model.setElapsedTime(elapsedTime);
 		timeLabel.setText(String.valueOf(elapsedTime));
+
+		if (elapsedTime % AUTOSAVE_SECONDS == 0)
+			model.autosave();
 	}
 
 	/**
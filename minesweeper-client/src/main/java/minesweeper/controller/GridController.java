@@ -8,18 +8,27 @@ import org.slf4j.LoggerFactory;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
-import javafx.collections.ListChangeListener;
+import javafx.application.Platform;
 import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
+import javafx.scene.effect.Effect;
+import javafx.scene.effect.Light;
+import javafx.scene.effect.Lighting;
 import javafx.scene.image.Image;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.paint.Color;
 import javafx.util.Duration;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.EndlessBoard;
+import minesweeper.model.BoardChangeListener;
 import minesweeper.model.Cell;
 import minesweeper.model.MinesweeperModel;
-import minesweeper.util.CellValues;
+import minesweeper.solver.MineProbabilities;
 import minesweeper.util.ResourceUtils;
 import minesweeper.view.CellView;
 import minesweeper.view.Grid;
@@ -34,6 +43,23 @@ import minesweeper.view.Grid;
  * mouse pressed will correctly mark them as pressed.<br>
  * For other mouse events, see the implementation of {@link GridController#handle(MouseEvent) handle()}.
  * </p>
+ * <p>
+ * The grid shows at most {@link MinesweeperModel#MAX_ROWS MAX_ROWS} x {@link MinesweeperModel#MAX_COLS MAX_COLS}
+ * cells. Larger boards (see {@link MinesweeperModel#setHugeBoardMode(boolean) huge board mode}) are shown through a
+ * viewport, which can be moved with the mouse wheel (holding shift moves it horizontally). The {@link CellView}s always
+ * hold their position in the viewport, and the viewport offset is added to get the position of the {@link Cell}. The
+ * {@link Cell}s that leave the viewport are released by the model, so only the cells on the screen have views.
+ * </p>
+ * <p>
+ * In {@link MinesweeperModel#isEndlessMode() endless mode}, the viewport can be moved anywhere. There are no
+ * {@link Cell} objects for the endless board, so the views are updated from the
+ * {@link minesweeper.engine.EndlessBoard EndlessBoard} directly, after every action.
+ * </p>
+ * <p>
+ * When the {@link MinesweeperModel#heatmapProperty() heatmap} is on, the hidden cells are tinted from green to red by
+ * their mine probability. The probabilities are computed in the background after every move, and only the result of
+ * the latest request is shown.
+ * </p>
  * 
  * @author Eperjesi Ádám
  *
@@ -42,6 +68,10 @@ public class GridController extends Controller implements EventHandler<MouseEven
 {
 	private static Logger logger = LoggerFactory.getLogger(GridController.class);
 
+	public final static int ENDLESS_VIEW_ROWS = 16;
+	public final static int ENDLESS_VIEW_COLS = 30;
+	public final static int HEATMAP_LEVELS = 10;
+
 	@FXML
 	private Grid grid;
 
@@ -54,6 +84,15 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	private Timeline doubleClickTimer;
 	private CellView clickedCellView;
 
+	private CellView[] cellViews;
+	private int viewRows;
+	private int viewCols;
+	private int rowOffset;
+	private int colOffset;
+
+	private Effect[] heatmapEffects;
+	private int heatmapGeneration;
+
 	@Override
 	public void initialize(URL location, ResourceBundle resources)
 	{
@@ -68,7 +107,30 @@ public class GridController extends Controller implements EventHandler<MouseEven
 		mouseReleaseRecursionFlag = false;
 		isMousePressed = false;
 
+		heatmapEffects = new Effect[HEATMAP_LEVELS + 1];
+		for (int i = 0; i <= HEATMAP_LEVELS; i++)
+		{
+			// A light shining straight down tints the whole cell, from green (safe) to red (mine).
+			Lighting lighting = new Lighting(new Light.Distant(0, 90, Color.hsb(120.0 * (HEATMAP_LEVELS - i) / HEATMAP_LEVELS, 0.6, 1.0)));
+			lighting.setSurfaceScale(0);
+			lighting.setSpecularConstant(0);
+			heatmapEffects[i] = lighting;
+		}
+
 		addEventFilters();
+		grid.addEventHandler(ScrollEvent.SCROLL, event ->
+		{
+			if (event.isShiftDown() || event.getDeltaY() == 0)
+			{
+				double delta = event.getDeltaX() != 0 ? event.getDeltaX() : event.getDeltaY();
+				scrollViewport(0, delta > 0 ? -1 : 1);
+			}
+			else
+			{
+				scrollViewport(event.getDeltaY() > 0 ? -1 : 1, 0);
+			}
+			event.consume();
+		});
 	}
 
 	@Override
@@ -84,64 +146,156 @@ public class GridController extends Controller implements EventHandler<MouseEven
 			}
 		});
 
-		model.getCellList().addListener(new ListChangeListener<Cell>()
+		// When cells are changed, the listener updates the right CellViews, once per action.
+		model.addBoardChangeListener(new BoardChangeListener()
 		{
-			// When the model of a Cell is changed, the listener will automatically update the right CellView.
 			@Override
-			public void onChanged(ListChangeListener.Change<? extends Cell> c)
+			public void boardChanged(int[] changedCells)
 			{
-				while (c.next())
+				for (int index : changedCells)
 				{
-					if (c.wasUpdated())
-					{
-						for (int i = c.getFrom(); i < c.getTo(); ++i)
-						{
-							updateCellView(model.getCellList().get(i));
-						}
-					}
+					updateCellView(index);
 				}
 			}
+
+			@Override
+			public void boardRevealed()
+			{
+				refreshViewport();
+			}
 		});
 
 		model.colorProperty().addListener((observable, oldValue, newValue) ->
 		{
 			setColor(newValue);
 
+			if (model.isEndlessMode())
+			{
+				refreshViewport();
+				return;
+			}
+
 			Image img = getResourceImage(CellValues.CELL_HIDDEN);
-			for (int i = 0; i < model.getRows(); i++)
+			for (Node node : grid.getChildren())
 			{
-				for (int j = 0; j < model.getCols(); j++)
+				CellView cellView = (CellView) node;
+				if (getCell(cellView).getState() == Cell.STATE_HIDDEN)
 				{
-					if (model.getCell(i, j).getState() == Cell.STATE_HIDDEN)
-					{
-						CellView cellView = getCellViewByPosition(i, j);
-						cellView.setImage(img);
-					}
+					cellView.setImage(img);
 				}
 			}
 		});
 
+		model.heatmapProperty().addListener((observable, oldValue, newValue) ->
+		{
+			refreshHeatmap();
+		});
+		model.notClickedCellsProperty().addListener((observable, oldValue, newValue) ->
+		{
+			refreshHeatmap();
+		});
+		model.gameOverProperty().addListener((observable, oldValue, newValue) ->
+		{
+			refreshHeatmap();
+		});
+
 		setupGrid(model.getRows(), model.getCols());
 	}
 
 	/**
-	 * Updates a {@link CellView}, to correctly represent the {@link Cell} given as a parameter.<br>
+	 * Requests the mine probabilities of the current game, and shows them when they are ready, unless a newer request
+	 * was made in the meantime. Hides the heatmap if it's turned off, or not available.
+	 */
+	private void refreshHeatmap()
+	{
+		int generation = ++heatmapGeneration;
+
+		if (!model.isHeatmap() || model.isEndlessMode() || model.isHugeBoardMode() || model.isGameOver())
+		{
+			for (Node node : grid.getChildren())
+			{
+				node.setEffect(null);
+			}
+			return;
+		}
+
+		model.computeProbabilities().whenComplete((probabilities, error) -> Platform.runLater(() ->
+		{
+			if (generation != heatmapGeneration)
+				return;
+
+			if (error != null)
+				logger.error("Could not compute the mine probabilities.", error);
+			else
+				showHeatmap(probabilities);
+		}));
+	}
+
+	/**
+	 * Tints every hidden cell in the viewport by its mine probability.
+	 * 
+	 * @param probabilities The probabilities of the current game.
+	 */
+	private void showHeatmap(MineProbabilities probabilities)
+	{
+		for (Node node : grid.getChildren())
+		{
+			Cell cell = getCell((CellView) node);
+			double probability = probabilities.get(cell.getRow(), cell.getColumn());
+
+			node.setEffect(Double.isNaN(probability) ? null : heatmapEffects[(int) Math.round(probability * HEATMAP_LEVELS)]);
+		}
+	}
+
+	/**
+	 * Updates a {@link CellView}, to correctly represent the {@link Cell} at the given board index.<br>
+	 * Cells outside of the viewport are ignored.
+	 * 
+	 * @param index The board index of the cell.
+	 */
+	private void updateCellView(int index)
+	{
+		Board board = model.getBoard();
+		int row = board.rowOf(index) - rowOffset;
+		int col = board.colOf(index) - colOffset;
+
+		if (row < 0 || row >= viewRows || col < 0 || col >= viewCols)
+			return;
+
+		CellView cellView = getCellViewByPosition(row, col);
+		cellView.setImage(getCellImage(getCell(cellView)));
+	}
+
+	/**
+	 * Returns the image, which represents the given {@link Cell}.<br>
 	 * The method uses the state of the Cell, to determine which image should be loaded in it.
 	 * 
 	 * @param cell A {@link Cell} object.
+	 * @return The image of the cell.
 	 */
-	private void updateCellView(Cell cell)
+	private Image getCellImage(Cell cell)
+	{
+		return getCellImage(cell.getState(), cell.getValue());
+	}
+
+	/**
+	 * Returns the image of a cell with the given state and value.
+	 * 
+	 * @param state The state of the cell.
+	 * @param value The value of the cell, only used when the cell is clicked.
+	 * @return The image of the cell.
+	 */
+	private Image getCellImage(int state, int value)
 	{
-		CellView cellView = getCellViewByPosition(cell.getRow(), cell.getColumn());
 		Image image = null;
 
-		switch (cell.getState())
+		switch (state)
 		{
 		case Cell.STATE_PRESSED:
 			image = getResourceImage(CellValues.CELL_EMPTY);
 			break;
 		case Cell.STATE_CLICKED:
-			image = getResourceImage(cell.getValue());
+			image = getResourceImage(value);
 			break;
 		case Cell.STATE_HIDDEN:
 			image = getResourceImage(CellValues.CELL_HIDDEN);
@@ -154,7 +308,75 @@ public class GridController extends Controller implements EventHandler<MouseEven
 			break;
 		}
 
-		cellView.setImage(image);
+		return image;
+	}
+
+	/**
+	 * Moves the viewport by the given number of rows and columns, then updates every {@link CellView} to show the
+	 * cells at their new position. The viewport never leaves the board, unless the board is endless.
+	 * 
+	 * @param rows The number of rows to move the viewport by, negative values move it up.
+	 * @param cols The number of columns to move the viewport by, negative values move it left.
+	 */
+	private void scrollViewport(int rows, int cols)
+	{
+		int newRowOffset = rowOffset + rows;
+		int newColOffset = colOffset + cols;
+
+		if (!model.isEndlessMode())
+		{
+			newRowOffset = Math.max(0, Math.min(newRowOffset, model.getRows() - viewRows));
+			newColOffset = Math.max(0, Math.min(newColOffset, model.getCols() - viewCols));
+		}
+
+		if (newRowOffset == rowOffset && newColOffset == colOffset)
+			return;
+
+		rowOffset = newRowOffset;
+		colOffset = newColOffset;
+
+		// The cells that left the viewport are released, so the model only keeps the views on the screen.
+		if (!model.isEndlessMode())
+			model.retainCells(rowOffset, colOffset, viewRows, viewCols);
+
+		refreshViewport();
+
+		logger.trace("Viewport moved to row {}, column {}.", rowOffset, colOffset);
+	}
+
+	/**
+	 * Updates every {@link CellView} in the viewport, to show the cell at its position.
+	 */
+	private void refreshViewport()
+	{
+		for (Node node : grid.getChildren())
+		{
+			CellView cellView = (CellView) node;
+
+			if (model.isEndlessMode())
+				cellView.setImage(getEndlessCellImage(cellView.getRow() + rowOffset, cellView.getColumn() + colOffset));
+			else
+				cellView.setImage(getCellImage(getCell(cellView)));
+		}
+	}
+
+	/**
+	 * Returns the image of a cell of the endless board. The value of the cell is only counted when it's clicked.
+	 * 
+	 * @param row The row of the cell on the endless board.
+	 * @param col The column of the cell on the endless board.
+	 * @return The image of the cell.
+	 */
+	private Image getEndlessCellImage(int row, int col)
+	{
+		EndlessBoard board = model.getEndlessBoard();
+		int state = board.getState(row, col);
+
+		if (state != Cell.STATE_CLICKED)
+			return getCellImage(state, CellValues.CELL_HIDDEN);
+
+		int value = board.getValue(row, col);
+		return getCellImage(state, value == CellValues.CELL_MINE ? CellValues.CELL_EXPLOSION : value);
 	}
 
 	/**
@@ -164,6 +386,16 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	 * assigns this controller class as their event handler.
 	 * </p>
 	 * <p>
+	 * If the board is larger than {@link MinesweeperModel#MAX_ROWS MAX_ROWS} x
+	 * {@link MinesweeperModel#MAX_COLS MAX_COLS}, only a viewport of that size is built, starting at the top left
+	 * corner. Endless boards always get a viewport of {@link #ENDLESS_VIEW_ROWS} x {@link #ENDLESS_VIEW_COLS},
+	 * centered on the starting cell.
+	 * </p>
+	 * <p>
+	 * If the viewport has the same size as before, the existing {@link CellView}s are reused, and only their images are
+	 * reset, so starting a new game of the same size doesn't rebuild the scene graph.
+	 * </p>
+	 * <p>
 	 * Also resizes the grid to fit the new content.
 	 * </p>
 	 * 
@@ -176,15 +408,42 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	{
 		Image img = getResourceImage(ResourceUtils.valueToResourceName(CellValues.CELL_HIDDEN, getColor()));
 
-		grid.getChildren().clear();
-		grid.getRowConstraints().clear();
-		grid.getColumnConstraints().clear();
+		int newViewRows = model.isEndlessMode() ? ENDLESS_VIEW_ROWS : Math.min(rows, MinesweeperModel.MAX_ROWS);
+		int newViewCols = model.isEndlessMode() ? ENDLESS_VIEW_COLS : Math.min(cols, MinesweeperModel.MAX_COLS);
+		boolean reused = cellViews != null && newViewRows == viewRows && newViewCols == viewCols;
+
+		viewRows = newViewRows;
+		viewCols = newViewCols;
+		rowOffset = model.isEndlessMode() ? -viewRows / 2 : 0;
+		colOffset = model.isEndlessMode() ? -viewCols / 2 : 0;
+		rows = viewRows;
+		cols = viewCols;
+
+		// A new game of the same viewport size keeps the nodes of the grid, only their images are reset.
+		if (!reused)
+		{
+			grid.getChildren().clear();
+			grid.getRowConstraints().clear();
+			grid.getColumnConstraints().clear();
+			cellViews = new CellView[rows * cols];
+		}
 
 		for (int i = 0; i < rows; i++)
 		{
 			for (int j = 0; j < cols; j++)
 			{
+				// Requesting the cell creates its view in the model, so its changes will be reported to this grid.
+				if (!model.isEndlessMode())
+					model.getCell(i, j);
+
+				if (reused)
+				{
+					cellViews[i * cols + j].setImage(img);
+					continue;
+				}
+
 				CellView cellView = new CellView(img, i, j);
+				cellViews[i * cols + j] = cellView;
 				cellView.addEventHandler(MouseEvent.MOUSE_PRESSED, this);
 				cellView.addEventHandler(MouseEvent.MOUSE_RELEASED, this);
 				cellView.addEventHandler(MouseEvent.MOUSE_ENTERED, this);
@@ -194,6 +453,7 @@ public class GridController extends Controller implements EventHandler<MouseEven
 		}
 
 		grid.resizeGrid(rows, cols);
+		refreshHeatmap();
 
 		logger.debug("Grid set up successfully with {} rows and {} columns.", rows, cols);
 	}
@@ -201,6 +461,10 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	@Override
 	public void handle(MouseEvent event)
 	{
+		// The board of a replay can only be watched.
+		if (model.isReplayMode())
+			return;
+
 		if (event.getEventType() == MouseEvent.MOUSE_PRESSED)
 		{
 			CellView view = (CellView) event.getSource();
@@ -429,7 +693,18 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	}
 
 	/**
-	 * Returns a CellView at the specified row and column index.
+	 * Returns the {@link Cell}, which is currently shown by the given {@link CellView}.
+	 * 
+	 * @param cellView A {@link CellView} in the viewport.
+	 * @return The {@link Cell} at the position of the view, moved by the viewport offset.
+	 */
+	private Cell getCell(CellView cellView)
+	{
+		return model.getCell(cellView.getRow() + rowOffset, cellView.getColumn() + colOffset);
+	}
+
+	/**
+	 * Returns a CellView at the specified row and column index in the viewport.
 	 * 
 	 * @param row The row index.
 	 * @param col The column index.
@@ -437,14 +712,7 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	 */
 	private CellView getCellViewByPosition(int row, int col)
 	{
-		for (Node node : grid.getChildren())
-		{
-			CellView cellView = (CellView) node;
-			if (cellView.getRow() == row && cellView.getColumn() == col)
-				return cellView;
-		}
-
-		return null;
+		return cellViews[row * viewCols + col];
 	}
 
 	/**
@@ -460,7 +728,13 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	 */
 	private void onMousePressed(CellView cellView, MouseButton button)
 	{
-		Cell cell = model.getCell(cellView.getRow(), cellView.getColumn());
+		if (model.isEndlessMode())
+		{
+			onEndlessMousePressed(cellView, button);
+			return;
+		}
+
+		Cell cell = getCell(cellView);
 
 		if (button == MouseButton.PRIMARY)
 		{
@@ -472,21 +746,37 @@ public class GridController extends Controller implements EventHandler<MouseEven
 		}
 		else if (button == MouseButton.SECONDARY && !isMousePressed)
 		{
-			switch (cell.getState())
+			model.mark(cell);
+		}
+	}
+
+	/**
+	 * Called when the mouse was pressed in endless mode. Works like {@link #onMousePressed(CellView, MouseButton)}, but
+	 * the pressed state is only shown by the {@link CellView}, it's never stored.
+	 * 
+	 * @param cellView The {@link CellView} which was pressed.
+	 * @param button The mouse button.
+	 */
+	private void onEndlessMousePressed(CellView cellView, MouseButton button)
+	{
+		int row = cellView.getRow() + rowOffset;
+		int col = cellView.getColumn() + colOffset;
+
+		if (model.isGameOver())
+			return;
+
+		if (button == MouseButton.PRIMARY)
+		{
+			if (model.getEndlessBoard().getState(row, col) == Cell.STATE_HIDDEN)
 			{
-			case Cell.STATE_HIDDEN:
-				cell.setState(Cell.STATE_FLAGGED);
-				model.remainingMinesProperty().set(model.remainingMinesProperty().get() - 1);
-				break;
-			case Cell.STATE_FLAGGED:
-				cell.setState(Cell.STATE_QUESTION);
-				model.remainingMinesProperty().set(model.remainingMinesProperty().get() + 1);
-				break;
-			case Cell.STATE_QUESTION:
-				cell.setState(Cell.STATE_HIDDEN);
-				break;
+				cellView.setImage(getCellImage(Cell.STATE_PRESSED, CellValues.CELL_EMPTY));
 			}
 		}
+		else if (button == MouseButton.SECONDARY && !isMousePressed)
+		{
+			model.markEndless(row, col);
+			cellView.setImage(getEndlessCellImage(row, col));
+		}
 	}
 
 	/**
@@ -496,7 +786,13 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	 */
 	private void onMouseExit(CellView cellView)
 	{
-		Cell cell = model.getCell(cellView.getRow(), cellView.getColumn());
+		if (model.isEndlessMode())
+		{
+			cellView.setImage(getEndlessCellImage(cellView.getRow() + rowOffset, cellView.getColumn() + colOffset));
+			return;
+		}
+
+		Cell cell = getCell(cellView);
 
 		if (cell.getState() == Cell.STATE_PRESSED)
 		{
@@ -516,7 +812,17 @@ public class GridController extends Controller implements EventHandler<MouseEven
 	 */
 	private void onMouseReleased(CellView cellView, MouseButton button)
 	{
-		Cell cell = model.getCell(cellView.getRow(), cellView.getColumn());
+		if (model.isEndlessMode())
+		{
+			if (button == MouseButton.PRIMARY)
+			{
+				model.openEndless(cellView.getRow() + rowOffset, cellView.getColumn() + colOffset);
+				refreshViewport();
+			}
+			return;
+		}
+
+		Cell cell = getCell(cellView);
 
 		if (button == MouseButton.PRIMARY)
 		{
@@ -1,7 +1,10 @@
 package minesweeper.controller;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.util.Random;
 import java.util.ResourceBundle;
 
 import org.slf4j.Logger;
@@ -13,15 +16,21 @@ import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import minesweeper.engine.Difficulty;
+import minesweeper.model.MinesweeperModel;
+import minesweeper.replay.ReplayPlayer;
+import minesweeper.replay.ReplayReader;
 
 /**
- * Controller class of the game menu. The menu is used for starting a new game on various difficulties, and for checking
- * the scores.
+ * Controller class of the game menu. The menu is used for starting a new game on various difficulties, for watching
+ * replays, and for checking the scores.
  * 
  * @author Eperjesi Ádám
  *
@@ -43,6 +52,18 @@ public class MenuController extends Controller
 	@FXML
 	private MenuItem newGameCustom;
 	@FXML
+	private MenuItem newGameEndless;
+	@FXML
+	private MenuItem undo;
+	@FXML
+	private MenuItem redo;
+	@FXML
+	private MenuItem openReplay;
+	@FXML
+	private CheckMenuItem noGuessMode;
+	@FXML
+	private CheckMenuItem heatmap;
+	@FXML
 	private MenuItem highscores;
 	@FXML
 	private MenuItem credits;
@@ -63,8 +84,9 @@ public class MenuController extends Controller
 			@Override
 			public void handle(ActionEvent event)
 			{
-				model.newGame(9, 9, 10);
-				model.setDifficulty("Easy");
+				model.setHugeBoardMode(false);
+				model.newGame(Difficulty.EASY.getRows(), Difficulty.EASY.getCols(), Difficulty.EASY.getMines());
+				model.setDifficulty(Difficulty.EASY.getName());
 			}
 		});
 		newGameMedium.setOnAction(new EventHandler<ActionEvent>()
@@ -72,8 +94,9 @@ public class MenuController extends Controller
 			@Override
 			public void handle(ActionEvent event)
 			{
-				model.newGame(16, 16, 40);
-				model.setDifficulty("Medium");
+				model.setHugeBoardMode(false);
+				model.newGame(Difficulty.MEDIUM.getRows(), Difficulty.MEDIUM.getCols(), Difficulty.MEDIUM.getMines());
+				model.setDifficulty(Difficulty.MEDIUM.getName());
 			}
 		});
 		newGameHard.setOnAction(new EventHandler<ActionEvent>()
@@ -81,14 +104,40 @@ public class MenuController extends Controller
 			@Override
 			public void handle(ActionEvent event)
 			{
-				model.newGame(16, 30, 99);
-				model.setDifficulty("Hard");
+				model.setHugeBoardMode(false);
+				model.newGame(Difficulty.HARD.getRows(), Difficulty.HARD.getCols(), Difficulty.HARD.getMines());
+				model.setDifficulty(Difficulty.HARD.getName());
 			}
 		});
 		newGameCustom.setOnAction(e ->
 		{
 			createCustomGameWindow();
 		});
+		newGameEndless.setOnAction(e ->
+		{
+			model.setHugeBoardMode(false);
+			model.newEndlessGame(new Random().nextLong());
+		});
+		undo.setOnAction(e ->
+		{
+			model.undo();
+		});
+		redo.setOnAction(e ->
+		{
+			model.redo();
+		});
+		openReplay.setOnAction(e ->
+		{
+			openReplay();
+		});
+		noGuessMode.setOnAction(e ->
+		{
+			model.setNoGuessMode(noGuessMode.isSelected());
+		});
+		heatmap.setOnAction(e ->
+		{
+			model.setHeatmap(heatmap.isSelected());
+		});
 		highscores.setOnAction(e ->
 		{
 			createHighscoreWindow();
@@ -99,6 +148,15 @@ public class MenuController extends Controller
 		});
 	}
 
+	@Override
+	public void setModel(MinesweeperModel model)
+	{
+		super.setModel(model);
+
+		undo.disableProperty().bind(model.undoAvailableProperty().not());
+		redo.disableProperty().bind(model.redoAvailableProperty().not());
+	}
+
 	/**
 	 * Creates a new custom game creator windows.
 	 */
@@ -133,6 +191,70 @@ public class MenuController extends Controller
 		}
 	}
 
+	/**
+	 * Lets the user pick a recorded game, then loads it into the model and opens the replay window.
+	 */
+	private void openReplay()
+	{
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Open Replay");
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Replays", "*.replay"));
+		File directory = model.getReplayDirectory();
+		if (directory != null && directory.isDirectory())
+			chooser.setInitialDirectory(directory);
+
+		File file = chooser.showOpenDialog(menuBar.getScene().getWindow());
+		if (file == null)
+			return;
+
+		try (ReplayReader reader = new ReplayReader(FileChannel.open(file.toPath())))
+		{
+			model.loadReplay(new ReplayPlayer(reader));
+			createReplayWindow();
+		}
+		catch (IOException | IllegalArgumentException e)
+		{
+			logger.error("Couldn't open replay " + file, e);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Creates a new replay window, which plays back the replay loaded into the model. The window is not modal, so the
+	 * grid can be scrolled while the replay is played.
+	 */
+	private void createReplayWindow()
+	{
+		try
+		{
+			FXMLLoader customLoader = new FXMLLoader(getClass().getResource("/FXML/ReplayWindow.fxml"));
+
+			Stage window = new Stage();
+			Stage mainStage = (Stage) menuBar.getScene().getWindow();
+			window.initOwner(mainStage);
+			window.setResizable(false);
+			window.setTitle("Replay");
+
+			VBox root = customLoader.load();
+			Scene scene = new Scene(root);
+			window.setScene(scene);
+
+			ReplayWindowController replayWindowController = customLoader.getController();
+			replayWindowController.setModel(model);
+			replayWindowController.setStage(window);
+			window.setOnHidden(e -> replayWindowController.close());
+
+			window.show();
+
+			logger.debug("Replay window created.");
+		}
+		catch (IOException e)
+		{
+			logger.error(e.getMessage(), e);
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Creates a new highscore window.
 	 */
@@ -0,0 +1,179 @@
+package minesweeper.controller;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.value.ChangeListener;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+import minesweeper.model.MinesweeperModel;
+import minesweeper.replay.ReplayPlayer;
+
+/**
+ * The controller of the replay window, which plays back the replay loaded into the model.
+ * <p>
+ * The replay is played in real time, or up to {@link #MAX_SPEED} times faster. On every frame, the time of the replay
+ * is advanced, and the board is {@link MinesweeperModel#seekReplay(int) moved} to the last move before that time, so
+ * the grid is updated at most once per frame, however fast the replay is played. The slider jumps to any move.
+ * </p>
+ * <p>
+ * Closing the window ends the replay, and starts a new game. When a new game is started from the menu instead, the
+ * window is closed.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class ReplayWindowController extends Controller
+{
+	private static Logger logger = LoggerFactory.getLogger(ReplayWindowController.class);
+
+	/**
+	 * The number of milliseconds between two frames of the playback.
+	 */
+	public final static int FRAME_MILLIS = 16;
+	/**
+	 * The maximum speed of the playback.
+	 */
+	public final static int MAX_SPEED = 64;
+
+	@FXML
+	private Slider positionSlider;
+	@FXML
+	private Button playButton;
+	@FXML
+	private ChoiceBox<Integer> speedChoice;
+	@FXML
+	private Label positionLabel;
+
+	private ReplayPlayer player;
+	private Timeline timeline;
+	private double playTime;
+	private boolean seeking;
+	private ChangeListener<Boolean> replayModeListener = (observable, oldValue, newValue) ->
+	{
+		if (!newValue)
+			getStage().hide();
+	};
+
+	@Override
+	public void initialize(URL location, ResourceBundle resources)
+	{
+		for (int speed = 1; speed <= MAX_SPEED; speed *= 2)
+		{
+			speedChoice.getItems().add(speed);
+		}
+		speedChoice.setConverter(new StringConverter<Integer>()
+		{
+			@Override
+			public String toString(Integer speed)
+			{
+				return speed + "x";
+			}
+
+			@Override
+			public Integer fromString(String text)
+			{
+				return Integer.valueOf(text.substring(0, text.length() - 1));
+			}
+		});
+		speedChoice.setValue(1);
+
+		timeline = new Timeline(new KeyFrame(Duration.millis(FRAME_MILLIS), e ->
+		{
+			playTime += FRAME_MILLIS * speedChoice.getValue();
+			seek(player.positionAt((long) playTime));
+
+			if (player.getPosition() == player.getMoveCount())
+				pause();
+		}));
+		timeline.setCycleCount(Animation.INDEFINITE);
+
+		playButton.setOnAction(e ->
+		{
+			if (timeline.getStatus() == Animation.Status.RUNNING)
+			{
+				pause();
+			}
+			else
+			{
+				if (player.getPosition() == player.getMoveCount())
+				{
+					seek(0);
+				}
+				playTime = player.getTime(player.getPosition());
+				timeline.play();
+				playButton.setText("Pause");
+			}
+		});
+
+		positionSlider.valueProperty().addListener((observable, oldValue, newValue) ->
+		{
+			if (!seeking)
+			{
+				seek(newValue.intValue());
+				playTime = player.getTime(player.getPosition());
+			}
+		});
+	}
+
+	@Override
+	public void setModel(MinesweeperModel model)
+	{
+		super.setModel(model);
+
+		player = model.getReplayPlayer();
+		positionSlider.setMax(player.getMoveCount());
+		seek(player.getPosition());
+		model.replayModeProperty().addListener(replayModeListener);
+	}
+
+	/**
+	 * Stops the playback, ends the replay and starts a new game.
+	 */
+	public void close()
+	{
+		timeline.stop();
+		model.replayModeProperty().removeListener(replayModeListener);
+		if (model.isReplayMode())
+			model.newGame();
+
+		logger.debug("Replay window closed");
+	}
+
+	/**
+	 * Pauses the playback.
+	 */
+	private void pause()
+	{
+		timeline.pause();
+		playButton.setText("Play");
+	}
+
+	/**
+	 * Shows the board after the given number of moves, and updates the slider and the label.
+	 *
+	 * @param position The number of moves.
+	 */
+	private void seek(int position)
+	{
+		if (position != player.getPosition())
+			model.seekReplay(position);
+
+		seeking = true;
+		positionSlider.setValue(position);
+		seeking = false;
+		positionLabel.setText("Move " + position + " / " + player.getMoveCount());
+	}
+}
@@ -3,6 +3,7 @@ package minesweeper.main;
 import minesweeper.model.MinesweeperModel;
 import minesweeper.view.MainView;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 
@@ -35,6 +36,9 @@ public class Main extends Application
 		try
 		{
 			model = new MinesweeperModel(16, 30, 99);
+			model.setReplayDirectory(new File(System.getProperty("user.home"), ".minesweeper" + File.separator + "replays"));
+			model.setSaveGameFile(new File(System.getProperty("user.home"), ".minesweeper" + File.separator + "save.game"));
+			resumeGame(model);
 			view = new MainView(stage, model);
 			
 			stage.getProperties().put("hostservices", getHostServices());
@@ -43,6 +47,7 @@ public class Main extends Application
 		{
 			logger.error(e.getMessage(), e);
 			Platform.exit();
+			return;
 		}
 
 		stage.setOnCloseRequest(new EventHandler<WindowEvent>()
@@ -50,11 +55,32 @@ public class Main extends Application
 			@Override
 			public void handle(WindowEvent event)
 			{
+				model.closeReplay();
+				model.autosave().join();
 				Platform.exit();
 			}
 		});
 	}
 
+	/**
+	 * Resumes the game left unfinished by the last run, if there is one. A save file that can't be resumed is deleted,
+	 * so it doesn't fail every start.
+	 * 
+	 * @param model The model of the game.
+	 */
+	private void resumeGame(MinesweeperModel model)
+	{
+		try
+		{
+			model.resumeGame();
+		}
+		catch (IOException | IllegalArgumentException e)
+		{
+			logger.warn("Couldn't resume the saved game", e);
+			model.getSaveGameFile().delete();
+		}
+	}
+
 	public static void main(String[] args)
 	{
 		launch(Main.class);
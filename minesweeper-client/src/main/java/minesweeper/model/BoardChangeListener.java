@@ -0,0 +1,36 @@
+package minesweeper.model;
+
+/**
+ * Listens to the changes of the cells of a {@link MinesweeperModel}.
+ * <p>
+ * Every change made by a single action, like opening a cell or losing the game, is collected into one batch (see
+ * {@link MinesweeperModel#batch(Runnable)}), and the listener is notified once, after the whole action is done.
+ * </p>
+ * <p>
+ * The end of a game on a huge board can change millions of cells, so they are not collected one by one, the listener
+ * is notified by {@link #boardRevealed()} instead.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@FunctionalInterface
+public interface BoardChangeListener
+{
+	/**
+	 * Called after a batch of changes.
+	 *
+	 * @param changedCells The board indices of the changed cells, in ascending order, each only once. It's never empty,
+	 *            and it's shared by every listener, so it must not be modified.
+	 */
+	public void boardChanged(int[] changedCells);
+
+	/**
+	 * Called after a batch, instead of {@link #boardChanged(int[])}, when any cell of the board may have changed, and
+	 * the changed cells were not collected, like when a huge board is revealed at the end of the game. The listener
+	 * must read the cells it shows again. Does nothing by default.
+	 */
+	public default void boardRevealed()
+	{
+	}
+}
@@ -2,13 +2,19 @@ package minesweeper.model;
 
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import minesweeper.util.CellValues;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
 
 /**
  * The model representing the data of a cell in the game grid.
  * <p>
  * The fields in this class are exclusively {@link IntegerProperty IntegerProperties} and should be used with listeners.
  * </p>
+ * <p>
+ * The cells of a game are only observable views of the {@link Board} stored in the
+ * {@link minesweeper.model.MinesweeperModel MinesweeperModel}, and are created only when they are requested. Changing a
+ * cell requested from the model also changes the board.
+ * </p>
  * 
  * @author Eperjesi Ádám
  *
@@ -19,23 +25,24 @@ public class Cell
 	 * State representing the cell is HIDDEN, so it's not clicked or pressed in any way. This is the default state of
 	 * all cells when the game is created.
 	 */
-	public final static int STATE_HIDDEN = 1;
+	public final static int STATE_HIDDEN = Board.STATE_HIDDEN;
 	/**
 	 * State representing the cell is FLAGGED, so it was marked by the player as a mine.
 	 */
-	public final static int STATE_FLAGGED = 2;
+	public final static int STATE_FLAGGED = Board.STATE_FLAGGED;
 	/**
 	 * State representing the cell is QUESTIONED, so it was marked by the player as a a questionable mine.
 	 */
-	public final static int STATE_QUESTION = 3;
+	public final static int STATE_QUESTION = Board.STATE_QUESTION;
 	/**
 	 * State representing the cell is CLICKED, so it was clicked by the player, or automatically opened, and it's value
 	 * is now visible.
 	 */
-	public final static int STATE_CLICKED = 4;
+	public final static int STATE_CLICKED = Board.STATE_CLICKED;
 	/**
 	 * State representing the cell is PRESSED, so the mouse button is pressed, but it's not released yet, so it's not
-	 * clicked.
+	 * clicked.<br>
+	 * This state is only visual, the {@link Board} keeps a pressed cell {@link Cell#STATE_HIDDEN HIDDEN}.
 	 */
 	public final static int STATE_PRESSED = 5;
 
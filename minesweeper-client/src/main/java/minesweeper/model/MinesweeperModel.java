@@ -1,17 +1,27 @@
 package minesweeper.model;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javafx.beans.Observable;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -21,9 +31,33 @@ import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.image.Image;
-import javafx.util.Callback;
 import minesweeper.controller.Controller;
-import minesweeper.util.CellValues;
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.BoardPregenerator;
+import minesweeper.engine.BoardSnapshot;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.ChunkStore;
+import minesweeper.engine.CompactBoard;
+import minesweeper.engine.Difficulty;
+import minesweeper.engine.EndlessBoard;
+import minesweeper.engine.Game;
+import minesweeper.engine.GameSeed;
+import minesweeper.engine.MineLayout;
+import minesweeper.engine.MinePlacer;
+import minesweeper.engine.NeighbourCounts;
+import minesweeper.engine.NoGuessGenerator;
+import minesweeper.engine.OffHeapBoard;
+import minesweeper.engine.OpeningIndex;
+import minesweeper.engine.Position;
+import minesweeper.engine.Xoroshiro128PlusPlus;
+import minesweeper.replay.ReplayFormat;
+import minesweeper.replay.ReplayPlayer;
+import minesweeper.replay.ReplayWriter;
+import minesweeper.save.SaveFile;
+import minesweeper.solver.FrontierSolver;
+import minesweeper.solver.MineProbabilities;
+import minesweeper.solver.ProbabilityEngine;
 import minesweeper.util.ResourceUtils;
 import minesweeper.util.ScoreSaver;
 
@@ -41,6 +75,45 @@ import minesweeper.util.ScoreSaver;
  * {@link minesweeper.model.MinesweeperModel#initCells(int, int, int) initCells}
  * </p>
  * 
+ * <p>
+ * The rules of the game are played by a {@link Game} of the engine, the same one the bots and the replays use, and
+ * the model follows it: it shows the counters of the game in properties, and changes the cells of the game through
+ * its own journal, views and save file.
+ * </p>
+ * <p>
+ * The game board itself is stored in a {@link Board}, which has constant time access to every cell. The observable
+ * {@link Cell} objects are only views of the board, and are created lazily when they are requested through
+ * {@link #getCell(int, int) getCell} or {@link #getCellList() getCellList}, so the game logic never creates them.
+ * </p>
+ * <p>
+ * Every change of the board made by one action is collected into a {@link #batch(Runnable) batch}, and the
+ * {@link BoardChangeListener}s are notified once per action with the indices of the changed cells, instead of once
+ * for every changed property.
+ * </p>
+ * <p>
+ * Every batch is also recorded as one move in a {@link MoveJournal}, so the moves can be {@link #undo() undone} and
+ * {@link #redo() redone}. Undoing a move turns the game into a practice game, which has no score.
+ * </p>
+ * <p>
+ * When a {@link #setReplayDirectory(File) replay directory} is set, every game is recorded into a replay file there by
+ * a {@link ReplayWriter}, move by move, while it's being played. A recorded game can be
+ * {@link #loadReplay(ReplayPlayer) loaded} and played back on the same board, the moves of the player are not accepted
+ * then.
+ * </p>
+ * <p>
+ * When a {@link #setSaveGameFile(File) save game file} is set, the unfinished game is kept in a memory-mapped
+ * {@link SaveFile} from the first click, every state change is written into it, and {@link #autosave()} flushes it to
+ * the disk in the background. The game can be {@link #resumeGame() resumed} from it after a restart, or a crash.
+ * </p>
+ * <p>
+ * After every move an immutable {@link BoardSnapshot} of the board is published through a volatile field, which other
+ * threads can {@link #getSnapshot() read} without locking, while the game goes on.
+ * </p>
+ * <p>
+ * The mines of the next games of the same size are picked in the background by a {@link BoardPregenerator}, so the
+ * first click only has to put them on the board.
+ * </p>
+ * 
  * @author Eperjesi Ádám
  *
  */
@@ -50,10 +123,47 @@ public class MinesweeperModel implements ScoreSaver
 
 	public static final int MAX_ROWS = 30;
 	public static final int MAX_COLS = 60;
+	public static final int HUGE_MAX_ROWS = 20000;
+	public static final int HUGE_MAX_COLS = 20000;
+	public static final int OFF_HEAP_CELLS = 100_000_000;
+	public static final double ENDLESS_MINE_DENSITY = 0.18;
 
 	private Map<String, Controller> controllers;
 
+	private Board board;
+	private Game game;
+	private FrontierSolver frontierSolver;
+	private ProbabilityEngine probabilityEngine;
+	private MinePlacer minePlacer;
+	private Xoroshiro128PlusPlus mineRandom;
+	private NoGuessGenerator noGuessGenerator;
+	private SplittableRandom seedGenerator;
+	private BoardPregenerator pregenerator;
+	private EndlessBoard endlessBoard;
+	private Map<Integer, Cell> cellViews;
+	private boolean cellViewSyncing;
 	private ObservableList<Cell> observableCellList;
+	private List<BoardChangeListener> boardChangeListeners;
+	private BitSet changedCells;
+	private boolean boardRevealed;
+	private volatile BoardSnapshot snapshot;
+	private int batchDepth;
+	private MoveJournal journal;
+	private long[] moveCells;
+	private int moveCellCount;
+	private int[] moveCounters;
+	private boolean journalReplaying;
+	private boolean practiceGame;
+	private boolean frontierSolverStale;
+	private BooleanProperty undoAvailableProperty;
+	private BooleanProperty redoAvailableProperty;
+	private File replayDirectory;
+	private File replayFile;
+	private ReplayWriter replayWriter;
+	private ReplayPlayer replayPlayer;
+	private BooleanProperty replayModeProperty;
+	private File saveGameFile;
+	private SaveFile saveFile;
 	private IntegerProperty remainingMinesProperty;
 	private IntegerProperty elapsedTimeProperty;
 	private IntegerProperty notClickedCellsProperty;
@@ -61,6 +171,7 @@ public class MinesweeperModel implements ScoreSaver
 	private BooleanProperty newGameStartedProperty;
 	private BooleanProperty gameOverProperty;
 	private StringProperty colorProperty;
+	private BooleanProperty heatmapProperty;
 	
 	private FacebookDataModel facebookDataModel;
 
@@ -68,6 +179,8 @@ public class MinesweeperModel implements ScoreSaver
 	private int rows;
 	private int cols;
 	private String difficulty;
+	private boolean hugeBoardMode;
+	private boolean noGuessMode;
 
 	private Map<String, Image> cellResources;
 	private Map<String, Image> gameBarResources;
@@ -86,18 +199,29 @@ public class MinesweeperModel implements ScoreSaver
 		newGameStartedProperty = new SimpleBooleanProperty(false);
 		gameOverProperty = new SimpleBooleanProperty(false);
 		colorProperty = new SimpleStringProperty("blue");
+		heatmapProperty = new SimpleBooleanProperty(false);
+		undoAvailableProperty = new SimpleBooleanProperty(false);
+		redoAvailableProperty = new SimpleBooleanProperty(false);
+		replayModeProperty = new SimpleBooleanProperty(false);
 		
 		facebookDataModel = new FacebookDataModel();
 
-		observableCellList = FXCollections.observableArrayList(new Callback<Cell, Observable[]>()
-		{
-			@Override
-			public Observable[] call(Cell param)
-			{
-				return new Observable[] { param.getRowProperty(), param.getColumnProperty(), param.getStateProperty(), param.getValueProperty() };
-			}
-		});
-
+		board = new ArrayBoard(0, 0);
+		game = new ModelGame(0, 0);
+		frontierSolver = new FrontierSolver(board);
+		mineRandom = new Xoroshiro128PlusPlus(0);
+		minePlacer = new MinePlacer(mineRandom);
+		noGuessGenerator = new NoGuessGenerator();
+		seedGenerator = new SplittableRandom();
+		pregenerator = new BoardPregenerator(seedGenerator.split());
+		probabilityEngine = new ProbabilityEngine();
+		cellViews = new HashMap<Integer, Cell>();
+		observableCellList = FXCollections.observableArrayList();
+		boardChangeListeners = new ArrayList<BoardChangeListener>();
+		changedCells = new BitSet();
+		snapshot = BoardSnapshot.of(board);
+		journal = new MoveJournal();
+		moveCells = new long[64];
 	}
 
 	/**
@@ -132,6 +256,11 @@ public class MinesweeperModel implements ScoreSaver
 	 * Also checks if the parameters match any built-in difficulty, and sets the difficulty accordingly. If no built-in
 	 * difficulty found, it will be <i>Custom</i>.
 	 * </p>
+	 * <p>
+	 * In {@link #setHugeBoardMode(boolean) huge board mode}, the maximum size is {@link #HUGE_MAX_ROWS} and
+	 * {@link #HUGE_MAX_COLS} instead of {@link #MAX_ROWS} and {@link #MAX_COLS}, and the board is stored in a
+	 * {@link CompactBoard}, or in an {@link OffHeapBoard} if it has more than {@link #OFF_HEAP_CELLS} cells.
+	 * </p>
 	 * 
 	 * @param rows The number of rows.
 	 * @param cols The number of columns.
@@ -141,17 +270,20 @@ public class MinesweeperModel implements ScoreSaver
 	 */
 	public void initCells(int rows, int cols, int totalMines)
 	{
+		int maxRows = hugeBoardMode ? HUGE_MAX_ROWS : MAX_ROWS;
+		int maxCols = hugeBoardMode ? HUGE_MAX_COLS : MAX_COLS;
+
 		// Minimum row count is 2, maximum is MAX_ROWS
 		if (rows < 2)
 			rows = 2;
-		else if (rows > MAX_ROWS)
-			rows = MAX_ROWS;
+		else if (rows > maxRows)
+			rows = maxRows;
 
 		// Minimum col count is 2, maximum is MAX_COLS
 		if (cols < 2)
 			cols = 2;
-		else if (cols > MAX_COLS)
-			cols = MAX_COLS;
+		else if (cols > maxCols)
+			cols = maxCols;
 
 		// Minimum mine count is 1, maximum is MAX_ROWS*MAX_COLS-1
 		if (totalMines < 1)
@@ -162,24 +294,24 @@ public class MinesweeperModel implements ScoreSaver
 		remainingMinesProperty.set(totalMines);
 		notClickedCellsProperty.set(rows * cols);
 
+		closeEndlessBoard();
+		closeReplay();
+		deleteSave();
+		replayPlayer = null;
+		replayModeProperty.set(false);
+		// The no guessing mode replaces the seed on the first click, so it's not worth pregenerating its mines.
+		long seed = noGuessMode && !hugeBoardMode ? seedGenerator.nextLong() : pregenerator.nextSeed(rows, cols, totalMines);
+		board = createBoard(rows, cols);
+		game = new ModelGame(totalMines, seed);
+		frontierSolver = new FrontierSolver(board);
+		frontierSolverStale = false;
+		cellViews.clear();
 		observableCellList.clear();
-		for (int i = 0; i < rows; i++)
-		{
-			for (int j = 0; j < cols; j++)
-			{
-				Cell cell = new Cell(i, j);
-				observableCellList.add(cell);
-			}
-		}
+		changedCells.clear();
+		publishSnapshot();
+		clearJournal();
 
-		if (rows == 9 && cols == 9 && totalMines == 10)
-			setDifficulty("Easy");
-		else if (rows == 16 && cols == 16 && totalMines == 40)
-			setDifficulty("Medium");
-		else if (rows == 16 && cols == 30 && totalMines == 99)
-			setDifficulty("Hard");
-		else
-			setDifficulty("Custom");
+		setDifficulty(Difficulty.nameOf(rows, cols, totalMines));
 
 		this.rows = rows;
 		this.cols = cols;
@@ -197,6 +329,12 @@ public class MinesweeperModel implements ScoreSaver
 	 */
 	public void newGame()
 	{
+		if (isEndlessMode())
+		{
+			newEndlessGame(new Random().nextLong());
+			return;
+		}
+
 		initCells(rows, cols, totalMines);
 
 		firstClickOccurredProperty.set(false);
@@ -230,14 +368,151 @@ public class MinesweeperModel implements ScoreSaver
 		logger.info("New game set up successfully! Rows: {}, Columns: {}, Mines: {}", rows, cols, totalMines);
 	}
 
+	/**
+	 * Starts the game described by the given {@link GameSeed}, and makes its first click. The board will be exactly the
+	 * same as the one the game seed was created from.
+	 * <p>
+	 * Huge board mode is turned on if the board doesn't fit the normal maximum size.
+	 * </p>
+	 * 
+	 * @param gameSeed The game seed, usually {@link GameSeed#decode(String) decoded} from a shared code.
+	 * 
+	 * @throws IllegalArgumentException when the board of the game seed can't be played, because it's too large or too
+	 *             small.
+	 */
+	public void newGame(GameSeed gameSeed)
+	{
+		setHugeBoardMode(gameSeed.getRows() > MAX_ROWS || gameSeed.getCols() > MAX_COLS);
+		newGame(gameSeed.getRows(), gameSeed.getCols(), gameSeed.getMines());
+
+		if (getRows() != gameSeed.getRows() || getCols() != gameSeed.getCols() || getTotalMineCount() != gameSeed.getMines())
+			throw new IllegalArgumentException("The game can't be played on this board: " + gameSeed);
+
+		setSeed(gameSeed.getSeed());
+		open(getCell(gameSeed.getFirstClickRow(), gameSeed.getFirstClickCol()));
+	}
+
+	/**
+	 * Starts a new endless game, where the board has no borders, and the mines are generated from the given seed as
+	 * the player explores. See {@link EndlessBoard} for the details.
+	 * <p>
+	 * The chunks of the board that are evicted from memory are stored in a new temporary directory, which is deleted
+	 * when the next game is started. Endless games have no mine counter and no score.
+	 * </p>
+	 * 
+	 * @param seed The seed of the mines.
+	 * 
+	 * @throws UncheckedIOException when the temporary directory can't be created.
+	 */
+	public void newEndlessGame(long seed)
+	{
+		closeEndlessBoard();
+		closeReplay();
+		deleteSave();
+		replayPlayer = null;
+		replayModeProperty.set(false);
+
+		try
+		{
+			File directory = Files.createTempDirectory("minesweeper-endless").toFile();
+			endlessBoard = new EndlessBoard(seed, ENDLESS_MINE_DENSITY, new ChunkStore(directory));
+		}
+		catch (IOException e)
+		{
+			logger.error("Couldn't create the chunk directory of the endless game", e);
+			throw new UncheckedIOException(e);
+		}
+
+		setDifficulty("Endless");
+		remainingMinesProperty.set(0);
+		snapshot = null;
+		clearJournal();
+
+		newGameStartedProperty.set(false);
+		firstClickOccurredProperty.set(false);
+		elapsedTimeProperty.set(0);
+		newGameStartedProperty.set(true);
+		gameOverProperty.set(false);
+
+		logger.info("New endless game set up successfully! Seed: {}", seed);
+	}
+
+	/**
+	 * Opens a cell of the endless board. Opening a mine ends the game.
+	 * 
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 * 
+	 * @see EndlessBoard#open(int, int)
+	 */
+	public void openEndless(int row, int col)
+	{
+		if (isGameOver() || endlessBoard.getState(row, col) != Board.STATE_HIDDEN)
+			return;
+
+		setFirstClickOccurred(true);
+
+		if (endlessBoard.isMine(row, col))
+		{
+			endlessBoard.setState(row, col, Board.STATE_CLICKED);
+			gameOverProperty.set(true);
+			logger.info("Endless game lost after opening {} cells", endlessBoard.getOpenedCells());
+			return;
+		}
+
+		endlessBoard.open(row, col);
+	}
+
+	/**
+	 * Cycles the mark of a hidden cell of the endless board, just like the right click on a normal board: hidden,
+	 * flagged, questioned, then hidden again.
+	 * 
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 */
+	public void markEndless(int row, int col)
+	{
+		if (isGameOver())
+			return;
+
+		switch (endlessBoard.getState(row, col))
+		{
+		case Board.STATE_HIDDEN:
+			endlessBoard.setState(row, col, Board.STATE_FLAGGED);
+			break;
+		case Board.STATE_FLAGGED:
+			endlessBoard.setState(row, col, Board.STATE_QUESTION);
+			break;
+		case Board.STATE_QUESTION:
+			endlessBoard.setState(row, col, Board.STATE_HIDDEN);
+			break;
+		}
+	}
+
+	/**
+	 * Drops the endless board, if there is one, and deletes its stored chunks.
+	 */
+	private void closeEndlessBoard()
+	{
+		if (endlessBoard != null)
+		{
+			endlessBoard.getStore().delete();
+			endlessBoard = null;
+		}
+	}
+
 	/**
 	 * This method sets the mines in the game grid after the first click occurred, while ensuring that the first click
 	 * is <b>NOT</b> a mine.<br>
 	 * Also sets the values of cells around mines.
 	 *
 	 * <p>
-	 * This is called from {@link MinesweeperModel#open open()} when the user makes the first click and should not be
-	 * called from anywhere else.
+	 * This is called by the {@link Game} when the user makes the first click and should not be called from anywhere
+	 * else.
+	 * </p>
+	 * <p>
+	 * In {@link #setNoGuessMode(boolean) no guessing mode}, the seed of the game is first replaced by the seed of a
+	 * board which can be cleared without guessing from the clicked cell.
 	 * </p>
 	 *
 	 * @param row The row index of the clicked cell.
@@ -253,16 +528,30 @@ public class MinesweeperModel implements ScoreSaver
 		if (col < 0 || col > getCols() - 1)
 			throw new IllegalArgumentException("Column is out of bounds");
 
+		if (noGuessMode && !hugeBoardMode)
+		{
+			GameSeed noGuessSeed = noGuessGenerator.generate(getRows(), getCols(), totalMines, game.getSeed(), row, col);
+			if (noGuessSeed != null)
+				game.setSeed(noGuessSeed.getSeed());
+			else
+				logger.warn("No board without guessing was found, using a random one.");
+		}
+
+		GameSeed gameSeed = new GameSeed(getRows(), getCols(), totalMines, game.getSeed(), row, col);
 		setMines(row, col);
 		setNeighbours();
+		game.start(gameSeed);
+		indexOpenings();
+		publishSnapshot();
+		startReplay();
+		startSave();
 
-		logger.debug("First click at: ({},{})", row, col);
+		logger.debug("First click at: ({},{}), game code: {}", row, col, gameSeed.encode());
 	}
 
 	/**
 	 * Set the game in a "win state", where no more interactions are allowed on the game grid until a new game is
-	 * started.<br>
-	 * Technically, it makes the value of all mine cells to {@link CellValues#CELL_GOOD CELL_GOOD}.
+	 * started. The {@link Game} has already shown every mine as {@link CellValues#CELL_GOOD CELL_GOOD}.
 	 * <p>
 	 * Also saves the score locally, and if the server is available, then online too.
 	 * </p>
@@ -270,15 +559,15 @@ public class MinesweeperModel implements ScoreSaver
 	private void win()
 	{
 		gameOverProperty.set(true);
-		remainingMinesProperty.set(0);
+		deleteSave();
+
+		if (hugeBoardMode)
+			showHugeBoard();
 
-		for (Cell c : observableCellList)
+		if (practiceGame)
 		{
-			if (c.getValue() == CellValues.CELL_MINE)
-			{
-				c.setState(Cell.STATE_CLICKED);
-				c.setValue(CellValues.CELL_GOOD);
-			}
+			logger.info("You won a practice game!");
+			return;
 		}
 
 		try
@@ -293,7 +582,8 @@ public class MinesweeperModel implements ScoreSaver
 
 		try
 		{
-			saveOnlineScore(getDifficulty(), getElapsedTime(), getTotalMineCount(), getTotalMineCount(), LocalDateTime.now());
+			saveOnlineScore(getDifficulty(), getElapsedTime(), getTotalMineCount(), getTotalMineCount(), LocalDateTime.now(),
+					game.getGameSeed() != null ? game.getGameSeed().encode() : null);
 		}
 		catch (IOException e)
 		{
@@ -306,38 +596,29 @@ public class MinesweeperModel implements ScoreSaver
 
 	/**
 	 * Sets the game in a "lose state", where no more interactions are allowed on the game grid until a new game is
-	 * started.<br>
-	 * This means the method reveals all mines, also setting the wrongly marked mines to
+	 * started. The {@link Game} has already revealed every cell, and set the wrongly marked mines to
 	 * {@link CellValues#CELL_WRONG_MINE CELL_WRONG_MINE}.
+	 * <p>
+	 * Also saves the score locally, which is the number of correctly flagged mines.
+	 * </p>
 	 */
 	private void lose()
 	{
 		gameOverProperty.set(true);
+		deleteSave();
 
-		int found = 0;
-		for (Cell c : observableCellList)
-		{
-			if (c.getState() == Cell.STATE_FLAGGED)
-			{
-				if (c.getValue() != CellValues.CELL_MINE)
-				{
-					c.setState(Cell.STATE_CLICKED);
-					c.setValue(CellValues.CELL_WRONG_MINE);
-					continue;
-				}
-				else
-				{
-					found++;
-				}
-			}
+		if (hugeBoardMode)
+			showHugeBoard();
 
-			c.setState(Cell.STATE_CLICKED);
-			c.setValue(c.getValue());
+		if (practiceGame)
+		{
+			logger.info("You lost a practice game!");
+			return;
 		}
 
 		try
 		{
-			saveLocalScore("Local", getDifficulty(), getElapsedTime(), found, getTotalMineCount(), LocalDateTime.now());
+			saveLocalScore("Local", getDifficulty(), getElapsedTime(), game.getFoundMines(), getTotalMineCount(), LocalDateTime.now());
 		}
 		catch (IOException e)
 		{
@@ -348,11 +629,39 @@ public class MinesweeperModel implements ScoreSaver
 		logger.info("You lost!");
 	}
 
+	/**
+	 * Shows the end of the game on a huge board. The {@link ModelGame} writes the cells shown at the end directly into
+	 * the board, without recording them, because losing opens every cell of the board. Only the existing views of the
+	 * cells are updated, and the listeners are notified by a single {@link BoardChangeListener#boardRevealed()
+	 * boardRevealed} call at the end of the batch.
+	 * <p>
+	 * The {@link NeighbourCounts} are not updated either, they would take a byte for every cell of the board, and they
+	 * are not read again, the next game counts its own.
+	 * </p>
+	 */
+	private void showHugeBoard()
+	{
+		cellViewSyncing = true;
+		for (Map.Entry<Integer, Cell> entry : cellViews.entrySet())
+		{
+			entry.getValue().setValue(board.getValue(entry.getKey()));
+			entry.getValue().setState(board.getState(entry.getKey()));
+		}
+		cellViewSyncing = false;
+
+		boardRevealed = true;
+		if (batchDepth == 0)
+			fireBoardChanged();
+	}
+
 	/**
 	 * Sets the mines in the game grid.
 	 * <p>
 	 * The method is called when the first click is made, so the two parameters are the coordinates of the clicked cell.
-	 * The randomizer logic will never make the given cell a mine.
+	 * The randomizer logic will never make the given cell a mine. The mines are placed by a {@link MinePlacer}, in time
+	 * proportional to the number of mines, with random numbers generated from the {@link #getSeed() seed} of the game,
+	 * just like {@link GameSeed#generate(Board)} does. If the {@link MineLayout} of the seed was already generated in
+	 * the background by a {@link BoardPregenerator}, it's applied instead, without drawing any random numbers.
 	 * </p>
 	 * <p>
 	 * You must set <i>{@link MinesweeperModel#rows rows}</i>, <i>{@link MinesweeperModel#cols cols}</i> and
@@ -367,35 +676,20 @@ public class MinesweeperModel implements ScoreSaver
 	 */
 	private void setMines(int prohibitedRow, int prohibitedCol)
 	{
-		ArrayList<Integer> randoms = new ArrayList<>();
-
-		/*
-		 * We fill a list with sequential numbers, skipping only the number calculated by the given parameters, which
-		 * represents the first clicked cell's coordinates (so it can't be a mine). Then we shuffle the list to get the
-		 * numbers in a random order. The mine positions are the first X elements in the list, defined by the totalMines
-		 * property. Doing this ensures that no randomized positions are the same, so we don't have to check it.
-		 */
-		for (int i = 0; i < rows; i++)
-		{
-			for (int j = 0; j < cols; j++)
-			{
-				if (i == prohibitedRow && j == prohibitedCol)
-				{
-					continue;
-				}
-				randoms.add(new Integer(i * cols + j));
-			}
-		}
-		Collections.shuffle(randoms);
+		// The placer writes the board directly, the values of the cell views are synced by setNeighbours.
+		int excludedIndex = board.indexOf(prohibitedRow, prohibitedCol);
 
-		for (int i = 0; i < totalMines; i++)
+		// The mines of this seed may already be picked in the background, they give the same board.
+		MineLayout layout = pregenerator.take(game.getSeed());
+		if (layout != null)
 		{
-			int random = randoms.get(i);
-			Position pos = new Position(random / cols, random % cols);
-
-			getCell(pos).setValue(CellValues.CELL_MINE);
+			layout.apply(board, excludedIndex);
+			return;
 		}
 
+		// The generator is reseeded, not replaced, so placing the mines allocates nothing.
+		mineRandom.setSeed(game.getSeed());
+		minePlacer.place(board, totalMines, excludedIndex);
 	}
 
 	/**
@@ -409,45 +703,110 @@ public class MinesweeperModel implements ScoreSaver
 	 */
 	private void setNeighbours()
 	{
-		observableCellList.stream().filter(c -> c.getValue() == CellValues.CELL_MINE).forEach(c ->
+		board.countNeighbours();
+
+		cellViewSyncing = true;
+		for (Map.Entry<Integer, Cell> entry : cellViews.entrySet())
 		{
-			int row = c.getRow();
-			int col = c.getColumn();
+			entry.getValue().setValue(board.getValue(entry.getKey()));
+		}
+		cellViewSyncing = false;
+	}
 
-			int rowBegin = (row - 1 < 0) ? row : row - 1;
-			int rowEnd = (row + 1 >= this.rows) ? this.rows - 1 : row + 1;
-			int colBegin = (col - 1 < 0) ? col : col - 1;
-			int colEnd = (col + 1 >= this.cols) ? this.cols - 1 : col + 1;
+	/**
+	 * Creates the board of a new game. In huge board mode, boards with more than {@link #OFF_HEAP_CELLS} cells are
+	 * stored off the heap, and the previous off-heap board is reused if it has the same size, because its file is only
+	 * released when it's garbage collected.
+	 * 
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @return The new, empty board.
+	 */
+	private Board createBoard(int rows, int cols)
+	{
+		if (!hugeBoardMode)
+			return new ArrayBoard(rows, cols);
+		if (rows * cols <= OFF_HEAP_CELLS)
+			return new CompactBoard(rows, cols);
 
-			for (int i = rowBegin; i <= rowEnd; i++)
-			{
-				for (int j = colBegin; j <= colEnd; j++)
-				{
-					if (!(i == row && j == col))
-					{
-						Cell cell = getCell(i, j);
-						if (cell.getValue() != CellValues.CELL_MINE)
-						{
-							cell.setValue(cell.getValue() + 1);
-						}
-					}
-				}
-			}
-		});
+		if (board instanceof OffHeapBoard && board.getRows() == rows && board.getCols() == cols)
+		{
+			((OffHeapBoard) board).clear();
+			return board;
+		}
+
+		try
+		{
+			return new OffHeapBoard(rows, cols);
+		}
+		catch (IOException e)
+		{
+			logger.error("Couldn't create the off-heap board", e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Finds the openings of the board, once the values are counted, see {@link Game#indexOpenings()}. Huge boards are
+	 * not indexed, the index would take as much memory as the board itself many times over.
+	 * 
+	 * @see OpeningIndex
+	 */
+	private void indexOpenings()
+	{
+		if (!hugeBoardMode)
+			game.indexOpenings();
+	}
+
+	/**
+	 * Returns the 3BV of the current game: the minimum number of clicks needed to clear the board. It's saved with the
+	 * scores, so the efficiency of a game can be compared to others.
+	 * 
+	 * @return The 3BV, or 0 before the first click, and in huge board and endless mode.
+	 * 
+	 * @see OpeningIndex#get3BV()
+	 */
+	@Override
+	public int get3BV()
+	{
+		return isEndlessMode() ? 0 : game.get3BV();
 	}
 
 	/**
-	 * This method is called when the player double click on an already opened cell. It calls
-	 * {@link MinesweeperModel#openEmpty(Cell) openEmpty()} on that cell, so it behaves just like when an empty cell is
-	 * opened.
+	 * This method is called when the player double click on an already opened cell. If the cell is a number, and it has
+	 * exactly as many flagged neighbours as its value, it opens every hidden cell around that cell, so it behaves just
+	 * like when an empty cell is opened. Otherwise nothing happens.
+	 * <p>
+	 * If any of the opened cells is a mine, because a wrong cell was flagged, the player loses.
+	 * </p>
+	 * <p>
+	 * The flagged and hidden neighbours of every cell are counted by the {@link NeighbourCounts} of the board, so the
+	 * check takes constant time, and only the neighbours of a cell that can be chorded are read.
+	 * </p>
 	 * 
 	 * @param cell The cell that was double clicked.
 	 * 
-	 * @see MinesweeperModel#openEmpty(Cell) openEmpty
+	 * @see Game#chord(int)
 	 */
 	public void doubleClickOpen(Cell cell)
 	{
-		openEmpty(cell);
+		if (isReplayMode())
+			return;
+
+		int center = board.indexOf(cell.getRow(), cell.getColumn());
+		batch(() -> doubleClickOpen(center));
+		recordReplay(ReplayFormat.ACTION_CHORD, center);
+	}
+
+	/**
+	 * Opens every hidden cell around the cell at the given board index. See {@link #doubleClickOpen(Cell)} for details.
+	 * 
+	 * @param center The index of the double clicked cell.
+	 */
+	private void doubleClickOpen(int center)
+	{
+		if (game.chord(center))
+			followGame();
 	}
 
 	/**
@@ -455,81 +814,85 @@ public class MinesweeperModel implements ScoreSaver
 	 * <p>
 	 * The function checks the following conditions on every click, and executes the right methods if any is met.
 	 * <ul>
+	 * <li>If this is the first clicked cell, it generates the mines.</li>
 	 * <li>If the cell is a mine, all mines are revealed, and the player loses.</li>
+	 * <li>If the cell is empty, it opens every cell around it, and if those are empty it does the same, until the whole
+	 * empty region and its border is open.</li>
 	 * <li>If the remaining clickable cells are equal to the total mine count, it means the player has won, and the game
 	 * state will change accordingly.</li>
-	 * <li>If this is the first clicked cell, it generates the mines.</li>
-	 * <li>If the cell is empty, it opens every cell around it, and if those are empty it does the same recursively.
-	 * </li>
 	 * </ul>
 	 * 
 	 * @param cell The cell to open.
 	 */
 	public void open(Cell cell)
 	{
-		setNotClickedCells(getNotClickedCells() - 1);
+		if (isReplayMode())
+			return;
 
-		if (!getFirstClickOccurred())
-		{
-			setFirstClickOccurred(true);
-			firstClick(cell.getRow(), cell.getColumn());
-		}
+		int index = board.indexOf(cell.getRow(), cell.getColumn());
+		batch(() -> open(index));
+		recordReplay(ReplayFormat.ACTION_OPEN, index);
+	}
 
-		// Lose condition
-		if (cell.getValue() == CellValues.CELL_MINE)
-		{
-			cell.setState(Cell.STATE_CLICKED);
-			cell.setValue(CellValues.CELL_EXPLOSION);
-			lose();
+	/**
+	 * Changes the mark of a hidden cell, like a right click: a hidden cell is flagged, a flagged cell is questioned, and
+	 * a questioned cell is hidden again. The number of remaining mines follows the flags, in the same move.
+	 * 
+	 * @param cell The cell to mark.
+	 */
+	public void mark(Cell cell)
+	{
+		if (isReplayMode())
 			return;
-		}
 
-		// Win condition
-		if (getNotClickedCells() == getTotalMineCount())
-		{
-			win();
+		int state = cell.getState();
+		if (state != Cell.STATE_HIDDEN && state != Cell.STATE_FLAGGED && state != Cell.STATE_QUESTION)
 			return;
-		}
 
-		cell.setState(Cell.STATE_CLICKED);
-
-		if (cell.getValue() == CellValues.CELL_EMPTY)
+		int index = board.indexOf(cell.getRow(), cell.getColumn());
+		batch(() ->
 		{
-			openEmpty(cell);
-		}
+			if (game.mark(index))
+				followGame();
+		});
+		recordReplay(ReplayFormat.ACTION_MARK, index);
 	}
 
 	/**
-	 * Opens every cell around a given cell. If any of the newly opened cells are empty, {@code openEmpty} will be
-	 * called recursively.
+	 * Opens the cell at the given board index. See {@link #open(Cell)} for details.
 	 * 
-	 * @param centerCell The middle cell around which all other cells will be opened.
+	 * @param index The index of the cell to open.
 	 */
-	private void openEmpty(Cell centerCell)
+	private void open(int index)
 	{
-		int row = centerCell.getRow();
-		int col = centerCell.getColumn();
+		if (game.open(index))
+			followGame();
+	}
 
-		int rowBegin = (row - 1 < 0) ? row : row - 1;
-		int rowEnd = (row + 1 >= getRows()) ? getRows() - 1 : row + 1;
-		int colBegin = (col - 1 < 0) ? col : col - 1;
-		int colEnd = (col + 1 >= getCols()) ? getCols() - 1 : col + 1;
+	/**
+	 * Follows a move of the {@link Game}: passes the opened cells to the {@link FrontierSolver}, shows the counters of
+	 * the game, and ends the game when the move won or lost it.
+	 */
+	private void followGame()
+	{
+		if (game.getOpenedCount() > 0 && !frontierSolverStale)
+			frontierSolver.update(game.getOpenedCells(), game.getOpenedCount());
 
-		for (int i = rowBegin; i <= rowEnd; i++)
-		{
-			for (int j = colBegin; j <= colEnd; j++)
-			{
-				if (!(i == row && j == col))
-				{
-					Cell cell = getCell(i, j);
-					int cellState = cell.getState();
-					if (cellState == Cell.STATE_HIDDEN)
-					{
-						open(cell);
-					}
-				}
-			}
-		}
+		showCounters();
+		if (game.isWon())
+			win();
+		else if (game.isLost())
+			lose();
+	}
+
+	/**
+	 * Copies the counters of the game into the properties.
+	 */
+	private void showCounters()
+	{
+		notClickedCellsProperty.set(game.getHiddenCells());
+		remainingMinesProperty.set(game.getRemainingMines());
+		gameOverProperty.set(game.isOver());
 	}
 
 	/**
@@ -629,53 +992,939 @@ public class MinesweeperModel implements ScoreSaver
 
 	/**
 	 * Return an {@link ObservableList} containing every {@link Cell} in the grid.
+	 * <p>
+	 * This creates the views of every cell that wasn't requested yet, so prefer {@link #getCell(int, int) getCell} when
+	 * only a few cells are needed. The list only reports the added and removed cells, the changes of the cells are
+	 * reported to the {@link #addBoardChangeListener(BoardChangeListener) board change listeners}.
+	 * </p>
 	 * 
 	 * @return an {@link ObservableList} containing every {@link Cell} in the grid.
 	 */
 	public ObservableList<Cell> getCellList()
 	{
+		if (cellViews.size() < board.size())
+		{
+			for (int i = 0; i < board.size(); i++)
+			{
+				getCellView(i);
+			}
+		}
+
 		return observableCellList;
 	}
 
 	/**
-	 * Returns a cell at the given {@link Position}.
+	 * Adds a listener, which is notified once after every batch of changes on the board. See
+	 * {@link #batch(Runnable)}.
 	 * 
-	 * @param pos The position
-	 * @return A cell at the given position.
+	 * @param listener The listener.
 	 */
-	public Cell getCell(Position pos)
+	public void addBoardChangeListener(BoardChangeListener listener)
 	{
-		for (Cell cell : observableCellList)
-		{
-			if (cell.getRow() == pos.getRow() && cell.getColumn() == pos.getColumn())
-				return cell;
-		}
+		boardChangeListeners.add(listener);
+	}
 
-		return null;
+	/**
+	 * Removes a listener added by {@link #addBoardChangeListener(BoardChangeListener)}.
+	 * 
+	 * @param listener The listener.
+	 */
+	public void removeBoardChangeListener(BoardChangeListener listener)
+	{
+		boardChangeListeners.remove(listener);
 	}
 
 	/**
-	 * Returns a cell at the specified row and column index.
+	 * Runs an action as a single batch of changes. The indices of every cell changed by the action are collected, and
+	 * the {@link BoardChangeListener}s are notified once when it's done, with each changed cell only once, even when an
+	 * exception is thrown.
+	 * <p>
+	 * Batches can be nested, only the outermost one notifies the listeners. Changes made outside of a batch, like
+	 * setting the state of a {@link Cell} directly, are a batch on their own. Opening cells is always a single batch, so
+	 * the listeners get one notification per move, however many cells were opened.
+	 * </p>
 	 * 
-	 * @param row The row index
-	 * @param col The column index
-	 * @return A cell at the specified position.
+	 * @param action The action changing the board.
 	 */
-	public Cell getCell(int row, int col)
+	public void batch(Runnable action)
 	{
-		for (Cell cell : observableCellList)
+		if (batchDepth++ == 0)
+			beginMove();
+		try
 		{
-			if (cell.getRow() == row && cell.getColumn() == col)
-				return cell;
+			action.run();
+		}
+		finally
+		{
+			if (--batchDepth == 0)
+				endMove();
 		}
-
-		return null;
 	}
 
 	/**
-	 * Returns a map, containing every resource image that is used by the cells in the game grid.
+	 * Records the state and value of a cell before its first change in the current move, and begins a new move when no
+	 * batch is running. Must be called before the board is changed.
 	 * 
-	 * @return A map of image resources.
+	 * @param index The index of the cell about to change.
+	 */
+	private void beforeChange(int index)
+	{
+		if (batchDepth == 0)
+			beginMove();
+
+		if (moveCounters == null || changedCells.get(index))
+			return;
+
+		if (moveCellCount == moveCells.length)
+			moveCells = Arrays.copyOf(moveCells, moveCellCount * 2);
+		moveCells[moveCellCount++] = (long) index << 8 | MoveJournal.pack(board.getState(index), board.getValue(index)) & 0xFF;
+	}
+
+	/**
+	 * Records a changed cell, and ends the move right away when no batch is running.
+	 * 
+	 * @param index The index of the changed cell.
+	 */
+	private void markChanged(int index)
+	{
+		changedCells.set(index);
+
+		if (batchDepth == 0)
+			endMove();
+	}
+
+	/**
+	 * Begins recording a move, unless moves are not journaled, like in endless mode, or while a move is undone.
+	 * <p>
+	 * Huge boards are not journaled either, because a single move can open or reveal millions of cells, and its
+	 * journal entry would take more memory than the board itself, so moves can't be undone in huge board mode.
+	 * </p>
+	 */
+	private void beginMove()
+	{
+		moveCellCount = 0;
+		moveCounters = isEndlessMode() || isReplayMode() || journalReplaying || hugeBoardMode ? null : counters();
+	}
+
+	/**
+	 * Records the cells changed by the move in the journal, skipping the ones that are the same as before, like the
+	 * pressed cells, then notifies the listeners.
+	 */
+	private void endMove()
+	{
+		if (moveCounters != null && moveCellCount > 0)
+		{
+			Arrays.sort(moveCells, 0, moveCellCount);
+
+			int[] cells = new int[moveCellCount];
+			byte[] before = new byte[moveCellCount];
+			byte[] after = new byte[moveCellCount];
+			int count = 0;
+			for (int i = 0; i < moveCellCount; i++)
+			{
+				int index = (int) (moveCells[i] >>> 8);
+				byte packed = MoveJournal.pack(board.getState(index), board.getValue(index));
+				if (packed != (byte) moveCells[i])
+				{
+					cells[count] = index;
+					before[count] = (byte) moveCells[i];
+					after[count] = packed;
+					count++;
+				}
+			}
+
+			if (count > 0)
+			{
+				journal.record(cells, before, after, count, moveCounters, counters());
+				updateJournalProperties();
+			}
+		}
+		moveCounters = null;
+		moveCellCount = 0;
+
+		fireBoardChanged();
+	}
+
+	/**
+	 * Returns the counters of the game that are restored with the cells when a move is undone.
+	 * 
+	 * @return The number of not clicked cells, the number of remaining mines and the status of the game.
+	 */
+	private int[] counters()
+	{
+		return new int[] { game.getHiddenCells(), game.getRemainingMines(), game.getStatus() };
+	}
+
+	/**
+	 * Undoes the last move, restoring every cell it changed, and the counters of the game. The game becomes a practice
+	 * game, and its score won't be saved.
+	 * <p>
+	 * A lost game can be continued by undoing the losing move, but a won game can't be undone.
+	 * </p>
+	 * 
+	 * @throws IllegalStateException when there is no move to undo.
+	 * 
+	 * @see #undoAvailableProperty()
+	 */
+	public void undo()
+	{
+		if (!isUndoAvailable())
+			throw new IllegalStateException("There is no move to undo");
+
+		practiceGame = true;
+		apply(journal.undo());
+		recordReplay(ReplayFormat.ACTION_UNDO, -1);
+		logger.debug("Move undone");
+	}
+
+	/**
+	 * Redoes the last undone move.
+	 * 
+	 * @throws IllegalStateException when there is no move to redo.
+	 * 
+	 * @see #redoAvailableProperty()
+	 */
+	public void redo()
+	{
+		if (!isRedoAvailable())
+			throw new IllegalStateException("There is no move to redo");
+
+		apply(journal.redo());
+		recordReplay(ReplayFormat.ACTION_REDO, -1);
+		logger.debug("Move redone");
+	}
+
+	/**
+	 * Restores the cells and counters of an undone or redone move in one batch. The frontier solver is rebuilt the next
+	 * time it's needed.
+	 * 
+	 * @param move The move returned by the journal.
+	 */
+	private void apply(MoveJournal.Move move)
+	{
+		journalReplaying = true;
+		try
+		{
+			batch(() ->
+			{
+				int[] cells = move.getCells();
+				for (int i = 0; i < cells.length; i++)
+				{
+					setCellState(cells[i], move.getState(i));
+					setCellValue(cells[i], move.getValue(i));
+				}
+
+				int[] counters = move.getCounters();
+				game.restore(counters[0], counters[1], counters[2]);
+				showCounters();
+			});
+		}
+		finally
+		{
+			journalReplaying = false;
+		}
+
+		frontierSolverStale = true;
+		updateJournalProperties();
+	}
+
+	/**
+	 * Forgets every recorded move, and ends the practice game.
+	 */
+	private void clearJournal()
+	{
+		journal.clear();
+		practiceGame = false;
+		updateJournalProperties();
+	}
+
+	private void updateJournalProperties()
+	{
+		undoAvailableProperty.set(journal.canUndo() && !game.isWon());
+		redoAvailableProperty.set(journal.canRedo());
+	}
+
+	/**
+	 * Returns the undo available property, which is true when there is a move to undo.
+	 * 
+	 * @return The undo available property.
+	 */
+	public BooleanProperty undoAvailableProperty()
+	{
+		return undoAvailableProperty;
+	}
+
+	/**
+	 * Returns whether there is a move to {@link #undo() undo}.
+	 * 
+	 * @return <b>true</b>, if a move can be undone, <b>false</b> otherwise.
+	 */
+	public boolean isUndoAvailable()
+	{
+		return undoAvailableProperty.get();
+	}
+
+	/**
+	 * Returns the redo available property, which is true when there is an undone move to redo.
+	 * 
+	 * @return The redo available property.
+	 */
+	public BooleanProperty redoAvailableProperty()
+	{
+		return redoAvailableProperty;
+	}
+
+	/**
+	 * Returns whether there is an undone move to {@link #redo() redo}.
+	 * 
+	 * @return <b>true</b>, if a move can be redone, <b>false</b> otherwise.
+	 */
+	public boolean isRedoAvailable()
+	{
+		return redoAvailableProperty.get();
+	}
+
+	/**
+	 * Returns whether the current game is a practice game, because a move was undone. The score of a practice game is
+	 * not saved.
+	 * 
+	 * @return <b>true</b>, if the current game is a practice game, <b>false</b> otherwise.
+	 */
+	public boolean isPracticeGame()
+	{
+		return practiceGame;
+	}
+
+	/**
+	 * Returns the journal of the moves of the current game.
+	 * 
+	 * @return The move journal.
+	 */
+	public MoveJournal getMoveJournal()
+	{
+		return journal;
+	}
+
+	/**
+	 * Publishes the next snapshot of the board, then notifies the listeners about the changes collected since the last
+	 * notification, if there are any. If the whole board was revealed in the meantime, the listeners are only told that,
+	 * without the changed cells.
+	 */
+	private void fireBoardChanged()
+	{
+		if (boardRevealed)
+		{
+			boardRevealed = false;
+			changedCells.clear();
+			publishSnapshot();
+
+			for (BoardChangeListener listener : boardChangeListeners)
+			{
+				listener.boardRevealed();
+			}
+			return;
+		}
+
+		if (changedCells.isEmpty())
+			return;
+
+		int[] changed = changedCells.stream().toArray();
+		changedCells.clear();
+
+		BoardSnapshot current = snapshot;
+		if (current != null)
+			snapshot = current.update(board, changed);
+
+		for (BoardChangeListener listener : boardChangeListeners)
+		{
+			listener.boardChanged(changed);
+		}
+	}
+
+	/**
+	 * Starts recording the current game into a new file in the replay directory, if there is one. Called by the first
+	 * click, when the seed of the game is final.
+	 */
+	private void startReplay()
+	{
+		if (replayDirectory == null)
+			return;
+
+		try
+		{
+			Files.createDirectories(replayDirectory.toPath());
+			replayFile = new File(replayDirectory, System.currentTimeMillis() + "-" + game.getGameSeed().encode() + ".replay");
+			FileChannel channel = FileChannel.open(replayFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+			replayWriter = new ReplayWriter(channel, getRows(), getCols(), totalMines, game.getSeed());
+		}
+		catch (IOException e)
+		{
+			logger.warn("Couldn't create the replay file {}", replayFile, e);
+			replayFile = null;
+		}
+	}
+
+	/**
+	 * Records a move of the player in the replay, if the game is being recorded. If the replay can't be written, the
+	 * recording stops.
+	 * <p>
+	 * The move that ends the game is recorded after the game is over, so the replay is flushed then, and it's complete
+	 * even if the game is never continued.
+	 * </p>
+	 * 
+	 * @param action The action of the move, see {@link ReplayFormat}.
+	 * @param index The index of the cell of the move, negative for the same cell as the previous move.
+	 */
+	private void recordReplay(int action, int index)
+	{
+		if (replayWriter == null)
+			return;
+
+		try
+		{
+			long time = System.nanoTime() / 1000000;
+			if (index < 0)
+				replayWriter.write(action, time);
+			else
+				replayWriter.write(action, index, time);
+
+			if (isGameOver())
+				replayWriter.flush();
+		}
+		catch (IOException e)
+		{
+			logger.warn("Couldn't write the replay, the game is not recorded anymore", e);
+			closeReplay();
+		}
+	}
+
+	/**
+	 * Stops recording the replay of the current game, if it's being recorded, writing the buffered moves into its file.
+	 * Called when a new game is started, and must be called when the application is closed.
+	 */
+	public void closeReplay()
+	{
+		if (replayWriter == null)
+			return;
+
+		try
+		{
+			replayWriter.close();
+			logger.debug("Replay saved: {}, {} moves, {} bytes", replayFile, replayWriter.getMoveCount(), replayWriter.getSize());
+		}
+		catch (IOException e)
+		{
+			logger.warn("Couldn't close the replay file {}", replayFile, e);
+		}
+		replayWriter = null;
+	}
+
+	/**
+	 * Starts saving the current game into the save game file, if there is one. Called by the first click, when the
+	 * mines are placed, and by {@link #autosave()} when a lost game is continued by undoing the losing move.
+	 */
+	private void startSave()
+	{
+		if (saveGameFile == null)
+			return;
+
+		try
+		{
+			Files.createDirectories(saveGameFile.getAbsoluteFile().getParentFile().toPath());
+			GameSeed gameSeed = game.getGameSeed();
+			saveFile = SaveFile.create(saveGameFile.toPath(), board, totalMines, gameSeed.getSeed(),
+					board.indexOf(gameSeed.getFirstClickRow(), gameSeed.getFirstClickCol()));
+			saveFile.setElapsedTime(getElapsedTime());
+			saveFile.setPractice(practiceGame);
+		}
+		catch (IOException e)
+		{
+			logger.warn("Couldn't create the save game file {}", saveGameFile, e);
+			saveFile = null;
+		}
+	}
+
+	/**
+	 * Stops saving the current game, and deletes its save game file, because the game is over, or a new game is
+	 * started.
+	 */
+	private void deleteSave()
+	{
+		if (saveFile == null)
+			return;
+
+		try
+		{
+			saveFile.close();
+			Files.deleteIfExists(saveGameFile.toPath());
+		}
+		catch (IOException e)
+		{
+			logger.warn("Couldn't delete the save game file {}", saveGameFile, e);
+		}
+		saveFile = null;
+	}
+
+	/**
+	 * Saves the current game. The states of the cells are already written into the mapped save file by every move, so
+	 * only the elapsed time is written here, then the changed pages of the file are forced to the disk in the
+	 * background, so the game doesn't stutter.
+	 * <p>
+	 * Nothing is saved before the first click, after the game is over, and in endless and replay mode.
+	 * </p>
+	 * 
+	 * @return A future, which completes when the game is on the disk.
+	 */
+	public CompletableFuture<Void> autosave()
+	{
+		if (saveFile == null && game.getGameSeed() != null && !isGameOver() && !isReplayMode() && !isEndlessMode())
+			startSave();
+		if (saveFile == null)
+			return CompletableFuture.completedFuture(null);
+
+		SaveFile current = saveFile;
+		current.setElapsedTime(getElapsedTime());
+		current.setPractice(practiceGame);
+		return CompletableFuture.runAsync(current::force);
+	}
+
+	/**
+	 * Resumes the unfinished game saved in the save game file. The board is rebuilt from the mines and the states of
+	 * the save file, the values are counted by the board itself, and the game goes on from the saved elapsed time. The
+	 * moves before the restart can't be undone, and the rest of the game is not recorded as a replay.
+	 * <p>
+	 * Huge board mode is turned on if the board doesn't fit the normal maximum size.
+	 * </p>
+	 * 
+	 * @return <b>true</b>, if a game was resumed, <b>false</b> if there is no save game file.
+	 * 
+	 * @throws IOException when an IO error has occurred, or the file is not a valid save file.
+	 * @throws IllegalArgumentException when the saved board can't be played, because it's too large or too small.
+	 */
+	public boolean resumeGame() throws IOException
+	{
+		if (saveGameFile == null || !saveGameFile.isFile())
+			return false;
+
+		// The save file of the current game is the same file, it's reopened instead of being deleted.
+		if (saveFile != null)
+		{
+			saveFile.close();
+			saveFile = null;
+		}
+
+		SaveFile save = SaveFile.open(saveGameFile.toPath());
+		try
+		{
+			setHugeBoardMode(save.getRows() > MAX_ROWS || save.getCols() > MAX_COLS);
+			initCells(save.getRows(), save.getCols(), save.getMines());
+
+			if (getRows() != save.getRows() || getCols() != save.getCols() || getTotalMineCount() != save.getMines())
+				throw new IllegalArgumentException("The saved game can't be played on this board");
+
+			save.load(board);
+			game.start(new GameSeed(getRows(), getCols(), totalMines, save.getSeed(), board.rowOf(save.getFirstCell()),
+					board.colOf(save.getFirstCell())));
+			indexOpenings();
+			publishSnapshot();
+		}
+		catch (RuntimeException e)
+		{
+			save.close();
+			throw e;
+		}
+
+		practiceGame = save.isPractice();
+		saveFile = save;
+
+		game.restore(board.size() - save.count(Board.STATE_CLICKED), totalMines - save.count(Board.STATE_FLAGGED), Game.PLAYING);
+		showCounters();
+		firstClickOccurredProperty.set(true);
+		elapsedTimeProperty.set(save.getElapsedTime());
+		newGameStartedProperty.set(true);
+		gameOverProperty.set(false);
+
+		logger.info("Game resumed, rows: {}, columns: {}, mines: {}, game code: {}", getRows(), getCols(), totalMines,
+				game.getGameSeed().encode());
+		return true;
+	}
+
+	/**
+	 * Returns the file, where the unfinished game is saved.
+	 * 
+	 * @return The save game file, or <b>null</b> if the games are not saved.
+	 */
+	public File getSaveGameFile()
+	{
+		return saveGameFile;
+	}
+
+	/**
+	 * Sets the file, where the unfinished game is saved, starting from the next first click. Its directory is created
+	 * when the game is saved.
+	 * 
+	 * @param saveGameFile The save game file, or <b>null</b> to stop saving the games.
+	 */
+	public void setSaveGameFile(File saveGameFile)
+	{
+		this.saveGameFile = saveGameFile;
+	}
+
+	/**
+	 * Starts playing back a recorded game. A new game is started with the board of the replay, and the board shows the
+	 * current position of the player. The moves of the replay are shown by {@link #seekReplay(int)}.
+	 * <p>
+	 * Huge board mode is turned on if the board doesn't fit the normal maximum size. Replay mode ends when a new game is
+	 * started.
+	 * </p>
+	 * 
+	 * @param player The player of the replay.
+	 * 
+	 * @throws IllegalArgumentException when the board of the replay can't be played, because it's too large or too
+	 *             small.
+	 */
+	public void loadReplay(ReplayPlayer player)
+	{
+		setHugeBoardMode(player.getRows() > MAX_ROWS || player.getCols() > MAX_COLS);
+		newGame(player.getRows(), player.getCols(), player.getMines());
+
+		if (getRows() != player.getRows() || getCols() != player.getCols() || getTotalMineCount() != player.getMines())
+			throw new IllegalArgumentException("The replay can't be played on this board");
+
+		replayPlayer = player;
+		replayModeProperty.set(true);
+
+		player.drainChangedCells();
+		int[] cells = new int[board.size()];
+		for (int i = 0; i < cells.length; i++)
+		{
+			cells[i] = i;
+		}
+		showReplay(cells);
+
+		logger.info("Replay loaded, {} moves", player.getMoveCount());
+	}
+
+	/**
+	 * Shows the board of the replay after the given number of moves. Only the cells changed since the last position
+	 * are updated, in one batch.
+	 * 
+	 * @param position The number of moves, between 0 and the number of moves of the replay.
+	 * 
+	 * @throws IllegalStateException when no replay is loaded.
+	 * @throws IndexOutOfBoundsException when the position is out of bounds.
+	 * 
+	 * @see ReplayPlayer#seek(int)
+	 */
+	public void seekReplay(int position)
+	{
+		if (!isReplayMode())
+			throw new IllegalStateException("No replay is loaded");
+
+		replayPlayer.seek(position);
+		showReplay(replayPlayer.drainChangedCells());
+	}
+
+	/**
+	 * Copies the given cells and the counters of the replay player into the model.
+	 * 
+	 * @param cells The indices of the cells to copy.
+	 */
+	private void showReplay(int[] cells)
+	{
+		Board replayBoard = replayPlayer.getBoard();
+		batch(() ->
+		{
+			for (int index : cells)
+			{
+				setCellState(index, replayBoard.getState(index));
+				setCellValue(index, replayBoard.getValue(index));
+			}
+
+			game.restore(replayPlayer.getHiddenCells(), replayPlayer.getRemainingMines(), replayPlayer.getStatus());
+			showCounters();
+			setFirstClickOccurred(replayPlayer.getPosition() > 0);
+			setElapsedTime((int) (replayPlayer.getTime(replayPlayer.getPosition()) / 1000));
+		});
+		frontierSolverStale = true;
+	}
+
+	/**
+	 * Returns the player of the loaded replay.
+	 * 
+	 * @return The replay player, or <b>null</b> if no replay is loaded.
+	 */
+	public ReplayPlayer getReplayPlayer()
+	{
+		return replayPlayer;
+	}
+
+	/**
+	 * Returns the replay mode property, which is true while a replay is played back.
+	 * 
+	 * @return The replay mode property.
+	 */
+	public BooleanProperty replayModeProperty()
+	{
+		return replayModeProperty;
+	}
+
+	/**
+	 * Returns whether a replay is played back.
+	 * 
+	 * @return <b>true</b>, if a replay is loaded, <b>false</b> otherwise.
+	 * 
+	 * @see #loadReplay(ReplayPlayer)
+	 */
+	public boolean isReplayMode()
+	{
+		return replayModeProperty.get();
+	}
+
+	/**
+	 * Returns the directory, where the games are recorded.
+	 * 
+	 * @return The replay directory, or <b>null</b> if the games are not recorded.
+	 */
+	public File getReplayDirectory()
+	{
+		return replayDirectory;
+	}
+
+	/**
+	 * Sets the directory, where the games are recorded as replays, starting from the next first click. The directory is
+	 * created when the first replay is written.
+	 * 
+	 * @param replayDirectory The replay directory, or <b>null</b> to stop recording the games.
+	 */
+	public void setReplayDirectory(File replayDirectory)
+	{
+		this.replayDirectory = replayDirectory;
+	}
+
+	/**
+	 * Returns the replay file of the current game.
+	 * 
+	 * @return The replay file of the current or the last recorded game, or <b>null</b> if no game was recorded yet.
+	 */
+	public File getReplayFile()
+	{
+		return replayFile;
+	}
+
+	/**
+	 * Returns a cell at the given {@link Position}.
+	 * 
+	 * @param pos The position
+	 * @return A cell at the given position.
+	 */
+	public Cell getCell(Position pos)
+	{
+		return getCell(pos.getRow(), pos.getColumn());
+	}
+
+	/**
+	 * Returns a cell at the specified row and column index.
+	 * 
+	 * @param row The row index
+	 * @param col The column index
+	 * @return A cell at the specified position, or null if the position is outside the grid.
+	 */
+	public Cell getCell(int row, int col)
+	{
+		if (!board.contains(row, col))
+			return null;
+
+		return getCellView(board.indexOf(row, col));
+	}
+
+	/**
+	 * Returns the cell at the given board index, row by row. This is the same as {@link #getCell(int, int)}, without
+	 * splitting the index into a row and a column.
+	 * 
+	 * @param index The index of the cell.
+	 * @return The cell at the given index, or null if the index is outside the grid.
+	 */
+	public Cell getCell(int index)
+	{
+		if (index < 0 || index >= board.size())
+			return null;
+
+		return getCellView(index);
+	}
+
+	/**
+	 * Keeps the views of the cells in the given area of the board, and releases every other view, so they are removed
+	 * from the {@link #getCellList() cell list}, and their changes are not written into the board anymore. A released
+	 * cell gets a new view when it's requested again.
+	 * <p>
+	 * The grid calls it when its viewport is moved, so scrolling a huge board only keeps the views of the cells on the
+	 * screen, instead of one for every cell that was ever shown.
+	 * </p>
+	 * 
+	 * @param firstRow The first row of the area.
+	 * @param firstCol The first column of the area.
+	 * @param rowCount The number of rows of the area.
+	 * @param colCount The number of columns of the area.
+	 */
+	public void retainCells(int firstRow, int firstCol, int rowCount, int colCount)
+	{
+		List<Cell> released = new ArrayList<Cell>();
+
+		Iterator<Cell> views = cellViews.values().iterator();
+		while (views.hasNext())
+		{
+			Cell cell = views.next();
+			int row = cell.getRow() - firstRow;
+			int col = cell.getColumn() - firstCol;
+
+			if (row < 0 || row >= rowCount || col < 0 || col >= colCount)
+			{
+				released.add(cell);
+				views.remove();
+			}
+		}
+
+		if (!released.isEmpty())
+			observableCellList.removeAll(released);
+	}
+
+	/**
+	 * Returns the board storing the state and value of every cell in the current game.
+	 * 
+	 * @return The board of the current game.
+	 */
+	public Board getBoard()
+	{
+		return board;
+	}
+
+	/**
+	 * Returns the counts of the flagged and hidden neighbours of the cells of the board, which decide whether a number
+	 * can be chorded, or is satisfied by its flags.
+	 * 
+	 * @return The neighbour counts of the current board.
+	 */
+	public NeighbourCounts getNeighbourCounts()
+	{
+		return game.getNeighbourCounts();
+	}
+
+	/**
+	 * Returns the view of the cell at the given index, creating it when it doesn't exist yet.
+	 * <p>
+	 * The created cell is added to the {@link #getCellList() cell list}, and every change made on it is written back to
+	 * the board, except the {@link Cell#STATE_PRESSED pressed} state, which is only visual, until the view is
+	 * {@link #retainCells(int, int, int, int) released}.
+	 * </p>
+	 * 
+	 * @param index The index of the cell.
+	 * @return The view of the cell.
+	 */
+	private Cell getCellView(int index)
+	{
+		Cell cell = cellViews.get(index);
+
+		if (cell == null)
+		{
+			Board owner = board;
+			Cell newCell = new Cell(board.rowOf(index), board.colOf(index));
+			newCell.setState(board.getState(index));
+			newCell.setValue(board.getValue(index));
+
+			// Views of a previous game must not write into the board of the current one, and released views are not
+			// synced with the board anymore.
+			newCell.getStateProperty().addListener((observable, oldValue, newValue) ->
+			{
+				if (cellViewSyncing || owner != board || cellViews.get(index) != newCell)
+					return;
+
+				beforeChange(index);
+				if (newValue.intValue() != Cell.STATE_PRESSED)
+					writeState(index, newValue.intValue());
+				markChanged(index);
+			});
+			newCell.getValueProperty().addListener((observable, oldValue, newValue) ->
+			{
+				if (cellViewSyncing || owner != board || cellViews.get(index) != newCell)
+					return;
+
+				beforeChange(index);
+				board.setValue(index, newValue.intValue());
+				game.getFloodFill().setOpenings(null);
+				markChanged(index);
+			});
+
+			cellViews.put(index, newCell);
+			observableCellList.add(newCell);
+			cell = newCell;
+		}
+
+		return cell;
+	}
+
+	/**
+	 * Sets the state of a cell on the board, and updates its view, if it has one.
+	 * 
+	 * @param index The index of the cell.
+	 * @param state The new state.
+	 */
+	private void setCellState(int index, int state)
+	{
+		beforeChange(index);
+		writeState(index, state);
+		markChanged(index);
+
+		Cell cell = cellViews.get(index);
+		if (cell != null)
+		{
+			cellViewSyncing = true;
+			cell.setState(state);
+			cellViewSyncing = false;
+		}
+	}
+
+	/**
+	 * Writes the state of a cell into the board through the {@link NeighbourCounts}, and into the save file of the
+	 * game, if it's being saved.
+	 * 
+	 * @param index The index of the cell.
+	 * @param state The new state.
+	 */
+	private void writeState(int index, int state)
+	{
+		game.getNeighbourCounts().setState(index, state);
+		if (saveFile != null)
+			saveFile.setState(index, state);
+	}
+
+	/**
+	 * Sets the value of a cell on the board, and updates its view, if it has one.
+	 * 
+	 * @param index The index of the cell.
+	 * @param value The new value.
+	 */
+	private void setCellValue(int index, int value)
+	{
+		beforeChange(index);
+		board.setValue(index, value);
+		// The openings of the old values are not valid anymore.
+		game.getFloodFill().setOpenings(null);
+		markChanged(index);
+
+		Cell cell = cellViews.get(index);
+		if (cell != null)
+		{
+			cellViewSyncing = true;
+			cell.setValue(value);
+			cellViewSyncing = false;
+		}
+	}
+
+	/**
+	 * Returns a map, containing every resource image that is used by the cells in the game grid.
+	 * 
+	 * @return A map of image resources.
 	 */
 	public Map<String, Image> getCellResources()
 	{
@@ -713,15 +1962,182 @@ public class MinesweeperModel implements ScoreSaver
 	}
 
 	/**
-	 * Sets the number of remaining mines.
+	 * Sets the number of remaining mines, in the game too.
 	 * 
 	 * @param remainingMines The number of remaining mines.
 	 */
 	public void setRemainingMines(int remainingMines)
 	{
+		game.restore(game.getHiddenCells(), remainingMines, game.getStatus());
 		remainingMinesProperty.set(remainingMines);
 	}
 
+	/**
+	 * Returns the seed of the mine layout of the current game. Every new game gets a random seed, which can be changed
+	 * with {@link #setSeed(long)} before the first click.
+	 * 
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return game.getSeed();
+	}
+
+	/**
+	 * Sets the seed of the mine layout of the current game. It has no effect after the first click, when the mines are
+	 * already placed.
+	 * 
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed)
+	{
+		game.setSeed(seed);
+	}
+
+	/**
+	 * Returns the {@link GameSeed} of the current game, which can regenerate its board, or be shared as a code.
+	 * 
+	 * @return The game seed, or <b>null</b> if the first click didn't occur yet.
+	 */
+	public GameSeed getGameSeed()
+	{
+		return game.getGameSeed();
+	}
+
+	/**
+	 * Returns whether an endless game is being played.
+	 * 
+	 * @return <b>true</b>, if the current game is endless, <b>false</b> otherwise.
+	 * 
+	 * @see #newEndlessGame(long)
+	 */
+	public boolean isEndlessMode()
+	{
+		return endlessBoard != null;
+	}
+
+	/**
+	 * Returns the board of the current endless game.
+	 * 
+	 * @return The endless board, or <b>null</b> if the current game is not endless.
+	 */
+	public EndlessBoard getEndlessBoard()
+	{
+		return endlessBoard;
+	}
+
+	/**
+	 * Returns the solver following the current game, which knows the frontier, and the hidden cells that are certainly
+	 * safe or mines. It's updated by every move, and rebuilt after a move is undone or redone.
+	 * 
+	 * @return The frontier solver.
+	 */
+	public FrontierSolver getFrontierSolver()
+	{
+		if (frontierSolverStale)
+		{
+			frontierSolver.rebuild();
+			frontierSolverStale = false;
+		}
+
+		return frontierSolver;
+	}
+
+	/**
+	 * Computes the exact mine probability of every hidden cell of the current game in the background, using a
+	 * {@link ProbabilityEngine}. The engine reads the {@link #getSnapshot() snapshot} of the current move, so the game
+	 * can go on while the probabilities are computed.
+	 * 
+	 * @return The future probabilities of the current state of the game.
+	 * 
+	 * @throws IllegalStateException in endless mode and in huge board mode, where the board is too large.
+	 */
+	public CompletableFuture<MineProbabilities> computeProbabilities()
+	{
+		if (isEndlessMode() || hugeBoardMode)
+			throw new IllegalStateException("Probabilities are only available on normal boards");
+
+		BoardSnapshot current = snapshot;
+		int mines = totalMines;
+
+		return CompletableFuture.supplyAsync(() -> probabilityEngine.compute(current, mines));
+	}
+
+	/**
+	 * Returns the immutable snapshot of the board, published after the last move. It can be read from any thread
+	 * without locking, and it never changes, the next move publishes a new snapshot instead, which shares the unchanged
+	 * cells with this one.
+	 * <p>
+	 * Renderers, solvers and savers running on other threads should read the board through the snapshot, instead of
+	 * the cells or the properties of the model, which may only be used on the JavaFX thread.
+	 * </p>
+	 * 
+	 * @return The snapshot of the board, or <b>null</b> in endless mode and in huge board mode, where the board is too
+	 *         large to copy.
+	 */
+	public BoardSnapshot getSnapshot()
+	{
+		return snapshot;
+	}
+
+	/**
+	 * Publishes a new snapshot of the whole board, after it was changed without recording the changed cells, like when
+	 * the mines are placed.
+	 */
+	private void publishSnapshot()
+	{
+		snapshot = hugeBoardMode ? null : BoardSnapshot.of(board);
+	}
+
+	/**
+	 * Returns whether huge board mode is on.
+	 * 
+	 * @return <b>true</b>, if huge board mode is on, <b>false</b> otherwise.
+	 */
+	public boolean isHugeBoardMode()
+	{
+		return hugeBoardMode;
+	}
+
+	/**
+	 * Turns huge board mode on or off. In huge board mode, the board can be as large as {@link #HUGE_MAX_ROWS} x
+	 * {@link #HUGE_MAX_COLS}, and it's stored in a compact form, or off the heap if it's larger than
+	 * {@link #OFF_HEAP_CELLS}, with the neighbouring mines counted lazily.
+	 * <p>
+	 * The new mode is used from the next {@link #newGame(int, int, int) new game}.
+	 * </p>
+	 * 
+	 * @param hugeBoardMode <b>true</b> to turn on huge board mode, <b>false</b> to turn it off.
+	 */
+	public void setHugeBoardMode(boolean hugeBoardMode)
+	{
+		this.hugeBoardMode = hugeBoardMode;
+	}
+
+	/**
+	 * Returns whether no guessing mode is on.
+	 * 
+	 * @return <b>true</b>, if no guessing mode is on, <b>false</b> otherwise.
+	 */
+	public boolean isNoGuessMode()
+	{
+		return noGuessMode;
+	}
+
+	/**
+	 * Turns no guessing mode on or off. In no guessing mode, the mines are placed so that the board can be cleared from
+	 * the first click by deductions only, see {@link NoGuessGenerator}. It has no effect in huge board mode.
+	 * <p>
+	 * The new mode is used from the next first click.
+	 * </p>
+	 * 
+	 * @param noGuessMode <b>true</b> to turn on no guessing mode, <b>false</b> to turn it off.
+	 */
+	public void setNoGuessMode(boolean noGuessMode)
+	{
+		this.noGuessMode = noGuessMode;
+	}
+
 	/**
 	 * Returns the difficulty.
 	 * 
@@ -837,12 +2253,13 @@ public class MinesweeperModel implements ScoreSaver
 	}
 
 	/**
-	 * Sets the number of not clicked cells.
+	 * Sets the number of not clicked cells, in the game too.
 	 * 
 	 * @param value The number of not clicked cells.
 	 */
 	public void setNotClickedCells(int value)
 	{
+		game.restore(value, game.getRemainingMines(), game.getStatus());
 		notClickedCellsProperty.set(value);
 	}
 
@@ -896,6 +2313,36 @@ public class MinesweeperModel implements ScoreSaver
 		}
 	}
 	
+	/**
+	 * Returns the heatmap property, which tells whether the mine probabilities are shown on the grid.
+	 * 
+	 * @return The heatmap property.
+	 */
+	public BooleanProperty heatmapProperty()
+	{
+		return heatmapProperty;
+	}
+
+	/**
+	 * Returns whether the mine probabilities are shown on the grid.
+	 * 
+	 * @return <b>true</b>, if the heatmap is shown, <b>false</b> otherwise.
+	 */
+	public boolean isHeatmap()
+	{
+		return heatmapProperty.get();
+	}
+
+	/**
+	 * Shows or hides the mine probabilities on the grid.
+	 * 
+	 * @param heatmap <b>true</b> to show the heatmap, <b>false</b> to hide it.
+	 */
+	public void setHeatmap(boolean heatmap)
+	{
+		heatmapProperty.set(heatmap);
+	}
+
 	/**
 	 * Returns the model represeting the Facebook data.
 	 * 
@@ -905,4 +2352,43 @@ public class MinesweeperModel implements ScoreSaver
 	{
 		return facebookDataModel;
 	}
+
+	/**
+	 * The game played on the board of the model. Its first move places the mines by
+	 * {@link MinesweeperModel#firstClick(int, int) firstClick}, and its cells are changed through the model, so the
+	 * changes are journaled, saved, and shown by the views of the cells.
+	 */
+	private class ModelGame extends Game
+	{
+		private ModelGame(int mines, long seed)
+		{
+			super(board, mines, seed);
+		}
+
+		@Override
+		protected void placeMines(int row, int col)
+		{
+			if (getFirstClickOccurred())
+				return;
+
+			setFirstClickOccurred(true);
+			firstClick(row, col);
+		}
+
+		@Override
+		protected void writeCell(int index, int state, int value)
+		{
+			// The end of a huge game is written directly into the board, see showHugeBoard.
+			if (hugeBoardMode && isOver())
+			{
+				board.setState(index, state);
+				board.setValue(index, value);
+				return;
+			}
+
+			setCellState(index, state);
+			if (board.getValue(index) != value)
+				setCellValue(index, value);
+		}
+	}
 }
@@ -0,0 +1,310 @@
+package minesweeper.model;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the moves of a game as compact deltas, so they can be undone and redone without copying the board.
+ * <p>
+ * A move is the list of the cells it changed, each with its state and value before and after the move, and a few
+ * counters of the model, like the number of hidden cells. The cells are sorted by their index, and stored as the
+ * differences between the indices, as variable-length integers, followed by two bytes of state and value. A flood fill
+ * opens neighbouring cells, so most differences take a single byte, and a move takes about three bytes per changed
+ * cell, independently of the size of the board.
+ * </p>
+ * <p>
+ * Recording a new move discards every move that was undone before it.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class MoveJournal
+{
+	private final List<byte[]> moves;
+	private int position;
+	private long size;
+
+	/**
+	 * Creates a new, empty journal.
+	 */
+	public MoveJournal()
+	{
+		moves = new ArrayList<byte[]>();
+	}
+
+	/**
+	 * Packs the state and the value of a cell into a single byte.
+	 *
+	 * @param state The state of the cell, between 0 and 7.
+	 * @param value The value of the cell, between 0 and 15.
+	 * @return The packed cell.
+	 */
+	public static byte pack(int state, int value)
+	{
+		return (byte) (state << 4 | value);
+	}
+
+	/**
+	 * Returns the state of a packed cell.
+	 *
+	 * @param cell The packed cell.
+	 * @return The state.
+	 */
+	public static int stateOf(byte cell)
+	{
+		return cell >> 4 & 0x7;
+	}
+
+	/**
+	 * Returns the value of a packed cell.
+	 *
+	 * @param cell The packed cell.
+	 * @return The value.
+	 */
+	public static int valueOf(byte cell)
+	{
+		return cell & 0xF;
+	}
+
+	/**
+	 * Records a move, and discards every undone move.
+	 *
+	 * @param cells The indices of the changed cells, in ascending order.
+	 * @param before The {@link #pack(int, int) packed} cells before the move.
+	 * @param after The packed cells after the move.
+	 * @param count The number of changed cells, the arrays may be longer.
+	 * @param countersBefore The counters of the model before the move.
+	 * @param countersAfter The counters of the model after the move, as many as before.
+	 */
+	public void record(int[] cells, byte[] before, byte[] after, int count, int[] countersBefore, int[] countersAfter)
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(count * 3 + 16);
+
+		writeVarInt(out, countersBefore.length);
+		for (int i = 0; i < countersBefore.length; i++)
+		{
+			writeVarInt(out, zigZag(countersBefore[i]));
+			writeVarInt(out, zigZag(countersAfter[i]));
+		}
+
+		writeVarInt(out, count);
+		int previous = 0;
+		for (int i = 0; i < count; i++)
+		{
+			writeVarInt(out, cells[i] - previous);
+			out.write(before[i]);
+			out.write(after[i]);
+			previous = cells[i];
+		}
+
+		while (moves.size() > position)
+		{
+			size -= moves.remove(moves.size() - 1).length;
+		}
+
+		byte[] move = out.toByteArray();
+		moves.add(move);
+		size += move.length;
+		position++;
+	}
+
+	/**
+	 * Steps back one move.
+	 *
+	 * @return The cells and counters before the last move.
+	 *
+	 * @throws IllegalStateException when there is no move to undo.
+	 */
+	public Move undo()
+	{
+		if (!canUndo())
+			throw new IllegalStateException("There is no move to undo");
+
+		return decode(moves.get(--position), false);
+	}
+
+	/**
+	 * Steps forward one undone move.
+	 *
+	 * @return The cells and counters after the move.
+	 *
+	 * @throws IllegalStateException when there is no move to redo.
+	 */
+	public Move redo()
+	{
+		if (!canRedo())
+			throw new IllegalStateException("There is no move to redo");
+
+		return decode(moves.get(position++), true);
+	}
+
+	/**
+	 * Returns whether there is a move to undo.
+	 *
+	 * @return <b>true</b> if a move can be undone.
+	 */
+	public boolean canUndo()
+	{
+		return position > 0;
+	}
+
+	/**
+	 * Returns whether there is an undone move to redo.
+	 *
+	 * @return <b>true</b> if a move can be redone.
+	 */
+	public boolean canRedo()
+	{
+		return position < moves.size();
+	}
+
+	/**
+	 * Forgets every move.
+	 */
+	public void clear()
+	{
+		moves.clear();
+		position = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of recorded moves, including the undone ones.
+	 *
+	 * @return The number of moves.
+	 */
+	public int getMoveCount()
+	{
+		return moves.size();
+	}
+
+	/**
+	 * Returns the memory used by the recorded moves.
+	 *
+	 * @return The number of bytes of every encoded move.
+	 */
+	public long getSize()
+	{
+		return size;
+	}
+
+	private static Move decode(byte[] move, boolean after)
+	{
+		int[] offset = { 0 };
+
+		int[] counters = new int[readVarInt(move, offset)];
+		for (int i = 0; i < counters.length; i++)
+		{
+			int before = unZigZag(readVarInt(move, offset));
+			int afterValue = unZigZag(readVarInt(move, offset));
+			counters[i] = after ? afterValue : before;
+		}
+
+		int count = readVarInt(move, offset);
+		int[] cells = new int[count];
+		byte[] packed = new byte[count];
+		int previous = 0;
+		for (int i = 0; i < count; i++)
+		{
+			previous += readVarInt(move, offset);
+			cells[i] = previous;
+			packed[i] = move[offset[0] + (after ? 1 : 0)];
+			offset[0] += 2;
+		}
+
+		return new Move(cells, packed, counters);
+	}
+
+	private static int zigZag(int value)
+	{
+		return value << 1 ^ value >> 31;
+	}
+
+	private static int unZigZag(int value)
+	{
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private static int readVarInt(byte[] in, int[] offset)
+	{
+		int value = 0;
+		for (int shift = 0;; shift += 7)
+		{
+			byte b = in[offset[0]++];
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+	}
+
+	/**
+	 * The cells and counters to restore when a move is undone or redone.
+	 */
+	public static final class Move
+	{
+		private final int[] cells;
+		private final byte[] packed;
+		private final int[] counters;
+
+		private Move(int[] cells, byte[] packed, int[] counters)
+		{
+			this.cells = cells;
+			this.packed = packed;
+			this.counters = counters;
+		}
+
+		/**
+		 * Returns the indices of the changed cells.
+		 *
+		 * @return The indices, in ascending order.
+		 */
+		public int[] getCells()
+		{
+			return cells;
+		}
+
+		/**
+		 * Returns the state to restore of a changed cell.
+		 *
+		 * @param i The position of the cell in {@link #getCells()}.
+		 * @return The state.
+		 */
+		public int getState(int i)
+		{
+			return stateOf(packed[i]);
+		}
+
+		/**
+		 * Returns the value to restore of a changed cell.
+		 *
+		 * @param i The position of the cell in {@link #getCells()}.
+		 * @return The value.
+		 */
+		public int getValue(int i)
+		{
+			return valueOf(packed[i]);
+		}
+
+		/**
+		 * Returns the counters of the model to restore.
+		 *
+		 * @return The counters, in the order they were recorded.
+		 */
+		public int[] getCounters()
+		{
+			return counters;
+		}
+	}
+}
@@ -23,6 +23,8 @@ import javafx.scene.image.Image;
  * 	<li>Found mines</li>
  * 	<li>Total mines</li>
  * 	<li>Date</li>
+ * 	<li>Game code (optional), see {@link minesweeper.engine.GameSeed GameSeed}</li>
+ * 	<li>3BV (optional), see {@link minesweeper.engine.OpeningIndex OpeningIndex}</li>
  * </ul>
  * 
  * @author Eperjesi Ádám
@@ -37,6 +39,8 @@ public class ScoreData
 	private IntegerProperty foundMinesProperty;
 	private IntegerProperty totalMinesProperty;
 	private ObjectProperty<LocalDateTime> dateProperty;
+	private StringProperty gameCodeProperty;
+	private IntegerProperty threeBVProperty;
 	
 	/**
 	 * Creates a new instance of this class and initializes the properties.
@@ -50,6 +54,8 @@ public class ScoreData
 		this.foundMinesProperty = new SimpleIntegerProperty();
 		this.totalMinesProperty = new SimpleIntegerProperty();
 		this.dateProperty = new SimpleObjectProperty<LocalDateTime>();
+		this.gameCodeProperty = new SimpleStringProperty();
+		this.threeBVProperty = new SimpleIntegerProperty();
 	}
 	
 	/**
@@ -72,6 +78,8 @@ public class ScoreData
 		this.foundMinesProperty = new SimpleIntegerProperty(remainingMines);
 		this.totalMinesProperty = new SimpleIntegerProperty(totalMines);
 		this.dateProperty = new SimpleObjectProperty<LocalDateTime>(date);
+		this.gameCodeProperty = new SimpleStringProperty();
+		this.threeBVProperty = new SimpleIntegerProperty();
 	}
 
 	/**
@@ -200,6 +208,52 @@ public class ScoreData
 		dateProperty.set(date);
 	}
 	
+	/**
+	 * Returns the code of the game, which can regenerate its board.
+	 * @return The game code, or <b>null</b> if it's unknown.
+	 */
+	public String getGameCode()
+	{
+		return gameCodeProperty.get();
+	}
+
+	/**
+	 * Sets the code of the game.
+	 * @param gameCode The game code.
+	 */
+	public void setGameCode(String gameCode)
+	{
+		gameCodeProperty.set(gameCode);
+	}
+
+	/**
+	 * Returns the 3BV of the game, the minimum number of clicks needed to clear its board.
+	 * @return The 3BV, or 0 if it's unknown.
+	 */
+	public int get3BV()
+	{
+		return threeBVProperty.get();
+	}
+
+	/**
+	 * Sets the 3BV of the game.
+	 * @param threeBV The 3BV.
+	 */
+	public void set3BV(int threeBV)
+	{
+		threeBVProperty.set(threeBV);
+	}
+
+	/**
+	 * Returns the efficiency of the game: the 3BV cleared per second. Unlike the time, it can be compared between
+	 * boards of different difficulty.
+	 * @return The 3BV per second, or 0 if the 3BV or the time is unknown.
+	 */
+	public double getEfficiency()
+	{
+		return get3BV() > 0 && getTime() > 0 ? (double) get3BV() / getTime() : 0;
+	}
+	
 	/**
 	 * Returns the profile picture property.
 	 * @return The profile picture property.
@@ -244,4 +298,22 @@ public class ScoreData
 	{
 		return dateProperty;
 	}
+	
+	/**
+	 * Returns the game code property.
+	 * @return The game code property.
+	 */
+	public StringProperty gameCodeProperty()
+	{
+		return gameCodeProperty;
+	}
+	
+	/**
+	 * Returns the 3BV property.
+	 * @return The 3BV property.
+	 */
+	public IntegerProperty threeBVProperty()
+	{
+		return threeBVProperty;
+	}
 }
@@ -173,10 +173,14 @@ public class LocalScoreXML
 		Element dateElement = new Element("date");
 		dateElement.setText(String.valueOf(data.getDate().atZone(ZoneId.systemDefault()).toEpochSecond()));
 
+		Element bbbvElement = new Element("bbbv");
+		bbbvElement.setText(String.valueOf(data.get3BV()));
+
 		scoreElement.addContent(minesElement);
 		scoreElement.addContent(timeElement);
 		scoreElement.addContent(difficultyElement);
 		scoreElement.addContent(dateElement);
+		scoreElement.addContent(bbbvElement);
 
 		xmlDocument.getRootElement().addContent(scoreElement);
 
@@ -215,6 +219,9 @@ public class LocalScoreXML
 					sd.setDifficulty(scoreElement.getChildText("difficulty"));
 					long epochSecond = Long.parseLong(scoreElement.getChildText("date"));
 					sd.setDate(LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault()));
+					// Scores saved by older versions have no 3BV.
+					if (scoreElement.getChild("bbbv") != null)
+						sd.set3BV(Integer.parseInt(scoreElement.getChildText("bbbv")));
 
 					scoreList.add(sd);
 				}
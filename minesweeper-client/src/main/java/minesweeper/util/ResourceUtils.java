@@ -19,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javafx.scene.image.Image;
+import minesweeper.engine.CellValues;
 
 /**
  * Utility class for loading resource images.
@@ -9,6 +9,10 @@ import minesweeper.model.ScoreData;
 /**
  * Handles saving scores.
  * The interface has two default methods, one for saving a local score, and one for saving an online score.
+ * <p>
+ * The local scores also store the {@link #get3BV() 3BV} of the game. The server computes the 3BV of an online score
+ * from its game code, so it doesn't have to trust the client.
+ * </p>
  * 
  * @author Eperjesi Ádám
  *
@@ -29,7 +33,21 @@ public interface ScoreSaver
 	 */
 	public default void saveLocalScore(String name, String difficulty, int elapsedTime, int foundMines, int totalMines, LocalDateTime date) throws IOException
 	{
-		LocalScoreXML.save(new ScoreData(null, name, difficulty, elapsedTime, foundMines, totalMines, date));
+		ScoreData scoreData = new ScoreData(null, name, difficulty, elapsedTime, foundMines, totalMines, date);
+		scoreData.set3BV(get3BV());
+		LocalScoreXML.save(scoreData);
+	}
+
+	/**
+	 * Returns the 3BV of the game whose score is saved.
+	 * 
+	 * @return The 3BV, or 0 if it's unknown.
+	 * 
+	 * @see minesweeper.engine.OpeningIndex#get3BV()
+	 */
+	public default int get3BV()
+	{
+		return 0;
 	}
 	
 	/**
@@ -46,14 +64,37 @@ public interface ScoreSaver
 	 * @see ServerConnection#getConnectedUser()
 	 */
 	public default void saveOnlineScore(String difficulty, int elapsedTime, int foundMines, int totalMines, LocalDateTime date) throws IOException
+	{
+		saveOnlineScore(difficulty, elapsedTime, foundMines, totalMines, date, null);
+	}
+
+	/**
+	 * Tries to save the score on the server if available, together with the code of the game, so the server can
+	 * regenerate the board of the score. The name will be the name of the currently logged in user.
+	 * 
+	 * @param difficulty The difficulty.
+	 * @param elapsedTime The elapsed time in seconds.
+	 * @param foundMines The number of found mines.
+	 * @param totalMines The total number of mines.
+	 * @param date The current date.
+	 * @param gameCode The code of the game, see {@link minesweeper.engine.GameSeed#encode() GameSeed}, can be <b>null</b>.
+	 * @throws IOException 
+	 * 
+	 * @see ServerConnection#sendScoreData(ScoreData)
+	 * @see ServerConnection#getConnectedUser()
+	 */
+	public default void saveOnlineScore(String difficulty, int elapsedTime, int foundMines, int totalMines, LocalDateTime date, String gameCode)
+			throws IOException
 	{
 		if (ServerConnection.getConnectedUser() != null)
 		{
 			try (ServerConnection conn = new ServerConnection();)
 			{
-				conn.sendScoreData(new ScoreData(null,
+				ScoreData scoreData = new ScoreData(null,
 						ServerConnection.getConnectedUser().getFirstName() + " " + ServerConnection.getConnectedUser().getLastName(), difficulty,
-						elapsedTime, foundMines, totalMines, date));
+						elapsedTime, foundMines, totalMines, date);
+				scoreData.setGameCode(gameCode);
+				conn.sendScoreData(scoreData);
 			}
 			catch (IOException e)
 			{
@@ -0,0 +1,168 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import minesweeper.engine.CellValues;
+import minesweeper.model.BoardChangeListener;
+import minesweeper.model.Cell;
+import minesweeper.model.MinesweeperModel;
+
+public class BoardChangeTest
+{
+	MinesweeperModel model;
+	List<int[]> notifications;
+
+	@Before
+	public void initModel() throws IOException
+	{
+		model = spy(new MinesweeperModel());
+		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
+		doNothing().when(model).firstClick(anyInt(), anyInt());
+
+		notifications = new ArrayList<int[]>();
+		model.addBoardChangeListener(changedCells -> notifications.add(changedCells));
+	}
+
+	@Test
+	public void floodFillShouldNotifyOnce()
+	{
+		// A single mine in the bottom right corner of a 3x3 board. One click opens every other cell, and the win shows the
+		// mine too.
+		model.initCells(3, 3, 1);
+		model.getCell(2, 2).setValue(CellValues.CELL_MINE);
+		model.getBoard().countNeighbours();
+		notifications.clear();
+
+		model.open(model.getCell(0, 0));
+
+		assertEquals(1, notifications.size());
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 }, notifications.get(0));
+	}
+
+	@Test
+	public void losingShouldNotifyOnce()
+	{
+		model.initCells(3, 3, 2);
+		model.getCell(0, 0).setValue(CellValues.CELL_MINE);
+		model.getCell(2, 2).setValue(CellValues.CELL_MINE);
+		model.getBoard().countNeighbours();
+		notifications.clear();
+
+		model.open(model.getCell(0, 0));
+
+		assertEquals(1, notifications.size());
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 }, notifications.get(0));
+	}
+
+	@Test
+	public void losingAHugeBoardShouldOnlyNotifyTheReveal()
+	{
+		List<String> reveals = new ArrayList<String>();
+		model.addBoardChangeListener(new BoardChangeListener()
+		{
+			@Override
+			public void boardChanged(int[] changedCells)
+			{
+			}
+
+			@Override
+			public void boardRevealed()
+			{
+				reveals.add("revealed");
+			}
+		});
+
+		model.setHugeBoardMode(true);
+		model.initCells(3, 3, 2);
+		model.getCell(0, 0).setValue(CellValues.CELL_MINE);
+		model.getCell(2, 2).setValue(CellValues.CELL_MINE);
+		model.getBoard().countNeighbours();
+		Cell wrongFlag = model.getCell(1, 1);
+		wrongFlag.setState(Cell.STATE_FLAGGED);
+		model.getCell(2, 2).setState(Cell.STATE_FLAGGED);
+		notifications.clear();
+
+		model.open(model.getCell(0, 0));
+
+		assertEquals(0, notifications.size());
+		assertEquals(1, reveals.size());
+		assertEquals(Cell.STATE_CLICKED, wrongFlag.getState());
+		assertEquals(CellValues.CELL_WRONG_MINE, wrongFlag.getValue());
+		for (int i = 0; i < 9; i++)
+		{
+			assertEquals(Cell.STATE_CLICKED, model.getBoard().getState(i));
+		}
+	}
+
+	@Test
+	public void changingACellDirectlyShouldNotifyOnce()
+	{
+		model.initCells(3, 3, 1);
+		Cell cell = model.getCell(1, 2);
+
+		cell.setState(Cell.STATE_FLAGGED);
+
+		assertEquals(1, notifications.size());
+		assertArrayEquals(new int[] { 5 }, notifications.get(0));
+	}
+
+	@Test
+	public void releasedCellShouldNotChangeTheBoard()
+	{
+		model.initCells(16, 30, 99);
+		Cell inside = model.getCell(2, 3);
+		Cell outside = model.getCell(10, 20);
+
+		model.retainCells(0, 0, 5, 5);
+		outside.setState(Cell.STATE_FLAGGED);
+
+		assertEquals(0, notifications.size());
+		assertEquals(Cell.STATE_HIDDEN, model.getBoard().getState(model.getBoard().indexOf(10, 20)));
+		assertSame(inside, model.getCell(2, 3));
+		assertNotSame(outside, model.getCell(10, 20));
+		assertEquals(Cell.STATE_HIDDEN, model.getCell(10, 20).getState());
+	}
+
+	@Test
+	public void nestedBatchesShouldNotifyOnceWithEveryCellOnce()
+	{
+		model.initCells(3, 3, 1);
+		Cell first = model.getCell(0, 1);
+		Cell second = model.getCell(2, 0);
+
+		model.batch(() ->
+		{
+			second.setState(Cell.STATE_FLAGGED);
+			model.batch(() -> first.setState(Cell.STATE_FLAGGED));
+			second.setState(Cell.STATE_QUESTION);
+			assertEquals(0, notifications.size());
+		});
+
+		assertEquals(1, notifications.size());
+		assertArrayEquals(new int[] { 1, 6 }, notifications.get(0));
+	}
+
+	@Test
+	public void emptyBatchShouldNotNotify()
+	{
+		model.initCells(3, 3, 1);
+
+		model.batch(() -> {});
+
+		assertEquals(0, notifications.size());
+	}
+}
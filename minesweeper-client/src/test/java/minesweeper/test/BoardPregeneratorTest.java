@@ -0,0 +1,98 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.BoardPregenerator;
+import minesweeper.engine.GameSeed;
+import minesweeper.engine.MineLayout;
+import minesweeper.model.MinesweeperModel;
+
+public class BoardPregeneratorTest
+{
+	@Test
+	public void layoutShouldGiveTheBoardOfTheGameSeed()
+	{
+		// A sparse board is placed by sampling, a dense one by shuffling.
+		int[][] games = { { 16, 30, 20 }, { 16, 30, 200 } };
+
+		for (int[] game : games)
+		{
+			MineLayout layout = MineLayout.generate(game[0], game[1], game[2], 42);
+			int size = game[0] * game[1];
+
+			for (int excluded : new int[] { 0, 1, 250, size - 2, size - 1 })
+			{
+				Board expected = new ArrayBoard(game[0], game[1]);
+				new GameSeed(game[0], game[1], game[2], 42, excluded / game[1], excluded % game[1]).generate(expected);
+
+				Board board = new ArrayBoard(game[0], game[1]);
+				layout.apply(board, excluded);
+				board.countNeighbours();
+
+				for (int i = 0; i < size; i++)
+				{
+					assertEquals(expected.getValue(i), board.getValue(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void pregeneratorShouldOnlyHandOutTheLayoutOfTheCurrentSeed() throws InterruptedException
+	{
+		BoardPregenerator pregenerator = new BoardPregenerator(new SplittableRandom(1));
+
+		long seed = pregenerator.nextSeed(16, 30, 99);
+		waitUntilReady(pregenerator);
+		MineLayout layout = pregenerator.take(seed);
+
+		assertNotNull(layout);
+		assertEquals(seed, layout.getSeed());
+		assertEquals(99, layout.getMines());
+
+		// The layout is only taken once.
+		assertNull(pregenerator.take(seed));
+
+		long next = pregenerator.nextSeed(16, 30, 99);
+		assertNotEquals(seed, next);
+		waitUntilReady(pregenerator);
+		assertNull(pregenerator.take(next + 1));
+	}
+
+	@Test
+	public void firstClickShouldUseThePregeneratedLayout() throws InterruptedException
+	{
+		MinesweeperModel model = new MinesweeperModel();
+
+		for (int game = 0; game < 5; game++)
+		{
+			model.initCells(16, 30, 99);
+			Thread.sleep(20);
+			model.firstClick(3, 7);
+
+			Board expected = new ArrayBoard(16, 30);
+			model.getGameSeed().generate(expected);
+			for (int i = 0; i < expected.size(); i++)
+			{
+				assertEquals(expected.getValue(i), model.getBoard().getValue(i));
+			}
+		}
+	}
+
+	private static void waitUntilReady(BoardPregenerator pregenerator) throws InterruptedException
+	{
+		for (int i = 0; i < 500 && !pregenerator.isReady(); i++)
+		{
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.BoardSnapshot;
+import minesweeper.engine.CellValues;
+import minesweeper.model.MinesweeperModel;
+
+public class BoardSnapshotTest
+{
+	@Test
+	public void updateShouldOnlyCopyTheChangedPages()
+	{
+		Board board = new ArrayBoard(30, 60);
+		board.setValue(5, CellValues.CELL_MINE);
+		BoardSnapshot first = BoardSnapshot.of(board);
+
+		board.setState(1000, Board.STATE_CLICKED);
+		board.setValue(1000, CellValues.CELL_3);
+		board.setState(1001, Board.STATE_FLAGGED);
+		BoardSnapshot second = first.update(board, new int[] { 1000, 1001 });
+
+		assertEquals(Board.STATE_HIDDEN, first.getState(1000));
+		assertEquals(CellValues.CELL_EMPTY, first.getValue(1000));
+		assertEquals(0, first.getClickedCount());
+
+		assertEquals(Board.STATE_CLICKED, second.getState(1000));
+		assertEquals(CellValues.CELL_3, second.getValue(1000));
+		assertEquals(Board.STATE_FLAGGED, second.getState(1001));
+		assertEquals(CellValues.CELL_MINE, second.getValue(5));
+		assertEquals(1, second.getClickedCount());
+		assertEquals(1, second.getFlaggedCount());
+		assertEquals(1, second.getVersion());
+
+		assertFalse(second.sharesPage(first, 1000));
+		assertTrue(second.sharesPage(first, 5));
+		assertTrue(second.sharesPage(first, board.size() - 1));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void snapshotShouldNotBeChanged()
+	{
+		BoardSnapshot.of(new ArrayBoard(3, 3)).setState(0, Board.STATE_FLAGGED);
+	}
+
+	@Test
+	public void modelShouldPublishASnapshotAfterEveryMove()
+	{
+		MinesweeperModel model = new MinesweeperModel();
+		model.initCells(16, 30, 99);
+		BoardSnapshot before = model.getSnapshot();
+
+		model.open(model.getCell(8, 15));
+		BoardSnapshot after = model.getSnapshot();
+
+		Board board = model.getBoard();
+		assertEquals(0, before.getClickedCount());
+		assertEquals(board.size() - model.getNotClickedCells(), after.getClickedCount());
+		for (int i = 0; i < board.size(); i++)
+		{
+			assertEquals(Board.STATE_HIDDEN, before.getState(i));
+			assertEquals(board.getState(i), after.getState(i));
+			assertEquals(board.getValue(i), after.getValue(i));
+		}
+
+		model.setHugeBoardMode(true);
+		model.initCells(16, 30, 99);
+		assertNull(model.getSnapshot());
+	}
+
+	@Test
+	public void readerShouldAlwaysSeeAConsistentSnapshot() throws InterruptedException
+	{
+		MinesweeperModel model = new MinesweeperModel();
+		model.initCells(16, 30, 99);
+
+		AtomicReference<String> error = new AtomicReference<>();
+		Thread reader = new Thread(() ->
+		{
+			long version = -1;
+			while (!Thread.currentThread().isInterrupted())
+			{
+				BoardSnapshot snapshot = model.getSnapshot();
+				int flagged = 0;
+				for (int i = 0; i < snapshot.size(); i++)
+				{
+					if (snapshot.getState(i) == Board.STATE_FLAGGED)
+						flagged++;
+				}
+
+				if (flagged != snapshot.getFlaggedCount() || snapshot.getVersion() < version)
+					error.set("Inconsistent snapshot, version " + snapshot.getVersion());
+				version = snapshot.getVersion();
+			}
+		});
+		reader.start();
+
+		// Every mark publishes a new snapshot: hidden, flagged, questioned, then hidden again.
+		for (int round = 0; round < 30; round++)
+		{
+			for (int col = 0; col < 30; col++)
+			{
+				model.mark(model.getCell(round % 16, col));
+			}
+		}
+
+		reader.interrupt();
+		reader.join();
+
+		assertNull(error.get());
+		assertEquals(900, model.getSnapshot().getVersion());
+	}
+}
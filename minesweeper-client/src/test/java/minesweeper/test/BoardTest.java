@@ -0,0 +1,78 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.model.Cell;
+import minesweeper.model.MinesweeperModel;
+
+public class BoardTest
+{
+	MinesweeperModel model;
+
+	@Before
+	public void initModel()
+	{
+		model = new MinesweeperModel();
+		model.initCells(4, 6, 5);
+	}
+
+	@Test
+	public void newBoardShouldBeHiddenAndEmpty()
+	{
+		Board board = new ArrayBoard(3, 5);
+
+		assertEquals(15, board.size());
+		for (int i = 0; i < board.size(); i++)
+		{
+			assertEquals(Board.STATE_HIDDEN, board.getState(i));
+			assertEquals(CellValues.CELL_EMPTY, board.getValue(i));
+		}
+	}
+
+	@Test
+	public void indexShouldMapToRowAndColumn()
+	{
+		Board board = new ArrayBoard(3, 5);
+		int index = board.indexOf(2, 3);
+
+		assertEquals(13, index);
+		assertEquals(2, board.rowOf(index));
+		assertEquals(3, board.colOf(index));
+	}
+
+	@Test
+	public void changingACellShouldChangeTheBoard()
+	{
+		Cell cell = model.getCell(2, 4);
+		cell.setValue(CellValues.CELL_3);
+		cell.setState(Cell.STATE_FLAGGED);
+
+		Board board = model.getBoard();
+		assertEquals(CellValues.CELL_3, board.getValue(board.indexOf(2, 4)));
+		assertEquals(Cell.STATE_FLAGGED, board.getState(board.indexOf(2, 4)));
+	}
+
+	@Test
+	public void pressingACellShouldKeepItHiddenOnTheBoard()
+	{
+		model.getCell(1, 1).setState(Cell.STATE_PRESSED);
+
+		Board board = model.getBoard();
+		assertEquals(Cell.STATE_HIDDEN, board.getState(board.indexOf(1, 1)));
+	}
+
+	@Test
+	public void gettingACellTwiceShouldReturnTheSameView()
+	{
+		assertSame(model.getCell(3, 5), model.getCell(3, 5));
+		assertNull(model.getCell(4, 0));
+	}
+}
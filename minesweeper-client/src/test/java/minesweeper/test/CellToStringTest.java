@@ -4,8 +4,8 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
+import minesweeper.engine.CellValues;
 import minesweeper.model.Cell;
-import minesweeper.util.CellValues;
 
 public class CellToStringTest
 {
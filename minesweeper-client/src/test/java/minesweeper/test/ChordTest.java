@@ -0,0 +1,114 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.CompactBoard;
+import minesweeper.engine.NeighbourCounts;
+import minesweeper.model.Cell;
+import minesweeper.model.MinesweeperModel;
+
+public class ChordTest
+{
+	MinesweeperModel model;
+
+	@Before
+	public void initModel() throws IOException
+	{
+		model = spy(new MinesweeperModel());
+		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
+		doNothing().when(model).firstClick(anyInt(), anyInt());
+
+		// A mine in the top left corner, the opened 1 in the middle.
+		model.initCells(3, 3, 1);
+		model.getCell(0, 0).setValue(CellValues.CELL_MINE);
+		model.getCell(0, 1).setValue(CellValues.CELL_1);
+		model.getCell(1, 0).setValue(CellValues.CELL_1);
+		model.getCell(1, 1).setValue(CellValues.CELL_1);
+		model.open(model.getCell(1, 1));
+	}
+
+	@Test
+	public void chordShouldNotOpenAnythingWithoutEnoughFlags()
+	{
+		model.doubleClickOpen(model.getCell(1, 1));
+
+		assertEquals(Cell.STATE_HIDDEN, model.getCell(2, 2).getState());
+		assertEquals(8, model.getNotClickedCells());
+	}
+
+	@Test
+	public void chordShouldOpenTheHiddenNeighboursOfASatisfiedNumber()
+	{
+		model.getCell(0, 0).setState(Cell.STATE_FLAGGED);
+		assertTrue(model.getNeighbourCounts().isSatisfied(model.getBoard().indexOf(1, 1)));
+
+		model.doubleClickOpen(model.getCell(1, 1));
+
+		assertEquals(Cell.STATE_CLICKED, model.getCell(2, 2).getState());
+		assertEquals(Cell.STATE_CLICKED, model.getCell(0, 2).getState());
+		assertTrue(model.isGameOver());
+		assertEquals(CellValues.CELL_GOOD, model.getCell(0, 0).getValue());
+	}
+
+	@Test
+	public void chordWithAWrongFlagShouldOpenTheMine()
+	{
+		model.getCell(2, 2).setState(Cell.STATE_FLAGGED);
+
+		model.doubleClickOpen(model.getCell(1, 1));
+
+		assertTrue(model.isGameOver());
+		assertEquals(CellValues.CELL_EXPLOSION, model.getCell(0, 0).getValue());
+		assertEquals(CellValues.CELL_WRONG_MINE, model.getCell(2, 2).getValue());
+	}
+
+	@Test
+	public void countsShouldFollowTheStatesOfTheNeighbours()
+	{
+		Board board = new CompactBoard(100, 100);
+		NeighbourCounts counts = new NeighbourCounts(board);
+		Random random = new Random(3);
+		int[] states = { Board.STATE_HIDDEN, Board.STATE_FLAGGED, Board.STATE_QUESTION, Board.STATE_CLICKED };
+
+		for (int i = 0; i < 2000; i++)
+		{
+			counts.setState(random.nextInt(50 * 100), states[random.nextInt(states.length)]);
+		}
+		assertEquals(2, counts.getPageCount());
+
+		for (int index = 0; index < board.size(); index++)
+		{
+			int hidden = 0;
+			int flagged = 0;
+			for (int row = board.rowOf(index) - 1; row <= board.rowOf(index) + 1; row++)
+			{
+				for (int col = board.colOf(index) - 1; col <= board.colOf(index) + 1; col++)
+				{
+					int neighbour = board.indexOf(row, col);
+					if (board.contains(row, col) && neighbour != index)
+					{
+						hidden += board.getState(neighbour) == Board.STATE_HIDDEN ? 1 : 0;
+						flagged += board.getState(neighbour) == Board.STATE_FLAGGED ? 1 : 0;
+					}
+				}
+			}
+			assertEquals(hidden, counts.getHidden(index));
+			assertEquals(flagged, counts.getFlagged(index));
+		}
+		assertFalse(counts.canChord(0));
+	}
+}
@@ -0,0 +1,94 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.CompactBoard;
+import minesweeper.model.MinesweeperModel;
+
+public class CompactBoardTest
+{
+	@Test
+	public void cellsShouldNotOverwriteEachOther()
+	{
+		Board board = new CompactBoard(7, 11);
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			board.setState(i, Board.STATE_HIDDEN + i % 4);
+			board.setValue(i, i % 10);
+		}
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			assertEquals(Board.STATE_HIDDEN + i % 4, board.getState(i));
+			assertEquals(i % 10, board.getValue(i));
+		}
+	}
+
+	@Test
+	public void lazyCountShouldMatchEagerCount()
+	{
+		Board compact = new CompactBoard(23, 37);
+		Board array = new ArrayBoard(23, 37);
+
+		for (int i = 0; i < compact.size(); i += 3 + i % 5)
+		{
+			compact.setValue(i, CellValues.CELL_MINE);
+			array.setValue(i, CellValues.CELL_MINE);
+		}
+
+		compact.countNeighbours();
+		array.countNeighbours();
+
+		for (int i = 0; i < compact.size(); i++)
+		{
+			assertEquals(array.getValue(i), compact.getValue(i));
+		}
+	}
+
+	@Test
+	public void lazyCountShouldCountTheShownMines()
+	{
+		Board board = new CompactBoard(3, 4);
+		board.setValue(board.indexOf(1, 1), CellValues.CELL_MINE);
+		board.setValue(board.indexOf(1, 2), CellValues.CELL_MINE);
+		board.countNeighbours();
+
+		// The mines are shown before their neighbours are read for the first time.
+		board.setValue(board.indexOf(1, 1), CellValues.CELL_EXPLOSION);
+		board.setValue(board.indexOf(1, 2), CellValues.CELL_GOOD);
+
+		assertEquals(CellValues.CELL_1, board.getValue(board.indexOf(0, 0)));
+		assertEquals(CellValues.CELL_2, board.getValue(board.indexOf(2, 1)));
+		assertEquals(CellValues.CELL_1, board.getValue(board.indexOf(1, 3)));
+	}
+
+	@Test
+	public void hugeBoardModeShouldAllowLargerBoards()
+	{
+		MinesweeperModel model = new MinesweeperModel();
+		model.setHugeBoardMode(true);
+		model.initCells(1000, 2000, 400000);
+
+		assertEquals(1000, model.getRows());
+		assertEquals(2000, model.getCols());
+		assertTrue(model.getBoard() instanceof CompactBoard);
+
+		model.firstClick(500, 1000);
+
+		int mines = 0;
+		for (int i = 0; i < model.getBoard().size(); i++)
+		{
+			if (model.getBoard().getValue(i) == CellValues.CELL_MINE)
+				mines++;
+		}
+		assertEquals(400000, mines);
+		assertTrue(model.getBoard().getValue(model.getBoard().indexOf(500, 1000)) != CellValues.CELL_MINE);
+	}
+}
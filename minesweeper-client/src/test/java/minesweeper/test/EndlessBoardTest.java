@@ -0,0 +1,158 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.ChunkStore;
+import minesweeper.engine.EndlessBoard;
+import minesweeper.model.MinesweeperModel;
+
+public class EndlessBoardTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private EndlessBoard newBoard(long seed, int maxLoadedChunks) throws IOException
+	{
+		return new EndlessBoard(seed, MinesweeperModel.ENDLESS_MINE_DENSITY, new ChunkStore(folder.newFolder()), maxLoadedChunks);
+	}
+
+	@Test
+	public void sameSeedShouldGenerateSameMines() throws IOException
+	{
+		EndlessBoard first = newBoard(42, 16);
+		EndlessBoard second = newBoard(42, 16);
+
+		for (int row = -100; row < 100; row += 7)
+		{
+			for (int col = -3000; col < 3000; col += 13)
+			{
+				assertEquals(first.isMine(row, col), second.isMine(row, col));
+			}
+		}
+	}
+
+	@Test
+	public void startShouldNotBeMine() throws IOException
+	{
+		for (long seed = 0; seed < 50; seed++)
+		{
+			EndlessBoard board = newBoard(seed, 16);
+			for (int row = -1; row <= 1; row++)
+			{
+				for (int col = -1; col <= 1; col++)
+				{
+					assertFalse(board.isMine(row, col));
+				}
+			}
+			assertTrue(board.open(0, 0) >= 9);
+		}
+	}
+
+	@Test
+	public void invalidDensityShouldBeRejected() throws IOException
+	{
+		for (double density : new double[] { 0, -0.1, 1, Double.NaN })
+		{
+			try
+			{
+				new EndlessBoard(1, density, new ChunkStore(folder.newFolder()));
+				fail();
+			}
+			catch (IllegalArgumentException e)
+			{
+			}
+		}
+	}
+
+	@Test
+	public void fillShouldBeLimitedByTheLoadedChunks() throws IOException
+	{
+		// Almost every region is endless at this density, so only the limit stops the fill.
+		EndlessBoard board = new EndlessBoard(3, 0.01, new ChunkStore(folder.newFolder()), 9);
+
+		int opened = board.open(0, 0);
+		assertTrue(opened > board.getMaxOpenedCells() / 2);
+		assertTrue(opened <= board.getMaxOpenedCells());
+		assertEquals(opened, board.getOpenedCells());
+		assertTrue(board.getLoadedChunkCount() <= 9);
+
+		// The empty cells at the edge of the fill are hidden again, clicking one of them opens the next part.
+		int hidden = 0;
+		for (int row = -100; row <= 100; row++)
+		{
+			for (int col = -100; col <= 100; col++)
+			{
+				if (board.getState(row, col) == Board.STATE_HIDDEN && board.getValue(row, col) == CellValues.CELL_EMPTY
+						&& hasOpenedNeighbour(board, row, col))
+				{
+					hidden++;
+					if (hidden == 1)
+						assertTrue(board.open(row, col) > 0);
+				}
+			}
+		}
+		assertTrue(hidden > 0);
+	}
+
+	private static boolean hasOpenedNeighbour(EndlessBoard board, int row, int col)
+	{
+		for (int i = row - 1; i <= row + 1; i++)
+		{
+			for (int j = col - 1; j <= col + 1; j++)
+			{
+				if (board.getState(i, j) == Board.STATE_CLICKED)
+					return true;
+			}
+		}
+		return false;
+	}
+
+	@Test
+	public void evictedChunksShouldKeepTheirStates() throws IOException
+	{
+		EndlessBoard board = newBoard(7, 9);
+
+		board.setState(5, -5, Board.STATE_FLAGGED);
+		board.setState(-40, 70, Board.STATE_QUESTION);
+
+		// Walking far away evicts the chunks above, but never keeps more than the limit in memory.
+		for (int i = 0; i < 100; i++)
+		{
+			board.getState(i * EndlessBoard.CHUNK_SIZE, 100000);
+			assertTrue(board.getLoadedChunkCount() <= 9);
+		}
+
+		assertEquals(Board.STATE_FLAGGED, board.getState(5, -5));
+		assertEquals(Board.STATE_QUESTION, board.getState(-40, 70));
+		assertEquals(Board.STATE_HIDDEN, board.getState(5, -4));
+	}
+
+	@Test
+	public void storeShouldReadWrittenChunks() throws IOException
+	{
+		ChunkStore store = new ChunkStore(folder.newFolder());
+		long[] written = new long[EndlessBoard.CHUNK_STATE_LENGTH];
+		long[] read = new long[EndlessBoard.CHUNK_STATE_LENGTH];
+		written[0] = 0b1001;
+		written[written.length - 1] = -1L;
+
+		store.write(-33, 65, written);
+		store.read(-33, 65, read);
+		assertArrayEquals(written, read);
+
+		store.read(-33, 64, read);
+		assertArrayEquals(new long[EndlessBoard.CHUNK_STATE_LENGTH], read);
+	}
+}
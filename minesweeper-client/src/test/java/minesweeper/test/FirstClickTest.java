@@ -9,9 +9,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import minesweeper.engine.CellValues;
 import minesweeper.model.Cell;
 import minesweeper.model.MinesweeperModel;
-import minesweeper.util.CellValues;
 
 public class FirstClickTest
 {
@@ -0,0 +1,174 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.GameSeed;
+import minesweeper.engine.OpeningIndex;
+import minesweeper.model.MinesweeperModel;
+
+public class FloodFillTest
+{
+	@Test
+	public void revealingAnEmptyBoardShouldNotOverflowTheStack()
+	{
+		Board board = new ArrayBoard(1000, 1000);
+
+		int[] revealed = new FloodFill(board).reveal(board.indexOf(500, 500));
+
+		assertEquals(board.size(), revealed.length);
+	}
+
+	@Test
+	public void revealShouldStopAtFlagsAndNumbers()
+	{
+		Board board = new ArrayBoard(3, 3);
+		board.setValue(board.indexOf(0, 2), CellValues.CELL_MINE);
+		board.setValue(board.indexOf(0, 1), CellValues.CELL_1);
+		board.setValue(board.indexOf(1, 1), CellValues.CELL_1);
+		board.setValue(board.indexOf(1, 2), CellValues.CELL_1);
+		board.setState(board.indexOf(1, 0), Board.STATE_FLAGGED);
+
+		int[] revealed = new FloodFill(board).reveal(board.indexOf(2, 0));
+
+		// The bottom row and its numbered border, the flag hides the top left corner.
+		assertEquals(5, revealed.length);
+		for (int index : revealed)
+		{
+			assertTrue(board.getValue(index) != CellValues.CELL_MINE);
+			assertTrue(index != board.indexOf(1, 0));
+		}
+	}
+
+	@Test
+	public void revealingARegionShouldUpdateTheModelInOneBatch() throws IOException
+	{
+		MinesweeperModel model = spy(new MinesweeperModel());
+		doNothing().when(model).firstClick(anyInt(), anyInt());
+		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
+
+		model.initCells(5, 5, 1);
+		model.getCell(4, 4).setValue(CellValues.CELL_MINE);
+		model.getCell(3, 3).setValue(CellValues.CELL_1);
+		model.getCell(3, 4).setValue(CellValues.CELL_1);
+		model.getCell(4, 3).setValue(CellValues.CELL_1);
+
+		model.open(model.getCell(0, 0));
+
+		assertEquals(1, model.getNotClickedCells());
+		assertTrue(model.isGameOver());
+		assertEquals(0, model.getRemainingMines());
+	}
+
+	@Test
+	public void fillShouldFindTheSameCellsAsRevealWithoutCopying()
+	{
+		Board board = new ArrayBoard(30, 30);
+		new GameSeed(30, 30, 90, 4, 15, 15).generate(board);
+		FloodFill floodFill = new FloodFill(board);
+
+		int[] revealed = floodFill.reveal(board.indexOf(15, 15));
+		int count = floodFill.fill(board.indexOf(15, 15));
+
+		assertEquals(revealed.length, count);
+		assertArrayEquals(revealed, Arrays.copyOf(floodFill.getFilled(), count));
+	}
+
+	@Test
+	public void indexedFillShouldOpenTheSameCellsAsTheWalk()
+	{
+		Random random = new Random(11);
+		int[] states = { Board.STATE_FLAGGED, Board.STATE_QUESTION, Board.STATE_CLICKED };
+		for (int game = 0; game < 20; game++)
+		{
+			Board board = new ArrayBoard(16, 30);
+			new GameSeed(16, 30, 20 + game * 3, game, 8, 15).generate(board);
+			for (int i = 0; i < 15; i++)
+			{
+				board.setState(random.nextInt(board.size()), states[random.nextInt(states.length)]);
+			}
+
+			FloodFill walking = new FloodFill(board);
+			FloodFill indexed = new FloodFill(board);
+			indexed.setOpenings(OpeningIndex.of(board));
+			for (int index = 0; index < board.size(); index++)
+			{
+				if (board.getValue(index) == CellValues.CELL_MINE || board.getState(index) != Board.STATE_HIDDEN)
+					continue;
+
+				int[] expected = walking.reveal(index);
+				int count = indexed.fill(index);
+				int[] actual = Arrays.copyOf(indexed.getFilled(), count);
+				Arrays.sort(expected);
+				Arrays.sort(actual);
+				assertArrayEquals(expected, actual);
+			}
+		}
+	}
+
+	@Test
+	public void threeBVShouldCountTheOpeningsAndTheIsolatedNumbers()
+	{
+		// M 1 1 M 1 _
+		Board board = new ArrayBoard(1, 6);
+		board.setValue(0, CellValues.CELL_MINE);
+		board.setValue(3, CellValues.CELL_MINE);
+		board.countNeighbours();
+
+		OpeningIndex openings = OpeningIndex.of(board);
+
+		assertEquals(1, openings.getOpeningCount());
+		assertEquals(0, openings.getOpening(5));
+		assertEquals(-1, openings.getOpening(4));
+		assertArrayEquals(new int[] { 5, 4 }, Arrays.copyOfRange(openings.getCells(), openings.getStart(0), openings.getEnd(0)));
+		// The opening, and the two numbers between the mines.
+		assertEquals(3, openings.get3BV());
+
+		Board empty = new ArrayBoard(10, 10);
+		assertEquals(1, OpeningIndex.of(empty).get3BV());
+	}
+
+	@Test
+	public void threeBVShouldBeKeptWhenTheGameIsWon() throws IOException
+	{
+		MinesweeperModel model = spy(new MinesweeperModel());
+		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
+
+		GameSeed gameSeed = new GameSeed(9, 9, 10, 3, 4, 4);
+		Board board = new ArrayBoard(9, 9);
+		gameSeed.generate(board);
+		int threeBV = OpeningIndex.of(board).get3BV();
+
+		model.newGame(gameSeed);
+		assertEquals(threeBV, model.get3BV());
+		for (int i = 0; i < board.size() && !model.isGameOver(); i++)
+		{
+			if (board.getValue(i) != CellValues.CELL_MINE)
+				model.open(model.getCell(board.rowOf(i), board.colOf(i)));
+		}
+
+		assertTrue(model.isGameOver());
+		assertEquals(10, model.getNotClickedCells());
+		assertEquals(threeBV, model.get3BV());
+
+		model.newGame();
+		assertEquals(0, model.get3BV());
+	}
+}
@@ -0,0 +1,160 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.GameSeed;
+import minesweeper.engine.NoGuessGenerator;
+import minesweeper.model.MinesweeperModel;
+import minesweeper.solver.FrontierSolver;
+import minesweeper.solver.IntSet;
+import minesweeper.solver.NeighbourTable;
+
+@RunWith(JUnitParamsRunner.class)
+public class FrontierSolverTest
+{
+	@Test
+	public void intSetShouldBehaveLikeAHashSet()
+	{
+		IntSet set = new IntSet();
+		Set<Integer> expected = new HashSet<Integer>();
+		Random random = new Random(5);
+
+		for (int i = 0; i < 100000; i++)
+		{
+			int value = random.nextInt(2000);
+			if (random.nextBoolean())
+				assertEquals(expected.add(value), set.add(value));
+			else
+				assertEquals(expected.remove(value), set.remove(value));
+
+			assertEquals(expected.size(), set.size());
+		}
+
+		for (int value = 0; value < 2000; value++)
+		{
+			assertEquals(expected.contains(value), set.contains(value));
+		}
+		assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), set.toArray());
+	}
+
+	@Test
+	@Parameters({ "1, 1, 0, 0, 0", "5, 5, 0, 0, 3", "5, 5, 0, 2, 5", "5, 5, 2, 2, 8", "1, 3, 0, 1, 2", "2, 2, 1, 1, 3" })
+	public void neighbourTableShouldOnlyContainCellsOnTheBoard(int rows, int cols, int row, int col, int expected)
+	{
+		int[] offsets = new NeighbourTable(rows, cols, 1).offsets(row * cols + col);
+
+		assertEquals(expected, offsets.length);
+		for (int offset : offsets)
+		{
+			int neighbour = row * cols + col + offset;
+			assertTrue(Math.abs(neighbour / cols - row) <= 1 && Math.abs(neighbour % cols - col) <= 1);
+		}
+		assertEquals(24, new NeighbourTable(9, 9, 2).offsets(40).length);
+	}
+
+	@Test
+	@Parameters({ "9, 9, 10", "16, 16, 40", "16, 30, 99", "30, 30, 180" })
+	public void incrementalUpdatesShouldMatchARebuild(int rows, int cols, int mines)
+	{
+		Random random = new Random(rows * cols + mines);
+
+		for (int game = 0; game < 5; game++)
+		{
+			Board board = new ArrayBoard(rows, cols);
+			int first = random.nextInt(board.size());
+			new GameSeed(rows, cols, mines, random.nextLong(), board.rowOf(first), board.colOf(first)).generate(board);
+
+			FrontierSolver solver = new FrontierSolver(board);
+			open(board, solver, first);
+
+			while (true)
+			{
+				for (int safe : solver.getSafeCells())
+				{
+					assertNotEquals(CellValues.CELL_MINE, board.getValue(safe));
+				}
+				for (int mine : solver.getMineCells())
+				{
+					assertEquals(CellValues.CELL_MINE, board.getValue(mine));
+				}
+
+				FrontierSolver rebuilt = new FrontierSolver(board);
+				rebuilt.rebuild();
+				assertArrayEquals(rebuilt.getFrontier(), solver.getFrontier());
+				assertArrayEquals(rebuilt.getSafeCells(), solver.getSafeCells());
+				assertArrayEquals(rebuilt.getMineCells(), solver.getMineCells());
+
+				// Opens a known safe cell if there is one, otherwise a random safe cell, like a lucky guess.
+				int[] safeCells = solver.getSafeCells();
+				int next = -1;
+				if (safeCells.length > 0)
+				{
+					next = safeCells[random.nextInt(safeCells.length)];
+				}
+				else
+				{
+					for (int i = random.nextInt(board.size()), tries = 0; tries < board.size(); i = (i + 1) % board.size(), tries++)
+					{
+						if (board.getState(i) != Board.STATE_CLICKED && board.getValue(i) != CellValues.CELL_MINE)
+						{
+							next = i;
+							break;
+						}
+					}
+				}
+
+				if (next < 0)
+					break;
+				open(board, solver, next);
+			}
+		}
+	}
+
+	private void open(Board board, FrontierSolver solver, int index)
+	{
+		int[] opened = new FloodFill(board).reveal(index);
+		for (int cell : opened)
+		{
+			board.setState(cell, Board.STATE_CLICKED);
+		}
+		solver.update(opened);
+	}
+
+	@Test
+	public void safeCellsShouldWinANoGuessGame() throws IOException
+	{
+		GameSeed gameSeed = new NoGuessGenerator().generate(16, 30, 99, 11, 8, 15);
+		MinesweeperModel model = spy(new MinesweeperModel());
+		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
+		model.newGame(gameSeed);
+
+		int[] safeCells;
+		while (!model.isGameOver() && (safeCells = model.getFrontierSolver().getSafeCells()).length > 0)
+		{
+			model.open(model.getCell(safeCells[0] / 30, safeCells[0] % 30));
+		}
+
+		assertEquals(99, model.getFrontierSolver().getMineCells().length);
+		assertEquals(model.getTotalMineCount(), model.getNotClickedCells());
+	}
+}
@@ -0,0 +1,83 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.GameSeed;
+import minesweeper.model.MinesweeperModel;
+
+@RunWith(JUnitParamsRunner.class)
+public class GameSeedTest
+{
+	@Test
+	@Parameters({ "9, 9, 10, 0, 4, 4", "16, 30, 99, -6148914691236517206, 15, 29", "1000, 2000, 300000, 9223372036854775807, 0, 0" })
+	public void decodeShouldReturnTheEncodedGameSeed(int rows, int cols, int mines, long seed, int row, int col)
+	{
+		GameSeed gameSeed = new GameSeed(rows, cols, mines, seed, row, col);
+
+		assertEquals(gameSeed, GameSeed.decode(gameSeed.encode()));
+	}
+
+	@Test
+	public void hardGameCodeShouldBeShort()
+	{
+		assertEquals(19, new GameSeed(16, 30, 99, Long.MIN_VALUE, 15, 29).encode().length());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	@Parameters({ "", "AQ", "AhAeYw", "not a code!", "AhAeY4UDgAAAAAAAAAAAAA" })
+	public void decodeShouldThrowExceptionWhenGivenMalformedCode(String code)
+	{
+		GameSeed.decode(code);
+	}
+
+	@Test
+	@Parameters({ "9, 9, 10, 123, 0, 0", "16, 16, 40, 42, 8, 8", "16, 30, 99, -1, 7, 20" })
+	public void modelShouldPlaceTheSameMinesAsTheGameSeed(int rows, int cols, int mines, long seed, int row, int col)
+	{
+		MinesweeperModel model = new MinesweeperModel();
+		model.initCells(rows, cols, mines);
+		model.setSeed(seed);
+		model.firstClick(row, col);
+
+		GameSeed gameSeed = model.getGameSeed();
+		assertEquals(new GameSeed(rows, cols, mines, seed, row, col), gameSeed);
+
+		Board board = new ArrayBoard(rows, cols);
+		gameSeed.generate(board);
+		for (int r = 0; r < rows; r++)
+		{
+			for (int c = 0; c < cols; c++)
+			{
+				assertEquals(board.getValue(board.indexOf(r, c)), model.getCell(r, c).getValue());
+			}
+		}
+	}
+
+	@Test
+	public void newGameShouldReplayTheGameOfTheCode()
+	{
+		MinesweeperModel model = new MinesweeperModel();
+		model.initCells(16, 30, 99);
+		model.firstClick(3, 5);
+		String code = model.getGameSeed().encode();
+
+		MinesweeperModel replayed = new MinesweeperModel();
+		replayed.newGame(GameSeed.decode(code));
+
+		assertEquals(model.getGameSeed(), replayed.getGameSeed());
+		for (int r = 0; r < 16; r++)
+		{
+			for (int c = 0; c < 30; c++)
+			{
+				assertEquals(model.getCell(r, c).getValue(), replayed.getCell(r, c).getValue());
+			}
+		}
+	}
+}
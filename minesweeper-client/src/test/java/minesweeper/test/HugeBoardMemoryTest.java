@@ -0,0 +1,112 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.model.MinesweeperModel;
+
+public class HugeBoardMemoryTest
+{
+	private final static String HEAP = "-Xmx256m";
+
+	@Test
+	public void hugeGameShouldBePlayedInABoundedHeap() throws IOException, InterruptedException
+	{
+		// The game is played in a new JVM, so the heap limit doesn't depend on the other tests.
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process process = new ProcessBuilder(java, HEAP, "-XX:+ExitOnOutOfMemoryError", "-cp", System.getProperty("java.class.path"),
+				HugeBoardMemoryTest.class.getName()).redirectErrorStream(true).start();
+
+		String output;
+		try (InputStream in = process.getInputStream())
+		{
+			output = IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+		process.waitFor(5, TimeUnit.MINUTES);
+
+		assertEquals(output, 0, process.exitValue());
+	}
+
+	/**
+	 * Plays 3000x3000 games in huge board mode. In the sparse game the first click opens almost the whole board, in the
+	 * dense game the mine opened after the first click reveals every cell of the board. Before the dense game is lost,
+	 * every cell of its board is shown through the viewport of the grid.
+	 *
+	 * @param args Not used.
+	 */
+	public static void main(String[] args)
+	{
+		MinesweeperModel model = new MinesweeperModel()
+		{
+			@Override
+			public void saveLocalScore(String name, String difficulty, int elapsedTime, int foundMines, int totalMines, LocalDateTime date)
+			{
+			}
+		};
+		model.setHugeBoardMode(true);
+
+		play(model, 1000, false);
+		// Losing opens every cell of the board.
+		play(model, 1400000, true);
+
+		System.exit(0);
+	}
+
+	private static void play(MinesweeperModel model, int mines, boolean scroll)
+	{
+		model.newGame(3000, 3000, mines);
+		// With this seed the first click doesn't win the sparse game.
+		model.setSeed(1);
+		model.open(model.getCell(1500, 1500));
+		if (model.isGameOver())
+			throw new AssertionError("The first click ended the game");
+		if (scroll)
+			scroll(model);
+
+		Board board = model.getBoard();
+		int mine = 0;
+		while (board.getValue(mine) != CellValues.CELL_MINE)
+		{
+			mine++;
+		}
+		model.open(model.getCell(mine));
+
+		if (!model.isGameOver() || board.getState(mine) != Board.STATE_CLICKED)
+			throw new AssertionError("The game is not lost");
+	}
+
+	/**
+	 * Moves the viewport over the whole board one screen at a time, requesting every cell in it, like the grid does.
+	 */
+	private static void scroll(MinesweeperModel model)
+	{
+		int viewRows = MinesweeperModel.MAX_ROWS;
+		int viewCols = MinesweeperModel.MAX_COLS;
+
+		for (int rowOffset = 0; rowOffset < model.getRows(); rowOffset += viewRows)
+		{
+			for (int colOffset = 0; colOffset < model.getCols(); colOffset += viewCols)
+			{
+				model.retainCells(rowOffset, colOffset, viewRows, viewCols);
+				for (int row = rowOffset; row < rowOffset + viewRows; row++)
+				{
+					for (int col = colOffset; col < colOffset + viewCols; col++)
+					{
+						model.getCell(row, col);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.DeterministicSolver;
+import minesweeper.engine.GameSeed;
+import minesweeper.engine.NoGuessGenerator;
+import minesweeper.model.MinesweeperModel;
+
+@RunWith(JUnitParamsRunner.class)
+public class NoGuessTest
+{
+	private Board createBoard(int rows, int cols, int... mines)
+	{
+		Board board = new ArrayBoard(rows, cols);
+		for (int mine : mines)
+		{
+			board.setValue(mine, CellValues.CELL_MINE);
+		}
+		board.countNeighbours();
+
+		return board;
+	}
+
+	@Test
+	public void solverShouldFailOnFiftyFifty()
+	{
+		// A 1 in the middle, with a mine on one of its two sides.
+		assertFalse(new DeterministicSolver().solve(createBoard(1, 3, 0), 1));
+	}
+
+	@Test
+	public void solverShouldUseTheSubsetRule()
+	{
+		// The top row is hidden. The 1 and 2 in the left corner differ only in the third cell, so it must be a mine.
+		Board board = createBoard(3, 4, 0, 2);
+
+		assertTrue(new DeterministicSolver().solve(board, 8));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void solverShouldThrowExceptionWhenFirstCellIsAMine()
+	{
+		new DeterministicSolver().solve(createBoard(3, 3, 4), 4);
+	}
+
+	@Test
+	@Parameters({ "9, 9, 10", "16, 16, 40", "16, 30, 99" })
+	public void generatedBoardsShouldBeSolvable(int rows, int cols, int mines)
+	{
+		NoGuessGenerator generator = new NoGuessGenerator();
+		DeterministicSolver solver = new DeterministicSolver();
+
+		for (long seed = 0; seed < 10; seed++)
+		{
+			GameSeed gameSeed = generator.generate(rows, cols, mines, seed, (int) seed % rows, (int) seed % cols);
+			assertNotNull(gameSeed);
+
+			Board board = new ArrayBoard(rows, cols);
+			gameSeed.generate(board);
+			assertTrue(solver.solve(board, board.indexOf(gameSeed.getFirstClickRow(), gameSeed.getFirstClickCol())));
+		}
+	}
+
+	@Test
+	public void resultShouldNotDependOnTheNumberOfWorkers()
+	{
+		GameSeed single = new NoGuessGenerator(new ForkJoinPool(1), 1000).generate(16, 30, 99, 42, 3, 3);
+		GameSeed parallel = new NoGuessGenerator(new ForkJoinPool(4), 1000).generate(16, 30, 99, 42, 3, 3);
+
+		assertEquals(single, parallel);
+	}
+
+	@Test
+	public void generatorShouldGiveUpOnImpossibleBoards()
+	{
+		assertEquals(null, new NoGuessGenerator(ForkJoinPool.commonPool(), 100).generate(1, 3, 1, 0, 0, 1));
+	}
+
+	@Test
+	public void modelShouldPlaceSolvableMinesInNoGuessMode()
+	{
+		MinesweeperModel model = new MinesweeperModel();
+		model.setNoGuessMode(true);
+		model.initCells(16, 30, 99);
+		model.setSeed(7);
+		model.firstClick(8, 15);
+
+		GameSeed gameSeed = model.getGameSeed();
+		Board board = new ArrayBoard(16, 30);
+		gameSeed.generate(board);
+		assertTrue(new DeterministicSolver().solve(board, board.indexOf(8, 15)));
+
+		for (int r = 0; r < 16; r++)
+		{
+			for (int c = 0; c < 30; c++)
+			{
+				assertEquals(board.getValue(board.indexOf(r, c)), model.getCell(r, c).getValue());
+			}
+		}
+	}
+}
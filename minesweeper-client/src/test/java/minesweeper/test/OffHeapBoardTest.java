@@ -0,0 +1,115 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.OffHeapBoard;
+import minesweeper.model.MinesweeperModel;
+
+public class OffHeapBoardTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void cellsShouldNotOverwriteEachOther() throws IOException
+	{
+		OffHeapBoard board = new OffHeapBoard(7, 11, folder.getRoot().toPath());
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			board.setState(i, Board.STATE_HIDDEN + i % 4);
+			board.setValue(i, i % 16);
+		}
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			assertEquals(Board.STATE_HIDDEN + i % 4, board.getState(i));
+			assertEquals(i % 16, board.getValue(i));
+		}
+
+		board.clear();
+		for (int i = 0; i < board.size(); i++)
+		{
+			assertEquals(Board.STATE_HIDDEN, board.getState(i));
+			assertEquals(CellValues.CELL_EMPTY, board.getValue(i));
+		}
+
+		// The file is deleted once it's mapped.
+		assertEquals(0, folder.getRoot().list().length);
+	}
+
+	@Test
+	public void lazyCountShouldCountTheShownMines() throws IOException
+	{
+		Board board = new OffHeapBoard(3, 4, folder.getRoot().toPath());
+		board.setValue(board.indexOf(1, 1), CellValues.CELL_MINE);
+		board.setValue(board.indexOf(1, 2), CellValues.CELL_MINE);
+		board.countNeighbours();
+
+		// The mines are shown before their neighbours are read for the first time.
+		board.setValue(board.indexOf(1, 1), CellValues.CELL_EXPLOSION);
+		board.setValue(board.indexOf(1, 2), CellValues.CELL_GOOD);
+
+		assertEquals(CellValues.CELL_1, board.getValue(board.indexOf(0, 0)));
+		assertEquals(CellValues.CELL_2, board.getValue(board.indexOf(2, 1)));
+		assertEquals(CellValues.CELL_1, board.getValue(board.indexOf(1, 3)));
+	}
+
+	@Test
+	public void lazyCountShouldMatchEagerCountAndKeepTheStates() throws IOException
+	{
+		Board offHeap = new OffHeapBoard(23, 37, folder.getRoot().toPath());
+		Board array = new ArrayBoard(23, 37);
+
+		for (int i = 0; i < offHeap.size(); i += 3 + i % 5)
+		{
+			offHeap.setValue(i, CellValues.CELL_MINE);
+			array.setValue(i, CellValues.CELL_MINE);
+		}
+		for (int i = 0; i < offHeap.size(); i += 7)
+		{
+			offHeap.setState(i, Board.STATE_FLAGGED);
+		}
+
+		offHeap.countNeighbours();
+		array.countNeighbours();
+
+		for (int i = 0; i < offHeap.size(); i++)
+		{
+			assertEquals(array.getValue(i), offHeap.getValue(i));
+			assertEquals(i % 7 == 0 ? Board.STATE_FLAGGED : Board.STATE_HIDDEN, offHeap.getState(i));
+		}
+	}
+
+	@Test
+	public void hugeBoardModeShouldStoreTheLargestBoardsOffHeap()
+	{
+		MinesweeperModel model = new MinesweeperModel();
+		model.setHugeBoardMode(true);
+		model.initCells(10001, 10000, 20000200);
+
+		Board board = model.getBoard();
+		assertTrue(board instanceof OffHeapBoard);
+
+		model.open(model.getCell(5000, 5000));
+
+		assertTrue(model.getNotClickedCells() < board.size());
+		assertEquals(Board.STATE_CLICKED, board.getState(board.indexOf(5000, 5000)));
+
+		// A new game of the same size reuses the mapped file.
+		model.newGame(10001, 10000, 20000200);
+		assertSame(board, model.getBoard());
+		assertEquals(Board.STATE_HIDDEN, board.getState(board.indexOf(5000, 5000)));
+	}
+}
@@ -9,9 +9,12 @@ import java.time.LocalDateTime;
 import org.junit.Before;
 import org.junit.Test;
 
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.Game;
 import minesweeper.model.Cell;
 import minesweeper.model.MinesweeperModel;
-import minesweeper.util.CellValues;
 
 public class OpenCellTest
 {
@@ -23,6 +26,7 @@ public class OpenCellTest
 		model = spy(new MinesweeperModel());
 		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
 		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
 	}
 	
 	@Test
@@ -115,4 +119,42 @@ public class OpenCellTest
 		
 		assertEquals(0, model.getRemainingMines());
 	}
+
+	@Test
+	public void modelShouldPlayByTheRulesOfTheGame()
+	{
+		model.newGame(16, 30, 99);
+		model.setSeed(11);
+		Game game = new Game(new ArrayBoard(16, 30), 99, 11);
+		Board board = model.getBoard();
+
+		// Opens two cells, flags one, then opens the cells in order, until the game is over.
+		int[] moves = { 0, 7, 100, 250, 479, 200, 201, 202, 203, 204, 205, 206, 207, 208, 209, 210 };
+		for (int i = 0; i < moves.length && !model.isGameOver(); i++)
+		{
+			Cell cell = model.getCell(moves[i]);
+			if (i == 2)
+			{
+				model.mark(cell);
+				game.mark(moves[i]);
+			}
+			else
+			{
+				model.open(cell);
+				game.open(moves[i]);
+			}
+
+			assertEquals(game.getHiddenCells(), model.getNotClickedCells());
+			assertEquals(game.getRemainingMines(), model.getRemainingMines());
+			assertEquals(game.isOver(), model.isGameOver());
+		}
+
+		assertEquals(game.getGameSeed(), model.getGameSeed());
+		assertEquals(game.get3BV(), model.get3BV());
+		for (int i = 0; i < board.size(); i++)
+		{
+			assertEquals(game.getBoard().getState(i), board.getState(i));
+			assertEquals(game.getBoard().getValue(i), board.getValue(i));
+		}
+	}
 }
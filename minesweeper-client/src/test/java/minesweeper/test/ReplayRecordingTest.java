@@ -0,0 +1,164 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.time.LocalDateTime;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import minesweeper.engine.CellValues;
+import minesweeper.model.Cell;
+import minesweeper.model.MinesweeperModel;
+import minesweeper.replay.ReplayFormat;
+import minesweeper.replay.ReplayPlayer;
+import minesweeper.replay.ReplayReader;
+
+public class ReplayRecordingTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	MinesweeperModel model;
+
+	@Before
+	public void initModel() throws IOException
+	{
+		model = spy(new MinesweeperModel());
+		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
+	}
+
+	@Test
+	public void gameShouldBeRecordedFromTheFirstClick() throws IOException
+	{
+		model.setReplayDirectory(folder.getRoot());
+		model.newGame(16, 30, 99);
+		model.setSeed(5);
+
+		model.open(model.getCell(8, 15));
+		Cell hidden = model.getCell(0, 0);
+		for (int i = 0; hidden.getState() != Cell.STATE_HIDDEN; i++)
+		{
+			hidden = model.getCell(0, i);
+		}
+		model.mark(hidden);
+		model.newGame();
+
+		try (ReplayReader reader = new ReplayReader(FileChannel.open(model.getReplayFile().toPath())))
+		{
+			assertEquals(16, reader.getRows());
+			assertEquals(30, reader.getCols());
+			assertEquals(99, reader.getMines());
+			assertEquals(5, reader.getSeed());
+
+			assertTrue(reader.next());
+			assertEquals(ReplayFormat.ACTION_OPEN, reader.getAction());
+			assertEquals(8 * 30 + 15, reader.getCell());
+			assertTrue(reader.next());
+			assertEquals(ReplayFormat.ACTION_MARK, reader.getAction());
+			assertEquals(hidden.getColumn(), reader.getCell());
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	public void winningMoveShouldBeInTheReplayWithoutANewGame() throws IOException
+	{
+		model.setReplayDirectory(folder.getRoot());
+		model.newGame(9, 9, 10);
+		model.setSeed(7);
+
+		model.open(model.getCell(4, 4));
+		int moves = 1;
+		int last = 4 * 9 + 4;
+		for (int i = 0; i < 81 && !model.isGameOver(); i++)
+		{
+			Cell cell = model.getCell(i / 9, i % 9);
+			if (cell.getState() == Cell.STATE_HIDDEN && model.getBoard().getValue(i) != CellValues.CELL_MINE)
+			{
+				model.open(cell);
+				moves++;
+				last = i;
+			}
+		}
+		assertTrue(model.isGameOver());
+
+		try (ReplayReader reader = new ReplayReader(FileChannel.open(model.getReplayFile().toPath())))
+		{
+			int read = 0;
+			int cell = -1;
+			while (reader.next())
+			{
+				read++;
+				cell = reader.getCell();
+			}
+			assertEquals(moves, read);
+			assertEquals(last, cell);
+		}
+	}
+
+	@Test
+	public void gameShouldNotBeRecordedWithoutReplayDirectory()
+	{
+		model.newGame(9, 9, 10);
+
+		model.open(model.getCell(4, 4));
+
+		assertNull(model.getReplayFile());
+	}
+
+	@Test
+	public void loadedReplayShouldShowTheRecordedBoard() throws IOException
+	{
+		model.setReplayDirectory(folder.getRoot());
+		model.newGame(16, 30, 99);
+		model.setSeed(6);
+
+		model.open(model.getCell(8, 15));
+		Cell hidden = model.getCell(0, 0);
+		for (int i = 0; hidden.getState() != Cell.STATE_HIDDEN; i++)
+		{
+			hidden = model.getCell(0, i);
+		}
+		model.mark(hidden);
+		int[] recorded = new int[16 * 30];
+		for (int i = 0; i < recorded.length; i++)
+		{
+			recorded[i] = model.getCell(i / 30, i % 30).getState();
+		}
+		model.newGame();
+
+		ReplayPlayer player;
+		try (ReplayReader reader = new ReplayReader(FileChannel.open(model.getReplayFile().toPath())))
+		{
+			player = new ReplayPlayer(reader);
+		}
+		model.loadReplay(player);
+		assertTrue(model.isReplayMode());
+		assertEquals(16 * 30, model.getNotClickedCells());
+
+		model.seekReplay(2);
+		for (int i = 0; i < recorded.length; i++)
+		{
+			assertEquals(recorded[i], model.getCell(i / 30, i % 30).getState());
+		}
+		assertEquals(98, model.getRemainingMines());
+
+		model.mark(hidden);
+		assertEquals(Cell.STATE_FLAGGED, hidden.getState());
+		assertFalse(model.isUndoAvailable());
+
+		model.newGame();
+		assertFalse(model.isReplayMode());
+	}
+}
@@ -0,0 +1,158 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.CompactBoard;
+import minesweeper.engine.GameSeed;
+import minesweeper.model.Cell;
+import minesweeper.model.MinesweeperModel;
+import minesweeper.save.SaveFile;
+
+public class SaveGameTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	MinesweeperModel model;
+	File saveGameFile;
+
+	@Before
+	public void initModel() throws IOException
+	{
+		model = createModel();
+		saveGameFile = new File(folder.getRoot(), "save.game");
+		model.setSaveGameFile(saveGameFile);
+	}
+
+	private MinesweeperModel createModel() throws IOException
+	{
+		MinesweeperModel model = spy(new MinesweeperModel());
+		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
+		return model;
+	}
+
+	@Test
+	public void resumedGameShouldContinueFromTheSavedBoard() throws IOException
+	{
+		model.newGame(16, 30, 99);
+		model.setSeed(5);
+		model.open(model.getCell(8, 15));
+		Cell hidden = model.getCell(0, 0);
+		for (int i = 0; hidden.getState() != Cell.STATE_HIDDEN; i++)
+		{
+			hidden = model.getCell(0, i);
+		}
+		model.mark(hidden);
+		model.setElapsedTime(42);
+		model.autosave().join();
+		assertTrue(saveGameFile.isFile());
+
+		MinesweeperModel resumed = createModel();
+		resumed.setSaveGameFile(saveGameFile);
+		assertTrue(resumed.resumeGame());
+
+		assertEquals(model.getGameSeed().encode(), resumed.getGameSeed().encode());
+		assertEquals(42, resumed.getElapsedTime());
+		assertEquals(model.getNotClickedCells(), resumed.getNotClickedCells());
+		assertEquals(98, resumed.getRemainingMines());
+		assertTrue(resumed.getFirstClickOccurred());
+		for (int i = 0; i < model.getBoard().size(); i++)
+		{
+			assertEquals(model.getBoard().getState(i), resumed.getBoard().getState(i));
+			assertEquals(model.getBoard().getValue(i), resumed.getBoard().getValue(i));
+		}
+
+		// The resumed game keeps saving into the same file.
+		resumed.mark(resumed.getCell(hidden.getRow(), hidden.getColumn()));
+		try (SaveFile saveFile = SaveFile.open(saveGameFile.toPath()))
+		{
+			assertEquals(Board.STATE_QUESTION, saveFile.getState(resumed.getBoard().indexOf(hidden.getRow(), hidden.getColumn())));
+		}
+	}
+
+	@Test
+	public void saveShouldBeDeletedWhenTheGameIsOver() throws IOException
+	{
+		model.newGame(new GameSeed(9, 9, 10, 3, 4, 4));
+		assertTrue(saveGameFile.isFile());
+
+		for (int i = 0; i < model.getBoard().size() && !model.isGameOver(); i++)
+		{
+			if (model.getBoard().getValue(i) == CellValues.CELL_MINE)
+				model.open(model.getCell(model.getBoard().rowOf(i), model.getBoard().colOf(i)));
+		}
+		assertTrue(model.isGameOver());
+		assertFalse(saveGameFile.isFile());
+		assertFalse(model.resumeGame());
+
+		// Undoing the losing move continues the game, and the next autosave saves it again.
+		model.undo();
+		model.autosave().join();
+		assertTrue(saveGameFile.isFile());
+
+		model.newGame();
+		assertFalse(saveGameFile.isFile());
+	}
+
+	@Test
+	public void saveFileShouldRestoreTheMinesAndStatesOfAHugeBoard() throws IOException
+	{
+		Board board = new CompactBoard(300, 500);
+		new GameSeed(300, 500, 20000, 7, 150, 250).generate(board);
+		Random random = new Random(7);
+		int[] states = { Board.STATE_HIDDEN, Board.STATE_FLAGGED, Board.STATE_QUESTION, Board.STATE_CLICKED };
+		for (int i = 0; i < 5000; i++)
+		{
+			board.setState(random.nextInt(board.size()), states[random.nextInt(states.length)]);
+		}
+
+		File file = folder.newFile();
+		try (SaveFile saveFile = SaveFile.create(file.toPath(), board, 20000, 7, board.indexOf(150, 250)))
+		{
+			saveFile.setElapsedTime(100);
+			saveFile.force();
+		}
+
+		Board loaded = new CompactBoard(300, 500);
+		try (SaveFile saveFile = SaveFile.open(file.toPath()))
+		{
+			assertEquals(20000, saveFile.getMines());
+			assertEquals(7, saveFile.getSeed());
+			assertEquals(100, saveFile.getElapsedTime());
+			saveFile.load(loaded);
+
+			for (int state : states)
+			{
+				int count = 0;
+				for (int i = 0; i < board.size(); i++)
+				{
+					count += board.getState(i) == state ? 1 : 0;
+				}
+				assertEquals(count, saveFile.count(state));
+			}
+		}
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			assertEquals(board.getState(i), loaded.getState(i));
+			assertEquals(board.getValue(i), loaded.getValue(i));
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.CompactBoard;
+import minesweeper.engine.DeterministicSolver;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.NeighbourCounts;
+import minesweeper.engine.NeighbourList;
+import minesweeper.engine.OpeningIndex;
+import minesweeper.engine.Topology;
+import minesweeper.solver.FrontierSolver;
+import minesweeper.solver.ProbabilityEngine;
+
+public class TopologyTest
+{
+	@Test
+	public void squareListShouldMatchTheBorderChecks()
+	{
+		NeighbourList list = Topology.SQUARE.neighbours(7, 5);
+		int[] buffer = new int[Topology.MAX_NEIGHBOURS];
+
+		for (int index = 0; index < 35; index++)
+		{
+			int count = Topology.squareNeighbours(7, 5, index, buffer);
+			int[] listed = Arrays.copyOfRange(list.getNeighbours(), list.getOffsets()[index], list.getOffsets()[index + 1]);
+			assertArrayEquals(Arrays.copyOf(buffer, count), listed);
+		}
+
+		assertSame(list, Topology.SQUARE.neighbours(7, 5));
+	}
+
+	@Test
+	public void compactBoardsAndLargeListsShouldNotBeCached()
+	{
+		assertNull(NeighbourList.of(new CompactBoard(16, 30)));
+		assertNotNull(NeighbourList.of(new ArrayBoard(16, 30)));
+
+		// A list larger than the cache is built again for every board.
+		NeighbourList large = Topology.TORUS.neighbours(1000, 1000);
+		assertTrue(large.getByteSize() > Topology.MAX_CACHED_BYTES);
+		assertNotSame(large, Topology.TORUS.neighbours(1000, 1000));
+	}
+
+	@Test
+	public void neighboursShouldBeSymmetricOnEveryTopology()
+	{
+		Topology[] topologies = { Topology.SQUARE, Topology.TORUS, Topology.HEXAGONAL, Topology.layered(3) };
+		int[] maxCounts = { 8, 8, 6, 6 };
+
+		for (int t = 0; t < topologies.length; t++)
+		{
+			NeighbourList list = topologies[t].neighbours(9, 7);
+			int[] offsets = list.getOffsets();
+			int[] neighbours = list.getNeighbours();
+
+			int max = 0;
+			for (int index = 0; index < 63; index++)
+			{
+				max = Math.max(max, list.count(index));
+				for (int i = offsets[index]; i < offsets[index + 1]; i++)
+				{
+					int neighbour = neighbours[i];
+					assertTrue(neighbour != index);
+					assertTrue(Arrays.binarySearch(neighbours, offsets[neighbour], offsets[neighbour + 1], index) >= 0);
+				}
+			}
+			assertEquals(topologies[t].getName(), maxCounts[t], max);
+		}
+	}
+
+	@Test
+	public void smallTorusShouldNotRepeatNeighbours()
+	{
+		NeighbourList list = Topology.TORUS.neighbours(2, 2);
+
+		for (int index = 0; index < 4; index++)
+		{
+			assertEquals(3, list.count(index));
+		}
+	}
+
+	@Test
+	public void layeredBoardShouldConnectTheLayers()
+	{
+		// 2 layers of 3x4 cells, the cell at row 1, column 1 is in the middle of the first layer.
+		NeighbourList list = Topology.layered(2).neighbours(6, 4);
+		int index = 1 * 4 + 1;
+
+		int[] listed = Arrays.copyOfRange(list.getNeighbours(), list.getOffsets()[index], list.getOffsets()[index + 1]);
+		assertArrayEquals(new int[] { 1, 4, 6, 9, 17 }, listed);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void layeredBoardShouldHaveWholeLayers()
+	{
+		Topology.layered(2).neighbours(5, 4);
+	}
+
+	@Test
+	public void solversShouldRejectOtherTopologies()
+	{
+		Board board = new ArrayBoard(6, 6, Topology.TORUS);
+		board.countNeighbours();
+
+		try
+		{
+			new FrontierSolver(board);
+			fail("The frontier solver accepted a torus");
+		}
+		catch (IllegalArgumentException e)
+		{
+		}
+		try
+		{
+			ProbabilityEngine.confined().compute(board, 1);
+			fail("The probability engine accepted a torus");
+		}
+		catch (IllegalArgumentException e)
+		{
+		}
+		try
+		{
+			new DeterministicSolver().solve(board, 0);
+			fail("The deterministic solver accepted a torus");
+		}
+		catch (IllegalArgumentException e)
+		{
+		}
+	}
+
+	@Test
+	public void engineShouldWrapAroundATorus()
+	{
+		Board board = new ArrayBoard(6, 6, Topology.TORUS);
+		board.setValue(0, CellValues.CELL_MINE);
+		board.countNeighbours();
+
+		// The opposite corner touches the mine through both edges.
+		assertEquals(CellValues.CELL_1, board.getValue(board.indexOf(5, 5)));
+		assertEquals(CellValues.CELL_EMPTY, board.getValue(board.indexOf(3, 3)));
+
+		// Every other cell is connected to one opening.
+		assertEquals(35, new FloodFill(board).fill(board.indexOf(3, 3)));
+		assertEquals(1, OpeningIndex.of(board).get3BV());
+
+		NeighbourCounts counts = new NeighbourCounts(board);
+		counts.setState(0, Board.STATE_FLAGGED);
+		assertEquals(1, counts.getFlagged(board.indexOf(5, 5)));
+		assertEquals(7, counts.getHidden(board.indexOf(5, 5)));
+	}
+
+	@Test
+	public void engineShouldCountSixNeighboursOnHexagons()
+	{
+		Board board = new ArrayBoard(5, 5, Topology.HEXAGONAL);
+		int[] around = { board.indexOf(0, 2), board.indexOf(0, 3), board.indexOf(1, 1), board.indexOf(1, 3), board.indexOf(2, 2),
+				board.indexOf(2, 3) };
+		for (int index : around)
+		{
+			board.setValue(index, CellValues.CELL_MINE);
+		}
+		board.countNeighbours();
+
+		// The odd row is shifted right, so its cells touch the same and the next column above and below.
+		assertEquals(CellValues.CELL_6, board.getValue(board.indexOf(1, 2)));
+		assertEquals(CellValues.CELL_EMPTY, board.getValue(board.indexOf(4, 0)));
+		assertEquals(1, new FloodFill(board).fill(board.indexOf(1, 2)));
+	}
+}
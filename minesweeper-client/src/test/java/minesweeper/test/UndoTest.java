@@ -0,0 +1,144 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.model.Cell;
+import minesweeper.model.MinesweeperModel;
+
+public class UndoTest
+{
+	MinesweeperModel model;
+
+	@Before
+	public void initModel() throws IOException
+	{
+		model = spy(new MinesweeperModel());
+		doNothing().when(model).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+		doNothing().when(model).saveOnlineScore(anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class), anyString());
+		doNothing().when(model).firstClick(anyInt(), anyInt());
+
+		// Two mines in the right column of a 4x4 board, the mines are written into the board directly, so placing them
+		// is not a move.
+		model.newGame(4, 4, 2);
+		Board board = model.getBoard();
+		board.setValue(board.indexOf(0, 3), CellValues.CELL_MINE);
+		board.setValue(board.indexOf(3, 3), CellValues.CELL_MINE);
+		board.countNeighbours();
+	}
+
+	@Test
+	public void undoShouldCloseTheFloodFill()
+	{
+		model.open(model.getCell(3, 0));
+		assertEquals(4, model.getNotClickedCells());
+
+		model.undo();
+
+		for (int i = 0; i < model.getBoard().size(); i++)
+		{
+			assertEquals(Board.STATE_HIDDEN, model.getBoard().getState(i));
+		}
+		assertEquals(Cell.STATE_HIDDEN, model.getCell(3, 0).getState());
+		assertEquals(16, model.getNotClickedCells());
+		assertFalse(model.isUndoAvailable());
+		assertTrue(model.isRedoAvailable());
+	}
+
+	@Test
+	public void redoShouldOpenTheFloodFillAgain()
+	{
+		model.open(model.getCell(3, 0));
+		model.undo();
+
+		model.redo();
+
+		assertEquals(4, model.getNotClickedCells());
+		assertEquals(Board.STATE_CLICKED, model.getBoard().getState(0));
+		assertEquals(Board.STATE_HIDDEN, model.getBoard().getState(3));
+		assertTrue(model.getFrontierSolver().isSafe(model.getBoard().indexOf(1, 3)));
+		assertFalse(model.isRedoAvailable());
+	}
+
+	@Test
+	public void undoShouldContinueALostGame()
+	{
+		model.open(model.getCell(1, 3));
+		model.open(model.getCell(0, 3));
+		assertTrue(model.isGameOver());
+
+		model.undo();
+
+		assertFalse(model.isGameOver());
+		assertEquals(15, model.getNotClickedCells());
+		assertEquals(CellValues.CELL_MINE, model.getCell(0, 3).getValue());
+		assertEquals(Cell.STATE_HIDDEN, model.getCell(0, 3).getState());
+		assertEquals(Cell.STATE_CLICKED, model.getCell(1, 3).getState());
+	}
+
+	@Test
+	public void undoShouldRemoveAFlagWithTheMineCounter()
+	{
+		Cell cell = model.getCell(0, 3);
+		model.mark(cell);
+		assertEquals(1, model.getRemainingMines());
+
+		model.undo();
+
+		assertEquals(Cell.STATE_HIDDEN, cell.getState());
+		assertEquals(2, model.getRemainingMines());
+	}
+
+	@Test
+	public void newMoveShouldDiscardTheUndoneMoves()
+	{
+		model.open(model.getCell(1, 3));
+		model.undo();
+
+		model.open(model.getCell(2, 3));
+
+		assertFalse(model.isRedoAvailable());
+		assertEquals(1, model.getMoveJournal().getMoveCount());
+	}
+
+	@Test
+	public void undoShouldMakeAPracticeGameWithoutScore() throws IOException
+	{
+		model.open(model.getCell(1, 3));
+		model.undo();
+		assertTrue(model.isPracticeGame());
+
+		model.open(model.getCell(3, 0));
+		model.open(model.getCell(1, 3));
+		model.open(model.getCell(2, 3));
+
+		assertTrue(model.isGameOver());
+		assertFalse(model.isUndoAvailable());
+		verify(model, never()).saveLocalScore(anyString(), anyString(), anyInt(), anyInt(), anyInt(), any(LocalDateTime.class));
+
+		model.newGame();
+		assertFalse(model.isPracticeGame());
+		assertEquals(0, model.getMoveJournal().getMoveCount());
+	}
+
+	@Test
+	public void pressingACellShouldNotBeAMove()
+	{
+		Cell cell = model.getCell(2, 0);
+		cell.setState(Cell.STATE_PRESSED);
+		cell.setState(Cell.STATE_HIDDEN);
+
+		assertFalse(model.isUndoAvailable());
+	}
+}
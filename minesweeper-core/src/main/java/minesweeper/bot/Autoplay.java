@@ -0,0 +1,68 @@
+package minesweeper.bot;
+
+import java.util.concurrent.ForkJoinPool;
+
+import minesweeper.engine.Difficulty;
+import minesweeper.solver.ProbabilityEngine;
+
+/**
+ * Runs the {@link Simulator} with the {@link Strategy#standard(ProbabilityEngine) standard strategy} from the command
+ * line, without starting the GUI, and prints the results.
+ * <p>
+ * The arguments are the number of games, the seed, then optionally the rows, the columns and the mines of a custom
+ * board. Without a custom board, every {@link Difficulty} is played. For example
+ * {@code java -cp minesweeper-client.jar minesweeper.bot.Autoplay 1000000 42 20 20 70} plays a million games on a
+ * 20x20 board with 70 mines. Every game is played on every core, every core with its own
+ * {@link ProbabilityEngine#confined() confined} probability engine.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class Autoplay
+{
+	/**
+	 * The number of games played when it's not given.
+	 */
+	public final static int DEFAULT_GAMES = 10000;
+
+	// This class should not be instantiated, so the constructor is private.
+	private Autoplay() {}
+
+	/**
+	 * Plays the games, and prints the results of every difficulty.
+	 *
+	 * @param args The number of games, the seed, then optionally the rows, columns and mines of a custom board.
+	 */
+	public static void main(String[] args)
+	{
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		Simulator simulator = new Simulator(pool, () -> Strategy.standard(ProbabilityEngine.confined()));
+
+		try
+		{
+			if (args.length > 4)
+			{
+				int rows = Integer.parseInt(args[2]);
+				int cols = Integer.parseInt(args[3]);
+				int mines = Integer.parseInt(args[4]);
+				System.out.println(Difficulty.nameOf(rows, cols, mines) + " - " + simulator.run(rows, cols, mines, games, seed));
+			}
+			else
+			{
+				for (Difficulty difficulty : Difficulty.values())
+				{
+					SimulationResult result = simulator.run(difficulty.getRows(), difficulty.getCols(), difficulty.getMines(), games, seed);
+					System.out.println(difficulty.getName() + " - " + result);
+				}
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+}
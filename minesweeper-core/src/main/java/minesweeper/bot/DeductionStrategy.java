@@ -0,0 +1,19 @@
+package minesweeper.bot;
+
+/**
+ * Opens a cell which the {@link minesweeper.solver.FrontierSolver FrontierSolver} of the game found to be certainly
+ * safe, the one with the lowest index. It has no move when the opened numbers don't prove any cell safe.
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class DeductionStrategy implements Strategy
+{
+	@Override
+	public int nextMove(HeadlessGame game)
+	{
+		int[] safeCells = game.getFrontierSolver().getSafeCells();
+
+		return safeCells.length > 0 ? safeCells[0] : NO_MOVE;
+	}
+}
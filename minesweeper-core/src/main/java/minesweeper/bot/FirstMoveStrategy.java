@@ -0,0 +1,20 @@
+package minesweeper.bot;
+
+/**
+ * Opens the cell in the middle of the board as the first move, which is never a mine. A cell in the middle has the
+ * most neighbours, so it is the most likely to open an empty area. It has no move after the first one.
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class FirstMoveStrategy implements Strategy
+{
+	@Override
+	public int nextMove(HeadlessGame game)
+	{
+		if (!game.isFirstMove())
+			return NO_MOVE;
+
+		return game.getBoard().indexOf(game.getRows() / 2, game.getCols() / 2);
+	}
+}
@@ -0,0 +1,201 @@
+package minesweeper.bot;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.Game;
+import minesweeper.engine.GameSeed;
+import minesweeper.solver.FrontierSolver;
+
+/**
+ * A single game without any GUI, played by a {@link Strategy}. It's played by the same {@link Game} rules as the
+ * MinesweeperModel of the client: the mines are placed by a {@link GameSeed} at the first move, so the first opened
+ * cell is never a mine, empty cells are opened with a flood fill, and the game is won when only the mines are hidden.
+ * <p>
+ * The game keeps a {@link FrontierSolver} up to date after every move. A game is not thread-safe, but it owns every
+ * object it uses, including the random generator of its mines, and touches no static state, so separate games can be
+ * played on separate threads without any locking.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class HeadlessGame
+{
+	private final Game game;
+	private final FrontierSolver frontierSolver;
+
+	private int moves;
+
+	/**
+	 * Creates a new game. The mines are placed at the first move.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param mines The number of mines.
+	 * @param seed The seed of the mine layout.
+	 *
+	 * @throws IllegalArgumentException when the size or the number of mines is invalid.
+	 */
+	public HeadlessGame(int rows, int cols, int mines, long seed)
+	{
+		// Validates the arguments before allocating the board.
+		new GameSeed(rows, cols, mines, seed, 0, 0);
+
+		game = new Game(new ArrayBoard(rows, cols), mines, seed);
+		frontierSolver = new FrontierSolver(game.getBoard());
+	}
+
+	/**
+	 * Opens a hidden cell, and every empty cell connected to it.
+	 *
+	 * @param index The index of the cell.
+	 * @return <b>true</b> if the game goes on, <b>false</b> if it is over.
+	 *
+	 * @throws IllegalStateException when the game is already over.
+	 * @throws IllegalArgumentException when the cell is already opened.
+	 */
+	public boolean open(int index)
+	{
+		if (isOver())
+			throw new IllegalStateException("The game is already over");
+		if (game.getBoard().getState(index) == Board.STATE_CLICKED)
+			throw new IllegalArgumentException("The cell is already opened");
+
+		moves++;
+		game.open(index);
+		frontierSolver.update(game.getOpenedCells(), game.getOpenedCount());
+
+		return !game.isOver();
+	}
+
+	/**
+	 * Returns the board of the game. A {@link Strategy} may only read the states of the cells, and the values of the
+	 * opened ones.
+	 *
+	 * @return The board.
+	 */
+	public Board getBoard()
+	{
+		return game.getBoard();
+	}
+
+	/**
+	 * Returns the solver following the game.
+	 *
+	 * @return The frontier solver.
+	 */
+	public FrontierSolver getFrontierSolver()
+	{
+		return frontierSolver;
+	}
+
+	/**
+	 * Returns the game seed, which is only known after the first move.
+	 *
+	 * @return The game seed, or <b>null</b> before the first move.
+	 */
+	public GameSeed getGameSeed()
+	{
+		return game.getGameSeed();
+	}
+
+	/**
+	 * Returns whether no cell was opened yet.
+	 *
+	 * @return <b>true</b> before the first move.
+	 */
+	public boolean isFirstMove()
+	{
+		return !game.isStarted();
+	}
+
+	/**
+	 * Returns whether the game is over.
+	 *
+	 * @return <b>true</b> if the game is won or lost.
+	 */
+	public boolean isOver()
+	{
+		return game.isOver();
+	}
+
+	/**
+	 * Returns whether every cell but the mines is opened.
+	 *
+	 * @return <b>true</b> if the game is won.
+	 */
+	public boolean isWon()
+	{
+		return game.isWon();
+	}
+
+	/**
+	 * Returns whether a mine was opened.
+	 *
+	 * @return <b>true</b> if the game is lost.
+	 */
+	public boolean isLost()
+	{
+		return game.isLost();
+	}
+
+	/**
+	 * Returns the number of moves made so far.
+	 *
+	 * @return The number of moves.
+	 */
+	public int getMoves()
+	{
+		return moves;
+	}
+
+	/**
+	 * Returns the 3BV of the game, the minimum number of clicks needed to win it.
+	 *
+	 * @return The 3BV, or 0 before the first move.
+	 */
+	public int get3BV()
+	{
+		return game.get3BV();
+	}
+
+	/**
+	 * Returns the number of hidden cells, including the mines.
+	 *
+	 * @return The number of hidden cells.
+	 */
+	public int getHiddenCells()
+	{
+		return game.getHiddenCells();
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return game.getBoard().getRows();
+	}
+
+	/**
+	 * Returns the number of columns.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return game.getBoard().getCols();
+	}
+
+	/**
+	 * Returns the number of mines.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return game.getMines();
+	}
+}
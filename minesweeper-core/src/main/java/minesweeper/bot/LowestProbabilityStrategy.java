@@ -0,0 +1,31 @@
+package minesweeper.bot;
+
+import minesweeper.solver.ProbabilityEngine;
+
+/**
+ * Guesses the hidden cell which is the least likely to be a mine, according to a {@link ProbabilityEngine}. It always
+ * has a move while the game is not over.
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class LowestProbabilityStrategy implements Strategy
+{
+	private final ProbabilityEngine probabilityEngine;
+
+	/**
+	 * Creates a new strategy.
+	 *
+	 * @param probabilityEngine The engine computing the probabilities.
+	 */
+	public LowestProbabilityStrategy(ProbabilityEngine probabilityEngine)
+	{
+		this.probabilityEngine = probabilityEngine;
+	}
+
+	@Override
+	public int nextMove(HeadlessGame game)
+	{
+		return probabilityEngine.compute(game.getBoard(), game.getMines()).getSafest();
+	}
+}
@@ -0,0 +1,149 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+
+/**
+ * The results of a {@link Simulator} run: the number of games won, the time taken by the whole run, and the time taken
+ * by every game.
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class SimulationResult
+{
+	private final int rows;
+	private final int cols;
+	private final int mines;
+	private final int wins;
+	private final long elapsedNanos;
+	private final long[] latencies;
+
+	/**
+	 * Creates a new result.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param mines The number of mines.
+	 * @param wins The number of games won.
+	 * @param elapsedNanos The time taken by the whole run, in nanoseconds.
+	 * @param latencies The time taken by every game, in nanoseconds. The array is sorted in place.
+	 */
+	public SimulationResult(int rows, int cols, int mines, int wins, long elapsedNanos, long[] latencies)
+	{
+		this.rows = rows;
+		this.cols = cols;
+		this.mines = mines;
+		this.wins = wins;
+		this.elapsedNanos = elapsedNanos;
+		this.latencies = latencies;
+
+		Arrays.sort(latencies);
+	}
+
+	/**
+	 * Returns the ratio of the games won.
+	 *
+	 * @return The win rate, between 0 and 1, or 0 if no game was played.
+	 */
+	public double getWinRate()
+	{
+		return latencies.length == 0 ? 0 : (double) wins / latencies.length;
+	}
+
+	/**
+	 * Returns the number of games played per second.
+	 *
+	 * @return The throughput.
+	 */
+	public double getGamesPerSecond()
+	{
+		return elapsedNanos == 0 ? 0 : latencies.length * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Returns the time within which the given ratio of the games were played, using the nearest-rank method.
+	 *
+	 * @param percentile The percentile, between 0 and 100.
+	 * @return The time taken by a game, in nanoseconds, or 0 if no game was played.
+	 *
+	 * @throws IllegalArgumentException when the percentile is out of bounds.
+	 */
+	public long getLatencyPercentile(double percentile)
+	{
+		if (percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException("Percentile is out of bounds");
+		if (latencies.length == 0)
+			return 0;
+
+		int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+		return latencies[Math.max(rank, 1) - 1];
+	}
+
+	/**
+	 * Returns the number of games played.
+	 *
+	 * @return The number of games.
+	 */
+	public int getGames()
+	{
+		return latencies.length;
+	}
+
+	/**
+	 * Returns the number of games won.
+	 *
+	 * @return The number of wins.
+	 */
+	public int getWins()
+	{
+		return wins;
+	}
+
+	/**
+	 * Returns the time taken by the whole run.
+	 *
+	 * @return The time, in nanoseconds.
+	 */
+	public long getElapsedNanos()
+	{
+		return elapsedNanos;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the number of mines.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return mines;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%dx%d, %d mines: %d games, win rate %.2f%%, %.0f games/s, latency p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms",
+				rows, cols, mines, getGames(), getWinRate() * 100, getGamesPerSecond(), getLatencyPercentile(50) / 1e6,
+				getLatencyPercentile(90) / 1e6, getLatencyPercentile(99) / 1e6, getLatencyPercentile(100) / 1e6);
+	}
+}
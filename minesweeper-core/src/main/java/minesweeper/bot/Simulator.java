@@ -0,0 +1,184 @@
+package minesweeper.bot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import minesweeper.engine.Xoroshiro128PlusPlus;
+
+/**
+ * Plays many {@link HeadlessGame}s with a {@link Strategy} in parallel, and measures the win rate, the throughput and
+ * the time taken by each game.
+ * <p>
+ * Every worker of a {@link ForkJoinPool} takes the next {@link #BATCH_SIZE} games from a shared counter until every
+ * game is played, so the work stays balanced even though lost games end early, and the workers rarely touch the
+ * counter, or the latencies written by each other. The seed of every game is derived from the seed of the simulation
+ * and the number of the game, so with a deterministic strategy the same seed always gives the same wins, regardless of
+ * the number of workers.
+ * </p>
+ * <p>
+ * A simulator created with a strategy factory gives every worker its own strategy, so with a
+ * {@link minesweeper.solver.ProbabilityEngine#confined() confined} engine each worker plays its games without sharing
+ * any state with the others. A {@link HeadlessGame} never shares state with other games, so the number of games played
+ * per second grows with the number of workers, up to the number of cores.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class Simulator
+{
+	/**
+	 * The number of games a worker takes from the counter at once.
+	 */
+	public final static int BATCH_SIZE = 16;
+
+	private final ForkJoinPool pool;
+	private final Supplier<Strategy> strategies;
+
+	/**
+	 * Creates a new simulator using the common pool.
+	 *
+	 * @param strategy The strategy playing every game, shared by the workers.
+	 */
+	public Simulator(Strategy strategy)
+	{
+		this(ForkJoinPool.commonPool(), strategy);
+	}
+
+	/**
+	 * Creates a new simulator.
+	 *
+	 * @param pool The pool playing the games, one task per worker thread.
+	 * @param strategy The strategy playing every game, shared by the workers.
+	 */
+	public Simulator(ForkJoinPool pool, Strategy strategy)
+	{
+		this(pool, () -> strategy);
+	}
+
+	/**
+	 * Creates a new simulator, which gives every worker its own strategy.
+	 *
+	 * @param pool The pool playing the games, one task per worker thread.
+	 * @param strategies The factory of the strategies, called once by every worker.
+	 */
+	public Simulator(ForkJoinPool pool, Supplier<Strategy> strategies)
+	{
+		this.pool = pool;
+		this.strategies = strategies;
+	}
+
+	/**
+	 * Plays the given number of games. Blocks until every game is over.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param mines The number of mines.
+	 * @param games The number of games.
+	 * @param seed The seed of the simulation, the seeds of the games are derived from it.
+	 * @return The results of the games.
+	 *
+	 * @throws IllegalArgumentException when the size or the number of mines is invalid, or the strategy chooses an
+	 *         opened cell.
+	 * @throws IllegalStateException when the strategy has no move.
+	 */
+	public SimulationResult run(int rows, int cols, int mines, int games, long seed)
+	{
+		// Validates the arguments before starting the workers.
+		new HeadlessGame(rows, cols, mines, seed);
+
+		AtomicInteger next = new AtomicInteger();
+		long[] latencies = new long[games];
+
+		long start = System.nanoTime();
+		int workers = Math.max(pool.getParallelism(), 1);
+		List<ForkJoinTask<Integer>> tasks = new ArrayList<ForkJoinTask<Integer>>(workers);
+		for (int i = 0; i < workers; i++)
+		{
+			tasks.add(pool.submit(() -> play(rows, cols, mines, games, seed, next, latencies)));
+		}
+
+		int wins = 0;
+		for (ForkJoinTask<Integer> task : tasks)
+		{
+			wins += task.join();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		return new SimulationResult(rows, cols, mines, wins, elapsed, latencies);
+	}
+
+	/**
+	 * Plays batches of games with a new strategy until every game is taken.
+	 *
+	 * @return The number of games won.
+	 */
+	private int play(int rows, int cols, int mines, int games, long seed, AtomicInteger next, long[] latencies)
+	{
+		Strategy strategy = strategies.get();
+		int wins = 0;
+		int first;
+		while ((first = next.getAndAdd(BATCH_SIZE)) < games)
+		{
+			for (int game = first; game < Math.min(first + BATCH_SIZE, games); game++)
+			{
+				long start = System.nanoTime();
+				if (play(new HeadlessGame(rows, cols, mines, gameSeed(seed, game)), strategy))
+					wins++;
+				latencies[game] = System.nanoTime() - start;
+			}
+		}
+
+		return wins;
+	}
+
+	/**
+	 * Plays a game until it is over.
+	 *
+	 * @param game The game.
+	 * @param strategy The strategy choosing the moves.
+	 * @return <b>true</b> if the game was won.
+	 *
+	 * @throws IllegalStateException when the strategy has no move.
+	 * @throws IllegalArgumentException when the strategy chooses an opened cell.
+	 */
+	public static boolean play(HeadlessGame game, Strategy strategy)
+	{
+		while (!game.isOver())
+		{
+			int move = strategy.nextMove(game);
+			if (move == Strategy.NO_MOVE)
+				throw new IllegalStateException("The strategy has no move");
+
+			game.open(move);
+		}
+
+		return game.isWon();
+	}
+
+	/**
+	 * Returns the seed of a game of a simulation.
+	 *
+	 * @param seed The seed of the simulation.
+	 * @param game The number of the game.
+	 * @return The seed of the game.
+	 */
+	public static long gameSeed(long seed, int game)
+	{
+		return Xoroshiro128PlusPlus.splitMix64(seed + game * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * Returns the factory of the strategies playing the games.
+	 *
+	 * @return The strategy factory, which returns the same strategy every time if the simulator was created with one.
+	 */
+	public Supplier<Strategy> getStrategies()
+	{
+		return strategies;
+	}
+}
@@ -0,0 +1,63 @@
+package minesweeper.bot;
+
+import minesweeper.solver.ProbabilityEngine;
+
+/**
+ * Chooses the next cell to open in a {@link HeadlessGame}.
+ * <p>
+ * Strategies can be chained with {@link #orElse(Strategy)}: when a strategy has no move, the next one is asked. The
+ * default bot opens the first cell with a {@link FirstMoveStrategy}, then opens the cells which are certainly safe with
+ * a {@link DeductionStrategy}, and only guesses with a {@link LowestProbabilityStrategy} when there are none.
+ * </p>
+ * <p>
+ * A {@link Simulator} created with a single strategy shares it between its workers, so strategies must be
+ * thread-safe, which is easiest by keeping every state in the game itself. A simulator created with a strategy factory
+ * gives every worker its own strategy instead.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@FunctionalInterface
+public interface Strategy
+{
+	/**
+	 * Returned when a strategy has no move to make.
+	 */
+	public final static int NO_MOVE = -1;
+
+	/**
+	 * Chooses the next cell to open. It must only read the states of the cells, and the values of the opened ones.
+	 *
+	 * @param game The game, which is not over yet.
+	 * @return The index of a hidden cell, or {@link #NO_MOVE}.
+	 */
+	public int nextMove(HeadlessGame game);
+
+	/**
+	 * Returns a strategy which asks this strategy first, and the given one when this has no move.
+	 *
+	 * @param next The strategy asked when this one has no move.
+	 * @return The chained strategy.
+	 */
+	public default Strategy orElse(Strategy next)
+	{
+		return game ->
+		{
+			int move = nextMove(game);
+			return move != NO_MOVE ? move : next.nextMove(game);
+		};
+	}
+
+	/**
+	 * Returns the default bot: the first move in the middle of the board, then every certainly safe cell, then the
+	 * cell which is the least likely to be a mine.
+	 *
+	 * @param probabilityEngine The engine computing the probabilities of the guesses.
+	 * @return The strategy.
+	 */
+	public static Strategy standard(ProbabilityEngine probabilityEngine)
+	{
+		return new FirstMoveStrategy().orElse(new DeductionStrategy()).orElse(new LowestProbabilityStrategy(probabilityEngine));
+	}
+}
@@ -0,0 +1,10 @@
+/**
+ * A bot which plays the game without the GUI, and a simulator which plays many games with it in parallel.
+ * <p>
+ * A {@link minesweeper.bot.HeadlessGame HeadlessGame} only uses the engine and the solvers, so it runs without the
+ * JavaFX toolkit. The moves are chosen by a {@link minesweeper.bot.Strategy Strategy}, and the
+ * {@link minesweeper.bot.Simulator Simulator} measures its win rate and speed. {@link minesweeper.bot.Autoplay
+ * Autoplay} runs the simulator from the command line.
+ * </p>
+ */
+package minesweeper.bot;
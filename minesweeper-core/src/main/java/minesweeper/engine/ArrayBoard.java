@@ -0,0 +1,210 @@
+package minesweeper.engine;
+
+import java.util.Arrays;
+
+
+/**
+ * A {@link Board} storing the states and values of the cells in two flat byte arrays. This uses two bytes per cell,
+ * and has no per-cell objects at all.
+ * <p>
+ * The board can have any {@link Topology}. Square boards count their neighbours with a {@link MineBitboard}, the
+ * others with their {@link NeighbourList}.
+ * </p>
+ * 
+ * @author Eperjesi Ádám
+ *
+ */
+public class ArrayBoard implements Board
+{
+	/**
+	 * Spreads the 8 bits of the index into the lowest bits of 8 bytes.
+	 */
+	private final static long[] BYTE_SPREAD = new long[256];
+	private final static long MINE_BYTES = 0x0101010101010101L * CellValues.CELL_MINE;
+
+	static
+	{
+		for (int i = 0; i < BYTE_SPREAD.length; i++)
+		{
+			for (int bit = 0; bit < 8; bit++)
+			{
+				if ((i >>> bit & 1) != 0)
+					BYTE_SPREAD[i] |= 1L << (bit << 3);
+			}
+		}
+	}
+
+	private final int rows;
+	private final int cols;
+	private final Topology topology;
+	private final byte[] states;
+	private final byte[] values;
+	private MineBitboard mineBitboard;
+	private long[] planes;
+
+	/**
+	 * Creates a new board with the given size. Every cell will be {@link Board#STATE_HIDDEN hidden} and
+	 * {@link CellValues#CELL_EMPTY empty}.
+	 * 
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 */
+	public ArrayBoard(int rows, int cols)
+	{
+		this(rows, cols, Topology.SQUARE);
+	}
+
+	/**
+	 * Creates a new board with the given size and topology. Every cell will be {@link Board#STATE_HIDDEN hidden} and
+	 * {@link CellValues#CELL_EMPTY empty}.
+	 * 
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param topology The topology of the board.
+	 */
+	public ArrayBoard(int rows, int cols, Topology topology)
+	{
+		this.rows = rows;
+		this.cols = cols;
+		this.topology = topology;
+
+		states = new byte[rows * cols];
+		values = new byte[rows * cols];
+		Arrays.fill(states, (byte) STATE_HIDDEN);
+	}
+
+	@Override
+	public int getRows()
+	{
+		return rows;
+	}
+
+	@Override
+	public int getCols()
+	{
+		return cols;
+	}
+
+	@Override
+	public int size()
+	{
+		return states.length;
+	}
+
+	@Override
+	public Topology getTopology()
+	{
+		return topology;
+	}
+
+	@Override
+	public int getState(int index)
+	{
+		return states[index];
+	}
+
+	@Override
+	public void setState(int index, int state)
+	{
+		states[index] = (byte) state;
+	}
+
+	@Override
+	public int getValue(int index)
+	{
+		return values[index];
+	}
+
+	@Override
+	public void setValue(int index, int value)
+	{
+		values[index] = (byte) value;
+	}
+
+	/**
+	 * Makes every cell {@link Board#STATE_HIDDEN hidden} and {@link CellValues#CELL_EMPTY empty} again, so the board can
+	 * be reused for a new game of the same size.
+	 */
+	public void clear()
+	{
+		Arrays.fill(states, (byte) STATE_HIDDEN);
+		Arrays.fill(values, (byte) CellValues.CELL_EMPTY);
+	}
+
+	/**
+	 * Counts the neighbouring mines of every cell with a {@link MineBitboard}, a row at a time. The counts are written
+	 * back 8 cells at a time, spreading the bit planes into bytes with a lookup table.
+	 * <p>
+	 * The bitboard and the bit planes are kept with the board, so counting again after a {@link #clear()} allocates
+	 * nothing.
+	 * </p>
+	 * <p>
+	 * Boards of other topologies are counted by the {@link Board#countNeighbours() default} way.
+	 * </p>
+	 */
+	@Override
+	public void countNeighbours()
+	{
+		if (topology != Topology.SQUARE)
+		{
+			Board.super.countNeighbours();
+			return;
+		}
+
+		if (mineBitboard == null)
+		{
+			mineBitboard = new MineBitboard(rows, cols);
+			planes = new long[MineBitboard.COUNT_PLANES * mineBitboard.getWordsPerRow()];
+		}
+		MineBitboard mines = mineBitboard;
+		int wordsPerRow = mines.getWordsPerRow();
+
+		int index = 0;
+		for (int row = 0; row < rows; row++)
+		{
+			for (int w = 0; w < wordsPerRow; w++)
+			{
+				int end = Math.min(64, cols - (w << 6));
+				long word = 0;
+				for (int bit = 0; bit < end; bit++, index++)
+				{
+					// The difference is 0 only for mines, and subtracting 1 makes only that negative.
+					int difference = (values[index] ^ CellValues.CELL_MINE) & 0xFF;
+					word |= (long) ((difference - 1) >>> 31) << bit;
+				}
+				mines.setWord(row, w, word);
+			}
+		}
+
+		index = 0;
+		for (int row = 0; row < rows; row++)
+		{
+			mines.countRow(row, planes);
+
+			for (int w = 0; w < wordsPerRow; w++)
+			{
+				long ones = planes[w];
+				long twos = planes[wordsPerRow + w];
+				long fours = planes[2 * wordsPerRow + w];
+				long eights = planes[3 * wordsPerRow + w];
+				long mine = mines.getWord(row, w);
+
+				int end = Math.min(64, cols - (w << 6));
+				for (int bit = 0; bit < end; bit += 8)
+				{
+					// The counts of 8 cells, one in each byte. Mines keep their value, selected with a byte mask.
+					long counts = BYTE_SPREAD[(int) (ones >>> bit) & 0xFF] | BYTE_SPREAD[(int) (twos >>> bit) & 0xFF] << 1
+							| BYTE_SPREAD[(int) (fours >>> bit) & 0xFF] << 2 | BYTE_SPREAD[(int) (eights >>> bit) & 0xFF] << 3;
+					long mineBytes = BYTE_SPREAD[(int) (mine >>> bit) & 0xFF] * 0xFF;
+					counts = (counts & ~mineBytes) | (MINE_BYTES & mineBytes);
+
+					int cells = Math.min(8, end - bit);
+					for (int i = 0; i < cells; i++, index++)
+					{
+						values[index] = (byte) (counts >>> (i << 3));
+					}
+				}
+			}
+		}
+	}
+}
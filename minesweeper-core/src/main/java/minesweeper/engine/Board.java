@@ -0,0 +1,187 @@
+package minesweeper.engine;
+
+
+/**
+ * The storage of a game board. Every cell of the board has a state (whether it's hidden, flagged, etc...) and a value
+ * (see {@link minesweeper.engine.CellValues CellValues}).
+ * <p>
+ * The cells are addressed by a single index, calculated as <i>row * cols + col</i>, so the cells are stored row by
+ * row. The row and column based methods are just conveniences built on top of the index based ones, so every access
+ * is constant time.
+ * </p>
+ * <p>
+ * Which cells are the neighbours of a cell is decided by the {@link Topology} of the board, which is
+ * {@link Topology#SQUARE square} by default.
+ * </p>
+ * 
+ * @author Eperjesi Ádám
+ *
+ */
+public interface Board
+{
+	/**
+	 * State representing the cell is hidden. This is the default state of every cell.
+	 */
+	public final static int STATE_HIDDEN = 1;
+	/**
+	 * State representing the cell was marked by the player as a mine.
+	 */
+	public final static int STATE_FLAGGED = 2;
+	/**
+	 * State representing the cell was marked by the player as a questionable mine.
+	 */
+	public final static int STATE_QUESTION = 3;
+	/**
+	 * State representing the cell was opened, and its value is visible.
+	 */
+	public final static int STATE_CLICKED = 4;
+
+	/**
+	 * Returns the number of rows of the board.
+	 * 
+	 * @return The number of rows.
+	 */
+	public int getRows();
+
+	/**
+	 * Returns the number of columns of the board.
+	 * 
+	 * @return The number of columns.
+	 */
+	public int getCols();
+
+	/**
+	 * Returns the state of the cell at the given index.
+	 * 
+	 * @param index The index of the cell.
+	 * @return The state of the cell.
+	 */
+	public int getState(int index);
+
+	/**
+	 * Sets the state of the cell at the given index.
+	 * 
+	 * @param index The index of the cell.
+	 * @param state The new state, one of the {@code STATE_} constants of this interface.
+	 */
+	public void setState(int index, int state);
+
+	/**
+	 * Returns the value of the cell at the given index.
+	 * 
+	 * @param index The index of the cell.
+	 * @return The {@link minesweeper.engine.CellValues value} of the cell.
+	 */
+	public int getValue(int index);
+
+	/**
+	 * Sets the value of the cell at the given index.
+	 * 
+	 * @param index The index of the cell.
+	 * @param value The new {@link minesweeper.engine.CellValues value}.
+	 */
+	public void setValue(int index, int value);
+
+	/**
+	 * Returns the topology of the board, which decides the neighbours of the cells.
+	 * 
+	 * @return The topology, {@link Topology#SQUARE} by default.
+	 */
+	public default Topology getTopology()
+	{
+		return Topology.SQUARE;
+	}
+
+	/**
+	 * Sets the value of every non-mine cell to the number of mines around it. This should be called once, after every
+	 * mine is placed on the board.
+	 * <p>
+	 * Implementations may defer the counting, but {@link #getValue(int)} must always return the counted value.
+	 * </p>
+	 * <p>
+	 * The default implementation reads the neighbours from the {@link NeighbourList} of the board, or finds them on the
+	 * square grid if the board has no list, see {@link NeighbourList#of(Board)}.
+	 * </p>
+	 */
+	public default void countNeighbours()
+	{
+		int rows = getRows();
+		int cols = getCols();
+		NeighbourList list = NeighbourList.of(this);
+		int[] offsets = list != null ? list.getOffsets() : null;
+		int[] neighbours = list != null ? list.getNeighbours() : new int[Topology.MAX_NEIGHBOURS];
+
+		for (int index = 0; index < size(); index++)
+		{
+			if (getValue(index) != CellValues.CELL_MINE)
+				continue;
+
+			int start = offsets != null ? offsets[index] : 0;
+			int end = offsets != null ? offsets[index + 1] : Topology.squareNeighbours(rows, cols, index, neighbours);
+			for (int i = start; i < end; i++)
+			{
+				int value = getValue(neighbours[i]);
+				if (value != CellValues.CELL_MINE)
+				{
+					setValue(neighbours[i], value + 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of cells on the board.
+	 * 
+	 * @return The number of cells.
+	 */
+	public default int size()
+	{
+		return getRows() * getCols();
+	}
+
+	/**
+	 * Returns the index of the cell at the given row and column.
+	 * 
+	 * @param row The row index.
+	 * @param col The column index.
+	 * @return The index of the cell.
+	 */
+	public default int indexOf(int row, int col)
+	{
+		return row * getCols() + col;
+	}
+
+	/**
+	 * Returns the row index of the cell at the given index.
+	 * 
+	 * @param index The index of the cell.
+	 * @return The row index.
+	 */
+	public default int rowOf(int index)
+	{
+		return index / getCols();
+	}
+
+	/**
+	 * Returns the column index of the cell at the given index.
+	 * 
+	 * @param index The index of the cell.
+	 * @return The column index.
+	 */
+	public default int colOf(int index)
+	{
+		return index % getCols();
+	}
+
+	/**
+	 * Returns whether the given row and column is inside the board.
+	 * 
+	 * @param row The row index.
+	 * @param col The column index.
+	 * @return <b>true</b>, if the position is inside the board, <b>false</b> otherwise.
+	 */
+	public default boolean contains(int row, int col)
+	{
+		return row >= 0 && row < getRows() && col >= 0 && col < getCols();
+	}
+}
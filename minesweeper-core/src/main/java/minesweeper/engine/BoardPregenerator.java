@@ -0,0 +1,177 @@
+package minesweeper.engine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Generates the {@link MineLayout}s of the next games in the background, so the mines are ready when the first click
+ * comes, wherever it is.
+ * <p>
+ * The pregenerator keeps a queue of {@link #QUEUE_SIZE} seeds for the current size of the board, and their layouts are
+ * generated one after the other, on a single daemon thread, which stops when it has nothing to do. A new game gets the
+ * oldest seed of the queue from {@link #nextSeed(int, int, int)}, and the first click {@link #take(long) takes} its
+ * layout, if it's ready by then. If it's not, or the seed of the game was changed in the meantime, the caller places
+ * the mines itself, the same way, so a game never waits for the background thread. Changing the size of the board
+ * throws the queue away.
+ * </p>
+ * <p>
+ * Only the boards of at most {@link #MAX_CELLS} cells are pregenerated, because a layout takes one bit per cell. A
+ * pregenerator is not thread-safe, it must be used from one thread, like the JavaFX thread.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class BoardPregenerator
+{
+	/**
+	 * The number of layouts generated ahead, besides the one of the current game.
+	 */
+	public final static int QUEUE_SIZE = 2;
+
+	/**
+	 * The largest board, whose layouts are pregenerated.
+	 */
+	public final static int MAX_CELLS = 1 << 26;
+
+	private final SplittableRandom seeds;
+	private final ThreadPoolExecutor executor;
+	private final Deque<Entry> queue;
+	private Entry current;
+	private int rows;
+	private int cols;
+	private int mines;
+
+	/**
+	 * Creates a new pregenerator, whose seeds are random.
+	 */
+	public BoardPregenerator()
+	{
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * Creates a new pregenerator, which draws the seeds from the given generator.
+	 *
+	 * @param seeds The generator of the seeds, only used by the pregenerator.
+	 */
+	public BoardPregenerator(SplittableRandom seeds)
+	{
+		this.seeds = seeds;
+		this.queue = new ArrayDeque<>();
+		this.executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable ->
+		{
+			Thread thread = new Thread(runnable, "board-pregenerator");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the seed of a new game, and keeps generating the layouts of the next games of the same size.
+	 *
+	 * @param rows The number of rows of the board.
+	 * @param cols The number of columns of the board.
+	 * @param mines The number of mines, less than the number of cells.
+	 * @return The seed of the new game, whose layout may already be generated.
+	 */
+	public long nextSeed(int rows, int cols, int mines)
+	{
+		if (rows != this.rows || cols != this.cols || mines != this.mines)
+		{
+			clear();
+			this.rows = rows;
+			this.cols = cols;
+			this.mines = mines;
+		}
+
+		if ((long) rows * cols > MAX_CELLS)
+		{
+			current = null;
+			return seeds.nextLong();
+		}
+
+		fill();
+		current = queue.poll();
+		fill();
+
+		return current.seed;
+	}
+
+	/**
+	 * Takes the layout of the current game, which was started with {@link #nextSeed(int, int, int)}.
+	 *
+	 * @param seed The seed of the game at the first click.
+	 * @return The layout of the game, or <b>null</b> if it's not generated yet, or the game has a different seed.
+	 */
+	public MineLayout take(long seed)
+	{
+		boolean ready = isReady() && current.seed == seed;
+		MineLayout layout = ready ? current.layout.join() : null;
+		current = null;
+
+		return layout;
+	}
+
+	/**
+	 * Checks whether the layout of the current game is already generated.
+	 *
+	 * @return <b>true</b>, if the layout can be {@link #take(long) taken}.
+	 */
+	public boolean isReady()
+	{
+		return current != null && current.layout.isDone() && !current.layout.isCompletedExceptionally();
+	}
+
+	/**
+	 * Throws away the queued layouts. The layout being generated is finished first.
+	 */
+	public void clear()
+	{
+		for (Entry entry : queue)
+		{
+			entry.layout.cancel(false);
+		}
+		queue.clear();
+		current = null;
+	}
+
+	/**
+	 * Queues new seeds for the current size, until the queue is full.
+	 */
+	private void fill()
+	{
+		while (queue.size() < QUEUE_SIZE)
+		{
+			long seed = seeds.nextLong();
+			int rows = this.rows;
+			int cols = this.cols;
+			int mines = this.mines;
+
+			queue.add(new Entry(seed, CompletableFuture.supplyAsync(() -> MineLayout.generate(rows, cols, mines, seed), executor)));
+		}
+	}
+
+	/**
+	 * A queued seed, and its layout in the making.
+	 */
+	private static class Entry
+	{
+		private final long seed;
+		private final CompletableFuture<MineLayout> layout;
+
+		private Entry(long seed, CompletableFuture<MineLayout> layout)
+		{
+			this.seed = seed;
+			this.layout = layout;
+		}
+	}
+}
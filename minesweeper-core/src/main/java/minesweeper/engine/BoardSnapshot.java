@@ -0,0 +1,233 @@
+package minesweeper.engine;
+
+
+/**
+ * An immutable copy of a {@link Board}, which can be read by any number of threads without locking.
+ * <p>
+ * The cells are stored in pages of {@link #PAGE_SIZE} cells, one byte per cell. A new snapshot is made from the
+ * previous one with {@link #update(Board, int[])}, which only copies the pages of the changed cells, and shares every
+ * other page with the previous snapshot. So publishing a snapshot after every move costs about as much as the number
+ * of changed cells, not the size of the board, and an old snapshot never changes while someone reads it.
+ * </p>
+ * <p>
+ * The writer publishes the snapshots through a single volatile field, and the readers only read that field, see
+ * {@code MinesweeperModel#getSnapshot()}. Since a snapshot never changes after it's created, everything read from one
+ * snapshot is consistent, including the {@link #getClickedCount() number of opened} and {@link #getFlaggedCount()
+ * flagged} cells.
+ * </p>
+ * <p>
+ * Only the read methods of {@link Board} are supported, the others throw an {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public final class BoardSnapshot implements Board
+{
+	/**
+	 * The number of cells in a page, the size of a cache line.
+	 */
+	public final static int PAGE_SIZE = 64;
+
+	private final static int PAGE_SHIFT = 6;
+	private final static int PAGE_MASK = PAGE_SIZE - 1;
+	private final static int STATE_SHIFT = 4;
+	private final static int VALUE_MASK = 0x0F;
+
+	private final int rows;
+	private final int cols;
+	private final Topology topology;
+	private final byte[][] pages;
+	private final long version;
+	private final int clickedCount;
+	private final int flaggedCount;
+
+	private BoardSnapshot(int rows, int cols, Topology topology, byte[][] pages, long version, int clickedCount, int flaggedCount)
+	{
+		this.rows = rows;
+		this.cols = cols;
+		this.topology = topology;
+		this.pages = pages;
+		this.version = version;
+		this.clickedCount = clickedCount;
+		this.flaggedCount = flaggedCount;
+	}
+
+	/**
+	 * Copies every cell of a board into a new snapshot.
+	 *
+	 * @param board The board to copy.
+	 * @return The snapshot of the board, with version 0.
+	 */
+	public static BoardSnapshot of(Board board)
+	{
+		int size = board.size();
+		byte[][] pages = new byte[(size + PAGE_MASK) >> PAGE_SHIFT][];
+
+		int clicked = 0;
+		int flagged = 0;
+		for (int page = 0; page < pages.length; page++)
+		{
+			int first = page << PAGE_SHIFT;
+			byte[] cells = new byte[Math.min(PAGE_SIZE, size - first)];
+			for (int i = 0; i < cells.length; i++)
+			{
+				int state = board.getState(first + i);
+				if (state == STATE_CLICKED)
+					clicked++;
+				else if (state == STATE_FLAGGED)
+					flagged++;
+				cells[i] = pack(state, board.getValue(first + i));
+			}
+			pages[page] = cells;
+		}
+
+		return new BoardSnapshot(board.getRows(), board.getCols(), board.getTopology(), pages, 0, clicked, flagged);
+	}
+
+	/**
+	 * Creates the next snapshot of a board, after some of its cells were changed. Only the pages of the changed cells
+	 * are copied, the rest are shared with this snapshot, which stays the same.
+	 *
+	 * @param board The board this snapshot was made of, with the changes.
+	 * @param changed The indices of the changed cells. Unchanged cells may be listed too.
+	 * @return The new snapshot, whose version is one larger.
+	 *
+	 * @throws IllegalArgumentException when the board has a different size than the snapshot.
+	 */
+	public BoardSnapshot update(Board board, int[] changed)
+	{
+		if (board.getRows() != rows || board.getCols() != cols)
+			throw new IllegalArgumentException("The board is not the same size as the snapshot");
+
+		byte[][] newPages = pages.clone();
+		int clicked = clickedCount;
+		int flagged = flaggedCount;
+
+		for (int index : changed)
+		{
+			int page = index >> PAGE_SHIFT;
+			if (newPages[page] == pages[page])
+				newPages[page] = pages[page].clone();
+
+			byte[] cells = newPages[page];
+			int oldState = cells[index & PAGE_MASK] >> STATE_SHIFT;
+			int state = board.getState(index);
+			clicked += (state == STATE_CLICKED ? 1 : 0) - (oldState == STATE_CLICKED ? 1 : 0);
+			flagged += (state == STATE_FLAGGED ? 1 : 0) - (oldState == STATE_FLAGGED ? 1 : 0);
+			cells[index & PAGE_MASK] = pack(state, board.getValue(index));
+		}
+
+		return new BoardSnapshot(rows, cols, topology, newPages, version + 1, clicked, flagged);
+	}
+
+	private static byte pack(int state, int value)
+	{
+		return (byte) (state << STATE_SHIFT | value);
+	}
+
+	@Override
+	public int getRows()
+	{
+		return rows;
+	}
+
+	@Override
+	public int getCols()
+	{
+		return cols;
+	}
+
+	@Override
+	public Topology getTopology()
+	{
+		return topology;
+	}
+
+	@Override
+	public int getState(int index)
+	{
+		return pages[index >> PAGE_SHIFT][index & PAGE_MASK] >> STATE_SHIFT;
+	}
+
+	@Override
+	public int getValue(int index)
+	{
+		return pages[index >> PAGE_SHIFT][index & PAGE_MASK] & VALUE_MASK;
+	}
+
+	/**
+	 * Not supported, a snapshot can't be changed.
+	 *
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setState(int index, int state)
+	{
+		throw new UnsupportedOperationException("A board snapshot can't be changed");
+	}
+
+	/**
+	 * Not supported, a snapshot can't be changed.
+	 *
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setValue(int index, int value)
+	{
+		throw new UnsupportedOperationException("A board snapshot can't be changed");
+	}
+
+	/**
+	 * Not supported, a snapshot can't be changed.
+	 *
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void countNeighbours()
+	{
+		throw new UnsupportedOperationException("A board snapshot can't be changed");
+	}
+
+	/**
+	 * Returns the number of snapshots made before this one, since the first snapshot of the board.
+	 *
+	 * @return The version of the snapshot.
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * Returns the number of {@link Board#STATE_CLICKED opened} cells in this snapshot.
+	 *
+	 * @return The number of opened cells.
+	 */
+	public int getClickedCount()
+	{
+		return clickedCount;
+	}
+
+	/**
+	 * Returns the number of {@link Board#STATE_FLAGGED flagged} cells in this snapshot.
+	 *
+	 * @return The number of flagged cells.
+	 */
+	public int getFlaggedCount()
+	{
+		return flaggedCount;
+	}
+
+	/**
+	 * Checks whether a page of cells is shared with another snapshot, instead of being a copy.
+	 *
+	 * @param other Another snapshot of the same board.
+	 * @param index The index of a cell in the page.
+	 * @return <b>true</b>, if both snapshots read the cell from the same page.
+	 */
+	public boolean sharesPage(BoardSnapshot other, int index)
+	{
+		return pages[index >> PAGE_SHIFT] == other.pages[index >> PAGE_SHIFT];
+	}
+}
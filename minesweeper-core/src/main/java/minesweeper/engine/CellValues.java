@@ -1,9 +1,8 @@
-package minesweeper.util;
+package minesweeper.engine;
 
 /**
- * Constant class for all the possible cell values. Cell values are used to determine which image should be loaded in
- * the corresponding {@link minesweeper.view.CellView CellView}, or to do operations involving
- * {@link minesweeper.model.Cell Cell}s.
+ * Constant class for all the possible cell values. Cell values are stored in a {@link Board}, and the client uses them
+ * to determine which image should be loaded in the corresponding cell view.
  * <p>
  * See the constant's documentation in the class for further information.
  * </p>
@@ -80,4 +79,16 @@ public class CellValues
 	 * The cell was marked as a mine, and was a mine.
 	 */
 	public final static int CELL_GOOD = 15;
+
+	/**
+	 * Checks whether a value belongs to a mine: a hidden one, or one shown at the end of the game, which is
+	 * {@link #CELL_EXPLOSION CELL_EXPLOSION} or {@link #CELL_GOOD CELL_GOOD}.
+	 * 
+	 * @param value The value of a cell.
+	 * @return <b>true</b>, if the cell is a mine.
+	 */
+	public static boolean isMine(int value)
+	{
+		return value == CELL_MINE || value == CELL_EXPLOSION || value == CELL_GOOD;
+	}
 }
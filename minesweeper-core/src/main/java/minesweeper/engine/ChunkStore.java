@@ -0,0 +1,148 @@
+package minesweeper.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * On-disk store of the chunks evicted from an {@link EndlessBoard}.
+ * <p>
+ * Only the states of the cells are stored, 2 bits per cell, because the mines of a chunk can always be generated again
+ * from the seed. The chunks are grouped into region files of {@link #REGION_SIZE} x {@link #REGION_SIZE} chunks, and
+ * every chunk has a fixed slot in its region file. A slot that was never written reads as zeros, which is the state of
+ * an untouched chunk (every cell {@link Board#STATE_HIDDEN hidden}), so the files need no header.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class ChunkStore
+{
+	/**
+	 * The number of chunks in a row or a column of a region file.
+	 */
+	public final static int REGION_SIZE = 32;
+
+	private final File directory;
+	private final int slotSize;
+
+	/**
+	 * Creates a new store, which keeps its region files in the given directory. The directory is created if it doesn't
+	 * exist.
+	 *
+	 * @param directory The directory of the region files.
+	 *
+	 * @throws UncheckedIOException when the directory can't be created.
+	 */
+	public ChunkStore(File directory)
+	{
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new UncheckedIOException(new IOException("Couldn't create chunk directory: " + directory));
+
+		this.directory = directory;
+		this.slotSize = EndlessBoard.CHUNK_STATE_LENGTH * Long.BYTES;
+	}
+
+	/**
+	 * Reads the states of a chunk into the given array. If the chunk was never written, the array is filled with
+	 * zeros.
+	 *
+	 * @param chunkRow The row of the chunk.
+	 * @param chunkCol The column of the chunk.
+	 * @param states The array to read the states into.
+	 *
+	 * @throws UncheckedIOException when an IO error has occurred.
+	 */
+	public void read(int chunkRow, int chunkCol, long[] states)
+	{
+		File file = regionFile(chunkRow, chunkCol);
+		long offset = slotOffset(chunkRow, chunkCol);
+
+		if (file.length() < offset + slotSize)
+		{
+			Arrays.fill(states, 0);
+			return;
+		}
+
+		try (RandomAccessFile region = new RandomAccessFile(file, "r"))
+		{
+			byte[] slot = new byte[slotSize];
+			region.seek(offset);
+			region.readFully(slot);
+			ByteBuffer.wrap(slot).asLongBuffer().get(states);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the states of a chunk to its slot.
+	 *
+	 * @param chunkRow The row of the chunk.
+	 * @param chunkCol The column of the chunk.
+	 * @param states The states of the chunk.
+	 *
+	 * @throws UncheckedIOException when an IO error has occurred.
+	 */
+	public void write(int chunkRow, int chunkCol, long[] states)
+	{
+		try (RandomAccessFile region = new RandomAccessFile(regionFile(chunkRow, chunkCol), "rw"))
+		{
+			ByteBuffer slot = ByteBuffer.allocate(slotSize);
+			slot.asLongBuffer().put(states);
+			region.seek(slotOffset(chunkRow, chunkCol));
+			region.write(slot.array());
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Deletes every region file, and the directory too if it's empty afterwards.
+	 */
+	public void delete()
+	{
+		File[] files = directory.listFiles((dir, name) -> name.startsWith("r.") && name.endsWith(".dat"));
+		if (files != null)
+		{
+			for (File file : files)
+			{
+				file.delete();
+			}
+		}
+
+		directory.delete();
+	}
+
+	/**
+	 * Returns the directory of the region files.
+	 *
+	 * @return The directory.
+	 */
+	public File getDirectory()
+	{
+		return directory;
+	}
+
+	private File regionFile(int chunkRow, int chunkCol)
+	{
+		int regionRow = Math.floorDiv(chunkRow, REGION_SIZE);
+		int regionCol = Math.floorDiv(chunkCol, REGION_SIZE);
+
+		return new File(directory, "r." + regionRow + "." + regionCol + ".dat");
+	}
+
+	private long slotOffset(int chunkRow, int chunkCol)
+	{
+		int slot = Math.floorMod(chunkRow, REGION_SIZE) * REGION_SIZE + Math.floorMod(chunkCol, REGION_SIZE);
+
+		return (long) slot * slotSize;
+	}
+}
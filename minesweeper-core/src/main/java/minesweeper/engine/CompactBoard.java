@@ -0,0 +1,166 @@
+package minesweeper.engine;
+
+
+/**
+ * A {@link Board} for huge games, storing every cell in 6 bits: 2 bits for the state and 4 bits for the value. The
+ * states and the values are packed into two long arrays, so a 10000x10000 board needs about 75 MB.
+ * <p>
+ * The board also counts the neighbouring mines lazily. {@link #countNeighbours()} only marks the values of the
+ * non-mine cells as not counted yet, and the real value of a cell is counted when it's first read. So generating a
+ * game is proportional to the number of mines, and opening a cell is proportional to the number of cells read by the
+ * game, not to the size of the board.
+ * </p>
+ * <p>
+ * Since the state is stored in 2 bits, only the four {@code STATE_} constants of {@link Board} can be stored.
+ * </p>
+ * 
+ * @author Eperjesi Ádám
+ *
+ */
+public class CompactBoard implements Board
+{
+	/**
+	 * The value of a non-mine cell, whose neighbours were not counted yet. This can never be the value of a cell,
+	 * because {@link CellValues#CELL_HIDDEN CELL_HIDDEN} is only used by the GUI.
+	 */
+	private final static int NOT_COUNTED = CellValues.CELL_HIDDEN;
+
+	private final static long NIBBLE_LOW_BITS = 0x1111111111111111L;
+
+	private final int rows;
+	private final int cols;
+	private final long[] states;
+	private final long[] values;
+
+	/**
+	 * Creates a new board with the given size. Every cell will be {@link Board#STATE_HIDDEN hidden} and
+	 * {@link CellValues#CELL_EMPTY empty}.
+	 * 
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 */
+	public CompactBoard(int rows, int cols)
+	{
+		this.rows = rows;
+		this.cols = cols;
+
+		// 32 states and 16 values fit in a long. A zero state is STATE_HIDDEN, a zero value is CELL_EMPTY.
+		states = new long[(rows * cols + 31) >>> 5];
+		values = new long[(rows * cols + 15) >>> 4];
+	}
+
+	@Override
+	public int getRows()
+	{
+		return rows;
+	}
+
+	@Override
+	public int getCols()
+	{
+		return cols;
+	}
+
+	@Override
+	public int getState(int index)
+	{
+		int shift = (index & 31) << 1;
+		return (int) ((states[index >>> 5] >>> shift) & 0b11) + STATE_HIDDEN;
+	}
+
+	@Override
+	public void setState(int index, int state)
+	{
+		int shift = (index & 31) << 1;
+		long word = states[index >>> 5] & ~(0b11L << shift);
+		states[index >>> 5] = word | ((long) ((state - STATE_HIDDEN) & 0b11) << shift);
+	}
+
+	@Override
+	public int getValue(int index)
+	{
+		int value = getStoredValue(index);
+
+		if (value == NOT_COUNTED)
+		{
+			value = countMinesAround(index);
+			setValue(index, value);
+		}
+
+		return value;
+	}
+
+	@Override
+	public void setValue(int index, int value)
+	{
+		int shift = (index & 15) << 2;
+		long word = values[index >>> 4] & ~(0xFL << shift);
+		values[index >>> 4] = word | ((long) (value & 0xF) << shift);
+	}
+
+	/**
+	 * Marks the value of every non-mine cell as not counted. The values will be counted one by one, when they are
+	 * read.
+	 * <p>
+	 * This works on 16 cells at once: every nibble of a word that isn't {@link CellValues#CELL_MINE CELL_MINE} is
+	 * replaced by the not counted marker.
+	 * </p>
+	 */
+	@Override
+	public void countNeighbours()
+	{
+		long mines = NIBBLE_LOW_BITS * CellValues.CELL_MINE;
+		long notCounted = NIBBLE_LOW_BITS * NOT_COUNTED;
+
+		for (int i = 0; i < values.length; i++)
+		{
+			// A nibble of the difference is zero only where the cell is a mine.
+			long difference = values[i] ^ mines;
+			long notMine = (difference | (difference >>> 1) | (difference >>> 2) | (difference >>> 3)) & NIBBLE_LOW_BITS;
+			long mask = notMine * 0xF;
+
+			values[i] = (values[i] & ~mask) | (notCounted & mask);
+		}
+	}
+
+	/**
+	 * Returns the stored value of a cell, which can be the not counted marker.
+	 * 
+	 * @param index The index of the cell.
+	 * @return The stored value.
+	 */
+	private int getStoredValue(int index)
+	{
+		int shift = (index & 15) << 2;
+		return (int) ((values[index >>> 4] >>> shift) & 0xF);
+	}
+
+	/**
+	 * Counts the mines around a cell. The mines shown at the end of the game are counted too, because a cell may be
+	 * read for the first time after a mine exploded.
+	 * 
+	 * @param index The index of the cell.
+	 * @return The number of mines around the cell.
+	 */
+	private int countMinesAround(int index)
+	{
+		int row = index / cols;
+		int col = index - row * cols;
+		int rowBegin = (row - 1 < 0) ? row : row - 1;
+		int rowEnd = (row + 1 >= rows) ? rows - 1 : row + 1;
+		int colBegin = (col - 1 < 0) ? col : col - 1;
+		int colEnd = (col + 1 >= cols) ? cols - 1 : col + 1;
+
+		int count = 0;
+		for (int i = rowBegin; i <= rowEnd; i++)
+		{
+			for (int neighbour = i * cols + colBegin; neighbour <= i * cols + colEnd; neighbour++)
+			{
+				if (CellValues.isMine(getStoredValue(neighbour)))
+					count++;
+			}
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,359 @@
+package minesweeper.engine;
+
+import java.util.Arrays;
+
+
+/**
+ * Plays a generated board from its first click, and tells whether it can be cleared without guessing.
+ * <p>
+ * The solver only uses deductions which are always correct, so it never opens a mine:
+ * </p>
+ * <ul>
+ * <li>If a number already has as many flagged neighbours as its value, its other hidden neighbours are safe. If it has
+ * as many hidden neighbours as its missing mines, they are all mines.</li>
+ * <li>If the hidden neighbours of a number are a subset of the hidden neighbours of a nearby number, the difference of
+ * the two sets contains the difference of their missing mines, so it can be all safe or all mines.</li>
+ * <li>If every mine is flagged, the remaining hidden cells are safe.</li>
+ * </ul>
+ * <p>
+ * The first rule is checked with a work queue, only for the numbers next to a cell which has just changed. The
+ * subset rule is slower, so it's only tried when the queue runs out. The arrays of the solver are reused between
+ * boards of the same size, so a solver should be reused, but it's not thread-safe. Only {@link Topology#SQUARE
+ * square} boards can be solved.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class DeterministicSolver
+{
+	private final static byte UNKNOWN = 0;
+	private final static byte SAFE = 1;
+	private final static byte MINE = 2;
+
+	private Board board;
+	private int rows;
+	private int cols;
+	private byte[] known;
+	private boolean[] queued;
+	private int[] queue;
+	private int queueHead;
+	private int queueSize;
+	private int[] stack;
+	private int opened;
+	private int flagged;
+	private int mines;
+
+	/**
+	 * Creates a new solver.
+	 */
+	public DeterministicSolver()
+	{
+		known = new byte[0];
+		queued = new boolean[0];
+		queue = new int[0];
+		stack = new int[0];
+	}
+
+	/**
+	 * Tries to clear the board without guessing, starting with opening the given cell. The board is not modified.
+	 *
+	 * @param board A board with its mines placed and its neighbours counted.
+	 * @param firstIndex The index of the first opened cell, which must not be a mine.
+	 * @return <b>true</b> if every safe cell could be opened by deductions, <b>false</b> if a guess would be needed.
+	 *
+	 * @throws IllegalArgumentException when the first cell is a mine, or the board is not square.
+	 */
+	public boolean solve(Board board, int firstIndex)
+	{
+		if (board.getTopology() != Topology.SQUARE)
+			throw new IllegalArgumentException("The solver only works on square boards, not on " + board.getTopology());
+		if (board.getValue(firstIndex) == CellValues.CELL_MINE)
+			throw new IllegalArgumentException("The first cell is a mine");
+
+		reset(board);
+
+		open(firstIndex);
+		while (opened < board.size() - mines)
+		{
+			if (queueSize > 0)
+			{
+				checkSingle(poll());
+			}
+			else if (!checkSubsets() && !checkMineCount())
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void reset(Board board)
+	{
+		int size = board.size();
+
+		this.board = board;
+		this.rows = board.getRows();
+		this.cols = board.getCols();
+
+		if (known.length != size)
+		{
+			known = new byte[size];
+			queued = new boolean[size];
+			queue = new int[size];
+			stack = new int[size];
+		}
+		else
+		{
+			Arrays.fill(known, UNKNOWN);
+			Arrays.fill(queued, false);
+		}
+
+		queueHead = 0;
+		queueSize = 0;
+		opened = 0;
+		flagged = 0;
+		mines = 0;
+		for (int i = 0; i < size; i++)
+		{
+			if (board.getValue(i) == CellValues.CELL_MINE)
+				mines++;
+		}
+	}
+
+	/**
+	 * Opens a safe cell, and the empty region around it, like {@link FloodFill} does. The opened numbers, and the
+	 * numbers next to them, are queued for checking.
+	 */
+	private void open(int index)
+	{
+		int top = 0;
+		stack[top++] = index;
+		known[index] = SAFE;
+
+		while (top > 0)
+		{
+			int cell = stack[--top];
+			int row = cell / cols;
+			int col = cell - row * cols;
+			opened++;
+
+			boolean empty = board.getValue(cell) == CellValues.CELL_EMPTY;
+			if (!empty)
+				offer(cell);
+
+			for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++)
+			{
+				for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, cols - 1); c++)
+				{
+					int neighbour = r * cols + c;
+					if (known[neighbour] == UNKNOWN && empty)
+					{
+						known[neighbour] = SAFE;
+						stack[top++] = neighbour;
+					}
+					else if (known[neighbour] == SAFE && board.getValue(neighbour) != CellValues.CELL_EMPTY)
+					{
+						offer(neighbour);
+					}
+				}
+			}
+		}
+	}
+
+	private void flag(int index)
+	{
+		known[index] = MINE;
+		flagged++;
+
+		int row = index / cols;
+		int col = index - row * cols;
+		for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++)
+		{
+			for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, cols - 1); c++)
+			{
+				int neighbour = r * cols + c;
+				if (known[neighbour] == SAFE)
+					offer(neighbour);
+			}
+		}
+	}
+
+	private void offer(int index)
+	{
+		if (!queued[index])
+		{
+			queued[index] = true;
+			queue[(queueHead + queueSize++) % queue.length] = index;
+		}
+	}
+
+	private int poll()
+	{
+		int index = queue[queueHead];
+		queueHead = (queueHead + 1) % queue.length;
+		queueSize--;
+		queued[index] = false;
+		return index;
+	}
+
+	/**
+	 * Applies the first rule to a number.
+	 */
+	private void checkSingle(int index)
+	{
+		int row = index / cols;
+		int col = index - row * cols;
+		int hidden = 0;
+		int missing = board.getValue(index);
+
+		for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++)
+		{
+			for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, cols - 1); c++)
+			{
+				byte state = known[r * cols + c];
+				if (state == UNKNOWN)
+					hidden++;
+				else if (state == MINE)
+					missing--;
+			}
+		}
+
+		if (hidden == 0 || (missing != 0 && missing != hidden))
+			return;
+
+		for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++)
+		{
+			for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, cols - 1); c++)
+			{
+				int neighbour = r * cols + c;
+				if (known[neighbour] != UNKNOWN)
+					continue;
+
+				if (missing == 0)
+					open(neighbour);
+				else
+					flag(neighbour);
+			}
+		}
+	}
+
+	/**
+	 * Applies the subset rule to every pair of numbers at most two cells apart, until the first deduction.
+	 *
+	 * @return <b>true</b> if a cell was opened or flagged.
+	 */
+	private boolean checkSubsets()
+	{
+		for (int a = 0; a < known.length; a++)
+		{
+			if (known[a] != SAFE || board.getValue(a) == CellValues.CELL_EMPTY)
+				continue;
+
+			int rowA = a / cols;
+			int colA = a - rowA * cols;
+			int hiddenA = countAround(rowA, colA, UNKNOWN);
+			if (hiddenA == 0)
+				continue;
+			int missingA = board.getValue(a) - countAround(rowA, colA, MINE);
+
+			for (int rowB = Math.max(rowA - 2, 0); rowB <= Math.min(rowA + 2, rows - 1); rowB++)
+			{
+				for (int colB = Math.max(colA - 2, 0); colB <= Math.min(colA + 2, cols - 1); colB++)
+				{
+					int b = rowB * cols + colB;
+					if (b == a || known[b] != SAFE || board.getValue(b) == CellValues.CELL_EMPTY)
+						continue;
+
+					// The hidden neighbours of a which are not next to b, and the ones of b which are not next to a.
+					int onlyA = 0;
+					int onlyB = 0;
+					for (int r = Math.max(Math.min(rowA, rowB) - 1, 0); r <= Math.min(Math.max(rowA, rowB) + 1, rows - 1); r++)
+					{
+						for (int c = Math.max(Math.min(colA, colB) - 1, 0); c <= Math.min(Math.max(colA, colB) + 1, cols - 1); c++)
+						{
+							if (known[r * cols + c] != UNKNOWN)
+								continue;
+
+							boolean nextToA = Math.abs(r - rowA) <= 1 && Math.abs(c - colA) <= 1;
+							boolean nextToB = Math.abs(r - rowB) <= 1 && Math.abs(c - colB) <= 1;
+							if (nextToA && !nextToB)
+								onlyA++;
+							else if (nextToB && !nextToA)
+								onlyB++;
+						}
+					}
+
+					if (onlyA > 0 || onlyB == 0)
+						continue;
+
+					int missingB = board.getValue(b) - countAround(rowB, colB, MINE);
+					int difference = missingB - missingA;
+					if (difference == 0 || difference == onlyB)
+					{
+						resolveOutside(rowB, colB, rowA, colA, difference == 0);
+						return true;
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Opens or flags the hidden neighbours of the first cell which are not next to the second one.
+	 */
+	private void resolveOutside(int row, int col, int otherRow, int otherCol, boolean safe)
+	{
+		for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++)
+		{
+			for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, cols - 1); c++)
+			{
+				int index = r * cols + c;
+				if (known[index] != UNKNOWN || (Math.abs(r - otherRow) <= 1 && Math.abs(c - otherCol) <= 1))
+					continue;
+
+				if (safe)
+					open(index);
+				else
+					flag(index);
+			}
+		}
+	}
+
+	/**
+	 * Opens every hidden cell if every mine is flagged.
+	 *
+	 * @return <b>true</b> if a cell was opened.
+	 */
+	private boolean checkMineCount()
+	{
+		if (flagged != mines)
+			return false;
+
+		for (int i = 0; i < known.length; i++)
+		{
+			if (known[i] == UNKNOWN)
+				open(i);
+		}
+
+		return true;
+	}
+
+	private int countAround(int row, int col, byte state)
+	{
+		int count = 0;
+		for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++)
+		{
+			for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, cols - 1); c++)
+			{
+				if (known[r * cols + c] == state)
+					count++;
+			}
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,101 @@
+package minesweeper.engine;
+
+/**
+ * The difficulty presets of the game, with the size of their board and their number of mines. Every other board is a
+ * <i>Custom</i> game.
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public enum Difficulty
+{
+	/**
+	 * A 9x9 board with 10 mines.
+	 */
+	EASY("Easy", 9, 9, 10),
+	/**
+	 * A 16x16 board with 40 mines.
+	 */
+	MEDIUM("Medium", 16, 16, 40),
+	/**
+	 * A 16x30 board with 99 mines.
+	 */
+	HARD("Hard", 16, 30, 99);
+
+	/**
+	 * The name of every board which is not a preset.
+	 */
+	public final static String CUSTOM = "Custom";
+
+	private final String name;
+	private final int rows;
+	private final int cols;
+	private final int mines;
+
+	private Difficulty(String name, int rows, int cols, int mines)
+	{
+		this.name = name;
+		this.rows = rows;
+		this.cols = cols;
+		this.mines = mines;
+	}
+
+	/**
+	 * Returns the name of the difficulty of a board, as shown to the player and stored with the scores.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param mines The number of mines.
+	 * @return The name of the matching preset, or {@link #CUSTOM} if there is none.
+	 */
+	public static String nameOf(int rows, int cols, int mines)
+	{
+		for (Difficulty difficulty : values())
+		{
+			if (difficulty.rows == rows && difficulty.cols == cols && difficulty.mines == mines)
+				return difficulty.name;
+		}
+
+		return CUSTOM;
+	}
+
+	/**
+	 * Returns the name of the difficulty, as shown to the player and stored with the scores.
+	 *
+	 * @return The name.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the number of mines.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return mines;
+	}
+}
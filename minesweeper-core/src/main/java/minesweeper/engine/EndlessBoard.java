@@ -0,0 +1,428 @@
+package minesweeper.engine;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+
+/**
+ * A board without borders, used by the endless game mode. Rows and columns can be any int, including negative ones.
+ * <p>
+ * The board is split into {@link #CHUNK_SIZE} x {@link #CHUNK_SIZE} chunks. The mines of a chunk are generated from a
+ * hash of the seed and the position of the chunk, so they never have to be stored: a chunk is only created when a cell
+ * of it is first read, and its mines are the same every time it's created. The cells around the starting cell (0, 0)
+ * are never mines.
+ * </p>
+ * <p>
+ * At most a fixed number of chunks are kept in memory. When a new chunk is needed, the least recently used one is
+ * evicted to a {@link ChunkStore}, which only stores the 2 bit states of its cells, and is read back from there when it's
+ * needed again. The chunks around the viewport are the most recently used ones, so the memory use is bounded no matter
+ * how far the player explores.
+ * </p>
+ * <p>
+ * An empty region has no borders either, so a single {@link #open(int, int)} opens at most half as many cells as the
+ * loaded chunks have, and its queue never grows larger than that. The rest of the region is opened by the next clicks.
+ * </p>
+ * <p>
+ * The board is not thread-safe.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class EndlessBoard
+{
+	/**
+	 * The number of rows and columns of a chunk.
+	 */
+	public final static int CHUNK_SIZE = 32;
+
+	/**
+	 * The default number of chunks kept in memory.
+	 */
+	public final static int DEFAULT_MAX_LOADED_CHUNKS = 1024;
+
+	private final static int CHUNK_SHIFT = 5;
+	private final static int CHUNK_MASK = CHUNK_SIZE - 1;
+	private final static int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+
+	/**
+	 * The number of longs needed to store the 2 bit states of a chunk.
+	 */
+	public final static int CHUNK_STATE_LENGTH = CHUNK_CELLS >>> 5;
+
+	private final long seed;
+	private final double mineDensity;
+	private final ChunkStore store;
+	private final int maxLoadedChunks;
+	private final int maxOpenedCells;
+	private final LinkedHashMap<Long, Chunk> chunks;
+
+	private Chunk lastChunk;
+	private long[] queue;
+	private long openedCells;
+
+	/**
+	 * Creates a new board, keeping at most {@link #DEFAULT_MAX_LOADED_CHUNKS} chunks in memory.
+	 *
+	 * @param seed The seed of the mines.
+	 * @param mineDensity The probability of a cell being a mine, between 0 and 1.
+	 * @param store The store of the evicted chunks.
+	 *
+	 * @throws IllegalArgumentException when the mine density is not more than 0 and less than 1.
+	 */
+	public EndlessBoard(long seed, double mineDensity, ChunkStore store)
+	{
+		this(seed, mineDensity, store, DEFAULT_MAX_LOADED_CHUNKS);
+	}
+
+	/**
+	 * Creates a new board.
+	 *
+	 * @param seed The seed of the mines.
+	 * @param mineDensity The probability of a cell being a mine, between 0 and 1.
+	 * @param store The store of the evicted chunks.
+	 * @param maxLoadedChunks The maximum number of chunks kept in memory, at least 9 are always kept.
+	 *
+	 * @throws IllegalArgumentException when the mine density is not more than 0 and less than 1.
+	 */
+	public EndlessBoard(long seed, double mineDensity, ChunkStore store, int maxLoadedChunks)
+	{
+		if (!(mineDensity > 0 && mineDensity < 1))
+			throw new IllegalArgumentException("Invalid mine density: " + mineDensity);
+
+		this.seed = seed;
+		this.mineDensity = mineDensity;
+		this.store = store;
+		this.maxLoadedChunks = Math.max(maxLoadedChunks, 9);
+		this.maxOpenedCells = this.maxLoadedChunks * CHUNK_CELLS / 2;
+		this.chunks = new LinkedHashMap<Long, Chunk>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest)
+			{
+				if (size() <= EndlessBoard.this.maxLoadedChunks)
+					return false;
+
+				evict(eldest.getValue());
+				return true;
+			}
+		};
+		this.queue = new long[64];
+	}
+
+	/**
+	 * Returns the state of a cell.
+	 *
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 * @return One of the {@code STATE_} constants of {@link Board}.
+	 */
+	public int getState(int row, int col)
+	{
+		return chunkOf(row, col).getState(localIndex(row, col));
+	}
+
+	/**
+	 * Sets the state of a cell.
+	 *
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 * @param state One of the {@code STATE_} constants of {@link Board}.
+	 */
+	public void setState(int row, int col, int state)
+	{
+		chunkOf(row, col).setState(localIndex(row, col), state);
+	}
+
+	/**
+	 * Returns whether a cell is a mine.
+	 *
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 * @return <b>true</b>, if the cell is a mine, <b>false</b> otherwise.
+	 */
+	public boolean isMine(int row, int col)
+	{
+		return chunkOf(row, col).isMine(localIndex(row, col));
+	}
+
+	/**
+	 * Returns the value of a cell, which is {@link CellValues#CELL_MINE CELL_MINE} for mines, and the number of mines
+	 * around the cell otherwise.
+	 *
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 * @return The value of the cell.
+	 */
+	public int getValue(int row, int col)
+	{
+		if (isMine(row, col))
+			return CellValues.CELL_MINE;
+
+		int count = 0;
+		for (int i = row - 1; i <= row + 1; i++)
+		{
+			for (int j = col - 1; j <= col + 1; j++)
+			{
+				if (isMine(i, j))
+					count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Opens a cell, and if it's empty, every cell around it, just like {@link FloodFill} does on a finite board. Only
+	 * hidden cells are opened. The cell must not be a mine, this method doesn't check that.
+	 * <p>
+	 * At most {@link #getMaxOpenedCells()} cells are opened at once. When the fill reaches the limit, the empty cells
+	 * whose neighbours were not opened yet are hidden again, so clicking one of them continues the fill.
+	 * </p>
+	 *
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 * @return The number of opened cells.
+	 */
+	public int open(int row, int col)
+	{
+		if (getState(row, col) != Board.STATE_HIDDEN)
+			return 0;
+
+		/*
+		 * The cells are opened when they are added to the queue, so the state itself marks the visited cells. The board
+		 * has no borders, so the fill stops before it could open more cells than the limit.
+		 */
+		setState(row, col, Board.STATE_CLICKED);
+		queue[0] = pack(row, col);
+		int head = 0;
+		int tail = 1;
+
+		while (head < tail && tail + Topology.MAX_NEIGHBOURS <= maxOpenedCells)
+		{
+			long cell = queue[head++];
+			int cellRow = (int) (cell >> 32);
+			int cellCol = (int) cell;
+
+			if (getValue(cellRow, cellCol) != CellValues.CELL_EMPTY)
+				continue;
+
+			for (int i = cellRow - 1; i <= cellRow + 1; i++)
+			{
+				for (int j = cellCol - 1; j <= cellCol + 1; j++)
+				{
+					if (getState(i, j) == Board.STATE_HIDDEN)
+					{
+						setState(i, j, Board.STATE_CLICKED);
+						if (tail == queue.length)
+							queue = Arrays.copyOf(queue, tail * 2);
+						queue[tail++] = pack(i, j);
+					}
+				}
+			}
+		}
+
+		int opened = tail;
+		for (; head < tail; head++)
+		{
+			int cellRow = (int) (queue[head] >> 32);
+			int cellCol = (int) queue[head];
+
+			if (getValue(cellRow, cellCol) == CellValues.CELL_EMPTY)
+			{
+				setState(cellRow, cellCol, Board.STATE_HIDDEN);
+				opened--;
+			}
+		}
+
+		openedCells += opened;
+		return opened;
+	}
+
+	/**
+	 * Returns the largest number of cells opened by a single {@link #open(int, int)}: half of the cells of the chunks
+	 * kept in memory.
+	 *
+	 * @return The limit of a fill.
+	 */
+	public int getMaxOpenedCells()
+	{
+		return maxOpenedCells;
+	}
+
+	/**
+	 * Writes every modified chunk in memory to the store.
+	 */
+	public void flush()
+	{
+		for (Chunk chunk : chunks.values())
+		{
+			if (chunk.dirty)
+			{
+				store.write(chunk.row, chunk.col, chunk.states);
+				chunk.dirty = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of cells opened by {@link #open(int, int)} since the board was created.
+	 *
+	 * @return The number of opened cells.
+	 */
+	public long getOpenedCells()
+	{
+		return openedCells;
+	}
+
+	/**
+	 * Returns the number of chunks currently kept in memory.
+	 *
+	 * @return The number of loaded chunks.
+	 */
+	public int getLoadedChunkCount()
+	{
+		return chunks.size();
+	}
+
+	/**
+	 * Returns the seed of the mines.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * Returns the store of the evicted chunks.
+	 *
+	 * @return The store.
+	 */
+	public ChunkStore getStore()
+	{
+		return store;
+	}
+
+	private Chunk chunkOf(int row, int col)
+	{
+		int chunkRow = row >> CHUNK_SHIFT;
+		int chunkCol = col >> CHUNK_SHIFT;
+
+		// Most lookups hit the same chunk as the previous one, so that one is checked before the map.
+		if (lastChunk != null && lastChunk.row == chunkRow && lastChunk.col == chunkCol)
+			return lastChunk;
+
+		Long key = pack(chunkRow, chunkCol);
+		Chunk chunk = chunks.get(key);
+		if (chunk == null)
+		{
+			chunk = load(chunkRow, chunkCol);
+			chunks.put(key, chunk);
+		}
+
+		lastChunk = chunk;
+		return chunk;
+	}
+
+	private Chunk load(int chunkRow, int chunkCol)
+	{
+		Chunk chunk = new Chunk(chunkRow, chunkCol);
+		store.read(chunkRow, chunkCol, chunk.states);
+
+		long chunkSeed = mix(mix(seed ^ chunkRow * 0x9E3779B97F4A7C15L) ^ chunkCol * 0xC2B2AE3D27D4EB4FL);
+		SplittableRandom random = new SplittableRandom(chunkSeed);
+		for (int i = 0; i < CHUNK_CELLS; i++)
+		{
+			if (random.nextDouble() < mineDensity)
+				chunk.mines[i >>> 6] |= 1L << i;
+		}
+
+		// The cells around the start are never mines, so the first click always opens an empty cell.
+		for (int row = -1; row <= 1; row++)
+		{
+			for (int col = -1; col <= 1; col++)
+			{
+				if (row >> CHUNK_SHIFT == chunkRow && col >> CHUNK_SHIFT == chunkCol)
+				{
+					int i = localIndex(row, col);
+					chunk.mines[i >>> 6] &= ~(1L << i);
+				}
+			}
+		}
+
+		return chunk;
+	}
+
+	private void evict(Chunk chunk)
+	{
+		if (chunk.dirty)
+			store.write(chunk.row, chunk.col, chunk.states);
+
+		if (chunk == lastChunk)
+			lastChunk = null;
+	}
+
+	private static int localIndex(int row, int col)
+	{
+		return (row & CHUNK_MASK) << CHUNK_SHIFT | (col & CHUNK_MASK);
+	}
+
+	private static long pack(int row, int col)
+	{
+		return (long) row << 32 | (col & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * The finalizer of the 64 bit MurmurHash3, which spreads the bits of the seed and chunk position.
+	 */
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+
+	/**
+	 * A chunk in memory: the mines as a bit set, and the states packed into 2 bits per cell like in
+	 * {@link CompactBoard}.
+	 */
+	private static class Chunk
+	{
+		private final int row;
+		private final int col;
+		private final long[] mines = new long[CHUNK_CELLS >>> 6];
+		private final long[] states = new long[CHUNK_STATE_LENGTH];
+		private boolean dirty;
+
+		private Chunk(int row, int col)
+		{
+			this.row = row;
+			this.col = col;
+		}
+
+		private boolean isMine(int index)
+		{
+			return (mines[index >>> 6] & 1L << index) != 0;
+		}
+
+		private int getState(int index)
+		{
+			int shift = (index & 31) << 1;
+			return (int) ((states[index >>> 5] >>> shift) & 0b11) + Board.STATE_HIDDEN;
+		}
+
+		private void setState(int index, int state)
+		{
+			int shift = (index & 31) << 1;
+			long word = states[index >>> 5] & ~(0b11L << shift);
+			states[index >>> 5] = word | ((long) ((state - Board.STATE_HIDDEN) & 0b11) << shift);
+			dirty = true;
+		}
+	}
+}
@@ -0,0 +1,283 @@
+package minesweeper.engine;
+
+import java.util.Arrays;
+
+
+/**
+ * Iterative flood fill used to find the cells revealed by opening a cell.
+ * <p>
+ * Opening an {@link minesweeper.engine.CellValues#CELL_EMPTY empty} cell also opens every cell around it, and this
+ * repeats for every newly opened empty cell. Instead of doing this recursively (one stack frame per cell), this class
+ * walks the region with an explicit int queue and marks the visited cells in a bit set (one bit per cell, stored in a
+ * long array), so the size of the region is only limited by the size of the board.
+ * </p>
+ * <p>
+ * The flood fill does not change the board, it only returns the indices of the cells that should be opened, so the
+ * caller can apply them in a single batch. Only {@link Board#STATE_HIDDEN hidden} cells are returned, flagged and
+ * questioned cells stop the fill. The queue and the bit set are reused between calls, so an instance belongs to a
+ * single board and should not be shared between threads.
+ * </p>
+ * <p>
+ * {@link #reveal(int...)} returns the cells in a new array. The {@link #fill(int)} methods return only the number of
+ * cells, and leave them in the queue, which {@link #getFilled()} returns. Once the queue has grown to the largest
+ * region, they allocate nothing, so the game loop doesn't create garbage proportional to the opened regions.
+ * </p>
+ * <p>
+ * When the {@link OpeningIndex} of the board is {@link #setOpenings(OpeningIndex) set}, {@link #fill(int)} opens an
+ * empty cell by copying the cells of its opening from the index, in time proportional to the opening, without
+ * scanning any neighbours. If an empty cell of the opening is not hidden, because it's flagged or questioned, the
+ * opening is walked as usual, so the result is always the same.
+ * </p>
+ * <p>
+ * The neighbours of the cells come from the {@link NeighbourList} of the board, so the fill works on every
+ * {@link Topology}. Only the square boards without a list, like the compact boards of the huge games, find the
+ * neighbours by checking the borders.
+ * </p>
+ * 
+ * @author Eperjesi Ádám
+ *
+ */
+public class FloodFill
+{
+	private final Board board;
+	private final long[] visited;
+	private final int[] offsets;
+	private final int[] neighbours;
+	private int[] queue;
+	private OpeningIndex openings;
+
+	/**
+	 * Creates a new flood fill working on the given board.
+	 * 
+	 * @param board The board.
+	 */
+	public FloodFill(Board board)
+	{
+		this.board = board;
+		this.visited = new long[(board.size() + 63) >>> 6];
+		this.queue = new int[64];
+
+		NeighbourList list = NeighbourList.of(board);
+		this.offsets = list != null ? list.getOffsets() : null;
+		this.neighbours = list != null ? list.getNeighbours() : new int[Topology.MAX_NEIGHBOURS];
+	}
+
+	/**
+	 * Returns every cell that is opened when the given cells are opened.
+	 * <p>
+	 * Every hidden starting cell is part of the result. If a returned cell is empty, its hidden neighbours are also
+	 * part of the result, and so on. The starting cells must not be mines, this method doesn't check that.
+	 * </p>
+	 * 
+	 * @param starts The indices of the cells to open.
+	 * @return The indices of the cells to open, each one at most once, in the order they were found.
+	 */
+	public int[] reveal(int... starts)
+	{
+		int count = fill(starts, starts.length);
+		return Arrays.copyOf(queue, count);
+	}
+
+	/**
+	 * Finds every cell that is opened when the given cell is opened, without allocating a new array.
+	 * 
+	 * @param start The index of the cell to open.
+	 * @return The number of cells to open, which are the first elements of {@link #getFilled()}.
+	 * 
+	 * @see #reveal(int...)
+	 */
+	public int fill(int start)
+	{
+		if (openings != null && openings.getOpening(start) >= 0 && board.getState(start) == Board.STATE_HIDDEN)
+		{
+			int count = fillOpening(openings.getOpening(start));
+			if (count >= 0)
+				return count;
+		}
+
+		int tail = 0;
+		if (board.getState(start) == Board.STATE_HIDDEN)
+		{
+			visit(start);
+			tail = push(tail, start);
+		}
+
+		return expand(tail);
+	}
+
+	/**
+	 * Finds every cell that is opened when the given cells are opened, without allocating a new array.
+	 * 
+	 * @param starts The array of the indices of the cells to open.
+	 * @param count The number of cells to open, from the start of the array.
+	 * @return The number of cells to open, which are the first elements of {@link #getFilled()}.
+	 * 
+	 * @see #reveal(int...)
+	 */
+	public int fill(int[] starts, int count)
+	{
+		int tail = 0;
+		for (int i = 0; i < count; i++)
+		{
+			int start = starts[i];
+			if (!isVisited(start) && board.getState(start) == Board.STATE_HIDDEN)
+			{
+				visit(start);
+				tail = push(tail, start);
+			}
+		}
+
+		return expand(tail);
+	}
+
+	/**
+	 * Copies the hidden cells of an opening into the queue.
+	 * 
+	 * @param opening The number of the opening.
+	 * @return The number of cells copied, or -1 if an empty cell of the opening is not hidden.
+	 */
+	private int fillOpening(int opening)
+	{
+		int[] cells = openings.getCells();
+		int start = openings.getStart(opening);
+		int borderStart = openings.getBorderStart(opening);
+		int end = openings.getEnd(opening);
+		if (queue.length < end - start)
+			queue = Arrays.copyOf(queue, end - start);
+
+		int tail = 0;
+		for (int i = start; i < borderStart; i++)
+		{
+			if (board.getState(cells[i]) != Board.STATE_HIDDEN)
+				return -1;
+			queue[tail++] = cells[i];
+		}
+		for (int i = borderStart; i < end; i++)
+		{
+			if (board.getState(cells[i]) == Board.STATE_HIDDEN)
+				queue[tail++] = cells[i];
+		}
+
+		return tail;
+	}
+
+	/**
+	 * Returns the openings of the board used by {@link #fill(int)}.
+	 * 
+	 * @return The opening index, or <b>null</b> if the regions are always walked.
+	 */
+	public OpeningIndex getOpenings()
+	{
+		return openings;
+	}
+
+	/**
+	 * Sets the openings of the board, which {@link #fill(int)} copies instead of walking the regions. It must be the
+	 * index of the current mines of the board.
+	 * 
+	 * @param openings The opening index, or <b>null</b> to always walk the regions.
+	 */
+	public void setOpenings(OpeningIndex openings)
+	{
+		this.openings = openings;
+	}
+
+	/**
+	 * Returns the cells found by the last {@link #fill(int)}. The array is reused, so it's only valid until the next
+	 * call, and it's longer than the number of cells found.
+	 * 
+	 * @return The queue of the flood fill.
+	 */
+	public int[] getFilled()
+	{
+		return queue;
+	}
+
+	/**
+	 * Walks the region from the cells already in the queue, then clears the visited bits.
+	 * 
+	 * @param tail The number of starting cells in the queue.
+	 * @return The number of cells found.
+	 */
+	private int expand(int tail)
+	{
+		int rows = board.getRows();
+		int cols = board.getCols();
+
+		/*
+		 * Every found cell is appended to the queue, so when the walk ends, the queue itself holds the result. Only the
+		 * empty cells have to be expanded, the numbered ones are just the border of the region.
+		 */
+		for (int head = 0; head < tail; head++)
+		{
+			int index = queue[head];
+			if (board.getValue(index) != CellValues.CELL_EMPTY)
+				continue;
+
+			int start = offsets != null ? offsets[index] : 0;
+			int end = offsets != null ? offsets[index + 1] : Topology.squareNeighbours(rows, cols, index, neighbours);
+			for (int i = start; i < end; i++)
+			{
+				int neighbour = neighbours[i];
+				if (!isVisited(neighbour) && board.getState(neighbour) == Board.STATE_HIDDEN)
+				{
+					visit(neighbour);
+					tail = push(tail, neighbour);
+				}
+			}
+		}
+
+		// Clearing only the touched words keeps the cost proportional to the region, not to the board.
+		if (tail < visited.length)
+		{
+			for (int i = 0; i < tail; i++)
+			{
+				visited[queue[i] >>> 6] = 0;
+			}
+		}
+		else
+		{
+			Arrays.fill(visited, 0);
+		}
+
+		return tail;
+	}
+
+	/**
+	 * Returns whether a cell was already visited.
+	 * 
+	 * @param index The index of the cell.
+	 * @return <b>true</b>, if the cell was visited, <b>false</b> otherwise.
+	 */
+	private boolean isVisited(int index)
+	{
+		return (visited[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Marks a cell as visited.
+	 * 
+	 * @param index The index of the cell.
+	 */
+	private void visit(int index)
+	{
+		visited[index >>> 6] |= 1L << index;
+	}
+
+	/**
+	 * Appends an index to the end of the queue, growing it when needed.
+	 * 
+	 * @param tail The current size of the queue.
+	 * @param index The index to append.
+	 * @return The new size of the queue.
+	 */
+	private int push(int tail, int index)
+	{
+		if (tail == queue.length)
+		{
+			queue = Arrays.copyOf(queue, Math.min(Math.max(queue.length * 2, 64), board.size()));
+		}
+		queue[tail] = index;
+		return tail + 1;
+	}
+}
@@ -0,0 +1,494 @@
+package minesweeper.engine;
+
+/**
+ * The rules of a game of minesweeper, on a finite board. Every client of the engine plays by this class: the model of
+ * the GUI, the headless games of the bots, and the player of the replays, so a game is the same wherever it's played.
+ * <p>
+ * The mines are placed at the first move, so the first opened cell is never a mine. Opening a hidden cell opens every
+ * empty cell connected to it with a {@link FloodFill}, and chording an opened number whose flags are satisfied opens
+ * its hidden neighbours, see {@link NeighbourCounts}. Opening a mine loses the game, and every cell is shown, with the
+ * wrongly flagged ones marked. The game is won when only the mines are hidden, and the mines are shown as found. Once
+ * the game is over, the moves are ignored.
+ * </p>
+ * <p>
+ * Every cell is changed through {@link #writeCell(int, int, int)}, which a subclass can override to follow the
+ * changes, for example to record them, or to show them. The counters of the game can be {@link #restore(int, int, int)
+ * restored} with the cells, so a move can be undone.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class Game
+{
+	/**
+	 * The status of a game that goes on.
+	 */
+	public final static int PLAYING = 0;
+
+	/**
+	 * The status of a game where a mine was opened.
+	 */
+	public final static int LOST = 1;
+
+	/**
+	 * The status of a game where every cell but the mines is opened.
+	 */
+	public final static int WON = 2;
+
+	private final Board board;
+	private final int mines;
+	private final FloodFill floodFill;
+	private final NeighbourCounts neighbourCounts;
+	private final int[] chordCells = new int[Topology.MAX_NEIGHBOURS];
+
+	private long seed;
+	private GameSeed gameSeed;
+	private boolean started;
+	private int hiddenCells;
+	private int remainingMines;
+	private int status;
+	private int foundMines;
+	private int openedCount;
+	private int threeBV;
+
+	/**
+	 * Creates a new game on a board whose cells are all hidden. The mines are placed at the first move, unless the
+	 * game is {@link #start(GameSeed) started} with the mines already on the board.
+	 *
+	 * @param board The board of the game.
+	 * @param mines The number of mines.
+	 * @param seed The seed of the mine layout.
+	 */
+	public Game(Board board, int mines, long seed)
+	{
+		this.board = board;
+		this.mines = mines;
+		this.seed = seed;
+
+		floodFill = new FloodFill(board);
+		neighbourCounts = new NeighbourCounts(board);
+		hiddenCells = board.size();
+		remainingMines = mines;
+		status = PLAYING;
+	}
+
+	/**
+	 * Opens a hidden cell, and every empty cell connected to it. The first move places the mines, see
+	 * {@link #placeMines(int, int)}. If the cell is a mine, the game is lost, if only the mines are hidden afterwards,
+	 * it's won.
+	 *
+	 * @param index The index of the cell.
+	 * @return <b>true</b> if the move changed the board, <b>false</b> if the cell is not hidden, or the game is over.
+	 */
+	public boolean open(int index)
+	{
+		openedCount = 0;
+		if (status != PLAYING || board.getState(index) != Board.STATE_HIDDEN)
+			return false;
+
+		if (!started)
+			placeMines(board.rowOf(index), board.colOf(index));
+
+		if (board.getValue(index) == CellValues.CELL_MINE)
+		{
+			hiddenCells--;
+			setCell(index, Board.STATE_CLICKED, CellValues.CELL_EXPLOSION);
+			lose();
+			return true;
+		}
+
+		return reveal(floodFill.fill(index));
+	}
+
+	/**
+	 * Opens every hidden neighbour of an opened number, if it has exactly as many flagged neighbours as its value, just
+	 * like opening them one by one. If any of them is a mine, because a wrong cell was flagged, the game is lost.
+	 *
+	 * @param center The index of the number.
+	 * @return <b>true</b> if the move changed the board, <b>false</b> if the number can't be chorded, or the game is
+	 *         over.
+	 *
+	 * @see NeighbourCounts#canChord(int)
+	 */
+	public boolean chord(int center)
+	{
+		openedCount = 0;
+		if (status != PLAYING || !neighbourCounts.canChord(center))
+			return false;
+
+		int count = neighbourCounts.getHiddenNeighbours(center, chordCells);
+		for (int i = 0; i < count; i++)
+		{
+			if (board.getValue(chordCells[i]) == CellValues.CELL_MINE)
+				return open(chordCells[i]);
+		}
+
+		return reveal(floodFill.fill(chordCells, count));
+	}
+
+	/**
+	 * Changes the mark of a cell, like a right click: a hidden cell is flagged, a flagged cell is questioned, and a
+	 * questioned cell is hidden again. The number of remaining mines follows the flags.
+	 *
+	 * @param index The index of the cell.
+	 * @return <b>true</b> if the move changed the board, <b>false</b> if the cell is opened, or the game is over.
+	 */
+	public boolean mark(int index)
+	{
+		openedCount = 0;
+		if (status != PLAYING)
+			return false;
+
+		int value = board.getValue(index);
+		switch (board.getState(index))
+		{
+		case Board.STATE_HIDDEN:
+			setCell(index, Board.STATE_FLAGGED, value);
+			remainingMines--;
+			return true;
+		case Board.STATE_FLAGGED:
+			setCell(index, Board.STATE_QUESTION, value);
+			remainingMines++;
+			return true;
+		case Board.STATE_QUESTION:
+			setCell(index, Board.STATE_HIDDEN, value);
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Places the mines at the first move, so the given cell is not a mine, and {@link #start(GameSeed) starts} the
+	 * game. The mines are generated by a {@link GameSeed} of the seed of the game, and the openings of the board are
+	 * {@link #indexOpenings() indexed}.
+	 * <p>
+	 * A subclass may place the mines some other way, the layout of the seed must stay the same though, so the game
+	 * can be shared by its code.
+	 * </p>
+	 *
+	 * @param row The row of the first opened cell.
+	 * @param col The column of the first opened cell.
+	 */
+	protected void placeMines(int row, int col)
+	{
+		GameSeed placed = new GameSeed(board.getRows(), board.getCols(), mines, seed, row, col);
+		placed.generate(board);
+		start(placed);
+		indexOpenings();
+	}
+
+	/**
+	 * Starts the game once its mines and values are on the board, so the next move doesn't place them again.
+	 *
+	 * @param gameSeed The game seed the mines were placed by.
+	 */
+	public void start(GameSeed gameSeed)
+	{
+		this.gameSeed = gameSeed;
+		this.seed = gameSeed.getSeed();
+		started = true;
+	}
+
+	/**
+	 * Finds the openings of the board, once the values are counted, so the flood fill can open them without scanning
+	 * the neighbours, and the 3BV of the game is known. The openings are dropped when a value of the board changes, but
+	 * the 3BV is kept.
+	 *
+	 * @see OpeningIndex
+	 */
+	public void indexOpenings()
+	{
+		OpeningIndex openings = OpeningIndex.of(board);
+		floodFill.setOpenings(openings);
+		threeBV = openings.get3BV();
+	}
+
+	/**
+	 * Opens the cells found by the flood fill, then checks the win condition once.
+	 *
+	 * @param count The number of cells found by the flood fill.
+	 * @return <b>true</b> if any cell was opened.
+	 */
+	private boolean reveal(int count)
+	{
+		int[] cells = floodFill.getFilled();
+		for (int i = 0; i < count; i++)
+		{
+			setCell(cells[i], Board.STATE_CLICKED, board.getValue(cells[i]));
+		}
+		hiddenCells -= count;
+		openedCount = count;
+
+		if (count > 0 && hiddenCells == mines)
+			win();
+
+		return count > 0;
+	}
+
+	/**
+	 * Ends the game as won, and shows every mine as found.
+	 */
+	private void win()
+	{
+		status = WON;
+		remainingMines = 0;
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (board.getValue(i) == CellValues.CELL_MINE)
+				setCell(i, Board.STATE_CLICKED, CellValues.CELL_GOOD);
+		}
+	}
+
+	/**
+	 * Ends the game as lost, opens every cell, shows the wrongly flagged cells, and counts the correctly flagged mines.
+	 */
+	private void lose()
+	{
+		status = LOST;
+		foundMines = 0;
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			int state = board.getState(i);
+			int value = board.getValue(i);
+			if (state == Board.STATE_FLAGGED)
+			{
+				if (value == CellValues.CELL_MINE)
+					foundMines++;
+				else
+					value = CellValues.CELL_WRONG_MINE;
+			}
+
+			if (state != Board.STATE_CLICKED || value != board.getValue(i))
+				setCell(i, Board.STATE_CLICKED, value);
+		}
+	}
+
+	/**
+	 * Changes a cell through {@link #writeCell(int, int, int)}. When its value changes, the openings of the old values
+	 * are dropped. The rules change every cell through this method, and it can be used to change a cell outside the
+	 * rules, for example when a move is undone.
+	 *
+	 * @param index The index of the cell.
+	 * @param state The new state.
+	 * @param value The new value.
+	 */
+	public void setCell(int index, int state, int value)
+	{
+		if (board.getValue(index) != value)
+			floodFill.setOpenings(null);
+		writeCell(index, state, value);
+	}
+
+	/**
+	 * Writes a cell into the board, the state through the {@link NeighbourCounts}. A subclass may override it to
+	 * follow the changes, or to write the board some other way.
+	 *
+	 * @param index The index of the cell.
+	 * @param state The new state.
+	 * @param value The new value.
+	 */
+	protected void writeCell(int index, int state, int value)
+	{
+		neighbourCounts.setState(index, state);
+		board.setValue(index, value);
+	}
+
+	/**
+	 * Restores the counters of the game, after its cells were restored, for example when a move is undone.
+	 *
+	 * @param hiddenCells The number of hidden cells, including the mines.
+	 * @param remainingMines The number of mines minus the number of flags.
+	 * @param status The status of the game, {@link #PLAYING}, {@link #LOST} or {@link #WON}.
+	 */
+	public void restore(int hiddenCells, int remainingMines, int status)
+	{
+		this.hiddenCells = hiddenCells;
+		this.remainingMines = remainingMines;
+		this.status = status;
+	}
+
+	/**
+	 * Returns the board of the game.
+	 *
+	 * @return The board.
+	 */
+	public Board getBoard()
+	{
+		return board;
+	}
+
+	/**
+	 * Returns the flood fill of the board, which holds the cells opened by the last move.
+	 *
+	 * @return The flood fill.
+	 */
+	public FloodFill getFloodFill()
+	{
+		return floodFill;
+	}
+
+	/**
+	 * Returns the counts of the flagged and hidden neighbours of the cells of the board.
+	 *
+	 * @return The neighbour counts.
+	 */
+	public NeighbourCounts getNeighbourCounts()
+	{
+		return neighbourCounts;
+	}
+
+	/**
+	 * Returns the cells opened by the flood fill of the last move, in the first {@link #getOpenedCount()} elements of
+	 * the array. The opened mine of a lost game, and the mines shown at the end are not part of them.
+	 *
+	 * @return The array of the opened cells.
+	 */
+	public int[] getOpenedCells()
+	{
+		return floodFill.getFilled();
+	}
+
+	/**
+	 * Returns the number of cells opened by the flood fill of the last move.
+	 *
+	 * @return The number of opened cells.
+	 */
+	public int getOpenedCount()
+	{
+		return openedCount;
+	}
+
+	/**
+	 * Returns the seed of the mine layout. It can be changed before the first move.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * Sets the seed of the mine layout. It has no effect after the first move, when the mines are already placed.
+	 *
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the game seed, which is only known after the first move.
+	 *
+	 * @return The game seed, or <b>null</b> before the first move.
+	 */
+	public GameSeed getGameSeed()
+	{
+		return gameSeed;
+	}
+
+	/**
+	 * Returns whether the mines are already placed.
+	 *
+	 * @return <b>true</b> after the first move.
+	 */
+	public boolean isStarted()
+	{
+		return started;
+	}
+
+	/**
+	 * Returns the status of the game.
+	 *
+	 * @return {@link #PLAYING}, {@link #LOST} or {@link #WON}.
+	 */
+	public int getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * Returns whether the game is over.
+	 *
+	 * @return <b>true</b> if the game is won or lost.
+	 */
+	public boolean isOver()
+	{
+		return status != PLAYING;
+	}
+
+	/**
+	 * Returns whether every cell but the mines is opened.
+	 *
+	 * @return <b>true</b> if the game is won.
+	 */
+	public boolean isWon()
+	{
+		return status == WON;
+	}
+
+	/**
+	 * Returns whether a mine was opened.
+	 *
+	 * @return <b>true</b> if the game is lost.
+	 */
+	public boolean isLost()
+	{
+		return status == LOST;
+	}
+
+	/**
+	 * Returns the number of hidden cells, including the mines.
+	 *
+	 * @return The number of hidden cells.
+	 */
+	public int getHiddenCells()
+	{
+		return hiddenCells;
+	}
+
+	/**
+	 * Returns the number of mines minus the number of flags, which is 0 once the game is won.
+	 *
+	 * @return The number of remaining mines.
+	 */
+	public int getRemainingMines()
+	{
+		return remainingMines;
+	}
+
+	/**
+	 * Returns the number of correctly flagged mines of a lost game, which is its score.
+	 *
+	 * @return The number of found mines, or 0 if the game is not lost.
+	 */
+	public int getFoundMines()
+	{
+		return status == LOST ? foundMines : 0;
+	}
+
+	/**
+	 * Returns the 3BV of the game, the minimum number of clicks needed to win it.
+	 *
+	 * @return The 3BV, or 0 if the openings were never indexed.
+	 */
+	public int get3BV()
+	{
+		return threeBV;
+	}
+
+	/**
+	 * Returns the number of mines.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return mines;
+	}
+}
@@ -0,0 +1,262 @@
+package minesweeper.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Everything needed to generate the exact same board again: the size, the number of mines, a 64 bit seed and the
+ * position of the first click, which is never a mine.
+ * <p>
+ * The mines are placed by a {@link MinePlacer} using a {@link Xoroshiro128PlusPlus} seeded with the seed, so the
+ * layout only depends on these values, not on the JVM. Instead of storing a board, it's enough to store its seed, for
+ * example to check a score or a replay later.
+ * </p>
+ * <p>
+ * A game seed can be turned into a short, URL-safe code with {@link #encode()}, and back with
+ * {@link #decode(String)}. The code is a version byte, the size, the mine count and the first click as variable length
+ * integers, and the seed as 8 bytes, in Base64. The code of a <i>Hard</i> game is 19 characters long.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public final class GameSeed
+{
+	private final static int VERSION = 1;
+
+	private final int rows;
+	private final int cols;
+	private final int mines;
+	private final long seed;
+	private final int firstClickRow;
+	private final int firstClickCol;
+
+	/**
+	 * Creates a new game seed.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param mines The number of mines.
+	 * @param seed The seed of the mine layout.
+	 * @param firstClickRow The row of the first click.
+	 * @param firstClickCol The column of the first click.
+	 *
+	 * @throws IllegalArgumentException when the size is not positive, the number of mines doesn't fit the board, or
+	 *             the first click is outside of the board.
+	 */
+	public GameSeed(int rows, int cols, int mines, long seed, int firstClickRow, int firstClickCol)
+	{
+		if (rows < 1 || cols < 1 || (long) rows * cols > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Invalid board size: " + rows + "x" + cols);
+		if (mines < 0 || mines >= rows * cols)
+			throw new IllegalArgumentException("Invalid number of mines: " + mines);
+		if (firstClickRow < 0 || firstClickRow >= rows || firstClickCol < 0 || firstClickCol >= cols)
+			throw new IllegalArgumentException("First click is out of bounds");
+
+		this.rows = rows;
+		this.cols = cols;
+		this.mines = mines;
+		this.seed = seed;
+		this.firstClickRow = firstClickRow;
+		this.firstClickCol = firstClickCol;
+	}
+
+	/**
+	 * Returns a new random source, which produces the random numbers of this game.
+	 *
+	 * @return A new random source.
+	 */
+	public RandomSource createRandom()
+	{
+		return new Xoroshiro128PlusPlus(seed);
+	}
+
+	/**
+	 * Places the mines on an empty board, and counts the neighbouring mines of every cell.
+	 *
+	 * @param board An empty board, with the size of this game.
+	 *
+	 * @throws IllegalArgumentException when the board has a different size.
+	 */
+	public void generate(Board board)
+	{
+		if (board.getRows() != rows || board.getCols() != cols)
+			throw new IllegalArgumentException("The board must be " + rows + "x" + cols);
+
+		new MinePlacer(createRandom()).place(board, mines, board.indexOf(firstClickRow, firstClickCol));
+		board.countNeighbours();
+	}
+
+	/**
+	 * Encodes the game seed into a short string, which only contains letters, digits, '-' and '_'.
+	 *
+	 * @return The code of the game.
+	 */
+	public String encode()
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(24);
+
+		out.write(VERSION);
+		writeVarInt(out, rows);
+		writeVarInt(out, cols);
+		writeVarInt(out, mines);
+		writeVarInt(out, firstClickRow * cols + firstClickCol);
+		for (int shift = 56; shift >= 0; shift -= 8)
+		{
+			out.write((int) (seed >>> shift));
+		}
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+	}
+
+	/**
+	 * Decodes a game seed from a code created by {@link #encode()}.
+	 *
+	 * @param code The code of the game.
+	 * @return The game seed.
+	 *
+	 * @throws IllegalArgumentException when the code is malformed.
+	 */
+	public static GameSeed decode(String code)
+	{
+		try
+		{
+			ByteBuffer in = ByteBuffer.wrap(Base64.getUrlDecoder().decode(code.trim()));
+
+			if (in.get() != VERSION)
+				throw new IllegalArgumentException("Unknown game code version");
+
+			int rows = readVarInt(in);
+			int cols = readVarInt(in);
+			int mines = readVarInt(in);
+			int firstClick = readVarInt(in);
+			long seed = in.getLong();
+
+			if (in.hasRemaining() || cols < 1)
+				throw new IllegalArgumentException("Malformed game code");
+
+			return new GameSeed(rows, cols, mines, seed, firstClick / cols, firstClick % cols);
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IllegalArgumentException("Game code is too short", e);
+		}
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private static int readVarInt(ByteBuffer in)
+	{
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+
+		throw new IllegalArgumentException("Malformed game code");
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the number of mines.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return mines;
+	}
+
+	/**
+	 * Returns the seed of the mine layout.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * Returns the row of the first click.
+	 *
+	 * @return The row of the first click.
+	 */
+	public int getFirstClickRow()
+	{
+		return firstClickRow;
+	}
+
+	/**
+	 * Returns the column of the first click.
+	 *
+	 * @return The column of the first click.
+	 */
+	public int getFirstClickCol()
+	{
+		return firstClickCol;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+			return true;
+		if (!(obj instanceof GameSeed))
+			return false;
+
+		GameSeed other = (GameSeed) obj;
+		return rows == other.rows && cols == other.cols && mines == other.mines && seed == other.seed && firstClickRow == other.firstClickRow
+				&& firstClickCol == other.firstClickCol;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int result = Long.hashCode(seed);
+		result = 31 * result + rows;
+		result = 31 * result + cols;
+		result = 31 * result + mines;
+		result = 31 * result + firstClickRow * cols + firstClickCol;
+		return result;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "GameSeed [rows=" + rows + ", cols=" + cols + ", mines=" + mines + ", seed=" + seed + ", firstClick=(" + firstClickRow + ","
+				+ firstClickCol + ")]";
+	}
+}
@@ -0,0 +1,257 @@
+package minesweeper.engine;
+
+
+/**
+ * The mine layout of a board, one bit per cell. Every row starts at a new long, so bit {@code col & 63} of word
+ * {@code col >>> 6} of a row is the cell in column {@code col}, and the unused bits at the end of a row are always zero.
+ * <p>
+ * The main use of the bitboard is counting the mines around the cells 64 at a time:
+ * {@link #countRow(int, long[]) countRow} shifts the neighbouring rows one bit left and right, and adds the eight
+ * resulting words with carry-save adders, so the counts of a whole row are computed with a few bitwise operations per
+ * word, and no branches. Solvers can also use the words directly, for example to count the mines in a region with
+ * {@link Long#bitCount(long)}.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class MineBitboard
+{
+	/**
+	 * The number of bit planes of a neighbour count, enough for counts from 0 to 8.
+	 */
+	public final static int COUNT_PLANES = 4;
+
+	private final int rows;
+	private final int cols;
+	private final int wordsPerRow;
+	private final long[] words;
+
+	/**
+	 * Creates a new bitboard with the given size, without any mines.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 */
+	public MineBitboard(int rows, int cols)
+	{
+		this.rows = rows;
+		this.cols = cols;
+		this.wordsPerRow = (cols + 63) >>> 6;
+		this.words = new long[rows * wordsPerRow];
+	}
+
+	/**
+	 * Creates a bitboard from the mines of a {@link Board}.
+	 *
+	 * @param board The board.
+	 * @return A new bitboard, with a bit set for every {@link CellValues#CELL_MINE CELL_MINE} cell of the board.
+	 */
+	public static MineBitboard of(Board board)
+	{
+		MineBitboard bitboard = new MineBitboard(board.getRows(), board.getCols());
+
+		int index = 0;
+		for (int row = 0; row < bitboard.rows; row++)
+		{
+			int rowStart = row * bitboard.wordsPerRow;
+			for (int col = 0; col < bitboard.cols; col++, index++)
+			{
+				if (board.getValue(index) == CellValues.CELL_MINE)
+					bitboard.words[rowStart + (col >>> 6)] |= 1L << col;
+			}
+		}
+
+		return bitboard;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the number of longs used by a row.
+	 *
+	 * @return The number of words in a row.
+	 */
+	public int getWordsPerRow()
+	{
+		return wordsPerRow;
+	}
+
+	/**
+	 * Returns a word of a row, holding the mines of columns {@code word * 64} to {@code word * 64 + 63}.
+	 *
+	 * @param row The row index.
+	 * @param word The index of the word in the row.
+	 * @return The mines as bits.
+	 */
+	public long getWord(int row, int word)
+	{
+		return words[row * wordsPerRow + word];
+	}
+
+	/**
+	 * Sets a word of a row. The bits after the last column must be zero.
+	 *
+	 * @param row The row index.
+	 * @param word The index of the word in the row.
+	 * @param bits The mines of columns {@code word * 64} to {@code word * 64 + 63} as bits.
+	 */
+	public void setWord(int row, int word, long bits)
+	{
+		words[row * wordsPerRow + word] = bits;
+	}
+
+	/**
+	 * Returns whether a cell is a mine.
+	 *
+	 * @param row The row index.
+	 * @param col The column index.
+	 * @return <b>true</b>, if the cell is a mine, <b>false</b> otherwise.
+	 */
+	public boolean isMine(int row, int col)
+	{
+		return (words[row * wordsPerRow + (col >>> 6)] & 1L << col) != 0;
+	}
+
+	/**
+	 * Sets whether a cell is a mine.
+	 *
+	 * @param row The row index.
+	 * @param col The column index.
+	 * @param mine <b>true</b> to make the cell a mine, <b>false</b> to clear it.
+	 */
+	public void setMine(int row, int col, boolean mine)
+	{
+		int word = row * wordsPerRow + (col >>> 6);
+
+		if (mine)
+			words[word] |= 1L << col;
+		else
+			words[word] &= ~(1L << col);
+	}
+
+	/**
+	 * Returns the number of mines on the board.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMineCount()
+	{
+		int count = 0;
+		for (long word : words)
+		{
+			count += Long.bitCount(word);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Counts the mines around every cell of a row, 64 cells at a time.
+	 * <p>
+	 * The counts are returned as {@link #COUNT_PLANES} bit planes: bit {@code col & 63} of
+	 * {@code planes[plane * getWordsPerRow() + (col >>> 6)]} is bit {@code plane} of the count of the cell in column
+	 * {@code col}. The counts of mine cells are computed too, and the bits after the last column are undefined.
+	 * </p>
+	 *
+	 * @param row The row index.
+	 * @param planes The array to write the counts into, at least {@code COUNT_PLANES * getWordsPerRow()} long.
+	 *
+	 * @see #getCount(long[], int, int)
+	 */
+	public void countRow(int row, long[] planes)
+	{
+		int above = (row - 1) * wordsPerRow;
+		int center = row * wordsPerRow;
+		int below = (row + 1) * wordsPerRow;
+		boolean hasAbove = row > 0;
+		boolean hasBelow = row + 1 < rows;
+
+		for (int w = 0; w < wordsPerRow; w++)
+		{
+			boolean hasPrevious = w > 0;
+			boolean hasNext = w + 1 < wordsPerRow;
+
+			long up = hasAbove ? words[above + w] : 0;
+			long mid = words[center + w];
+			long down = hasBelow ? words[below + w] : 0;
+
+			// The carries between words: the last bit of the previous word, and the first bit of the next one.
+			long upPrevious = hasAbove && hasPrevious ? words[above + w - 1] >>> 63 : 0;
+			long midPrevious = hasPrevious ? words[center + w - 1] >>> 63 : 0;
+			long downPrevious = hasBelow && hasPrevious ? words[below + w - 1] >>> 63 : 0;
+			long upNext = hasAbove && hasNext ? words[above + w + 1] << 63 : 0;
+			long midNext = hasNext ? words[center + w + 1] << 63 : 0;
+			long downNext = hasBelow && hasNext ? words[below + w + 1] << 63 : 0;
+
+			// The eight neighbours of every cell of the word, as eight words.
+			long a = up << 1 | upPrevious;
+			long b = up;
+			long c = up >>> 1 | upNext;
+			long d = mid << 1 | midPrevious;
+			long e = mid >>> 1 | midNext;
+			long f = down << 1 | downPrevious;
+			long g = down;
+			long h = down >>> 1 | downNext;
+
+			// Carry-save adders: three full adders and a half adder sum the ones...
+			long abc = a ^ b ^ c;
+			long abcCarry = (a & b) | (c & (a ^ b));
+			long def = d ^ e ^ f;
+			long defCarry = (d & e) | (f & (d ^ e));
+			long gh = g ^ h;
+			long ghCarry = g & h;
+
+			long ones = abc ^ def ^ gh;
+			long onesCarry = (abc & def) | (gh & (abc ^ def));
+
+			// ... then the twos, and the fours.
+			long twosSum = abcCarry ^ defCarry ^ ghCarry;
+			long twosCarry = (abcCarry & defCarry) | (ghCarry & (abcCarry ^ defCarry));
+			long twos = twosSum ^ onesCarry;
+			long fours = twosCarry ^ (twosSum & onesCarry);
+			long eights = twosCarry & twosSum & onesCarry;
+
+			planes[w] = ones;
+			planes[wordsPerRow + w] = twos;
+			planes[2 * wordsPerRow + w] = fours;
+			planes[3 * wordsPerRow + w] = eights;
+		}
+	}
+
+	/**
+	 * Returns the count of a cell from the bit planes computed by {@link #countRow(int, long[]) countRow}.
+	 *
+	 * @param planes The bit planes of the row.
+	 * @param wordsPerRow The number of words in a row.
+	 * @param col The column index.
+	 * @return The number of mines around the cell.
+	 */
+	public static int getCount(long[] planes, int wordsPerRow, int col)
+	{
+		int word = col >>> 6;
+
+		return (int) ((planes[word] >>> col) & 1
+				| ((planes[wordsPerRow + word] >>> col) & 1) << 1
+				| ((planes[2 * wordsPerRow + word] >>> col) & 1) << 2
+				| ((planes[3 * wordsPerRow + word] >>> col) & 1) << 3);
+	}
+}
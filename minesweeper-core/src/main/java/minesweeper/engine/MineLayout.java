@@ -0,0 +1,178 @@
+package minesweeper.engine;
+
+
+/**
+ * The mines of a game, generated before the first click, which can be put on the board wherever the first click is.
+ * <p>
+ * A {@link MinePlacer} picks the mines from the candidate cells, every cell except the first clicked one, and maps
+ * candidate {@code c} to cell {@code c} before the clicked cell, and to cell {@code c + 1} after it. The random numbers
+ * it uses don't depend on the clicked cell, so the picked candidates don't either. A layout stores the picked
+ * candidates of a seed as a bit set, and {@link #apply(Board, int) applying} it only maps them to the cells, without
+ * drawing a single random number. The result is exactly the board of the {@link GameSeed} with the same seed and first
+ * click, so the games played with a layout can be shared, replayed and checked by the server the same way.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ * @see BoardPregenerator
+ */
+public final class MineLayout
+{
+	private final int rows;
+	private final int cols;
+	private final int mines;
+	private final long seed;
+	private final long[] candidates;
+
+	private MineLayout(int rows, int cols, int mines, long seed, long[] candidates)
+	{
+		this.rows = rows;
+		this.cols = cols;
+		this.mines = mines;
+		this.seed = seed;
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Picks the mines of a game, the same way as {@link GameSeed#generate(Board)} does.
+	 *
+	 * @param rows The number of rows of the board.
+	 * @param cols The number of columns of the board.
+	 * @param mines The number of mines, less than the number of cells.
+	 * @param seed The seed of the game.
+	 * @return The layout of the mines.
+	 */
+	public static MineLayout generate(int rows, int cols, int mines, long seed)
+	{
+		CandidateBoard board = new CandidateBoard(rows, cols);
+
+		// With the last cell excluded, every candidate is mapped to the cell with the same index.
+		new MinePlacer(new Xoroshiro128PlusPlus(seed)).place(board, mines, board.size() - 1);
+
+		return new MineLayout(rows, cols, mines, seed, board.candidates);
+	}
+
+	/**
+	 * Places the mines on an empty board, keeping the first clicked cell free. The neighbouring mines are not counted.
+	 *
+	 * @param board An empty board, with the size of this layout.
+	 * @param excludedIndex The index of the first clicked cell.
+	 *
+	 * @throws IllegalArgumentException when the board has a different size, or the index is not on the board.
+	 */
+	public void apply(Board board, int excludedIndex)
+	{
+		if (board.getRows() != rows || board.getCols() != cols)
+			throw new IllegalArgumentException("The board must be " + rows + "x" + cols);
+		if (excludedIndex < 0 || excludedIndex >= board.size())
+			throw new IllegalArgumentException("Invalid cell index: " + excludedIndex);
+
+		for (int word = 0; word < candidates.length; word++)
+		{
+			long bits = candidates[word];
+			while (bits != 0)
+			{
+				int candidate = word << 6 | Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+
+				board.setValue(candidate < excludedIndex ? candidate : candidate + 1, CellValues.CELL_MINE);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of rows of the board.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the number of mines.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return mines;
+	}
+
+	/**
+	 * Returns the seed the mines were picked with.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * The board the placer picks the candidates on, one bit per cell. Only the values are stored, every cell is hidden.
+	 */
+	private static class CandidateBoard implements Board
+	{
+		private final int rows;
+		private final int cols;
+		private final long[] candidates;
+
+		private CandidateBoard(int rows, int cols)
+		{
+			this.rows = rows;
+			this.cols = cols;
+			this.candidates = new long[(rows * cols + 63) >>> 6];
+		}
+
+		@Override
+		public int getRows()
+		{
+			return rows;
+		}
+
+		@Override
+		public int getCols()
+		{
+			return cols;
+		}
+
+		@Override
+		public int getState(int index)
+		{
+			return STATE_HIDDEN;
+		}
+
+		@Override
+		public void setState(int index, int state)
+		{
+			throw new UnsupportedOperationException("Only the mines are stored");
+		}
+
+		@Override
+		public int getValue(int index)
+		{
+			return (candidates[index >>> 6] & 1L << index) != 0 ? CellValues.CELL_MINE : CellValues.CELL_EMPTY;
+		}
+
+		@Override
+		public void setValue(int index, int value)
+		{
+			if (value == CellValues.CELL_MINE)
+				candidates[index >>> 6] |= 1L << index;
+			else
+				candidates[index >>> 6] &= ~(1L << index);
+		}
+	}
+}
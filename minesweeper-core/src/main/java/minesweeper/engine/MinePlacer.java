@@ -0,0 +1,166 @@
+package minesweeper.engine;
+
+
+/**
+ * Places the mines of a new game on a {@link Board}, in time proportional to the number of mines, without boxing.
+ * <p>
+ * Two algorithms are used, both picking every possible layout with the same probability:
+ * </p>
+ * <ul>
+ * <li>{@link #placeSampled(Board, int, int) Floyd's sampling} needs one random number per mine and no extra memory,
+ * because it uses the board itself to check whether a cell was already picked. This is used for sparse boards, and for
+ * boards too large for an index array.</li>
+ * <li>{@link #placeShuffled(Board, int, int) A partial Fisher-Yates shuffle} of an int array of the cell indices, which
+ * only shuffles the first positions, as many as there are mines. Filling the array is proportional to the size of the
+ * board, but this pays off for denser boards, where the random accesses of the sampling dominate.</li>
+ * </ul>
+ * <p>
+ * The random numbers come from a pluggable {@link RandomSource}, so the layouts can be reproduced by using a seeded
+ * source. A placer is not thread-safe.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class MinePlacer
+{
+	/**
+	 * Boards with less than one mine per this many cells are considered sparse, and the mines are placed by sampling.
+	 */
+	public final static int SPARSE_RATIO = 8;
+
+	/**
+	 * The largest board, whose mines are placed with a shuffle. Larger boards always use sampling, because the index
+	 * array would take too much memory.
+	 */
+	public final static int MAX_SHUFFLED_CELLS = 1 << 22;
+
+	private RandomSource random;
+	private int[] indices;
+
+	/**
+	 * Creates a new placer using a {@link java.util.SplittableRandom SplittableRandom}.
+	 */
+	public MinePlacer()
+	{
+		this(RandomSource.splittable());
+	}
+
+	/**
+	 * Creates a new placer using the given random source.
+	 *
+	 * @param random The source of the random numbers.
+	 */
+	public MinePlacer(RandomSource random)
+	{
+		this.random = random;
+		this.indices = new int[0];
+	}
+
+	/**
+	 * Places mines on the board, by setting the value of the chosen cells to {@link CellValues#CELL_MINE CELL_MINE}.
+	 * The board must not have any mines yet.
+	 *
+	 * @param board The board.
+	 * @param mines The number of mines, less than the number of cells.
+	 * @param excludedIndex The index of a cell which can't be a mine, usually the first clicked one.
+	 */
+	public void place(Board board, int mines, int excludedIndex)
+	{
+		int candidates = board.size() - 1;
+
+		if ((long) mines * SPARSE_RATIO < candidates || candidates > MAX_SHUFFLED_CELLS)
+			placeSampled(board, mines, excludedIndex);
+		else
+			placeShuffled(board, mines, excludedIndex);
+	}
+
+	/**
+	 * Places the mines with Floyd's sampling algorithm.
+	 * <p>
+	 * For every j from {@code n - mines} to {@code n - 1}, where n is the number of candidate cells, a random number is
+	 * picked from 0 to j. If that cell is already a mine, cell j becomes a mine instead, which was never a candidate
+	 * before. The excluded cell is skipped by mapping the candidates to the cells after it one higher.
+	 * </p>
+	 *
+	 * @param board The board.
+	 * @param mines The number of mines, less than the number of cells.
+	 * @param excludedIndex The index of a cell which can't be a mine.
+	 */
+	public void placeSampled(Board board, int mines, int excludedIndex)
+	{
+		int candidates = board.size() - 1;
+
+		for (int j = candidates - mines; j < candidates; j++)
+		{
+			int picked = random.nextInt(j + 1);
+			int cell = picked < excludedIndex ? picked : picked + 1;
+
+			if (board.getValue(cell) == CellValues.CELL_MINE)
+			{
+				cell = j < excludedIndex ? j : j + 1;
+			}
+
+			board.setValue(cell, CellValues.CELL_MINE);
+		}
+	}
+
+	/**
+	 * Places the mines with a partial Fisher-Yates shuffle.
+	 * <p>
+	 * The indices of every cell except the excluded one are put into an int array, then for the first {@code mines}
+	 * positions, each is swapped with a random later position. These first positions are the mines. The array is
+	 * reused between games of the same size.
+	 * </p>
+	 *
+	 * @param board The board.
+	 * @param mines The number of mines, less than the number of cells.
+	 * @param excludedIndex The index of a cell which can't be a mine.
+	 */
+	public void placeShuffled(Board board, int mines, int excludedIndex)
+	{
+		int candidates = board.size() - 1;
+
+		if (indices.length < candidates)
+			indices = new int[candidates];
+
+		for (int i = 0; i < excludedIndex; i++)
+		{
+			indices[i] = i;
+		}
+		for (int i = excludedIndex; i < candidates; i++)
+		{
+			indices[i] = i + 1;
+		}
+
+		for (int i = 0; i < mines; i++)
+		{
+			int swap = i + random.nextInt(candidates - i);
+			int cell = indices[swap];
+			indices[swap] = indices[i];
+			indices[i] = cell;
+
+			board.setValue(cell, CellValues.CELL_MINE);
+		}
+	}
+
+	/**
+	 * Returns the source of the random numbers.
+	 *
+	 * @return The random source.
+	 */
+	public RandomSource getRandom()
+	{
+		return random;
+	}
+
+	/**
+	 * Sets the source of the random numbers.
+	 *
+	 * @param random The random source.
+	 */
+	public void setRandom(RandomSource random)
+	{
+		this.random = random;
+	}
+}
@@ -0,0 +1,248 @@
+package minesweeper.engine;
+
+
+/**
+ * Counts the flagged and the hidden neighbours of every cell of a board, and keeps the counts up to date while the
+ * states of the cells change.
+ * <p>
+ * Every state change of the board must go through {@link #setState(int, int)}, which changes the state on the board,
+ * and updates the counts of the neighbours of the cell. The counts of a cell are read in constant time, so the rule of
+ * a chord, that a number must have as many flagged neighbours as its value, is a single comparison, see
+ * {@link #canChord(int)}. Only {@link Board#STATE_HIDDEN hidden} cells are counted as hidden, questioned cells are
+ * neither hidden nor flagged, just like the {@link FloodFill} doesn't open them.
+ * </p>
+ * <p>
+ * The two counts of a cell are stored in one byte, the hidden count in the high 4 bits and the flagged count in the
+ * low 4 bits, in pages of {@link #PAGE_SIZE} cells. A page is only allocated when a count on it changes for the first
+ * time, until then the counts are counted from the board. So a new board needs no initialization, and a huge board
+ * only pays for the pages around the cells that were opened or marked.
+ * </p>
+ * <p>
+ * The neighbours come from the {@link NeighbourList} of the board, so the counts work on every {@link Topology}, whose
+ * cells have at most 8 neighbours.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class NeighbourCounts
+{
+	/**
+	 * The number of cells of a page of counts.
+	 */
+	public final static int PAGE_SIZE = 4096;
+
+	private final static int PAGE_BITS = 12;
+	private final static int PAGE_MASK = PAGE_SIZE - 1;
+	private final static int HIDDEN = 0x10;
+	private final static int FLAGGED = 0x01;
+
+	private final Board board;
+	private final int rows;
+	private final int cols;
+	private final byte[][] pages;
+	private final int[] offsets;
+	private final int[] neighbours;
+	private final int[] pageNeighbours;
+
+	/**
+	 * Creates the counts of the given board. The board may already have opened or marked cells.
+	 *
+	 * @param board The board.
+	 */
+	public NeighbourCounts(Board board)
+	{
+		this.board = board;
+		this.rows = board.getRows();
+		this.cols = board.getCols();
+		this.pages = new byte[(board.size() + PAGE_SIZE - 1) >>> PAGE_BITS][];
+
+		// Without a list, the neighbours are collected into buffers, a separate one while a page is counted.
+		NeighbourList list = NeighbourList.of(board);
+		this.offsets = list != null ? list.getOffsets() : null;
+		this.neighbours = list != null ? list.getNeighbours() : new int[Topology.MAX_NEIGHBOURS];
+		this.pageNeighbours = list != null ? list.getNeighbours() : new int[Topology.MAX_NEIGHBOURS];
+	}
+
+	/**
+	 * Changes the state of a cell on the board, and updates the counts of its neighbours.
+	 *
+	 * @param index The index of the cell.
+	 * @param state The new state.
+	 */
+	public void setState(int index, int state)
+	{
+		int delta = weight(state) - weight(board.getState(index));
+		if (delta != 0)
+		{
+			int start = offsets != null ? offsets[index] : 0;
+			int end = offsets != null ? offsets[index + 1] : Topology.squareNeighbours(rows, cols, index, neighbours);
+			for (int i = start; i < end; i++)
+			{
+				// Both counts stay between 0 and 8, so adding the difference never carries between them.
+				int neighbour = neighbours[i];
+				byte[] page = pages[neighbour >>> PAGE_BITS];
+				if (page == null)
+					page = allocatePage(neighbour >>> PAGE_BITS);
+				page[neighbour & PAGE_MASK] += delta;
+			}
+		}
+
+		board.setState(index, state);
+	}
+
+	/**
+	 * Returns the number of flagged neighbours of a cell.
+	 *
+	 * @param index The index of the cell.
+	 * @return The number of flagged neighbours, between 0 and 8.
+	 */
+	public int getFlagged(int index)
+	{
+		return counts(index) & 0xF;
+	}
+
+	/**
+	 * Returns the number of hidden neighbours of a cell, not counting the flagged and the questioned ones.
+	 *
+	 * @param index The index of the cell.
+	 * @return The number of hidden neighbours, between 0 and 8.
+	 */
+	public int getHidden(int index)
+	{
+		return counts(index) >>> 4;
+	}
+
+	/**
+	 * Returns whether a cell can be chorded: it's an opened number, it has exactly as many flagged neighbours as its
+	 * value, and it has hidden neighbours to open.
+	 *
+	 * @param index The index of the cell.
+	 * @return <b>true</b>, if the hidden neighbours of the cell can be opened at once, <b>false</b> otherwise.
+	 */
+	public boolean canChord(int index)
+	{
+		if (board.getState(index) != Board.STATE_CLICKED)
+			return false;
+
+		int value = board.getValue(index);
+		int counts = counts(index);
+		return value >= CellValues.CELL_1 && value <= CellValues.CELL_8 && (counts & 0xF) == value && counts >>> 4 > 0;
+	}
+
+	/**
+	 * Returns whether an opened number has exactly as many flagged neighbours as its value, so every mine around it is
+	 * flagged.
+	 *
+	 * @param index The index of the cell.
+	 * @return <b>true</b>, if the cell is a satisfied number, <b>false</b> otherwise.
+	 */
+	public boolean isSatisfied(int index)
+	{
+		int value = board.getValue(index);
+		return board.getState(index) == Board.STATE_CLICKED && value >= CellValues.CELL_1 && value <= CellValues.CELL_8
+				&& getFlagged(index) == value;
+	}
+
+	/**
+	 * Collects the hidden neighbours of a cell.
+	 *
+	 * @param index The index of the cell.
+	 * @param hidden The array to collect the indices of the neighbours into, at least 8 long.
+	 * @return The number of hidden neighbours collected.
+	 */
+	public int getHiddenNeighbours(int index, int[] hidden)
+	{
+		int start = offsets != null ? offsets[index] : 0;
+		int end = offsets != null ? offsets[index + 1] : Topology.squareNeighbours(rows, cols, index, neighbours);
+
+		int count = 0;
+		for (int i = start; i < end; i++)
+		{
+			if (board.getState(neighbours[i]) == Board.STATE_HIDDEN)
+				hidden[count++] = neighbours[i];
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the number of allocated pages.
+	 *
+	 * @return The number of pages holding counts.
+	 */
+	public int getPageCount()
+	{
+		int count = 0;
+		for (byte[] page : pages)
+		{
+			if (page != null)
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the packed counts of a cell, from its page, or from the board if the page is not allocated.
+	 *
+	 * @param index The index of the cell.
+	 * @return The hidden count in the high 4 bits, the flagged count in the low 4 bits.
+	 */
+	private int counts(int index)
+	{
+		byte[] page = pages[index >>> PAGE_BITS];
+		return page != null ? page[index & PAGE_MASK] & 0xFF : count(index);
+	}
+
+	/**
+	 * Allocates a page of counts, counting its cells from the board.
+	 *
+	 * @param number The number of the page.
+	 * @return The new page.
+	 */
+	private byte[] allocatePage(int number)
+	{
+		int first = number << PAGE_BITS;
+		byte[] page = new byte[Math.min(PAGE_SIZE, board.size() - first)];
+		for (int i = 0; i < page.length; i++)
+		{
+			page[i] = (byte) count(first + i);
+		}
+		pages[number] = page;
+
+		return page;
+	}
+
+	/**
+	 * Counts the hidden and the flagged neighbours of a cell on the board.
+	 *
+	 * @param index The index of the cell.
+	 * @return The hidden count in the high 4 bits, the flagged count in the low 4 bits.
+	 */
+	private int count(int index)
+	{
+		int start = offsets != null ? offsets[index] : 0;
+		int end = offsets != null ? offsets[index + 1] : Topology.squareNeighbours(rows, cols, index, pageNeighbours);
+
+		int counts = 0;
+		for (int i = start; i < end; i++)
+		{
+			counts += weight(board.getState(pageNeighbours[i]));
+		}
+
+		return counts;
+	}
+
+	private static int weight(int state)
+	{
+		switch (state)
+		{
+		case Board.STATE_HIDDEN:
+			return HIDDEN;
+		case Board.STATE_FLAGGED:
+			return FLAGGED;
+		default:
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package minesweeper.engine;
+
+import java.util.Arrays;
+
+
+/**
+ * The neighbours of every cell of a board with a given {@link Topology} and size, in two flat int arrays.
+ * <p>
+ * The neighbours of cell {@code i} are {@code getNeighbours()[getOffsets()[i]]} to
+ * {@code getNeighbours()[getOffsets()[i + 1] - 1]}, in increasing order, without the cell itself and without
+ * duplicates. Iterating them is a plain loop between two offsets, with no border checks:
+ * </p>
+ *
+ * <pre>
+ * for (int i = offsets[index]; i &lt; offsets[index + 1]; i++)
+ * {
+ * 	int neighbour = neighbours[i];
+ * 	...
+ * }
+ * </pre>
+ * <p>
+ * A list is immutable, and shared by every board of the same topology and size, see
+ * {@link Topology#neighbours(int, int)}.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class NeighbourList
+{
+	private final Topology topology;
+	private final int rows;
+	private final int cols;
+	private final int[] offsets;
+	private final int[] neighbours;
+
+	/**
+	 * Builds the list of a board.
+	 *
+	 * @param topology The topology.
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 */
+	NeighbourList(Topology topology, int rows, int cols)
+	{
+		this.topology = topology;
+		this.rows = rows;
+		this.cols = cols;
+
+		int size = rows * cols;
+		int[] buffer = new int[Topology.MAX_NEIGHBOURS];
+		int[] collected = new int[size * Topology.MAX_NEIGHBOURS];
+		offsets = new int[size + 1];
+
+		int total = 0;
+		for (int index = 0; index < size; index++)
+		{
+			int count = topology.collect(rows, cols, index / cols, index % cols, buffer);
+			Arrays.sort(buffer, 0, count);
+			for (int i = 0; i < count; i++)
+			{
+				int neighbour = buffer[i];
+				if (neighbour != index && (total == offsets[index] || collected[total - 1] != neighbour))
+					collected[total++] = neighbour;
+			}
+			offsets[index + 1] = total;
+		}
+
+		neighbours = Arrays.copyOf(collected, total);
+	}
+
+	/**
+	 * Returns the list of a board, from the cache of its topology.
+	 *
+	 * @param board The board.
+	 * @return The neighbour list of the board, or <b>null</b> if the board is square, and it's not an
+	 *         {@link ArrayBoard}, or it's too large for a list.
+	 *
+	 * @see Topology#neighbours(int, int)
+	 */
+	public static NeighbourList of(Board board)
+	{
+		// The compact boards of the huge games find their neighbours on the square grid, a list would take many times
+		// the memory of their cells.
+		if (board.getTopology() == Topology.SQUARE && (!(board instanceof ArrayBoard) || board.size() > Topology.MAX_TABLE_CELLS))
+			return null;
+
+		return board.getTopology().neighbours(board.getRows(), board.getCols());
+	}
+
+	/**
+	 * Returns where the neighbours of every cell start in {@link #getNeighbours()}. The array has one more element than
+	 * the number of cells, the end of the last cell.
+	 *
+	 * @return The offsets, which must not be modified.
+	 */
+	public int[] getOffsets()
+	{
+		return offsets;
+	}
+
+	/**
+	 * Returns the neighbours of every cell, one after the other.
+	 *
+	 * @return The indices of the neighbours, which must not be modified.
+	 */
+	public int[] getNeighbours()
+	{
+		return neighbours;
+	}
+
+	/**
+	 * Returns the memory taken by the two arrays of the list.
+	 *
+	 * @return The size of the arrays in bytes.
+	 */
+	public long getByteSize()
+	{
+		return (long) Integer.BYTES * (offsets.length + neighbours.length);
+	}
+
+	/**
+	 * Returns the number of neighbours of a cell.
+	 *
+	 * @param index The index of the cell.
+	 * @return The number of neighbours.
+	 */
+	public int count(int index)
+	{
+		return offsets[index + 1] - offsets[index];
+	}
+
+	/**
+	 * Returns the topology of the list.
+	 *
+	 * @return The topology.
+	 */
+	public Topology getTopology()
+	{
+		return topology;
+	}
+
+	/**
+	 * Returns the number of rows of the board.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+}
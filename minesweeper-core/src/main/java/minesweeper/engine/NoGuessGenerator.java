@@ -0,0 +1,139 @@
+package minesweeper.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates boards which can be cleared from the first click without guessing.
+ * <p>
+ * Candidate layouts are generated from a sequence of seeds derived from the seed of the game, and the first one which
+ * the {@link DeterministicSolver} can clear is kept. Most random layouts need a guess, so the candidates are checked in
+ * parallel: every worker of a {@link ForkJoinPool} takes the next candidate from a shared counter, and the workers stop
+ * as soon as every candidate before a solvable one is checked. The result is always the solvable candidate with the
+ * lowest number, so the same seed and first click give the same board, regardless of the number of workers.
+ * </p>
+ * <p>
+ * The result is a {@link GameSeed}, so a no guessing board can be regenerated or shared just like any other.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class NoGuessGenerator
+{
+	/**
+	 * The default number of candidates checked before giving up.
+	 */
+	public final static int DEFAULT_MAX_ATTEMPTS = 100000;
+
+	private final ForkJoinPool pool;
+	private final int maxAttempts;
+
+	/**
+	 * Creates a new generator using the common pool.
+	 */
+	public NoGuessGenerator()
+	{
+		this(ForkJoinPool.commonPool(), DEFAULT_MAX_ATTEMPTS);
+	}
+
+	/**
+	 * Creates a new generator.
+	 *
+	 * @param pool The pool checking the candidates, one task per worker thread.
+	 * @param maxAttempts The number of candidates checked before giving up.
+	 */
+	public NoGuessGenerator(ForkJoinPool pool, int maxAttempts)
+	{
+		this.pool = pool;
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Generates a board which can be cleared without guessing. Blocks until the board is found.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param mines The number of mines.
+	 * @param seed The seed of the game, the candidate seeds are derived from it.
+	 * @param firstClickRow The row of the first click.
+	 * @param firstClickCol The column of the first click.
+	 * @return The game seed of the board, or <b>null</b> if no candidate could be solved within the maximum number of
+	 *         attempts, which usually means the board is too dense.
+	 */
+	public GameSeed generate(int rows, int cols, int mines, long seed, int firstClickRow, int firstClickCol)
+	{
+		// Validates the arguments before starting the workers.
+		new GameSeed(rows, cols, mines, seed, firstClickRow, firstClickCol);
+
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger found = new AtomicInteger(Integer.MAX_VALUE);
+
+		int workers = Math.max(pool.getParallelism(), 1);
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers];
+		for (int i = 0; i < workers; i++)
+		{
+			tasks[i] = pool.submit(() -> search(rows, cols, mines, seed, firstClickRow * cols + firstClickCol, next, found));
+		}
+		for (ForkJoinTask<?> task : tasks)
+		{
+			task.join();
+		}
+
+		int attempt = found.get();
+		if (attempt == Integer.MAX_VALUE)
+			return null;
+
+		return new GameSeed(rows, cols, mines, candidateSeed(seed, attempt), firstClickRow, firstClickCol);
+	}
+
+	/**
+	 * Checks candidates until one before the next is already known to be solvable.
+	 */
+	private void search(int rows, int cols, int mines, long seed, int firstIndex, AtomicInteger next, AtomicInteger found)
+	{
+		Xoroshiro128PlusPlus random = new Xoroshiro128PlusPlus(seed);
+		MinePlacer placer = new MinePlacer(random);
+		DeterministicSolver solver = new DeterministicSolver();
+		ArrayBoard board = new ArrayBoard(rows, cols);
+
+		int attempt;
+		while ((attempt = next.getAndIncrement()) < maxAttempts && attempt < found.get())
+		{
+			// The same steps as GameSeed.generate, reusing the board, the placer and the generator of the thread.
+			board.clear();
+			random.setSeed(candidateSeed(seed, attempt));
+			placer.place(board, mines, firstIndex);
+			board.countNeighbours();
+
+			if (solver.solve(board, firstIndex))
+			{
+				found.accumulateAndGet(attempt, Math::min);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the seed of a candidate. The first candidate uses the seed of the game itself.
+	 *
+	 * @param seed The seed of the game.
+	 * @param attempt The number of the candidate.
+	 * @return The seed of the candidate.
+	 */
+	public static long candidateSeed(long seed, int attempt)
+	{
+		return attempt == 0 ? seed : Xoroshiro128PlusPlus.splitMix64(seed + attempt * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * Returns the maximum number of candidates checked.
+	 *
+	 * @return The maximum number of attempts.
+	 */
+	public int getMaxAttempts()
+	{
+		return maxAttempts;
+	}
+}
@@ -0,0 +1,245 @@
+package minesweeper.engine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * A {@link Board} for the largest games, storing its cells outside of the heap, in a memory-mapped temporary file, so
+ * a board of hundreds of millions of cells takes almost no heap, and the garbage collector never has to scan or copy
+ * it.
+ * <p>
+ * Every cell is one byte of the file: the value in the low 4 bits, the state in the next 2 bits, and a bit marking
+ * that the value is not counted yet. A zero byte is a {@link Board#STATE_HIDDEN hidden}, {@link CellValues#CELL_EMPTY
+ * empty} cell, so a new board needs no initialization. The file is mapped in segments of {@link #SEGMENT_SIZE} bytes,
+ * because a single mapping can't be larger than 2 GB, and the cells are read and written directly in the mapping.
+ * </p>
+ * <p>
+ * Like the {@link CompactBoard}, the board counts the neighbouring mines lazily: {@link #countNeighbours()} only marks
+ * the non-mine cells as not counted, 8 cells at a time, and a value is counted when it's first read.
+ * </p>
+ * <p>
+ * The file is deleted as soon as it's mapped, so nothing is left behind, even if the game crashes. Its disk space is
+ * given back when the mapping is garbage collected, which a heap this small may not do for a long time, so a board
+ * should be {@link #clear() cleared} and reused for the next game of the same size instead of creating a new one. A
+ * direct buffer is not used instead of the file, because the direct memory is limited to the size of the heap by
+ * default.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class OffHeapBoard implements Board
+{
+	/**
+	 * The number of cells in a segment of the mapped file.
+	 */
+	public final static int SEGMENT_SIZE = 1 << 30;
+
+	private final static int SEGMENT_BITS = 30;
+	private final static int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private final static int VALUE_MASK = 0x0F;
+	private final static int STATE_SHIFT = 4;
+	private final static int STATE_MASK = 0x30;
+	private final static int NOT_COUNTED = 0x40;
+
+	private final static long BYTE_LOW_BITS = 0x0101010101010101L;
+
+	private final int rows;
+	private final int cols;
+	private final MappedByteBuffer[] segments;
+
+	/**
+	 * Creates a new board with the given size, in the default temporary directory. Every cell will be
+	 * {@link Board#STATE_HIDDEN hidden} and {@link CellValues#CELL_EMPTY empty}.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @throws IOException when the file can't be created or mapped.
+	 */
+	public OffHeapBoard(int rows, int cols) throws IOException
+	{
+		this(rows, cols, null);
+	}
+
+	/**
+	 * Creates a new board with the given size. Every cell will be {@link Board#STATE_HIDDEN hidden} and
+	 * {@link CellValues#CELL_EMPTY empty}.
+	 *
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param directory The directory of the temporary file, or <b>null</b> for the default temporary directory.
+	 * @throws IOException when the file can't be created or mapped.
+	 */
+	public OffHeapBoard(int rows, int cols, Path directory) throws IOException
+	{
+		if (rows < 1 || cols < 1 || (long) rows * cols > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Invalid board size: " + rows + "x" + cols);
+
+		this.rows = rows;
+		this.cols = cols;
+
+		int size = rows * cols;
+		segments = new MappedByteBuffer[(int) (((long) size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+
+		Path file = directory != null ? Files.createTempFile(directory, "minesweeper-board", ".cells")
+				: Files.createTempFile("minesweeper-board", ".cells");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.DELETE_ON_CLOSE))
+		{
+			// Mapping past the end of the file grows it, the new bytes are zero.
+			for (int i = 0; i < segments.length; i++)
+			{
+				long position = (long) i << SEGMENT_BITS;
+				segments[i] = channel.map(MapMode.READ_WRITE, position, Math.min(SEGMENT_SIZE, size - position));
+			}
+		}
+	}
+
+	@Override
+	public int getRows()
+	{
+		return rows;
+	}
+
+	@Override
+	public int getCols()
+	{
+		return cols;
+	}
+
+	@Override
+	public int getState(int index)
+	{
+		return ((get(index) & STATE_MASK) >>> STATE_SHIFT) + STATE_HIDDEN;
+	}
+
+	@Override
+	public void setState(int index, int state)
+	{
+		int cell = get(index) & ~STATE_MASK;
+		put(index, cell | (((state - STATE_HIDDEN) << STATE_SHIFT) & STATE_MASK));
+	}
+
+	@Override
+	public int getValue(int index)
+	{
+		int cell = get(index);
+
+		if ((cell & NOT_COUNTED) != 0)
+		{
+			int value = countMinesAround(index);
+			put(index, (cell & STATE_MASK) | value);
+			return value;
+		}
+
+		return cell & VALUE_MASK;
+	}
+
+	@Override
+	public void setValue(int index, int value)
+	{
+		put(index, (get(index) & STATE_MASK) | (value & VALUE_MASK));
+	}
+
+	/**
+	 * Marks the value of every non-mine cell as not counted. The values will be counted one by one, when they are
+	 * read.
+	 * <p>
+	 * This works on 8 cells at once: the marker bit is set in every byte of a long whose value is not
+	 * {@link CellValues#CELL_MINE CELL_MINE}.
+	 * </p>
+	 */
+	@Override
+	public void countNeighbours()
+	{
+		long mines = BYTE_LOW_BITS * CellValues.CELL_MINE;
+		long values = BYTE_LOW_BITS * VALUE_MASK;
+
+		for (MappedByteBuffer segment : segments)
+		{
+			int length = segment.capacity();
+			int position = 0;
+			for (; position + Long.BYTES <= length; position += Long.BYTES)
+			{
+				// The low 4 bits of a byte of the difference are zero only where the cell is a mine.
+				long cells = segment.getLong(position);
+				long difference = (cells ^ mines) & values;
+				long notMine = (difference | (difference >>> 1) | (difference >>> 2) | (difference >>> 3)) & BYTE_LOW_BITS;
+				segment.putLong(position, cells | (notMine * NOT_COUNTED));
+			}
+			for (; position < length; position++)
+			{
+				byte cell = segment.get(position);
+				if ((cell & VALUE_MASK) != CellValues.CELL_MINE)
+					segment.put(position, (byte) (cell | NOT_COUNTED));
+			}
+		}
+	}
+
+	/**
+	 * Makes every cell {@link Board#STATE_HIDDEN hidden} and {@link CellValues#CELL_EMPTY empty} again, so the board
+	 * can be reused for a new game.
+	 */
+	public void clear()
+	{
+		for (MappedByteBuffer segment : segments)
+		{
+			int length = segment.capacity();
+			int position = 0;
+			for (; position + Long.BYTES <= length; position += Long.BYTES)
+			{
+				segment.putLong(position, 0L);
+			}
+			for (; position < length; position++)
+			{
+				segment.put(position, (byte) 0);
+			}
+		}
+	}
+
+	private int get(int index)
+	{
+		return segments[index >>> SEGMENT_BITS].get(index & SEGMENT_MASK);
+	}
+
+	private void put(int index, int cell)
+	{
+		segments[index >>> SEGMENT_BITS].put(index & SEGMENT_MASK, (byte) cell);
+	}
+
+	/**
+	 * Counts the mines around a cell. The mines shown at the end of the game are counted too, because a cell may be
+	 * read for the first time after a mine exploded.
+	 *
+	 * @param index The index of the cell.
+	 * @return The number of mines around the cell.
+	 */
+	private int countMinesAround(int index)
+	{
+		int row = index / cols;
+		int col = index - row * cols;
+		int rowBegin = (row - 1 < 0) ? row : row - 1;
+		int rowEnd = (row + 1 >= rows) ? rows - 1 : row + 1;
+		int colBegin = (col - 1 < 0) ? col : col - 1;
+		int colEnd = (col + 1 >= cols) ? cols - 1 : col + 1;
+
+		int count = 0;
+		for (int i = rowBegin; i <= rowEnd; i++)
+		{
+			for (int neighbour = i * cols + colBegin; neighbour <= i * cols + colEnd; neighbour++)
+			{
+				if (CellValues.isMine(get(neighbour) & VALUE_MASK))
+					count++;
+			}
+		}
+
+		return count;
+	}
+}
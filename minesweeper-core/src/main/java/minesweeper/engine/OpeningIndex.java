@@ -0,0 +1,273 @@
+package minesweeper.engine;
+
+/**
+ * The openings of a board, and its 3BV, computed once when the mines are placed.
+ * <p>
+ * An opening is a connected region of {@link CellValues#CELL_EMPTY empty} cells, together with the numbers bordering
+ * it, which are all opened by a single click on any of its empty cells. The openings are found by a union-find over
+ * the empty cells in a single pass over the board: every empty cell is joined with its empty neighbours that were
+ * already visited, the ones with a smaller index. On a square board, these are the left one and the three above it.
+ * The neighbours come from the {@link NeighbourList} of the board, so any {@link Topology} can be indexed.
+ * </p>
+ * <p>
+ * The 3BV (Bechtel's Board Benchmark Value) of the board is the minimum number of clicks needed to clear it without
+ * flags: one for every opening, and one for every number which is not on the border of any opening. Dividing it by
+ * the time of a won game gives the efficiency of the player, which doesn't depend on how hard the board was.
+ * </p>
+ * <p>
+ * The cells of every opening are kept in one array, the empty cells of an opening first, then its border, so a
+ * {@link FloodFill} can {@link FloodFill#setOpenings(OpeningIndex) use the index} to open a whole opening by copying
+ * its cells, without scanning the neighbours of any cell. The index is only valid as long as the mines of the board
+ * don't change.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class OpeningIndex
+{
+	private final int[] openingOf;
+	private final int[] starts;
+	private final int[] borderStarts;
+	private final int[] cells;
+	private final int openingCount;
+	private final int threeBV;
+
+	private OpeningIndex(int[] openingOf, int[] starts, int[] borderStarts, int[] cells, int threeBV)
+	{
+		this.openingOf = openingOf;
+		this.starts = starts;
+		this.borderStarts = borderStarts;
+		this.cells = cells;
+		this.openingCount = borderStarts.length;
+		this.threeBV = threeBV;
+	}
+
+	/**
+	 * Finds the openings of a board, whose values are already counted.
+	 *
+	 * @param board The board.
+	 * @return The index of the openings of the board.
+	 *
+	 * @throws IllegalArgumentException when the board is too large for a {@link NeighbourList}.
+	 *
+	 * @see Board#countNeighbours()
+	 */
+	public static OpeningIndex of(Board board)
+	{
+		int size = board.size();
+		NeighbourList list = board.getTopology().neighbours(board.getRows(), board.getCols());
+		int[] offsets = list.getOffsets();
+		int[] neighbours = list.getNeighbours();
+
+		// The parent of every empty cell in the union-find, -1 for the other cells.
+		int[] parent = new int[size];
+		for (int index = 0; index < size; index++)
+		{
+			if (board.getValue(index) != CellValues.CELL_EMPTY)
+			{
+				parent[index] = -1;
+				continue;
+			}
+
+			parent[index] = index;
+			// The neighbours are in increasing order, the ones before the cell were already visited.
+			for (int i = offsets[index]; i < offsets[index + 1] && neighbours[i] < index; i++)
+			{
+				if (parent[neighbours[i]] >= 0)
+					union(parent, index, neighbours[i]);
+			}
+		}
+
+		/*
+		 * Numbers the roots in the order of the board, and counts the empty cells of every opening. Every parent comes
+		 * before its child, so the parent is already replaced by the number of its opening when the child is reached.
+		 */
+		int[] openingOf = parent;
+		int[] emptyCounts = new int[size];
+		int openings = 0;
+		for (int index = 0; index < size; index++)
+		{
+			if (parent[index] < 0)
+				continue;
+
+			int opening = parent[index] == index ? openings++ : openingOf[parent[index]];
+			openingOf[index] = opening;
+			emptyCounts[opening]++;
+		}
+
+		// Counts the border of every opening, and the numbers which are not on any border.
+		int[] borderCounts = new int[openings];
+		int[] found = new int[Topology.MAX_NEIGHBOURS];
+		int isolated = 0;
+		for (int index = 0; index < size; index++)
+		{
+			if (openingOf[index] >= 0 || board.getValue(index) == CellValues.CELL_MINE)
+				continue;
+
+			int count = adjacentOpenings(openingOf, offsets, neighbours, index, found);
+			for (int i = 0; i < count; i++)
+			{
+				borderCounts[found[i]]++;
+			}
+			if (count == 0)
+				isolated++;
+		}
+
+		int[] starts = new int[openings + 1];
+		int[] borderStarts = new int[openings];
+		for (int opening = 0; opening < openings; opening++)
+		{
+			borderStarts[opening] = starts[opening] + emptyCounts[opening];
+			starts[opening + 1] = borderStarts[opening] + borderCounts[opening];
+		}
+
+		// Fills the cells, the empty ones and the border of every opening from their starts.
+		int[] cells = new int[starts[openings]];
+		int[] emptyNext = new int[openings];
+		int[] borderNext = borderStarts.clone();
+		System.arraycopy(starts, 0, emptyNext, 0, openings);
+		for (int index = 0; index < size; index++)
+		{
+			int opening = openingOf[index];
+			if (opening >= 0)
+			{
+				cells[emptyNext[opening]++] = index;
+			}
+			else if (board.getValue(index) != CellValues.CELL_MINE)
+			{
+				int count = adjacentOpenings(openingOf, offsets, neighbours, index, found);
+				for (int i = 0; i < count; i++)
+				{
+					cells[borderNext[found[i]]++] = index;
+				}
+			}
+		}
+
+		return new OpeningIndex(openingOf, starts, borderStarts, cells, openings + isolated);
+	}
+
+	/**
+	 * Collects the distinct openings next to a cell.
+	 *
+	 * @return The number of openings collected.
+	 */
+	private static int adjacentOpenings(int[] openingOf, int[] offsets, int[] neighbours, int index, int[] found)
+	{
+		int count = 0;
+		for (int i = offsets[index]; i < offsets[index + 1]; i++)
+		{
+			int opening = openingOf[neighbours[i]];
+			if (opening < 0)
+				continue;
+
+			int j = 0;
+			while (j < count && found[j] != opening)
+			{
+				j++;
+			}
+			if (j == count)
+				found[count++] = opening;
+		}
+
+		return count;
+	}
+
+	private static int find(int[] parent, int i)
+	{
+		while (parent[i] != i)
+		{
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Joins two sets, the smaller root becomes the root of both, so every root is the first cell of its opening.
+	 */
+	private static void union(int[] parent, int a, int b)
+	{
+		int rootA = find(parent, a);
+		int rootB = find(parent, b);
+		if (rootA != rootB)
+			parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+	}
+
+	/**
+	 * Returns the opening of an empty cell.
+	 *
+	 * @param index The index of the cell.
+	 * @return The number of the opening, or -1 if the cell is not empty.
+	 */
+	public int getOpening(int index)
+	{
+		return openingOf[index];
+	}
+
+	/**
+	 * Returns the cells of every opening. The cells of an opening are between {@link #getStart(int)} and
+	 * {@link #getEnd(int)}, the empty ones first, then the border from {@link #getBorderStart(int)}. A number on the
+	 * border of several openings is in every one of them.
+	 *
+	 * @return The cells of the openings, which must not be modified.
+	 */
+	public int[] getCells()
+	{
+		return cells;
+	}
+
+	/**
+	 * Returns where the cells of an opening start.
+	 *
+	 * @param opening The number of the opening.
+	 * @return The index of the first empty cell of the opening in {@link #getCells()}.
+	 */
+	public int getStart(int opening)
+	{
+		return starts[opening];
+	}
+
+	/**
+	 * Returns where the border of an opening starts.
+	 *
+	 * @param opening The number of the opening.
+	 * @return The index of the first number of the border of the opening in {@link #getCells()}.
+	 */
+	public int getBorderStart(int opening)
+	{
+		return borderStarts[opening];
+	}
+
+	/**
+	 * Returns where the cells of an opening end.
+	 *
+	 * @param opening The number of the opening.
+	 * @return The index after the last cell of the opening in {@link #getCells()}.
+	 */
+	public int getEnd(int opening)
+	{
+		return starts[opening + 1];
+	}
+
+	/**
+	 * Returns the number of openings.
+	 *
+	 * @return The number of openings.
+	 */
+	public int getOpeningCount()
+	{
+		return openingCount;
+	}
+
+	/**
+	 * Returns the 3BV of the board: the number of openings, plus the number of numbers which are not on the border of
+	 * an opening.
+	 *
+	 * @return The 3BV.
+	 */
+	public int get3BV()
+	{
+		return threeBV;
+	}
+}
@@ -0,0 +1,74 @@
+package minesweeper.engine;
+
+import java.io.Serializable;
+
+/**
+ * This class is used for storing row and column index pairs (a position in the grid).
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class Position implements Serializable
+{
+	/**
+	 * Automatically generated serial version UID.
+	 */
+	private static final long serialVersionUID = 7824190594175120903L;
+
+	private final int row;
+	private final int column;
+
+	/**
+	 * Creates a row-column pair.
+	 * 
+	 * @param row The row index.
+	 * @param column The column index.
+	 */
+	public Position(int row, int column)
+	{
+		this.row = row;
+		this.column = column;
+	}
+
+	/**
+	 * 
+	 * @return The stored row index.
+	 */
+	public int getRow()
+	{
+		return row;
+	}
+
+	/**
+	 * 
+	 * @return The stored column index.
+	 */
+	public int getColumn()
+	{
+		return column;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+			return true;
+		if (!(obj instanceof Position))
+			return false;
+
+		Position other = (Position) obj;
+		return row == other.row && column == other.column;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return 31 * row + column;
+	}
+
+	@Override
+	public String toString()
+	{
+		return row + "=" + column;
+	}
+}
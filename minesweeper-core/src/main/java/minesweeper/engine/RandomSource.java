@@ -0,0 +1,59 @@
+package minesweeper.engine;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * A source of random numbers for the game engine, like the mine placement of {@link MinePlacer}.
+ * <p>
+ * This is a functional interface, so any generator can be plugged in with a method reference, for example
+ * {@code new SplittableRandom()::nextInt}. The factory methods below wrap the generators of the JDK, and
+ * {@link Xoroshiro128PlusPlus} is a small, fast generator whose sequence depends only on its seed.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+@FunctionalInterface
+public interface RandomSource
+{
+	/**
+	 * Returns a uniformly distributed random number between 0 (inclusive) and the bound (exclusive).
+	 *
+	 * @param bound The upper bound, must be positive.
+	 * @return A random number.
+	 */
+	public int nextInt(int bound);
+
+	/**
+	 * Returns a source using a new {@link SplittableRandom}.
+	 *
+	 * @return A new random source.
+	 */
+	public static RandomSource splittable()
+	{
+		return new SplittableRandom()::nextInt;
+	}
+
+	/**
+	 * Returns a source using a new {@link SplittableRandom} with the given seed.
+	 *
+	 * @param seed The seed.
+	 * @return A new random source.
+	 */
+	public static RandomSource splittable(long seed)
+	{
+		return new SplittableRandom(seed)::nextInt;
+	}
+
+	/**
+	 * Returns a source using the given {@link Random}.
+	 *
+	 * @param random The random generator.
+	 * @return A new random source.
+	 */
+	public static RandomSource of(Random random)
+	{
+		return random::nextInt;
+	}
+}
@@ -0,0 +1,280 @@
+package minesweeper.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * The shape of a board: which cells are the neighbours of a cell. The cells are still stored row by row, the topology
+ * only decides which of them touch each other.
+ * <p>
+ * The neighbours of every cell are computed once per board size, into a {@link NeighbourList}, which is cached by the
+ * topology and shared by every board of that size. The cache of a topology keeps at most {@link #MAX_CACHED_BYTES}
+ * bytes of lists, and it's emptied when a new list doesn't fit, so it never pins more memory than that. The engine reads the neighbours from the list, so it never checks
+ * the borders of the board, and works the same way on every topology. A cell has at most {@link #MAX_NEIGHBOURS}
+ * neighbours, so the number of mines around a cell always fits the {@link CellValues values} of a board.
+ * </p>
+ * <p>
+ * The available topologies:
+ * </p>
+ * <ul>
+ * <li>{@link #SQUARE}, the usual grid, every cell touches the 8 cells around it.</li>
+ * <li>{@link #TORUS}, a square grid whose opposite edges are joined, so every cell has 8 neighbours.</li>
+ * <li>{@link #HEXAGONAL}, hexagons in rows, every odd row shifted right by half a cell, so a cell touches 2 cells in
+ * its row, and 2 cells in the rows above and below it.</li>
+ * <li>{@link #layered(int) Layered}, a 3D board, whose rows are split into layers of the same height. A cell touches
+ * the 4 cells next to it in its layer, and the cells right above and below it in the next layers, like the faces of a
+ * cube.</li>
+ * </ul>
+ * <p>
+ * Lists are only built for boards of at most {@link #MAX_TABLE_CELLS} cells. Larger boards can only be square, and
+ * the engine finds their neighbours with {@link #squareNeighbours(int, int, int, int[])}, just like on the compact
+ * boards of the huge games, which never use a list, see {@link NeighbourList#of(Board)}.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public abstract class Topology
+{
+	/**
+	 * The largest number of neighbours of a cell on any topology.
+	 */
+	public final static int MAX_NEIGHBOURS = 8;
+
+	/**
+	 * The largest board with a neighbour list, which takes up to 36 bytes per cell.
+	 */
+	public final static int MAX_TABLE_CELLS = 1 << 20;
+
+	/**
+	 * The number of bytes of neighbour lists kept by a topology. Larger lists are not cached at all.
+	 */
+	public final static long MAX_CACHED_BYTES = 1 << 24;
+
+	/**
+	 * The usual square grid.
+	 */
+	public final static Topology SQUARE = new Topology("Square")
+	{
+		@Override
+		protected int collect(int rows, int cols, int row, int col, int[] neighbours)
+		{
+			return squareNeighbours(rows, cols, row * cols + col, neighbours);
+		}
+	};
+
+	/**
+	 * The square grid, with the opposite edges joined.
+	 */
+	public final static Topology TORUS = new Topology("Torus")
+	{
+		@Override
+		protected int collect(int rows, int cols, int row, int col, int[] neighbours)
+		{
+			int count = 0;
+			for (int dr = -1; dr <= 1; dr++)
+			{
+				int neighbourRow = (row + dr + rows) % rows;
+				for (int dc = -1; dc <= 1; dc++)
+				{
+					if (dr != 0 || dc != 0)
+						neighbours[count++] = neighbourRow * cols + (col + dc + cols) % cols;
+				}
+			}
+			return count;
+		}
+	};
+
+	/**
+	 * Hexagons in rows, the odd rows shifted right by half a cell.
+	 */
+	public final static Topology HEXAGONAL = new Topology("Hexagonal")
+	{
+		@Override
+		protected int collect(int rows, int cols, int row, int col, int[] neighbours)
+		{
+			// The cells above and below are the same column and the one before it, or after it in the odd rows.
+			int other = (row & 1) == 0 ? col - 1 : col + 1;
+
+			int count = 0;
+			for (int neighbourRow = row - 1; neighbourRow <= row + 1; neighbourRow += 2)
+			{
+				if (neighbourRow >= 0 && neighbourRow < rows)
+				{
+					neighbours[count++] = neighbourRow * cols + col;
+					if (other >= 0 && other < cols)
+						neighbours[count++] = neighbourRow * cols + other;
+				}
+			}
+			if (col > 0)
+				neighbours[count++] = row * cols + col - 1;
+			if (col < cols - 1)
+				neighbours[count++] = row * cols + col + 1;
+			return count;
+		}
+	};
+
+	private final String name;
+	private final Map<Long, NeighbourList> lists;
+	private long cachedBytes;
+
+	/**
+	 * Creates a new topology.
+	 *
+	 * @param name The name of the topology.
+	 */
+	protected Topology(String name)
+	{
+		this.name = name;
+		this.lists = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Creates a 3D topology, whose rows are split into layers of the same height.
+	 *
+	 * @param layers The number of layers, at least 1.
+	 * @return The layered topology. Its boards must have a multiple of {@code layers} rows.
+	 */
+	public static Topology layered(int layers)
+	{
+		if (layers < 1)
+			throw new IllegalArgumentException("Invalid number of layers: " + layers);
+
+		return new Topology("Layered " + layers)
+		{
+			@Override
+			protected int collect(int rows, int cols, int row, int col, int[] neighbours)
+			{
+				if (rows % layers != 0)
+					throw new IllegalArgumentException(rows + " rows can't be split into " + layers + " layers");
+
+				int layerRows = rows / layers;
+				int rowInLayer = row % layerRows;
+				int index = row * cols + col;
+
+				int count = 0;
+				if (rowInLayer > 0)
+					neighbours[count++] = index - cols;
+				if (rowInLayer < layerRows - 1)
+					neighbours[count++] = index + cols;
+				if (col > 0)
+					neighbours[count++] = index - 1;
+				if (col < cols - 1)
+					neighbours[count++] = index + 1;
+				if (row >= layerRows)
+					neighbours[count++] = index - layerRows * cols;
+				if (row + layerRows < rows)
+					neighbours[count++] = index + layerRows * cols;
+				return count;
+			}
+		};
+	}
+
+	/**
+	 * Collects the neighbours of a cell. Only called while a {@link NeighbourList} is built, so it may check the
+	 * borders. The same neighbour may be collected more than once, and the cell itself may be collected too, the list
+	 * leaves them out.
+	 *
+	 * @param rows The number of rows of the board.
+	 * @param cols The number of columns of the board.
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 * @param neighbours The array to collect the indices of the neighbours into, {@link #MAX_NEIGHBOURS} long.
+	 * @return The number of neighbours collected.
+	 */
+	protected abstract int collect(int rows, int cols, int row, int col, int[] neighbours);
+
+	/**
+	 * Returns the neighbours of every cell of a board, computing them on the first call for the size.
+	 *
+	 * @param rows The number of rows of the board.
+	 * @param cols The number of columns of the board.
+	 * @return The neighbour list, shared by every board of this size and topology.
+	 *
+	 * @throws IllegalArgumentException when the board is larger than {@link #MAX_TABLE_CELLS}, or the topology can't
+	 *         have this size.
+	 */
+	public NeighbourList neighbours(int rows, int cols)
+	{
+		if (rows < 0 || cols < 0 || (long) rows * cols > MAX_TABLE_CELLS)
+			throw new IllegalArgumentException("No neighbour list for a board of " + rows + "x" + cols);
+
+		Long key = (long) rows << 32 | cols;
+		NeighbourList list = lists.get(key);
+		if (list == null)
+		{
+			list = new NeighbourList(this, rows, cols);
+			cache(key, list);
+		}
+		return list;
+	}
+
+	/**
+	 * Adds a new list to the cache, emptying the cache first if the list doesn't fit into {@link #MAX_CACHED_BYTES}.
+	 *
+	 * @param key The size of the board.
+	 * @param list The list.
+	 */
+	private synchronized void cache(Long key, NeighbourList list)
+	{
+		long bytes = list.getByteSize();
+		if (bytes > MAX_CACHED_BYTES)
+			return;
+
+		if (cachedBytes + bytes > MAX_CACHED_BYTES)
+		{
+			lists.clear();
+			cachedBytes = 0;
+		}
+		if (lists.putIfAbsent(key, list) == null)
+			cachedBytes += bytes;
+	}
+
+	/**
+	 * Collects the neighbours of a cell on a square board, checking the borders. This is used on the boards which are
+	 * too large for a {@link NeighbourList}.
+	 *
+	 * @param rows The number of rows of the board.
+	 * @param cols The number of columns of the board.
+	 * @param index The index of the cell.
+	 * @param neighbours The array to collect the indices of the neighbours into, at least 8 long.
+	 * @return The number of neighbours collected.
+	 */
+	public static int squareNeighbours(int rows, int cols, int index, int[] neighbours)
+	{
+		int row = index / cols;
+		int col = index - row * cols;
+		int rowBegin = (row - 1 < 0) ? row : row - 1;
+		int rowEnd = (row + 1 >= rows) ? rows - 1 : row + 1;
+		int colBegin = (col - 1 < 0) ? col : col - 1;
+		int colEnd = (col + 1 >= cols) ? cols - 1 : col + 1;
+
+		int count = 0;
+		for (int i = rowBegin; i <= rowEnd; i++)
+		{
+			for (int neighbour = i * cols + colBegin; neighbour <= i * cols + colEnd; neighbour++)
+			{
+				if (neighbour != index)
+					neighbours[count++] = neighbour;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the name of the topology.
+	 *
+	 * @return The name.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	@Override
+	public String toString()
+	{
+		return name;
+	}
+}
@@ -0,0 +1,96 @@
+package minesweeper.engine;
+
+/**
+ * The xoroshiro128++ generator of Blackman and Vigna: 128 bits of state, a period of 2<sup>128</sup> - 1, and a few
+ * shifts, rotations and additions per number. The same seed always gives the same sequence, on every JVM.
+ * <p>
+ * The two state words are initialized from the seed with SplitMix64, as recommended by the authors, so similar seeds
+ * still give unrelated sequences. The generator is not thread-safe.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class Xoroshiro128PlusPlus implements RandomSource
+{
+	private long s0;
+	private long s1;
+
+	/**
+	 * Creates a new generator with the given seed.
+	 *
+	 * @param seed The seed.
+	 */
+	public Xoroshiro128PlusPlus(long seed)
+	{
+		setSeed(seed);
+	}
+
+	/**
+	 * Starts the sequence of the given seed, just like a new generator created with it.
+	 *
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed)
+	{
+		long x = seed;
+		s0 = splitMix64(x += 0x9E3779B97F4A7C15L);
+		s1 = splitMix64(x + 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * Returns the next 64 random bits.
+	 *
+	 * @return A random long.
+	 */
+	public long nextLong()
+	{
+		long result = Long.rotateLeft(s0 + s1, 17) + s0;
+
+		s1 ^= s0;
+		s0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+		s1 = Long.rotateLeft(s1, 28);
+
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This uses Lemire's multiply-and-shift method, which only needs a division when the random number falls into the
+	 * small biased range, and rejects it then.
+	 * </p>
+	 */
+	@Override
+	public int nextInt(int bound)
+	{
+		if (bound <= 0)
+			throw new IllegalArgumentException("Bound must be positive");
+
+		long product = (nextLong() >>> 32) * bound;
+		if ((product & 0xFFFFFFFFL) < bound)
+		{
+			long threshold = (0x100000000L - bound) % bound;
+			while ((product & 0xFFFFFFFFL) < threshold)
+			{
+				product = (nextLong() >>> 32) * bound;
+			}
+		}
+
+		return (int) (product >>> 32);
+	}
+
+	/**
+	 * Returns the output of SplitMix64 for the given state, which mixes every bit of the input into every bit of the
+	 * output.
+	 *
+	 * @param z The state.
+	 * @return The mixed value.
+	 */
+	public static long splitMix64(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
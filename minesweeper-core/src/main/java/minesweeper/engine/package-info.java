@@ -0,0 +1,22 @@
+/**
+ * The game engine of the minesweeper. The classes in this package store and modify the game board using primitive
+ * arrays only, without creating an object for every cell, and without depending on JavaFX. The neighbours of the cells
+ * are decided by the {@link minesweeper.engine.Topology Topology} of the board, and read from a precomputed
+ * {@link minesweeper.engine.NeighbourList NeighbourList}.
+ * <p>
+ * The engine is part of the minesweeper-core module, which both the client and the server depend on. The
+ * MinesweeperModel of the client uses a {@link minesweeper.engine.Board Board} as the single source of truth, and only
+ * creates the observable cell objects for the cells that are actually requested (usually by the GUI). The server uses
+ * the same {@link minesweeper.engine.GameSeed GameSeed}s and {@link minesweeper.engine.Difficulty Difficulty} presets
+ * to check the scores it receives, and an {@link minesweeper.engine.OpeningIndex OpeningIndex} to compute their 3BV.
+ * </p>
+ * <p>
+ * Other threads read the board of the client through an immutable {@link minesweeper.engine.BoardSnapshot
+ * BoardSnapshot}, which shares the unchanged cells with the previous snapshot.
+ * </p>
+ * <p>
+ * The mines of the next games are picked in the background by a {@link minesweeper.engine.BoardPregenerator
+ * BoardPregenerator}, into {@link minesweeper.engine.MineLayout MineLayout}s, which fit any first click.
+ * </p>
+ */
+package minesweeper.engine;
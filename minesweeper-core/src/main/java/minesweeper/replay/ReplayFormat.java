@@ -0,0 +1,108 @@
+package minesweeper.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The constants of the replay format, and the variable-length integers it's built from.
+ * <p>
+ * A replay starts with the 4 bytes of {@link #MAGIC}, the {@link #VERSION}, then the rows, columns and mines of the
+ * board as variable-length integers, and the 8 bytes of the seed.
+ * </p>
+ * <p>
+ * Every move is a variable-length integer: the number of milliseconds since the previous move, shifted left by
+ * {@link #CODE_BITS}, and the code of the move in the lowest bits. The code is {@code cell * ACTION_COUNT + action},
+ * where the cell is where the move is compared to the previous move. When it's at most {@link #NEAR_DISTANCE} rows and
+ * columns away, the cell is {@code (rowDistance + NEAR_DISTANCE) * NEAR_SIZE + (columnDistance + NEAR_DISTANCE)},
+ * otherwise it's {@link #FAR}, and the move is followed by another variable-length integer: the difference between the
+ * index of the cell and the index of the cell of the previous move, zigzag encoded, because it can be negative.
+ * </p>
+ * <p>
+ * The variable-length integers store 7 bits in each byte, the lowest bits first, and the highest bit of a byte tells
+ * whether there are more bytes. The moves of a player are usually close to each other, and less than 8 seconds apart,
+ * so most moves take 3 bytes, and a whole <i>Hard</i> game less than a kilobyte.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public final class ReplayFormat
+{
+	/**
+	 * The first bytes of every replay: "MSRP".
+	 */
+	public final static int MAGIC = 0x4D535250;
+	/**
+	 * The version of the format.
+	 */
+	public final static int VERSION = 1;
+	/**
+	 * The maximum number of bytes of a move.
+	 */
+	public final static int MAX_RECORD_LENGTH = 15;
+	/**
+	 * The number of rows and columns between the cells of two moves, which are still near each other.
+	 */
+	public final static int NEAR_DISTANCE = 3;
+	/**
+	 * The number of rows and columns of the area of the near cells.
+	 */
+	public final static int NEAR_SIZE = 2 * NEAR_DISTANCE + 1;
+	/**
+	 * The cell of a move, which is not near the previous one.
+	 */
+	public final static int FAR = NEAR_SIZE * NEAR_SIZE;
+
+	/**
+	 * A cell was opened.
+	 */
+	public final static int ACTION_OPEN = 0;
+	/**
+	 * The hidden cells around an opened cell were opened at once, by a double click.
+	 */
+	public final static int ACTION_CHORD = 1;
+	/**
+	 * The mark of a hidden cell was changed, from hidden to flagged, from flagged to questioned, or from questioned
+	 * back to hidden.
+	 */
+	public final static int ACTION_MARK = 2;
+	/**
+	 * The last move was undone. The cell is the same as the cell of the previous record.
+	 */
+	public final static int ACTION_UNDO = 3;
+	/**
+	 * The last undone move was redone. The cell is the same as the cell of the previous record.
+	 */
+	public final static int ACTION_REDO = 4;
+	/**
+	 * The number of actions.
+	 */
+	public final static int ACTION_COUNT = 5;
+	/**
+	 * The number of bits of the code of a move, enough for every action in every cell.
+	 */
+	public final static int CODE_BITS = 8;
+
+	private ReplayFormat()
+	{
+	}
+
+	static void putVarLong(ByteBuffer out, long value)
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	static int zigZag(int value)
+	{
+		return value << 1 ^ value >> 31;
+	}
+
+	static int unZigZag(int value)
+	{
+		return value >>> 1 ^ -(value & 1);
+	}
+}
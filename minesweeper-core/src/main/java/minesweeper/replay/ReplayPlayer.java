@@ -0,0 +1,486 @@
+package minesweeper.replay;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.Game;
+import minesweeper.engine.GameSeed;
+
+/**
+ * Plays back a replay, and can show the board after any of its moves.
+ * <p>
+ * The moves are loaded from a {@link ReplayReader}, and played once by the same {@link Game} rules as the game,
+ * including undoing and redoing. Every position of the replay, the board after a number of moves, is the result of a chain of moves,
+ * because an undone move is not part of the chain. Every {@link #getSnapshotInterval() N}th move of a chain stores a
+ * snapshot of the board, so {@link #seek(int) seeking} to any position restores the closest snapshot before it, and
+ * plays at most N - 1 moves after it, instead of playing the replay from the start. Seeking forward by a few moves just
+ * plays the moves, without restoring a snapshot.
+ * </p>
+ * <p>
+ * The cells changed by seeking are collected, so a view of the board only has to update those, see
+ * {@link #drainChangedCells()}.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class ReplayPlayer
+{
+	/**
+	 * The default number of moves between two snapshots of the board.
+	 */
+	public final static int DEFAULT_SNAPSHOT_INTERVAL = 32;
+
+	private final int rows;
+	private final int cols;
+	private final int mines;
+	private final long seed;
+	private final int snapshotInterval;
+
+	private int[] actions;
+	private int[] cells;
+	private long[] times;
+	private int moveCount;
+
+	// The state of a position is the move whose board it shows, or 0 for the start. States are chained by their parents.
+	private int[] stateOf;
+	private int[] parent;
+	private int[] depth;
+	private Snapshot[] snapshots;
+	private int snapshotCount;
+	private int[] path;
+
+	private final Board board;
+	private final Game game;
+	private final BitSet changedCells;
+	private int state;
+	private int position;
+
+	/**
+	 * Loads every move of a replay, with a snapshot of the board every {@link #DEFAULT_SNAPSHOT_INTERVAL} moves.
+	 *
+	 * @param reader The reader of the replay, it's read to the end, but not closed.
+	 *
+	 * @throws IOException when the replay can't be read, or it doesn't start by opening a cell.
+	 */
+	public ReplayPlayer(ReplayReader reader) throws IOException
+	{
+		this(reader, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Loads every move of a replay, with a snapshot of the board every given number of moves.
+	 *
+	 * @param reader The reader of the replay, it's read to the end, but not closed.
+	 * @param snapshotInterval The number of moves between two snapshots. Less moves mean faster seeking, but more memory.
+	 *
+	 * @throws IOException when the replay can't be read, or it doesn't start by opening a cell.
+	 * @throws IllegalArgumentException when the snapshot interval is not positive.
+	 */
+	public ReplayPlayer(ReplayReader reader, int snapshotInterval) throws IOException
+	{
+		if (snapshotInterval < 1)
+			throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+
+		this.rows = reader.getRows();
+		this.cols = reader.getCols();
+		this.mines = reader.getMines();
+		this.seed = reader.getSeed();
+		this.snapshotInterval = snapshotInterval;
+
+		readMoves(reader);
+		if (moveCount == 0 || actions[0] != ReplayFormat.ACTION_OPEN)
+			throw new IOException("The replay must start by opening a cell");
+		if (mines >= rows * cols)
+			throw new IOException("Too many mines: " + mines);
+
+		board = new ArrayBoard(rows, cols);
+		GameSeed gameSeed = new GameSeed(rows, cols, mines, seed, board.rowOf(cells[0]), board.colOf(cells[0]));
+		gameSeed.generate(board);
+		changedCells = new BitSet();
+		game = new Game(board, mines, seed)
+		{
+			@Override
+			protected void writeCell(int index, int state, int value)
+			{
+				if (getBoard().getState(index) != state || getBoard().getValue(index) != value)
+				{
+					super.writeCell(index, state, value);
+					changedCells.set(index);
+				}
+			}
+		};
+		game.start(gameSeed);
+
+		stateOf = new int[moveCount + 1];
+		parent = new int[moveCount + 1];
+		depth = new int[moveCount + 1];
+		snapshots = new Snapshot[moveCount + 1];
+		path = new int[Math.min(snapshotInterval, moveCount + 1)];
+		snapshots[0] = new Snapshot();
+		snapshotCount = 1;
+
+		playMoves();
+
+		moveTo(0);
+		position = 0;
+		changedCells.clear();
+	}
+
+	private void readMoves(ReplayReader reader) throws IOException
+	{
+		actions = new int[64];
+		cells = new int[64];
+		times = new long[64];
+
+		while (reader.next())
+		{
+			if (moveCount == actions.length)
+			{
+				actions = Arrays.copyOf(actions, moveCount * 2);
+				cells = Arrays.copyOf(cells, moveCount * 2);
+				times = Arrays.copyOf(times, moveCount * 2);
+			}
+			actions[moveCount] = reader.getAction();
+			cells[moveCount] = reader.getCell();
+			times[moveCount] = reader.getTime();
+			moveCount++;
+		}
+	}
+
+	/**
+	 * Plays every move once, and finds the state of every position. The states that can be undone are kept in a stack,
+	 * just like the moves of the game.
+	 */
+	private void playMoves()
+	{
+		int[] stack = new int[moveCount + 1];
+		int top = 0;
+		int redoTop = 0;
+
+		for (int move = 1; move <= moveCount; move++)
+		{
+			int action = actions[move - 1];
+			if (action == ReplayFormat.ACTION_UNDO)
+			{
+				if (top > 0)
+					moveTo(stack[--top]);
+			}
+			else if (action == ReplayFormat.ACTION_REDO)
+			{
+				if (top < redoTop)
+					moveTo(stack[++top]);
+			}
+			else if (play(move))
+			{
+				parent[move] = state;
+				depth[move] = depth[state] + 1;
+				state = move;
+				if (depth[move] % snapshotInterval == 0)
+				{
+					snapshots[move] = new Snapshot();
+					snapshotCount++;
+				}
+
+				stack[++top] = move;
+				redoTop = top;
+			}
+
+			stateOf[move] = state;
+		}
+	}
+
+	/**
+	 * Shows the board after the given number of moves.
+	 *
+	 * @param position The number of moves, between 0 and {@link #getMoveCount()}.
+	 *
+	 * @throws IndexOutOfBoundsException when the position is out of bounds.
+	 */
+	public void seek(int position)
+	{
+		if (position < 0 || position > moveCount)
+			throw new IndexOutOfBoundsException("Position is out of bounds: " + position);
+
+		moveTo(stateOf[position]);
+		this.position = position;
+	}
+
+	/**
+	 * Changes the board to the given state. The moves between the state and the closest snapshot before it, or the
+	 * current state, if it comes first, are played again.
+	 *
+	 * @param target The state.
+	 */
+	private void moveTo(int target)
+	{
+		int steps = 0;
+		int from = target;
+		while (from != state && snapshots[from] == null)
+		{
+			path[steps++] = from;
+			from = parent[from];
+		}
+
+		if (from != state)
+			snapshots[from].restore();
+		for (int i = steps - 1; i >= 0; i--)
+		{
+			play(path[i]);
+		}
+
+		state = target;
+	}
+
+	/**
+	 * Plays a move, by the rules of the game.
+	 *
+	 * @param move The number of the move, counted from 1.
+	 * @return <b>true</b> if the move changed the board.
+	 */
+	private boolean play(int move)
+	{
+		int cell = cells[move - 1];
+		switch (actions[move - 1])
+		{
+		case ReplayFormat.ACTION_OPEN:
+			return game.open(cell);
+		case ReplayFormat.ACTION_CHORD:
+			return game.chord(cell);
+		case ReplayFormat.ACTION_MARK:
+			return game.mark(cell);
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the cells changed since the last call, and forgets them.
+	 *
+	 * @return The indices of the changed cells, in ascending order.
+	 */
+	public int[] drainChangedCells()
+	{
+		int[] changed = changedCells.stream().toArray();
+		changedCells.clear();
+		return changed;
+	}
+
+	/**
+	 * Returns the number of moves played before the time of the replay.
+	 *
+	 * @param time The time in milliseconds since the first move.
+	 * @return The position at the given time, between 1 and {@link #getMoveCount()}.
+	 */
+	public int positionAt(long time)
+	{
+		int low = 0;
+		int high = moveCount;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (times[middle] <= time)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+
+		return Math.max(low, 1);
+	}
+
+	/**
+	 * Returns the time of the last move of a position.
+	 *
+	 * @param position The number of moves.
+	 * @return The time of the last move in milliseconds since the first move, 0 for the start.
+	 */
+	public long getTime(int position)
+	{
+		return position == 0 ? 0 : times[position - 1];
+	}
+
+	/**
+	 * Returns the length of the replay.
+	 *
+	 * @return The time of the last move in milliseconds since the first move.
+	 */
+	public long getDuration()
+	{
+		return times[moveCount - 1];
+	}
+
+	/**
+	 * Returns the board at the current position.
+	 *
+	 * @return The board, which must not be changed.
+	 */
+	public Board getBoard()
+	{
+		return board;
+	}
+
+	/**
+	 * Returns the current position.
+	 *
+	 * @return The number of moves played.
+	 */
+	public int getPosition()
+	{
+		return position;
+	}
+
+	/**
+	 * Returns the number of moves of the replay.
+	 *
+	 * @return The number of moves.
+	 */
+	public int getMoveCount()
+	{
+		return moveCount;
+	}
+
+	/**
+	 * Returns the number of snapshots of the board stored by the player.
+	 *
+	 * @return The number of snapshots, including the one of the start.
+	 */
+	public int getSnapshotCount()
+	{
+		return snapshotCount;
+	}
+
+	/**
+	 * Returns the number of moves between two snapshots.
+	 *
+	 * @return The snapshot interval.
+	 */
+	public int getSnapshotInterval()
+	{
+		return snapshotInterval;
+	}
+
+	/**
+	 * Returns the number of hidden cells at the current position.
+	 *
+	 * @return The number of hidden cells.
+	 */
+	public int getHiddenCells()
+	{
+		return game.getHiddenCells();
+	}
+
+	/**
+	 * Returns the number of mines minus the number of flags at the current position.
+	 *
+	 * @return The number of remaining mines.
+	 */
+	public int getRemainingMines()
+	{
+		return game.getRemainingMines();
+	}
+
+	/**
+	 * Returns the status of the game at the current position.
+	 *
+	 * @return {@link Game#PLAYING}, {@link Game#LOST} or {@link Game#WON}.
+	 */
+	public int getStatus()
+	{
+		return game.getStatus();
+	}
+
+	/**
+	 * Returns whether the game is over at the current position.
+	 *
+	 * @return <b>true</b> if the game is won or lost.
+	 */
+	public boolean isOver()
+	{
+		return game.isOver();
+	}
+
+	/**
+	 * Returns whether the game is won at the current position.
+	 *
+	 * @return <b>true</b> if the game is won.
+	 */
+	public boolean isWon()
+	{
+		return game.isWon();
+	}
+
+	/**
+	 * Returns the number of rows of the board.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the number of mines.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return mines;
+	}
+
+	/**
+	 * Returns the seed of the mines.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * The board and the counters at a state, packing the state and the value of a cell into one byte.
+	 */
+	private class Snapshot
+	{
+		private final byte[] packed;
+		private final int hiddenCells;
+		private final int remainingMines;
+		private final int status;
+
+		private Snapshot()
+		{
+			packed = new byte[board.size()];
+			for (int i = 0; i < packed.length; i++)
+			{
+				packed[i] = (byte) (board.getState(i) << 4 | board.getValue(i));
+			}
+			hiddenCells = game.getHiddenCells();
+			remainingMines = game.getRemainingMines();
+			status = game.getStatus();
+		}
+
+		private void restore()
+		{
+			for (int i = 0; i < packed.length; i++)
+			{
+				game.setCell(i, packed[i] >> 4, packed[i] & 0xF);
+			}
+			game.restore(hiddenCells, remainingMines, status);
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package minesweeper.replay;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads a replay written by a {@link ReplayWriter} from a channel, one move at a time.
+ * <p>
+ * The header is read by the constructor. Then {@link #next()} reads the moves one by one, and the getters return the
+ * last move read. The channel is read through a buffer of {@link ReplayWriter#BUFFER_SIZE} bytes, so a replay of any
+ * length can be read without loading the whole file.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class ReplayReader implements Closeable
+{
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer;
+	private final int rows;
+	private final int cols;
+	private final int mines;
+	private final long seed;
+	private int action;
+	private int cell;
+	private long delay;
+	private long time;
+	private int moves;
+
+	/**
+	 * Creates a new reader, and reads the header of the replay.
+	 *
+	 * @param channel The channel to read the replay from. It's closed with the reader.
+	 *
+	 * @throws IOException when an IO error has occurred, or the channel doesn't contain a replay of a supported
+	 *             version.
+	 */
+	public ReplayReader(ReadableByteChannel channel) throws IOException
+	{
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(ReplayWriter.BUFFER_SIZE);
+		buffer.flip();
+
+		if (readInt() != ReplayFormat.MAGIC)
+			throw new IOException("Not a replay");
+		int version = readByte();
+		if (version != ReplayFormat.VERSION)
+			throw new IOException("Unsupported replay version: " + version);
+
+		rows = (int) readVarLong();
+		cols = (int) readVarLong();
+		mines = (int) readVarLong();
+		seed = (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
+
+		if (rows <= 0 || cols <= 0 || mines <= 0)
+			throw new IOException("Invalid board: " + rows + "x" + cols + ", " + mines + " mines");
+	}
+
+	/**
+	 * Reads the next move.
+	 *
+	 * @return <b>true</b> if a move was read, <b>false</b> at the end of the replay.
+	 *
+	 * @throws IOException when an IO error has occurred, the last move is incomplete, or a move is invalid.
+	 */
+	public boolean next() throws IOException
+	{
+		if (!fill(1))
+			return false;
+
+		long record = readVarLong();
+		int code = (int) (record & (1 << ReplayFormat.CODE_BITS) - 1);
+		long nextDelay = record >>> ReplayFormat.CODE_BITS;
+		int nextAction = code % ReplayFormat.ACTION_COUNT;
+		int nearCell = code / ReplayFormat.ACTION_COUNT;
+
+		int nextCell;
+		if (nearCell < ReplayFormat.FAR)
+		{
+			int row = cell / cols + nearCell / ReplayFormat.NEAR_SIZE - ReplayFormat.NEAR_DISTANCE;
+			int col = cell % cols + nearCell % ReplayFormat.NEAR_SIZE - ReplayFormat.NEAR_DISTANCE;
+			nextCell = col >= 0 && col < cols ? row * cols + col : -1;
+		}
+		else if (nearCell == ReplayFormat.FAR)
+		{
+			nextCell = cell + ReplayFormat.unZigZag((int) readVarLong());
+		}
+		else
+		{
+			throw new IOException("Invalid move at " + moves + ": code " + code);
+		}
+
+		if (nextCell < 0 || nextCell >= rows * cols)
+			throw new IOException("Invalid move at " + moves + ": cell is out of bounds");
+
+		action = nextAction;
+		cell = nextCell;
+		delay = nextDelay;
+		time += nextDelay;
+		moves++;
+		return true;
+	}
+
+	/**
+	 * Closes the channel.
+	 *
+	 * @throws IOException when an IO error has occurred.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	private boolean fill(int bytes) throws IOException
+	{
+		if (buffer.remaining() >= bytes)
+			return true;
+
+		buffer.compact();
+		while (buffer.position() < bytes)
+		{
+			if (channel.read(buffer) < 0)
+				break;
+		}
+		buffer.flip();
+
+		return buffer.remaining() >= bytes;
+	}
+
+	private int readByte() throws IOException
+	{
+		if (!fill(1))
+			throw new EOFException("The replay ended in the middle of a record");
+
+		return buffer.get() & 0xFF;
+	}
+
+	private int readInt() throws IOException
+	{
+		if (!fill(Integer.BYTES))
+			throw new EOFException("The replay ended in the middle of a record");
+
+		return buffer.getInt();
+	}
+
+	private long readVarLong() throws IOException
+	{
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7)
+		{
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	/**
+	 * Returns the number of rows of the board.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the number of mines.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return mines;
+	}
+
+	/**
+	 * Returns the seed of the mines.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * Returns the action of the last move read.
+	 *
+	 * @return One of the actions of {@link ReplayFormat}, like {@link ReplayFormat#ACTION_OPEN}.
+	 */
+	public int getAction()
+	{
+		return action;
+	}
+
+	/**
+	 * Returns the index of the cell of the last move read.
+	 *
+	 * @return The index of the cell, row by row.
+	 */
+	public int getCell()
+	{
+		return cell;
+	}
+
+	/**
+	 * Returns the number of milliseconds between the last move read and the move before it.
+	 *
+	 * @return The delay of the move, 0 for the first move.
+	 */
+	public long getDelay()
+	{
+		return delay;
+	}
+
+	/**
+	 * Returns the time of the last move read, in milliseconds since the first move.
+	 *
+	 * @return The time of the move.
+	 */
+	public long getTime()
+	{
+		return time;
+	}
+
+	/**
+	 * Returns the number of moves read so far.
+	 *
+	 * @return The number of moves.
+	 */
+	public int getMoveCount()
+	{
+		return moves;
+	}
+}
@@ -0,0 +1,176 @@
+package minesweeper.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes a replay into a channel, one move at a time, while the game is being played.
+ * <p>
+ * The header and the moves are collected in a buffer of {@link #BUFFER_SIZE} bytes, which is written into the channel
+ * when it's full, when {@link #flush()} is called, and when the writer is closed. A game is never serialized as a
+ * whole, so recording costs the same for every move, however long the game is. See {@link ReplayFormat} for the
+ * format.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class ReplayWriter implements Closeable
+{
+	/**
+	 * The size of the buffer, which holds a few hundred moves.
+	 */
+	public final static int BUFFER_SIZE = 1024;
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+	private final int cols;
+	private final int cells;
+	private int previousCell;
+	private long previousTime;
+	private int moves;
+	private long size;
+
+	/**
+	 * Creates a new writer, and puts the header of the replay into its buffer.
+	 *
+	 * @param channel The channel to write the replay into. It's closed with the writer.
+	 * @param rows The number of rows of the board.
+	 * @param cols The number of columns of the board.
+	 * @param mines The number of mines.
+	 * @param seed The seed of the mines, see {@link minesweeper.engine.GameSeed GameSeed}.
+	 *
+	 * @throws IllegalArgumentException when the size of the board or the number of mines is not positive.
+	 */
+	public ReplayWriter(WritableByteChannel channel, int rows, int cols, int mines, long seed)
+	{
+		if (rows <= 0 || cols <= 0 || mines <= 0)
+			throw new IllegalArgumentException("Invalid board: " + rows + "x" + cols + ", " + mines + " mines");
+
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		this.cols = cols;
+		this.cells = rows * cols;
+
+		buffer.putInt(ReplayFormat.MAGIC);
+		buffer.put((byte) ReplayFormat.VERSION);
+		ReplayFormat.putVarLong(buffer, rows);
+		ReplayFormat.putVarLong(buffer, cols);
+		ReplayFormat.putVarLong(buffer, mines);
+		buffer.putLong(seed);
+	}
+
+	/**
+	 * Records a move. The buffer is written into the channel first, if the move doesn't fit into it.
+	 *
+	 * @param action The action of the move, one of the actions of {@link ReplayFormat}, like
+	 *            {@link ReplayFormat#ACTION_OPEN}.
+	 * @param cell The index of the cell of the move, row by row.
+	 * @param time The time of the move in milliseconds, from any clock, but it must not go backwards. The time of the
+	 *            first move is the start of the replay.
+	 *
+	 * @throws IOException when the buffer couldn't be written into the channel.
+	 * @throws IllegalArgumentException when the action or the cell is invalid, or the time went backwards.
+	 */
+	public void write(int action, int cell, long time) throws IOException
+	{
+		if (action < 0 || action >= ReplayFormat.ACTION_COUNT)
+			throw new IllegalArgumentException("Invalid action: " + action);
+		if (cell < 0 || cell >= cells)
+			throw new IllegalArgumentException("Cell is out of bounds: " + cell);
+		if (moves == 0)
+			previousTime = time;
+		if (time < previousTime)
+			throw new IllegalArgumentException("Time went backwards: " + time + " < " + previousTime);
+
+		if (buffer.remaining() < ReplayFormat.MAX_RECORD_LENGTH)
+			flush();
+
+		int rowDistance = cell / cols - previousCell / cols;
+		int colDistance = cell % cols - previousCell % cols;
+		boolean near = Math.abs(rowDistance) <= ReplayFormat.NEAR_DISTANCE && Math.abs(colDistance) <= ReplayFormat.NEAR_DISTANCE;
+		int nearCell = (rowDistance + ReplayFormat.NEAR_DISTANCE) * ReplayFormat.NEAR_SIZE + colDistance + ReplayFormat.NEAR_DISTANCE;
+		int code = (near ? nearCell : ReplayFormat.FAR) * ReplayFormat.ACTION_COUNT + action;
+
+		ReplayFormat.putVarLong(buffer, (time - previousTime) << ReplayFormat.CODE_BITS | code);
+		if (!near)
+			ReplayFormat.putVarLong(buffer, Integer.toUnsignedLong(ReplayFormat.zigZag(cell - previousCell)));
+
+		previousCell = cell;
+		previousTime = time;
+		moves++;
+	}
+
+	/**
+	 * Records a move without a cell of its own, like {@link ReplayFormat#ACTION_UNDO}, with the cell of the previous
+	 * move.
+	 *
+	 * @param action The action of the move.
+	 * @param time The time of the move in milliseconds, see {@link #write(int, int, long)}.
+	 *
+	 * @throws IOException when the buffer couldn't be written into the channel.
+	 * @throws IllegalArgumentException when the action is invalid, or the time went backwards.
+	 */
+	public void write(int action, long time) throws IOException
+	{
+		write(action, previousCell, time);
+	}
+
+	/**
+	 * Writes the buffered moves into the channel.
+	 *
+	 * @throws IOException when an IO error has occurred.
+	 */
+	public void flush() throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			size += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Flushes the buffered moves, and closes the channel.
+	 *
+	 * @throws IOException when an IO error has occurred.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (!channel.isOpen())
+			return;
+
+		try
+		{
+			flush();
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+
+	/**
+	 * Returns the number of recorded moves.
+	 *
+	 * @return The number of moves.
+	 */
+	public int getMoveCount()
+	{
+		return moves;
+	}
+
+	/**
+	 * Returns the size of the replay, including the moves that are not flushed yet.
+	 *
+	 * @return The number of bytes of the replay.
+	 */
+	public long getSize()
+	{
+		return size + buffer.position();
+	}
+}
@@ -0,0 +1,15 @@
+/**
+ * Replays of games, stored in a compact binary format.
+ * <p>
+ * A replay starts with a header describing the board: the rows, the columns, the mines and the seed, which regenerate
+ * the mines together with the first opened cell, just like a {@link minesweeper.engine.GameSeed GameSeed}. Then every
+ * move follows as a record of variable-length integers: the cell, the action and the milliseconds since the previous
+ * move. See {@link minesweeper.replay.ReplayFormat ReplayFormat} for the details.
+ * </p>
+ * <p>
+ * The {@link minesweeper.replay.ReplayWriter ReplayWriter} writes the moves into a channel while the game is played,
+ * and the {@link minesweeper.replay.ReplayReader ReplayReader} reads them back. The
+ * {@link minesweeper.replay.ReplayPlayer ReplayPlayer} plays them back, and shows the board after any move.
+ * </p>
+ */
+package minesweeper.replay;
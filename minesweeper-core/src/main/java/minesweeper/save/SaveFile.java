@@ -0,0 +1,412 @@
+package minesweeper.save;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+
+/**
+ * A snapshot of an unfinished game, stored in a memory-mapped file with a fixed layout.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: the 4 bytes of {@link #MAGIC}, the {@link #VERSION},
+ * the rows, the columns, the mines, the index of the first clicked cell and the seed of the game, the elapsed time in
+ * seconds and the {@link #FLAG_PRACTICE flags}. Then comes the mine layer, one bit for every cell, and the state layer,
+ * 2 bits for every cell, both in little-endian longs, so the snapshot of a <i>Hard</i> game is 248 bytes, and the one
+ * of a 10000x10000 board is about 38 megabytes.
+ * </p>
+ * <p>
+ * The whole file is mapped into memory once, when it's created or opened. Every state change of the game is written
+ * through by {@link #setState(int, int)}, which changes 2 bits in memory, so the game is never saved as a whole. Saving
+ * is only {@link #force() forcing} the changed pages to the disk, which can be done on any thread, and the operating
+ * system writes the pages even if the game crashes.
+ * </p>
+ * <p>
+ * The values of the cells are not stored, because they can be counted from the mines. {@link #load(Board)} writes the
+ * mines and the states into a new board, and lets the board count the neighbours, in the fastest way it can. So
+ * resuming a game does count the neighbours again, unlike reading a stored value layer, but that's the cheaper of the
+ * two: the value layer would take 4 more bits for every cell, 50 megabytes on a 10000x10000 board, and loading it
+ * would write the value of every cell. The boards of the huge games only mark their values when they are counted, and
+ * count a cell when it's read, so counting takes about 7 milliseconds of the 100 of loading a 10000x10000 board, and
+ * about 40 microseconds on a <i>Hard</i> board, which counts eagerly.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class SaveFile implements Closeable
+{
+	/**
+	 * The first bytes of every save file: "MSSG".
+	 */
+	public final static int MAGIC = 0x4D535347;
+	/**
+	 * The version of the format.
+	 */
+	public final static int VERSION = 1;
+	/**
+	 * The number of bytes before the mine layer.
+	 */
+	public final static int HEADER_SIZE = 64;
+	/**
+	 * The game became a practice game, because a move was undone.
+	 */
+	public final static int FLAG_PRACTICE = 1;
+
+	private final static int MAGIC_OFFSET = 0;
+	private final static int VERSION_OFFSET = 4;
+	private final static int ROWS_OFFSET = 8;
+	private final static int COLS_OFFSET = 12;
+	private final static int MINES_OFFSET = 16;
+	private final static int FIRST_CELL_OFFSET = 20;
+	private final static int SEED_OFFSET = 24;
+	private final static int ELAPSED_TIME_OFFSET = 32;
+	private final static int FLAGS_OFFSET = 36;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int rows;
+	private final int cols;
+	private final int size;
+	private final int stateOffset;
+
+	private SaveFile(FileChannel channel, MappedByteBuffer buffer, int rows, int cols)
+	{
+		this.channel = channel;
+		this.buffer = buffer;
+		this.rows = rows;
+		this.cols = cols;
+		this.size = rows * cols;
+		this.stateOffset = HEADER_SIZE + mineWords(size) * 8;
+
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Creates a new save file, or overwrites an existing one, with the mines and the states of the given board.
+	 *
+	 * @param path The path of the file.
+	 * @param board The board of the game, after the mines are placed.
+	 * @param mines The number of mines.
+	 * @param seed The seed of the game.
+	 * @param firstCell The index of the first clicked cell.
+	 * @return The save file, mapped into memory.
+	 *
+	 * @throws IOException when an IO error has occurred.
+	 */
+	public static SaveFile create(Path path, Board board, int mines, long seed, int firstCell) throws IOException
+	{
+		int size = board.size();
+		long length = HEADER_SIZE + (mineWords(size) + stateWords(size)) * 8L;
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		SaveFile saveFile;
+		try
+		{
+			saveFile = new SaveFile(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length), board.getRows(), board.getCols());
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+
+		MappedByteBuffer buffer = saveFile.buffer;
+		buffer.putInt(MAGIC_OFFSET, MAGIC);
+		buffer.putInt(VERSION_OFFSET, VERSION);
+		buffer.putInt(ROWS_OFFSET, board.getRows());
+		buffer.putInt(COLS_OFFSET, board.getCols());
+		buffer.putInt(MINES_OFFSET, mines);
+		buffer.putInt(FIRST_CELL_OFFSET, firstCell);
+		buffer.putLong(SEED_OFFSET, seed);
+
+		// One pass over the board fills a mine word and the two state words of the same 64 cells.
+		for (int word = 0; word < mineWords(size); word++)
+		{
+			long mineWord = 0;
+			long lowStates = 0;
+			long highStates = 0;
+			int first = word << 6;
+			int last = Math.min(first + 64, size);
+			for (int index = first; index < last; index++)
+			{
+				if (board.getValue(index) == CellValues.CELL_MINE)
+					mineWord |= 1L << index;
+
+				long state = board.getState(index) - Board.STATE_HIDDEN;
+				if (index - first < 32)
+					lowStates |= state << ((index & 31) << 1);
+				else
+					highStates |= state << ((index & 31) << 1);
+			}
+
+			buffer.putLong(HEADER_SIZE + word * 8, mineWord);
+			buffer.putLong(saveFile.stateOffset + word * 16, lowStates);
+			if (word * 2 + 1 < stateWords(size))
+				buffer.putLong(saveFile.stateOffset + word * 16 + 8, highStates);
+		}
+
+		return saveFile;
+	}
+
+	/**
+	 * Opens an existing save file, and maps it into memory.
+	 *
+	 * @param path The path of the file.
+	 * @return The save file.
+	 *
+	 * @throws IOException when an IO error has occurred, or the file is not a save file of a supported version.
+	 */
+	public static SaveFile open(Path path) throws IOException
+	{
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			if (channel.size() < HEADER_SIZE)
+				throw new IOException("Not a save file");
+
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(MAGIC_OFFSET) != MAGIC)
+				throw new IOException("Not a save file");
+			int version = header.getInt(VERSION_OFFSET);
+			if (version != VERSION)
+				throw new IOException("Unsupported save file version: " + version);
+
+			int rows = header.getInt(ROWS_OFFSET);
+			int cols = header.getInt(COLS_OFFSET);
+			int mines = header.getInt(MINES_OFFSET);
+			if (rows <= 0 || cols <= 0 || mines <= 0 || (long) rows * cols > Integer.MAX_VALUE)
+				throw new IOException("Invalid board: " + rows + "x" + cols + ", " + mines + " mines");
+
+			long length = HEADER_SIZE + (mineWords(rows * cols) + stateWords(rows * cols)) * 8L;
+			if (channel.size() != length)
+				throw new IOException("Invalid save file length: " + channel.size() + ", expected " + length);
+
+			return new SaveFile(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length), rows, cols);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the mines and the states of the snapshot into a new board, then counts the neighbours of the cells on the
+	 * board.
+	 * <p>
+	 * The values are not read from the file, they are counted again, which is a single pass over the board, and only
+	 * marks the values of the boards that count lazily. See the cost in the description of the class.
+	 * </p>
+	 *
+	 * @param board A new board of the same size, with every cell hidden and empty.
+	 *
+	 * @throws IllegalArgumentException when the size of the board is different.
+	 *
+	 * @see Board#countNeighbours()
+	 */
+	public void load(Board board)
+	{
+		if (board.getRows() != rows || board.getCols() != cols)
+			throw new IllegalArgumentException("The board is " + board.getRows() + "x" + board.getCols() + ", the save file is " + rows + "x" + cols);
+
+		for (int word = 0; word < mineWords(size); word++)
+		{
+			long mineWord = buffer.getLong(HEADER_SIZE + word * 8);
+			while (mineWord != 0)
+			{
+				board.setValue((word << 6) + Long.numberOfTrailingZeros(mineWord), CellValues.CELL_MINE);
+				mineWord &= mineWord - 1;
+			}
+		}
+		board.countNeighbours();
+
+		// Hidden cells are zeros, and the board is already hidden, so only the other states are written.
+		for (int word = 0; word < stateWords(size); word++)
+		{
+			long stateWord = buffer.getLong(stateOffset + word * 8);
+			while (stateWord != 0)
+			{
+				int shift = Long.numberOfTrailingZeros(stateWord) & ~1;
+				board.setState((word << 5) + (shift >>> 1), (int) (stateWord >>> shift & 0b11) + Board.STATE_HIDDEN);
+				stateWord &= ~(0b11L << shift);
+			}
+		}
+	}
+
+	/**
+	 * Changes the state of a cell in the snapshot.
+	 *
+	 * @param index The index of the cell.
+	 * @param state The new state, one of the {@code STATE_} constants of {@link Board}.
+	 */
+	public void setState(int index, int state)
+	{
+		int offset = stateOffset + (index >>> 5) * 8;
+		int shift = (index & 31) << 1;
+		long word = buffer.getLong(offset) & ~(0b11L << shift);
+		buffer.putLong(offset, word | (long) ((state - Board.STATE_HIDDEN) & 0b11) << shift);
+	}
+
+	/**
+	 * Returns the state of a cell in the snapshot.
+	 *
+	 * @param index The index of the cell.
+	 * @return The state, one of the {@code STATE_} constants of {@link Board}.
+	 */
+	public int getState(int index)
+	{
+		return (int) (buffer.getLong(stateOffset + (index >>> 5) * 8) >>> ((index & 31) << 1) & 0b11) + Board.STATE_HIDDEN;
+	}
+
+	/**
+	 * Counts the cells with the given state, without reading them one by one.
+	 *
+	 * @param state The state, one of the {@code STATE_} constants of {@link Board}.
+	 * @return The number of cells with the given state.
+	 */
+	public int count(int state)
+	{
+		// Every 2-bit pair equal to the state becomes 11 after the xor with its complement, then the pairs are counted.
+		long pattern = ~((state - Board.STATE_HIDDEN) * 0x5555555555555555L);
+		int count = 0;
+		for (int word = 0; word < stateWords(size); word++)
+		{
+			long matches = buffer.getLong(stateOffset + word * 8) ^ pattern;
+			count += Long.bitCount(matches & matches >>> 1 & 0x5555555555555555L);
+		}
+
+		// The unused pairs of the last word are zeros, which are counted as hidden.
+		if (state == Board.STATE_HIDDEN)
+			count -= stateWords(size) * 32 - size;
+
+		return count;
+	}
+
+	/**
+	 * Forces every change of the snapshot to be written to the disk.
+	 */
+	public void force()
+	{
+		buffer.force();
+	}
+
+	/**
+	 * Closes the file. The snapshot should not be changed after this.
+	 *
+	 * @throws IOException when an IO error has occurred.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	/**
+	 * Returns the number of rows of the board.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the number of mines on the board.
+	 *
+	 * @return The number of mines.
+	 */
+	public int getMines()
+	{
+		return buffer.getInt(MINES_OFFSET);
+	}
+
+	/**
+	 * Returns the index of the first clicked cell, which together with the seed describes the game.
+	 *
+	 * @return The index of the first clicked cell.
+	 */
+	public int getFirstCell()
+	{
+		return buffer.getInt(FIRST_CELL_OFFSET);
+	}
+
+	/**
+	 * Returns the seed of the game.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return buffer.getLong(SEED_OFFSET);
+	}
+
+	/**
+	 * Returns the elapsed time of the game.
+	 *
+	 * @return The elapsed time in seconds.
+	 */
+	public int getElapsedTime()
+	{
+		return buffer.getInt(ELAPSED_TIME_OFFSET);
+	}
+
+	/**
+	 * Sets the elapsed time of the game.
+	 *
+	 * @param elapsedTime The elapsed time in seconds.
+	 */
+	public void setElapsedTime(int elapsedTime)
+	{
+		buffer.putInt(ELAPSED_TIME_OFFSET, elapsedTime);
+	}
+
+	/**
+	 * Returns whether the game is a practice game.
+	 *
+	 * @return <b>true</b>, if the game is a practice game, <b>false</b> otherwise.
+	 */
+	public boolean isPractice()
+	{
+		return (buffer.getInt(FLAGS_OFFSET) & FLAG_PRACTICE) != 0;
+	}
+
+	/**
+	 * Sets whether the game is a practice game.
+	 *
+	 * @param practice <b>true</b>, if the game is a practice game.
+	 */
+	public void setPractice(boolean practice)
+	{
+		int flags = buffer.getInt(FLAGS_OFFSET);
+		buffer.putInt(FLAGS_OFFSET, practice ? flags | FLAG_PRACTICE : flags & ~FLAG_PRACTICE);
+	}
+
+	private static int mineWords(int size)
+	{
+		return (size + 63) >>> 6;
+	}
+
+	private static int stateWords(int size)
+	{
+		return (size + 31) >>> 5;
+	}
+}
@@ -0,0 +1,9 @@
+/**
+ * Snapshots of unfinished games, which can be resumed after the game is restarted.
+ * <p>
+ * A {@link minesweeper.save.SaveFile SaveFile} is a file with a fixed layout, mapped into memory: a header with the
+ * board, the seed and the elapsed time, a layer of the mines and a layer of the states of the cells. The states are
+ * written through while the game is played, so saving the game only flushes the mapped pages to the disk.
+ * </p>
+ */
+package minesweeper.save;
@@ -0,0 +1,419 @@
+package minesweeper.solver;
+
+import java.util.Arrays;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.Topology;
+
+/**
+ * Keeps the frontier of a game up to date as cells are opened, and finds every hidden cell which is certainly safe or
+ * certainly a mine.
+ * <p>
+ * The frontier is every opened number which still has hidden neighbours. Each of them is a constraint: its hidden
+ * neighbours contain exactly as many mines as its value, minus the neighbours already known to be mines. The solver
+ * only reads the values of opened cells, and ignores the flags of the player, which can be wrong.
+ * </p>
+ * <p>
+ * After cells are opened, {@link #update(int...)} only touches the constraints around them. A changed constraint is
+ * queued, then checked on its own, and against every frontier cell at most two cells away (if the unknown cells of one
+ * are a subset of the other's, the rest of the larger one can be all safe or all mines). Every new safe cell or mine
+ * queues the constraints around it, until nothing changes. The frontier, the safe cells and the mines are kept in
+ * {@link IntSet}s, and the neighbours come from {@link NeighbourTable}s, so an update costs about as much as the number
+ * of changed cells, even on the largest boards.
+ * </p>
+ * <p>
+ * A solver belongs to a single board, and is not thread-safe. The tables only know the square grid, so the board
+ * must be {@link Topology#SQUARE square}.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class FrontierSolver
+{
+	private final Board board;
+	private final NeighbourTable neighbours;
+	private final NeighbourTable nearby;
+
+	private final IntSet frontier;
+	private final IntSet safeCells;
+	private final IntSet mineCells;
+	private final IntSet queued;
+	private int[] queue;
+	private int queueSize;
+
+	private final int[] unknownA;
+	private final int[] unknownB;
+
+	/**
+	 * Creates a new solver for the given board. The board is not scanned, so if it already has opened cells,
+	 * {@link #rebuild()} must be called.
+	 *
+	 * @param board The board.
+	 *
+	 * @throws IllegalArgumentException when the board is not square.
+	 */
+	public FrontierSolver(Board board)
+	{
+		if (board.getTopology() != Topology.SQUARE)
+			throw new IllegalArgumentException("The frontier solver only works on square boards, not on " + board.getTopology());
+
+		this.board = board;
+		this.neighbours = new NeighbourTable(board.getRows(), board.getCols(), 1);
+		this.nearby = new NeighbourTable(board.getRows(), board.getCols(), 2);
+
+		frontier = new IntSet();
+		safeCells = new IntSet();
+		mineCells = new IntSet();
+		queued = new IntSet();
+		queue = new int[16];
+
+		unknownA = new int[8];
+		unknownB = new int[8];
+	}
+
+	/**
+	 * Updates the frontier after the given cells were opened, then finds the new safe cells and mines.
+	 * <p>
+	 * The cells must already be opened on the board when this is called.
+	 * </p>
+	 *
+	 * @param opened The indices of the opened cells.
+	 */
+	public void update(int... opened)
+	{
+		update(opened, opened.length);
+	}
+
+	/**
+	 * Updates the frontier after the first given number of cells of the array were opened. This is the same as
+	 * {@link #update(int...)}, but it takes the result of {@link minesweeper.engine.FloodFill#fill(int)} without
+	 * copying it.
+	 *
+	 * @param opened The array of the indices of the opened cells.
+	 * @param count The number of opened cells, from the start of the array.
+	 */
+	public void update(int[] opened, int count)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			int cell = opened[i];
+			safeCells.remove(cell);
+			mineCells.remove(cell);
+
+			if (board.getValue(cell) != CellValues.CELL_EMPTY && hasHiddenNeighbour(cell))
+			{
+				frontier.add(cell);
+				offer(cell);
+			}
+
+			for (int offset : neighbours.offsets(cell))
+			{
+				int neighbour = cell + offset;
+				if (frontier.contains(neighbour))
+				{
+					if (hasHiddenNeighbour(neighbour))
+						offer(neighbour);
+					else
+						frontier.remove(neighbour);
+				}
+			}
+		}
+
+		propagate();
+	}
+
+	/**
+	 * Forgets everything, and builds the frontier again by scanning the whole board. This is only needed when the
+	 * board already had opened cells when the solver was created, or it was changed without calling
+	 * {@link #update(int...)}.
+	 */
+	public void rebuild()
+	{
+		frontier.clear();
+		safeCells.clear();
+		mineCells.clear();
+		queued.clear();
+		queueSize = 0;
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (board.getState(i) == Board.STATE_CLICKED && board.getValue(i) != CellValues.CELL_EMPTY && hasHiddenNeighbour(i))
+			{
+				frontier.add(i);
+				offer(i);
+			}
+		}
+
+		propagate();
+	}
+
+	/**
+	 * Checks the queued constraints until none are left.
+	 */
+	private void propagate()
+	{
+		while (queueSize > 0)
+		{
+			int cell = queue[--queueSize];
+			queued.remove(cell);
+
+			if (frontier.contains(cell) && !checkSingle(cell))
+				checkSubsets(cell);
+		}
+	}
+
+	/**
+	 * Checks a constraint on its own.
+	 *
+	 * @return <b>true</b> if a new safe cell or mine was found.
+	 */
+	private boolean checkSingle(int cell)
+	{
+		int unknown = collectUnknown(cell, unknownA);
+		int missing = countMissing(cell);
+
+		if (unknown == 0 || (missing != 0 && missing != unknown))
+			return false;
+
+		for (int i = 0; i < unknown; i++)
+		{
+			resolve(unknownA[i], missing == 0);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks a constraint against every other constraint at most two cells away, until the first deduction.
+	 */
+	private void checkSubsets(int a)
+	{
+		int unknownCountA = collectUnknown(a, unknownA);
+		if (unknownCountA == 0)
+			return;
+		int missingA = countMissing(a);
+
+		for (int offset : nearby.offsets(a))
+		{
+			int b = a + offset;
+			if (!frontier.contains(b))
+				continue;
+
+			int unknownCountB = collectUnknown(b, unknownB);
+			int missingB = countMissing(b);
+
+			if (unknownCountA < unknownCountB && isSubset(unknownA, unknownCountA, unknownB, unknownCountB))
+			{
+				if (resolveDifference(unknownB, unknownCountB, unknownA, unknownCountA, missingB - missingA))
+				{
+					offer(a);
+					return;
+				}
+			}
+			else if (unknownCountB < unknownCountA && isSubset(unknownB, unknownCountB, unknownA, unknownCountA))
+			{
+				if (resolveDifference(unknownA, unknownCountA, unknownB, unknownCountB, missingA - missingB))
+				{
+					offer(a);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolves the cells of the larger set which are not in the smaller one, if they are all safe or all mines.
+	 *
+	 * @return <b>true</b> if they were resolved.
+	 */
+	private boolean resolveDifference(int[] larger, int largerCount, int[] smaller, int smallerCount, int mines)
+	{
+		int difference = largerCount - smallerCount;
+		if (mines != 0 && mines != difference)
+			return false;
+
+		for (int i = 0; i < largerCount; i++)
+		{
+			if (!contains(smaller, smallerCount, larger[i]))
+				resolve(larger[i], mines == 0);
+		}
+
+		return true;
+	}
+
+	private void resolve(int cell, boolean safe)
+	{
+		if (safe)
+			safeCells.add(cell);
+		else
+			mineCells.add(cell);
+
+		for (int offset : neighbours.offsets(cell))
+		{
+			int neighbour = cell + offset;
+			if (frontier.contains(neighbour))
+				offer(neighbour);
+		}
+	}
+
+	/**
+	 * Collects the hidden neighbours of a cell, which are not known to be safe or mines yet.
+	 *
+	 * @return The number of collected cells.
+	 */
+	private int collectUnknown(int cell, int[] buffer)
+	{
+		int count = 0;
+		for (int offset : neighbours.offsets(cell))
+		{
+			int neighbour = cell + offset;
+			if (board.getState(neighbour) != Board.STATE_CLICKED && !safeCells.contains(neighbour) && !mineCells.contains(neighbour))
+				buffer[count++] = neighbour;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the number of mines around a cell which are not known yet.
+	 */
+	private int countMissing(int cell)
+	{
+		int missing = board.getValue(cell);
+		for (int offset : neighbours.offsets(cell))
+		{
+			if (mineCells.contains(cell + offset))
+				missing--;
+		}
+
+		return missing;
+	}
+
+	private boolean hasHiddenNeighbour(int cell)
+	{
+		for (int offset : neighbours.offsets(cell))
+		{
+			if (board.getState(cell + offset) != Board.STATE_CLICKED)
+				return true;
+		}
+
+		return false;
+	}
+
+	private static boolean isSubset(int[] subset, int subsetCount, int[] set, int setCount)
+	{
+		for (int i = 0; i < subsetCount; i++)
+		{
+			if (!contains(set, setCount, subset[i]))
+				return false;
+		}
+
+		return true;
+	}
+
+	private static boolean contains(int[] values, int count, int value)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			if (values[i] == value)
+				return true;
+		}
+
+		return false;
+	}
+
+	private void offer(int cell)
+	{
+		if (queued.add(cell))
+		{
+			if (queueSize == queue.length)
+				queue = Arrays.copyOf(queue, queue.length * 2);
+			queue[queueSize++] = cell;
+		}
+	}
+
+	/**
+	 * Returns whether a hidden cell is certainly safe.
+	 *
+	 * @param index The index of the cell.
+	 * @return <b>true</b> if the cell is known to be safe.
+	 */
+	public boolean isSafe(int index)
+	{
+		return safeCells.contains(index);
+	}
+
+	/**
+	 * Returns whether a hidden cell is certainly a mine.
+	 *
+	 * @param index The index of the cell.
+	 * @return <b>true</b> if the cell is known to be a mine.
+	 */
+	public boolean isMine(int index)
+	{
+		return mineCells.contains(index);
+	}
+
+	/**
+	 * Returns whether an opened cell is on the frontier.
+	 *
+	 * @param index The index of the cell.
+	 * @return <b>true</b> if the cell is an opened number with hidden neighbours.
+	 */
+	public boolean isOnFrontier(int index)
+	{
+		return frontier.contains(index);
+	}
+
+	/**
+	 * Returns the hidden cells which are certainly safe.
+	 *
+	 * @return The indices of the cells, in ascending order.
+	 */
+	public int[] getSafeCells()
+	{
+		return safeCells.toArray();
+	}
+
+	/**
+	 * Returns the hidden cells which are certainly mines.
+	 *
+	 * @return The indices of the cells, in ascending order.
+	 */
+	public int[] getMineCells()
+	{
+		return mineCells.toArray();
+	}
+
+	/**
+	 * Returns the opened numbers which have hidden neighbours.
+	 *
+	 * @return The indices of the cells, in ascending order.
+	 */
+	public int[] getFrontier()
+	{
+		return frontier.toArray();
+	}
+
+	/**
+	 * Returns the number of cells on the frontier.
+	 *
+	 * @return The size of the frontier.
+	 */
+	public int getFrontierSize()
+	{
+		return frontier.size();
+	}
+
+	/**
+	 * Returns the board of the solver.
+	 *
+	 * @return The board.
+	 */
+	public Board getBoard()
+	{
+		return board;
+	}
+}
@@ -0,0 +1,204 @@
+package minesweeper.solver;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of non-negative ints, stored in an open addressing hash table, without boxing.
+ * <p>
+ * The table uses linear probing with a power of two capacity, and is kept at most half full. Removing an element
+ * shifts the following elements of its probe sequence back, so there are no tombstones, and the cost of every operation
+ * stays constant no matter how many elements were added and removed before.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class IntSet
+{
+	private final static int EMPTY = -1;
+
+	private int[] table;
+	private int mask;
+	private int size;
+
+	/**
+	 * Creates a new, empty set.
+	 */
+	public IntSet()
+	{
+		this(16);
+	}
+
+	/**
+	 * Creates a new, empty set, which can hold the given number of elements without growing.
+	 *
+	 * @param expectedSize The expected number of elements.
+	 */
+	public IntSet(int expectedSize)
+	{
+		int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+		table = new int[capacity];
+		Arrays.fill(table, EMPTY);
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Adds an element to the set.
+	 *
+	 * @param value The element, must not be negative.
+	 * @return <b>true</b> if the element was not in the set yet.
+	 */
+	public boolean add(int value)
+	{
+		int slot = find(value);
+		if (table[slot] == value)
+			return false;
+
+		table[slot] = value;
+		if (++size * 2 > table.length)
+			grow();
+
+		return true;
+	}
+
+	/**
+	 * Removes an element from the set.
+	 *
+	 * @param value The element.
+	 * @return <b>true</b> if the element was in the set.
+	 */
+	public boolean remove(int value)
+	{
+		int slot = find(value);
+		if (table[slot] != value)
+			return false;
+
+		// Moves back every following element of the cluster, which would not be found after the gap otherwise.
+		int gap = slot;
+		for (int i = (gap + 1) & mask; table[i] != EMPTY; i = (i + 1) & mask)
+		{
+			int home = hash(table[i]);
+			if (((i - home) & mask) >= ((i - gap) & mask))
+			{
+				table[gap] = table[i];
+				gap = i;
+			}
+		}
+		table[gap] = EMPTY;
+		size--;
+
+		return true;
+	}
+
+	/**
+	 * Returns whether the set contains an element.
+	 *
+	 * @param value The element.
+	 * @return <b>true</b> if the element is in the set.
+	 */
+	public boolean contains(int value)
+	{
+		return value >= 0 && table[find(value)] == value;
+	}
+
+	/**
+	 * Returns the number of elements.
+	 *
+	 * @return The size of the set.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns whether the set is empty.
+	 *
+	 * @return <b>true</b> if the set has no elements.
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Removes every element.
+	 */
+	public void clear()
+	{
+		if (size > 0)
+		{
+			Arrays.fill(table, EMPTY);
+			size = 0;
+		}
+	}
+
+	/**
+	 * Calls the action with every element, in no particular order. The set must not be modified by the action.
+	 *
+	 * @param action The action.
+	 */
+	public void forEach(IntConsumer action)
+	{
+		for (int value : table)
+		{
+			if (value != EMPTY)
+				action.accept(value);
+		}
+	}
+
+	/**
+	 * Returns the elements in a new array, in ascending order.
+	 *
+	 * @return The elements.
+	 */
+	public int[] toArray()
+	{
+		int[] values = new int[size];
+		int count = 0;
+		for (int value : table)
+		{
+			if (value != EMPTY)
+				values[count++] = value;
+		}
+		Arrays.sort(values);
+
+		return values;
+	}
+
+	/**
+	 * Returns the slot of the element, or the empty slot where it would be added.
+	 */
+	private int find(int value)
+	{
+		int slot = hash(value);
+		while (table[slot] != EMPTY && table[slot] != value)
+		{
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	private int hash(int value)
+	{
+		// Neighbouring cells have consecutive indices, so the bits are mixed before masking.
+		int h = value * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	private void grow()
+	{
+		int[] old = table;
+		table = new int[old.length * 2];
+		Arrays.fill(table, EMPTY);
+		mask = table.length - 1;
+
+		for (int value : old)
+		{
+			if (value != EMPTY)
+				table[find(value)] = value;
+		}
+	}
+}
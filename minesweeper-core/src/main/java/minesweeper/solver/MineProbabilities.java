@@ -0,0 +1,93 @@
+package minesweeper.solver;
+
+/**
+ * The mine probability of every cell of a board, computed by a {@link ProbabilityEngine}.
+ * <p>
+ * Opened cells have no probability, they are marked with {@link Double#NaN}. Every other cell, including the flagged
+ * ones, has the exact probability of being a mine, considering every layout which agrees with the opened numbers and
+ * the total number of mines.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class MineProbabilities
+{
+	private final int rows;
+	private final int cols;
+	private final double[] probabilities;
+
+	/**
+	 * Creates a new result.
+	 *
+	 * @param rows The number of rows of the board.
+	 * @param cols The number of columns of the board.
+	 * @param probabilities The probability of every cell, {@link Double#NaN} for the opened ones.
+	 */
+	public MineProbabilities(int rows, int cols, double[] probabilities)
+	{
+		this.rows = rows;
+		this.cols = cols;
+		this.probabilities = probabilities;
+	}
+
+	/**
+	 * Returns the mine probability of a cell.
+	 *
+	 * @param index The index of the cell.
+	 * @return The probability, between 0 and 1, or {@link Double#NaN} if the cell is opened.
+	 */
+	public double get(int index)
+	{
+		return probabilities[index];
+	}
+
+	/**
+	 * Returns the mine probability of a cell.
+	 *
+	 * @param row The row of the cell.
+	 * @param col The column of the cell.
+	 * @return The probability, between 0 and 1, or {@link Double#NaN} if the cell is opened.
+	 */
+	public double get(int row, int col)
+	{
+		return probabilities[row * cols + col];
+	}
+
+	/**
+	 * Returns the hidden cell which is the least likely to be a mine. Ties are broken by the lowest index.
+	 *
+	 * @return The index of the cell, or -1 if every cell is opened.
+	 */
+	public int getSafest()
+	{
+		int safest = -1;
+		for (int i = 0; i < probabilities.length; i++)
+		{
+			if (!Double.isNaN(probabilities[i]) && (safest < 0 || probabilities[i] < probabilities[safest]))
+				safest = i;
+		}
+
+		return safest;
+	}
+
+	/**
+	 * Returns the number of rows of the board.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+}
@@ -0,0 +1,113 @@
+package minesweeper.solver;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed index offsets of the cells around any cell of a board, up to a given distance.
+ * <p>
+ * A cell's neighbours only depend on how close it is to each edge of the board, so instead of one list per cell, there
+ * is one list of offsets per class of cells. The class is the distance from the top and the bottom edge, and from the
+ * left and the right edge, each capped at the radius. This is (radius + 1)<sup>4</sup> small arrays, no matter how large
+ * the board is, and finding the neighbours of a cell needs no bounds checks.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class NeighbourTable
+{
+	private final int rows;
+	private final int cols;
+	private final int radius;
+	private final int[][] offsets;
+
+	/**
+	 * Creates the table of a board.
+	 *
+	 * @param rows The number of rows of the board.
+	 * @param cols The number of columns of the board.
+	 * @param radius The largest distance of a neighbour in rows or columns, 1 for the usual 8 neighbours.
+	 */
+	public NeighbourTable(int rows, int cols, int radius)
+	{
+		this.rows = rows;
+		this.cols = cols;
+		this.radius = radius;
+
+		int classes = (radius + 1) * (radius + 1);
+		this.offsets = new int[classes * classes][];
+
+		int[] buffer = new int[(2 * radius + 1) * (2 * radius + 1)];
+		for (int rowClass = 0; rowClass < classes; rowClass++)
+		{
+			int up = rowClass / (radius + 1);
+			int down = rowClass % (radius + 1);
+			for (int colClass = 0; colClass < classes; colClass++)
+			{
+				int left = colClass / (radius + 1);
+				int right = colClass % (radius + 1);
+
+				int count = 0;
+				for (int dr = -up; dr <= down; dr++)
+				{
+					for (int dc = -left; dc <= right; dc++)
+					{
+						if (dr != 0 || dc != 0)
+							buffer[count++] = dr * cols + dc;
+					}
+				}
+				offsets[rowClass * classes + colClass] = Arrays.copyOf(buffer, count);
+			}
+		}
+	}
+
+	/**
+	 * Returns the offsets of the neighbours of a cell. Adding an offset to the index of the cell gives the index of a
+	 * neighbour. The returned array is shared, it must not be modified.
+	 *
+	 * @param index The index of the cell.
+	 * @return The offsets of its neighbours.
+	 */
+	public int[] offsets(int index)
+	{
+		int row = index / cols;
+		int col = index - row * cols;
+
+		return offsets[classOf(row, rows) * (radius + 1) * (radius + 1) + classOf(col, cols)];
+	}
+
+	private int classOf(int position, int length)
+	{
+		return Math.min(position, radius) * (radius + 1) + Math.min(length - 1 - position, radius);
+	}
+
+	/**
+	 * Returns the number of rows of the board.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Returns the number of columns of the board.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getCols()
+	{
+		return cols;
+	}
+
+	/**
+	 * Returns the largest distance of a neighbour.
+	 *
+	 * @return The radius.
+	 */
+	public int getRadius()
+	{
+		return radius;
+	}
+}
@@ -0,0 +1,779 @@
+package minesweeper.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.Topology;
+
+/**
+ * Computes the exact mine probability of every hidden cell of a board, from the opened numbers and the total number of
+ * mines.
+ * <p>
+ * The hidden cells next to an opened number are the variables, and every opened number is a constraint on the sum of
+ * its hidden neighbours. The constraints which share a variable are joined into components, which are independent of
+ * each other, so each one is enumerated on its own, in parallel on a {@link ForkJoinPool}. The enumeration is a
+ * backtracking search, in an order which closes the constraints early, and it stops as soon as a constraint can't be
+ * satisfied anymore. For every possible number of mines in the component, it counts the layouts, and the layouts in
+ * which each cell is a mine.
+ * </p>
+ * <p>
+ * The components are combined by convolving their counts, and every total is weighted by the number of ways the
+ * remaining mines can be placed on the unconstrained cells, which is a binomial coefficient. These are computed as
+ * logarithms and scaled, so they don't overflow even on the largest boards.
+ * </p>
+ * <p>
+ * Most components don't change between two moves, so the solved components are memoised, keyed by their cells and
+ * their constraints. The engine only reads the states of the board and the values of the opened cells, and it never
+ * modifies the board. It can be called from several threads at once, but the board must not change during a call.
+ * Only {@link Topology#SQUARE square} boards can be computed.
+ * </p>
+ * <p>
+ * A {@link #confined() confined} engine solves the components on the calling thread, and keeps its cache in a plain
+ * map. It must only be used by one thread, but many of them can run side by side without sharing anything, which
+ * scales better than many threads sharing one engine and one pool.
+ * </p>
+ *
+ * @author Eperjesi Ádám
+ *
+ */
+public class ProbabilityEngine
+{
+	/**
+	 * The number of solved components kept for later calls. The cache is emptied when it grows larger.
+	 */
+	public final static int MAX_CACHED_COMPONENTS = 4096;
+
+	private final ForkJoinPool pool;
+	private final Map<ComponentKey, ComponentSolution> cache;
+
+	/**
+	 * Creates a new engine using the common pool.
+	 */
+	public ProbabilityEngine()
+	{
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a new engine.
+	 *
+	 * @param pool The pool which enumerates the components.
+	 */
+	public ProbabilityEngine(ForkJoinPool pool)
+	{
+		this(pool, new ConcurrentHashMap<ComponentKey, ComponentSolution>());
+	}
+
+	private ProbabilityEngine(ForkJoinPool pool, Map<ComponentKey, ComponentSolution> cache)
+	{
+		this.pool = pool;
+		this.cache = cache;
+	}
+
+	/**
+	 * Creates a new engine confined to the calling thread: the components are solved one by one on the thread calling
+	 * {@link #compute(Board, int)}, and the cache is not shared with other threads.
+	 *
+	 * @return The engine, which must only be used by one thread.
+	 */
+	public static ProbabilityEngine confined()
+	{
+		return new ProbabilityEngine(null, new HashMap<ComponentKey, ComponentSolution>());
+	}
+
+	/**
+	 * Computes the mine probability of every hidden cell.
+	 *
+	 * @param board The board, only the states and the values of the opened cells are used.
+	 * @param mines The total number of mines on the board.
+	 * @return The probabilities.
+	 *
+	 * @throws IllegalArgumentException when no layout agrees with the opened cells and the number of mines, or the
+	 *         board is not {@link Topology#SQUARE square}.
+	 */
+	public MineProbabilities compute(Board board, int mines)
+	{
+		if (board.getTopology() != Topology.SQUARE)
+			throw new IllegalArgumentException("The probability engine only works on square boards, not on " + board.getTopology());
+
+		int size = board.size();
+		NeighbourTable neighbours = new NeighbourTable(board.getRows(), board.getCols(), 1);
+
+		// Every hidden cell next to an opened number becomes a variable, with the union-find parent of its component.
+		int[] variableOf = new int[size];
+		Arrays.fill(variableOf, -1);
+		int[] variableCells = new int[16];
+		int[] parent = new int[16];
+		int variables = 0;
+		int[] constraintCells = new int[16];
+		int constraints = 0;
+		int hidden = 0;
+
+		for (int cell = 0; cell < size; cell++)
+		{
+			if (board.getState(cell) != Board.STATE_CLICKED)
+			{
+				hidden++;
+				continue;
+			}
+			if (board.getValue(cell) == CellValues.CELL_EMPTY)
+				continue;
+
+			int first = -1;
+			for (int offset : neighbours.offsets(cell))
+			{
+				int neighbour = cell + offset;
+				if (board.getState(neighbour) == Board.STATE_CLICKED)
+					continue;
+
+				if (variableOf[neighbour] < 0)
+				{
+					if (variables == variableCells.length)
+					{
+						variableCells = Arrays.copyOf(variableCells, variables * 2);
+						parent = Arrays.copyOf(parent, variables * 2);
+					}
+					variableOf[neighbour] = variables;
+					variableCells[variables] = neighbour;
+					parent[variables] = variables;
+					variables++;
+				}
+
+				if (first < 0)
+					first = variableOf[neighbour];
+				else
+					union(parent, first, variableOf[neighbour]);
+			}
+
+			if (first >= 0)
+			{
+				if (constraints == constraintCells.length)
+					constraintCells = Arrays.copyOf(constraintCells, constraints * 2);
+				constraintCells[constraints++] = cell;
+			}
+		}
+
+		List<Component> components = createComponents(board, neighbours, variableOf, variableCells, parent, variables, constraintCells,
+				constraints);
+		ComponentSolution[] solutions = solve(components);
+
+		double[] probabilities = combine(board, components, solutions, variables, hidden - variables, mines);
+		return new MineProbabilities(board.getRows(), board.getCols(), probabilities);
+	}
+
+	/**
+	 * Groups the variables and the constraints by their component.
+	 */
+	private List<Component> createComponents(Board board, NeighbourTable neighbours, int[] variableOf, int[] variableCells, int[] parent,
+			int variables, int[] constraintCells, int constraints)
+	{
+		int[] componentOf = new int[variables];
+		Arrays.fill(componentOf, -1);
+		int[] variableCounts = new int[variables];
+		int[] constraintCounts = new int[variables];
+		int count = 0;
+
+		for (int i = 0; i < variables; i++)
+		{
+			int root = find(parent, i);
+			if (componentOf[root] < 0)
+				componentOf[root] = count++;
+			componentOf[i] = componentOf[root];
+			variableCounts[componentOf[i]]++;
+		}
+		for (int i = 0; i < constraints; i++)
+		{
+			constraintCounts[componentOf[firstVariable(board, neighbours, variableOf, constraintCells[i])]]++;
+		}
+
+		// The constraints are added in ascending order, and the cells are sorted later, so the key is always the same.
+		List<Component> components = new ArrayList<Component>(count);
+		for (int c = 0; c < count; c++)
+		{
+			components.add(new Component(variableCounts[c], constraintCounts[c]));
+		}
+		for (int i = 0; i < variables; i++)
+		{
+			components.get(componentOf[i]).addCell(variableCells[i]);
+		}
+		for (int i = 0; i < constraints; i++)
+		{
+			int cell = constraintCells[i];
+			components.get(componentOf[firstVariable(board, neighbours, variableOf, cell)]).addConstraint(cell, board.getValue(cell));
+		}
+		for (Component component : components)
+		{
+			component.link(board, neighbours);
+		}
+
+		return components;
+	}
+
+	private static int firstVariable(Board board, NeighbourTable neighbours, int[] variableOf, int cell)
+	{
+		for (int offset : neighbours.offsets(cell))
+		{
+			if (variableOf[cell + offset] >= 0)
+				return variableOf[cell + offset];
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Solves every component which is not in the cache, in parallel, or on the calling thread if the engine is
+	 * confined.
+	 */
+	private ComponentSolution[] solve(List<Component> components)
+	{
+		ComponentSolution[] solutions = new ComponentSolution[components.size()];
+		List<ForkJoinTask<ComponentSolution>> tasks = new ArrayList<ForkJoinTask<ComponentSolution>>();
+		List<Integer> taskComponents = new ArrayList<Integer>();
+
+		for (int i = 0; i < components.size(); i++)
+		{
+			Component component = components.get(i);
+			solutions[i] = cache.get(component.getKey());
+
+			if (solutions[i] == null)
+			{
+				tasks.add(pool != null ? pool.submit(() -> new Enumeration(component).run()) : null);
+				taskComponents.add(i);
+			}
+		}
+
+		if (cache.size() + tasks.size() > MAX_CACHED_COMPONENTS)
+			cache.clear();
+
+		for (int i = 0; i < tasks.size(); i++)
+		{
+			int index = taskComponents.get(i);
+			ForkJoinTask<ComponentSolution> task = tasks.get(i);
+			solutions[index] = task != null ? task.join() : new Enumeration(components.get(index)).run();
+			cache.put(components.get(index).getKey(), solutions[index]);
+		}
+
+		return solutions;
+	}
+
+	/**
+	 * Combines the solutions of the components, and weights them by the number of ways the remaining mines fit on the
+	 * unconstrained cells.
+	 */
+	private double[] combine(Board board, List<Component> components, ComponentSolution[] solutions, int variables, int unconstrained,
+			int mines)
+	{
+		int count = components.size();
+
+		// prefix[i] is the convolution of the first i components, suffix[i] of the components from i.
+		double[][] prefix = new double[count + 1][];
+		double[][] suffix = new double[count + 1][];
+		prefix[0] = new double[] { 1 };
+		suffix[count] = new double[] { 1 };
+		for (int i = 0; i < count; i++)
+		{
+			prefix[i + 1] = convolve(prefix[i], solutions[i].counts);
+			suffix[count - 1 - i] = convolve(solutions[count - 1 - i].counts, suffix[count - i]);
+		}
+
+		double[] weights = binomialWeights(unconstrained, mines, variables);
+		double[] total = prefix[count];
+		double norm = 0;
+		double unconstrainedMines = 0;
+		for (int m = 0; m < total.length; m++)
+		{
+			norm += total[m] * weights[m];
+			if (unconstrained > 0)
+				unconstrainedMines += total[m] * weights[m] * (mines - m) / unconstrained;
+		}
+
+		if (!(norm > 0))
+			throw new IllegalArgumentException("No layout agrees with the opened cells");
+
+		double[] probabilities = new double[board.size()];
+		double unconstrainedProbability = unconstrainedMines / norm;
+		for (int i = 0; i < probabilities.length; i++)
+		{
+			probabilities[i] = board.getState(i) == Board.STATE_CLICKED ? Double.NaN : unconstrainedProbability;
+		}
+
+		for (int i = 0; i < count; i++)
+		{
+			double[] others = convolve(prefix[i], suffix[i + 1]);
+			ComponentSolution solution = solutions[i];
+			int[] cells = components.get(i).cells;
+
+			for (int v = 0; v < cells.length; v++)
+			{
+				double sum = 0;
+				for (int k = 0; k < solution.cellCounts[v].length; k++)
+				{
+					if (solution.cellCounts[v][k] == 0)
+						continue;
+					for (int j = 0; j < others.length; j++)
+					{
+						sum += solution.cellCounts[v][k] * others[j] * weights[k + j];
+					}
+				}
+				probabilities[cells[v]] = sum / norm;
+			}
+		}
+
+		return probabilities;
+	}
+
+	/**
+	 * Returns the relative number of ways the rest of the mines can be placed on the unconstrained cells, for every
+	 * number of mines among the variables. The values are scaled so the largest one is 1.
+	 */
+	private static double[] binomialWeights(int unconstrained, int mines, int variables)
+	{
+		double[] logWeights = new double[variables + 1];
+		double max = Double.NEGATIVE_INFINITY;
+		double logBinomial = 0;
+		int r = 0;
+
+		// log C(u, r) is built up from r = 0, and read when r is the number of mines left for m mines in the variables.
+		for (int m = variables; m >= 0; m--)
+		{
+			int rest = mines - m;
+			if (rest < 0 || rest > unconstrained)
+			{
+				logWeights[m] = Double.NEGATIVE_INFINITY;
+				continue;
+			}
+
+			while (r < rest)
+			{
+				r++;
+				logBinomial += Math.log((double) (unconstrained - r + 1) / r);
+			}
+			logWeights[m] = logBinomial;
+			max = Math.max(max, logBinomial);
+		}
+
+		double[] weights = new double[variables + 1];
+		for (int m = 0; m <= variables; m++)
+		{
+			weights[m] = Math.exp(logWeights[m] - max);
+		}
+
+		return weights;
+	}
+
+	private static double[] convolve(double[] a, double[] b)
+	{
+		double[] result = new double[a.length + b.length - 1];
+		for (int i = 0; i < a.length; i++)
+		{
+			if (a[i] == 0)
+				continue;
+			for (int j = 0; j < b.length; j++)
+			{
+				result[i + j] += a[i] * b[j];
+			}
+		}
+
+		return result;
+	}
+
+	private static int find(int[] parent, int i)
+	{
+		while (parent[i] != i)
+		{
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+
+		return i;
+	}
+
+	private static void union(int[] parent, int a, int b)
+	{
+		int rootA = find(parent, a);
+		int rootB = find(parent, b);
+		if (rootA != rootB)
+			parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+	}
+
+	/**
+	 * Empties the cache of solved components.
+	 */
+	public void clearCache()
+	{
+		cache.clear();
+	}
+
+	/**
+	 * The variables and constraints of a component.
+	 */
+	private static final class Component
+	{
+		private final int[] cells;
+		private final int[] constraintCells;
+		private final int[] constraintValues;
+		private int[][] constraintVariables;
+		private int cellCount;
+		private int constraintCount;
+		private ComponentKey key;
+
+		Component(int cells, int constraints)
+		{
+			this.cells = new int[cells];
+			this.constraintCells = new int[constraints];
+			this.constraintValues = new int[constraints];
+		}
+
+		void addCell(int cell)
+		{
+			cells[cellCount++] = cell;
+		}
+
+		void addConstraint(int cell, int value)
+		{
+			constraintCells[constraintCount] = cell;
+			constraintValues[constraintCount] = value;
+			constraintCount++;
+		}
+
+		/**
+		 * Finds the variables of every constraint, and creates the key of the component.
+		 */
+		void link(Board board, NeighbourTable neighbours)
+		{
+			Arrays.sort(cells);
+
+			constraintVariables = new int[constraintCells.length][];
+			int[] buffer = new int[8];
+			for (int c = 0; c < constraintCells.length; c++)
+			{
+				int count = 0;
+				for (int offset : neighbours.offsets(constraintCells[c]))
+				{
+					int neighbour = constraintCells[c] + offset;
+					if (board.getState(neighbour) != Board.STATE_CLICKED)
+						buffer[count++] = Arrays.binarySearch(cells, neighbour);
+				}
+				constraintVariables[c] = Arrays.copyOf(buffer, count);
+			}
+
+			int[] data = new int[cells.length + 2 * constraintCells.length];
+			System.arraycopy(cells, 0, data, 0, cells.length);
+			for (int c = 0; c < constraintCells.length; c++)
+			{
+				data[cells.length + 2 * c] = constraintCells[c];
+				data[cells.length + 2 * c + 1] = constraintValues[c];
+			}
+			key = new ComponentKey(cells.length, data);
+		}
+
+		ComponentKey getKey()
+		{
+			return key;
+		}
+	}
+
+	/**
+	 * The cells and the constraints of a component, which identify it in the cache.
+	 */
+	private static final class ComponentKey
+	{
+		private final int cellCount;
+		private final int[] data;
+		private final int hash;
+
+		ComponentKey(int cellCount, int[] data)
+		{
+			this.cellCount = cellCount;
+			this.data = data;
+			this.hash = Arrays.hashCode(data) * 31 + cellCount;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof ComponentKey))
+				return false;
+
+			ComponentKey other = (ComponentKey) obj;
+			return hash == other.hash && cellCount == other.cellCount && Arrays.equals(data, other.data);
+		}
+	}
+
+	/**
+	 * The number of layouts of a component, for every number of mines in it, and the number of layouts in which each
+	 * cell is a mine. Both are scaled so the largest count is 1.
+	 */
+	private static final class ComponentSolution
+	{
+		private final double[] counts;
+		private final double[][] cellCounts;
+
+		ComponentSolution(double[] counts, double[][] cellCounts)
+		{
+			this.counts = counts;
+			this.cellCounts = cellCounts;
+		}
+	}
+
+	/**
+	 * The backtracking enumeration of a component.
+	 * <p>
+	 * The variables are assigned in a fixed order, so the rest of the search only depends on the position, and on the
+	 * sums of the constraints which have both assigned and unassigned variables. The number of layouts of the rest, for
+	 * every number of mines, is memoised with this state as the key, so long chains of constraints are counted in
+	 * linear time instead of enumerating every layout one by one. The number of layouts in which a cell is a mine is
+	 * counted the same way, with the cell forced to be a mine.
+	 * </p>
+	 */
+	private static final class Enumeration
+	{
+		private final static double[] ONE = { 1 };
+
+		private final int[] order;
+		private final int[][] variableConstraints;
+		private final int[][] activeConstraints;
+		private final int[] targets;
+		private final int[] sums;
+		private final int[] unassigned;
+		private final List<Map<Long, double[]>> memos;
+		private int forcedMine;
+
+		Enumeration(Component component)
+		{
+			int cells = component.cells.length;
+			int constraints = component.constraintValues.length;
+
+			targets = component.constraintValues.clone();
+			sums = new int[constraints];
+			unassigned = new int[constraints];
+
+			int[] constraintCounts = new int[cells];
+			for (int c = 0; c < constraints; c++)
+			{
+				unassigned[c] = component.constraintVariables[c].length;
+				for (int v : component.constraintVariables[c])
+				{
+					constraintCounts[v]++;
+				}
+			}
+			variableConstraints = new int[cells][];
+			for (int v = 0; v < cells; v++)
+			{
+				variableConstraints[v] = new int[constraintCounts[v]];
+				constraintCounts[v] = 0;
+			}
+			for (int c = 0; c < constraints; c++)
+			{
+				for (int v : component.constraintVariables[c])
+				{
+					variableConstraints[v][constraintCounts[v]++] = c;
+				}
+			}
+
+			order = breadthFirstOrder(component);
+			activeConstraints = findActiveConstraints(component);
+
+			memos = new ArrayList<Map<Long, double[]>>(cells);
+			for (int i = 0; i < cells; i++)
+			{
+				memos.add(new HashMap<Long, double[]>());
+			}
+		}
+
+		/**
+		 * Orders the variables by a breadth first walk over the constraints, so the variables of a constraint are
+		 * assigned close to each other, and the constraints can be checked early.
+		 */
+		private int[] breadthFirstOrder(Component component)
+		{
+			int cells = component.cells.length;
+			int[] order = new int[cells];
+			boolean[] added = new boolean[cells];
+			int count = 0;
+
+			order[count++] = 0;
+			added[0] = true;
+			for (int head = 0; head < count; head++)
+			{
+				for (int c : variableConstraints[order[head]])
+				{
+					for (int v : component.constraintVariables[c])
+					{
+						if (!added[v])
+						{
+							added[v] = true;
+							order[count++] = v;
+						}
+					}
+				}
+			}
+
+			return order;
+		}
+
+		/**
+		 * Finds the constraints which are partly assigned before each position.
+		 */
+		private int[][] findActiveConstraints(Component component)
+		{
+			int constraints = component.constraintValues.length;
+			int[] first = new int[constraints];
+			int[] last = new int[constraints];
+			Arrays.fill(first, Integer.MAX_VALUE);
+
+			for (int position = 0; position < order.length; position++)
+			{
+				for (int c : variableConstraints[order[position]])
+				{
+					first[c] = Math.min(first[c], position);
+					last[c] = Math.max(last[c], position);
+				}
+			}
+
+			int[][] active = new int[order.length][];
+			int[] buffer = new int[constraints];
+			for (int position = 0; position < order.length; position++)
+			{
+				int count = 0;
+				for (int c = 0; c < constraints; c++)
+				{
+					if (first[c] < position && last[c] >= position)
+						buffer[count++] = c;
+				}
+				active[position] = Arrays.copyOf(buffer, count);
+			}
+
+			return active;
+		}
+
+		ComponentSolution run()
+		{
+			int cells = order.length;
+
+			forcedMine = -1;
+			double[] counts = count(0);
+
+			/*
+			 * Forcing a variable only changes the states before it, so the memoised states after it are still valid. The
+			 * variables are forced from the last one, so only the states up to the previously forced one are cleared.
+			 */
+			double[][] cellCounts = new double[cells][];
+			for (int position = cells - 1; position >= 0; position--)
+			{
+				forcedMine = order[position];
+				for (int i = 0; i <= Math.min(position + 1, cells - 1); i++)
+				{
+					memos.get(i).clear();
+				}
+				cellCounts[forcedMine] = count(0);
+			}
+
+			double max = 0;
+			for (double count : counts)
+			{
+				max = Math.max(max, count);
+			}
+			if (max > 0)
+			{
+				for (int k = 0; k < counts.length; k++)
+				{
+					counts[k] /= max;
+					for (double[] cell : cellCounts)
+					{
+						cell[k] /= max;
+					}
+				}
+			}
+
+			return new ComponentSolution(counts, cellCounts);
+		}
+
+		/**
+		 * Returns the number of layouts of the variables from the given position, for every number of mines among
+		 * them.
+		 */
+		private double[] count(int position)
+		{
+			if (position == order.length)
+				return ONE;
+
+			// The sums are at most 8, so 4 bits are enough for each. Larger states are not memoised.
+			int[] active = activeConstraints[position];
+			Long key = null;
+			if (active.length <= 16)
+			{
+				long state = 0;
+				for (int c : active)
+				{
+					state = (state << 4) | sums[c];
+				}
+				key = state;
+
+				double[] memoised = memos.get(position).get(key);
+				if (memoised != null)
+					return memoised;
+			}
+
+			double[] result = new double[order.length - position + 1];
+			int variable = order[position];
+
+			for (int mine = (variable == forcedMine) ? 1 : 0; mine <= 1; mine++)
+			{
+				if (assign(variable, mine))
+				{
+					double[] rest = count(position + 1);
+					for (int k = 0; k < rest.length; k++)
+					{
+						result[k + mine] += rest[k];
+					}
+				}
+				unassign(variable, mine);
+			}
+
+			if (key != null)
+				memos.get(position).put(key, result);
+
+			return result;
+		}
+
+		/**
+		 * Assigns a value to a variable, and returns whether every constraint of it can still be satisfied.
+		 */
+		private boolean assign(int variable, int mine)
+		{
+			boolean valid = true;
+			for (int c : variableConstraints[variable])
+			{
+				unassigned[c]--;
+				sums[c] += mine;
+				valid &= sums[c] <= targets[c] && sums[c] + unassigned[c] >= targets[c];
+			}
+
+			return valid;
+		}
+
+		private void unassign(int variable, int mine)
+		{
+			for (int c : variableConstraints[variable])
+			{
+				unassigned[c]++;
+				sums[c] -= mine;
+			}
+		}
+	}
+}
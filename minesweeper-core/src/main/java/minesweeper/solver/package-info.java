@@ -0,0 +1,9 @@
+/**
+ * Solvers which deduce the safe cells and the mines of a game from the opened cells, the same way a player would.
+ * <p>
+ * The {@link minesweeper.solver.FrontierSolver FrontierSolver} follows a running game incrementally: the
+ * MinesweeperModel of the client passes it the cells opened by every move. The solvers only use primitive collections,
+ * like {@link minesweeper.solver.IntSet IntSet}, and don't depend on JavaFX.
+ * </p>
+ */
+package minesweeper.solver;
@@ -0,0 +1,146 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import minesweeper.bot.HeadlessGame;
+import minesweeper.bot.SimulationResult;
+import minesweeper.bot.Simulator;
+import minesweeper.bot.Strategy;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.Difficulty;
+import minesweeper.solver.ProbabilityEngine;
+
+@RunWith(JUnitParamsRunner.class)
+public class AutoplayTest
+{
+	@Test
+	public void firstMoveShouldNeverBeAMine()
+	{
+		for (long seed = 0; seed < 100; seed++)
+		{
+			HeadlessGame game = new HeadlessGame(3, 3, 8, seed);
+
+			assertFalse(game.open((int) seed % 9));
+			assertTrue(game.isWon());
+		}
+	}
+
+	@Test
+	public void openingAMineShouldLoseTheGame()
+	{
+		HeadlessGame game = new HeadlessGame(9, 9, 10, 1);
+		game.open(40);
+
+		Board board = game.getBoard();
+		int mine = 0;
+		while (board.getValue(mine) != CellValues.CELL_MINE)
+		{
+			mine++;
+		}
+
+		assertFalse(game.open(mine));
+		assertTrue(game.isLost());
+		assertFalse(game.isWon());
+		assertEquals(2, game.getMoves());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void openShouldThrowExceptionWhenTheGameIsOver()
+	{
+		HeadlessGame game = new HeadlessGame(2, 2, 3, 1);
+		game.open(0);
+		game.open(1);
+	}
+
+	@Test
+	public void orElseShouldAskTheNextStrategyWhenThereIsNoMove()
+	{
+		Strategy none = game -> Strategy.NO_MOVE;
+		Strategy first = game -> 0;
+
+		assertEquals(0, none.orElse(first).nextMove(new HeadlessGame(2, 2, 1, 1)));
+		assertEquals(Strategy.NO_MOVE, none.orElse(none).nextMove(new HeadlessGame(2, 2, 1, 1)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void simulatorShouldThrowExceptionWhenTheStrategyHasNoMove()
+	{
+		new Simulator(game -> Strategy.NO_MOVE).run(9, 9, 10, 1, 1);
+	}
+
+	@Test
+	@Parameters({ "EASY, 0.75", "MEDIUM, 0.5", "HARD, 0.2" })
+	public void standardStrategyShouldReachTheExpectedWinRate(Difficulty difficulty, double minWinRate)
+	{
+		Simulator simulator = new Simulator(Strategy.standard(new ProbabilityEngine()));
+		SimulationResult result = simulator.run(difficulty.getRows(), difficulty.getCols(), difficulty.getMines(), 100, 42);
+
+		assertEquals(100, result.getGames());
+		assertTrue(result.toString(), result.getWinRate() >= minWinRate);
+	}
+
+	@Test
+	public void resultShouldNotDependOnTheNumberOfWorkers()
+	{
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool multiple = new ForkJoinPool(3);
+		try
+		{
+			SimulationResult expected = new Simulator(single, Strategy.standard(new ProbabilityEngine(single))).run(9, 9, 10, 200, 7);
+			SimulationResult actual = new Simulator(multiple, Strategy.standard(new ProbabilityEngine(multiple))).run(9, 9, 10, 200, 7);
+
+			assertEquals(expected.getWins(), actual.getWins());
+		}
+		finally
+		{
+			single.shutdown();
+			multiple.shutdown();
+		}
+	}
+
+	@Test
+	public void confinedStrategiesShouldWinTheSameGamesAsASharedOne()
+	{
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool multiple = new ForkJoinPool(3);
+		try
+		{
+			SimulationResult expected = new Simulator(single, Strategy.standard(new ProbabilityEngine(single))).run(16, 16, 40, 100, 11);
+			SimulationResult actual = new Simulator(multiple, () -> Strategy.standard(ProbabilityEngine.confined())).run(16, 16, 40, 100, 11);
+
+			assertEquals(expected.getWins(), actual.getWins());
+			assertEquals(100, actual.getGames());
+		}
+		finally
+		{
+			single.shutdown();
+			multiple.shutdown();
+		}
+	}
+
+	@Test
+	@Parameters({ "0, 1", "50, 5", "90, 9", "91, 10", "100, 10" })
+	public void latencyPercentileShouldUseTheNearestRank(double percentile, long expected)
+	{
+		SimulationResult result = new SimulationResult(9, 9, 10, 0, 1, new long[] { 10, 9, 8, 7, 6, 5, 4, 3, 2, 1 });
+
+		assertEquals(expected, result.getLatencyPercentile(percentile));
+	}
+
+	@Test
+	@Parameters({ "9, 9, 10, Easy", "16, 16, 40, Medium", "16, 30, 99, Hard", "16, 30, 98, Custom" })
+	public void difficultyShouldMatchThePresets(int rows, int cols, int mines, String expected)
+	{
+		assertEquals(expected, Difficulty.nameOf(rows, cols, mines));
+	}
+}
@@ -0,0 +1,158 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.Game;
+import minesweeper.engine.GameSeed;
+import minesweeper.engine.OpeningIndex;
+
+public class GameTest
+{
+	/**
+	 * A 3x3 game with a mine in the top left corner, started without placing any other mine.
+	 */
+	private static Game cornerMineGame()
+	{
+		Board board = new ArrayBoard(3, 3);
+		board.setValue(0, CellValues.CELL_MINE);
+		board.countNeighbours();
+
+		Game game = new Game(board, 1, 0);
+		game.start(new GameSeed(3, 3, 1, 0, 1, 1));
+		return game;
+	}
+
+	@Test
+	public void firstMoveShouldPlaceTheMinesOfTheSeed()
+	{
+		Game game = new Game(new ArrayBoard(16, 30), 99, 42);
+		assertFalse(game.isStarted());
+
+		assertTrue(game.open(game.getBoard().indexOf(8, 15)));
+
+		Board expected = new ArrayBoard(16, 30);
+		new GameSeed(16, 30, 99, 42, 8, 15).generate(expected);
+		assertTrue(game.isStarted());
+		assertEquals(new GameSeed(16, 30, 99, 42, 8, 15), game.getGameSeed());
+		assertEquals(OpeningIndex.of(expected).get3BV(), game.get3BV());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertEquals(expected.getValue(i), game.getBoard().getValue(i));
+		}
+		assertEquals(game.getBoard().size() - game.getOpenedCount(), game.getHiddenCells());
+	}
+
+	@Test
+	public void markShouldCycleAndCountTheFlags()
+	{
+		Game game = cornerMineGame();
+
+		assertTrue(game.mark(8));
+		assertEquals(Board.STATE_FLAGGED, game.getBoard().getState(8));
+		assertEquals(0, game.getRemainingMines());
+
+		assertTrue(game.mark(8));
+		assertEquals(Board.STATE_QUESTION, game.getBoard().getState(8));
+		assertEquals(1, game.getRemainingMines());
+
+		assertTrue(game.mark(8));
+		assertEquals(Board.STATE_HIDDEN, game.getBoard().getState(8));
+
+		game.open(4);
+		assertFalse(game.mark(4));
+	}
+
+	@Test
+	public void chordShouldOpenTheNeighboursOfASatisfiedNumberAndWin()
+	{
+		Game game = cornerMineGame();
+		game.open(4);
+		assertEquals(1, game.getOpenedCount());
+		assertFalse(game.chord(4));
+
+		game.mark(0);
+		assertTrue(game.chord(4));
+
+		assertEquals(7, game.getOpenedCount());
+		assertTrue(game.isWon());
+		assertEquals(Game.WON, game.getStatus());
+		assertEquals(1, game.getHiddenCells());
+		assertEquals(0, game.getRemainingMines());
+		assertEquals(Board.STATE_CLICKED, game.getBoard().getState(0));
+		assertEquals(CellValues.CELL_GOOD, game.getBoard().getValue(0));
+	}
+
+	@Test
+	public void openingAMineShouldLoseAndShowTheFlags()
+	{
+		Game game = cornerMineGame();
+		game.open(4);
+		game.mark(8);
+		assertTrue(game.chord(4));
+
+		assertTrue(game.isLost());
+		assertEquals(0, game.getFoundMines());
+		assertEquals(7, game.getHiddenCells());
+		assertEquals(CellValues.CELL_EXPLOSION, game.getBoard().getValue(0));
+		assertEquals(CellValues.CELL_WRONG_MINE, game.getBoard().getValue(8));
+		for (int i = 0; i < game.getBoard().size(); i++)
+		{
+			assertEquals(Board.STATE_CLICKED, game.getBoard().getState(i));
+		}
+
+		// The moves are ignored once the game is over.
+		assertFalse(game.open(1));
+		assertFalse(game.mark(1));
+	}
+
+	@Test
+	public void lostGameShouldCountTheFoundMines()
+	{
+		Board board = new ArrayBoard(3, 3);
+		board.setValue(0, CellValues.CELL_MINE);
+		board.setValue(8, CellValues.CELL_MINE);
+		board.countNeighbours();
+		Game game = new Game(board, 2, 0);
+		game.start(new GameSeed(3, 3, 2, 0, 1, 1));
+
+		game.open(4);
+		game.mark(0);
+		game.open(8);
+
+		assertTrue(game.isLost());
+		assertEquals(1, game.getFoundMines());
+		assertEquals(CellValues.CELL_MINE, game.getBoard().getValue(0));
+	}
+
+	@Test
+	public void restoredGameShouldGoOn()
+	{
+		Board original = cornerMineGame().getBoard();
+		Game game = cornerMineGame();
+		game.open(4);
+		int hidden = game.getHiddenCells();
+
+		game.open(0);
+		assertTrue(game.isOver());
+
+		// Undoes the losing move.
+		for (int i = 0; i < game.getBoard().size(); i++)
+		{
+			if (i != 4)
+				game.setCell(i, Board.STATE_HIDDEN, original.getValue(i));
+		}
+		game.restore(hidden, 1, Game.PLAYING);
+
+		assertFalse(game.isOver());
+		assertTrue(game.open(8));
+		assertTrue(game.isWon());
+		assertEquals(1, game.getHiddenCells());
+	}
+}
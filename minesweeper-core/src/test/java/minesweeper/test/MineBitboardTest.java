@@ -0,0 +1,95 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.MineBitboard;
+
+@RunWith(JUnitParamsRunner.class)
+public class MineBitboardTest
+{
+	@Test
+	@Parameters({ "1, 1", "2, 63", "5, 64", "7, 65", "9, 130", "64, 64" })
+	public void countsShouldMatchNaiveCounts(int rows, int cols)
+	{
+		Random random = new Random(rows * 1000 + cols);
+		MineBitboard mines = new MineBitboard(rows, cols);
+		for (int row = 0; row < rows; row++)
+		{
+			for (int col = 0; col < cols; col++)
+			{
+				mines.setMine(row, col, random.nextInt(3) == 0);
+			}
+		}
+
+		long[] planes = new long[MineBitboard.COUNT_PLANES * mines.getWordsPerRow()];
+		for (int row = 0; row < rows; row++)
+		{
+			mines.countRow(row, planes);
+
+			for (int col = 0; col < cols; col++)
+			{
+				int expected = 0;
+				for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++)
+				{
+					for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++)
+					{
+						if ((i != row || j != col) && mines.isMine(i, j))
+							expected++;
+					}
+				}
+
+				assertEquals(expected, MineBitboard.getCount(planes, mines.getWordsPerRow(), col));
+			}
+		}
+	}
+
+	@Test
+	public void cellSurroundedByMinesShouldCountEight()
+	{
+		MineBitboard mines = new MineBitboard(3, 70);
+		for (int row = 0; row < 3; row++)
+		{
+			for (int col = 62; col <= 64; col++)
+			{
+				mines.setMine(row, col, row != 1 || col != 63);
+			}
+		}
+
+		long[] planes = new long[MineBitboard.COUNT_PLANES * mines.getWordsPerRow()];
+		mines.countRow(1, planes);
+
+		assertEquals(8, MineBitboard.getCount(planes, mines.getWordsPerRow(), 63));
+		assertEquals(8, mines.getMineCount());
+		assertFalse(mines.isMine(1, 63));
+		assertTrue(mines.isMine(1, 64));
+	}
+
+	@Test
+	public void arrayBoardShouldCountWithBitboard()
+	{
+		Board board = new ArrayBoard(4, 5);
+		board.setValue(board.indexOf(0, 0), CellValues.CELL_MINE);
+		board.setValue(board.indexOf(1, 1), CellValues.CELL_MINE);
+		board.setValue(board.indexOf(3, 4), CellValues.CELL_MINE);
+
+		board.countNeighbours();
+
+		int[] expected = { 9, 2, 1, 0, 0, 2, 9, 1, 0, 0, 1, 1, 1, 1, 1, 0, 0, 0, 1, 9 };
+		for (int i = 0; i < board.size(); i++)
+		{
+			assertEquals(expected[i], board.getValue(i));
+		}
+	}
+}
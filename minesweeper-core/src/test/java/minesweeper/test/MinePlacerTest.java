@@ -0,0 +1,109 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.MinePlacer;
+import minesweeper.engine.RandomSource;
+import minesweeper.engine.Xoroshiro128PlusPlus;
+
+@RunWith(JUnitParamsRunner.class)
+public class MinePlacerTest
+{
+	private int countMines(Board board)
+	{
+		int mines = 0;
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (board.getValue(i) == CellValues.CELL_MINE)
+				mines++;
+		}
+
+		return mines;
+	}
+
+	@Test
+	@Parameters({ "1, 0", "10, 0", "99, 479", "300, 240", "479, 17", "479, 479" })
+	public void bothAlgorithmsShouldPlaceEveryMineOutsideTheExcludedCell(int mines, int excludedIndex)
+	{
+		MinePlacer placer = new MinePlacer(new Xoroshiro128PlusPlus(mines));
+
+		Board sampled = new ArrayBoard(16, 30);
+		placer.placeSampled(sampled, mines, excludedIndex);
+		assertEquals(mines, countMines(sampled));
+		assertNotEquals(CellValues.CELL_MINE, sampled.getValue(excludedIndex));
+
+		Board shuffled = new ArrayBoard(16, 30);
+		placer.placeShuffled(shuffled, mines, excludedIndex);
+		assertEquals(mines, countMines(shuffled));
+		assertNotEquals(CellValues.CELL_MINE, shuffled.getValue(excludedIndex));
+	}
+
+	@Test
+	public void everyCellShouldBeEquallyLikely()
+	{
+		MinePlacer placer = new MinePlacer(RandomSource.splittable(1));
+		int[] sampledHits = new int[9];
+		int[] shuffledHits = new int[9];
+
+		for (int i = 0; i < 8000; i++)
+		{
+			Board sampled = new ArrayBoard(3, 3);
+			placer.placeSampled(sampled, 2, 4);
+			Board shuffled = new ArrayBoard(3, 3);
+			placer.placeShuffled(shuffled, 2, 4);
+
+			for (int cell = 0; cell < 9; cell++)
+			{
+				if (sampled.getValue(cell) == CellValues.CELL_MINE)
+					sampledHits[cell]++;
+				if (shuffled.getValue(cell) == CellValues.CELL_MINE)
+					shuffledHits[cell]++;
+			}
+		}
+
+		// Every cell except the middle one should be a mine in about a quarter of the games.
+		for (int cell = 0; cell < 9; cell++)
+		{
+			int expected = cell == 4 ? 0 : 2000;
+			assertEquals(expected, sampledHits[cell], 200);
+			assertEquals(expected, shuffledHits[cell], 200);
+		}
+	}
+
+	@Test
+	public void sameSeedShouldGiveSameLayout()
+	{
+		Board first = new ArrayBoard(30, 60);
+		Board second = new ArrayBoard(30, 60);
+
+		new MinePlacer(new Xoroshiro128PlusPlus(2017)).place(first, 400, 100);
+		new MinePlacer(new Xoroshiro128PlusPlus(2017)).place(second, 400, 100);
+
+		for (int i = 0; i < first.size(); i++)
+		{
+			assertEquals(first.getValue(i), second.getValue(i));
+		}
+	}
+
+	@Test
+	public void xoroshiroShouldStayInBounds()
+	{
+		Xoroshiro128PlusPlus random = new Xoroshiro128PlusPlus(0);
+
+		for (int bound = 1; bound < 100000; bound += 7)
+		{
+			int value = random.nextInt(bound);
+			assertTrue(value >= 0 && value < bound);
+		}
+	}
+}
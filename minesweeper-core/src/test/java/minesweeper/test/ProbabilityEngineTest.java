@@ -0,0 +1,178 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.CellValues;
+import minesweeper.engine.FloodFill;
+import minesweeper.engine.GameSeed;
+import minesweeper.solver.FrontierSolver;
+import minesweeper.solver.MineProbabilities;
+import minesweeper.solver.ProbabilityEngine;
+
+@RunWith(JUnitParamsRunner.class)
+public class ProbabilityEngineTest
+{
+	/**
+	 * Counts every layout which agrees with the opened cells, by trying every subset of the hidden cells.
+	 */
+	private double[] bruteForce(Board board, int mines)
+	{
+		int[] hidden = new int[board.size()];
+		int hiddenCount = 0;
+		for (int i = 0; i < board.size(); i++)
+		{
+			if (board.getState(i) != Board.STATE_CLICKED)
+				hidden[hiddenCount++] = i;
+		}
+
+		double[] mineCounts = new double[board.size()];
+		double layouts = 0;
+		Board layout = new ArrayBoard(board.getRows(), board.getCols());
+		for (long subset = 0; subset < 1L << hiddenCount; subset++)
+		{
+			if (Long.bitCount(subset) != mines)
+				continue;
+
+			for (int i = 0; i < board.size(); i++)
+			{
+				layout.setValue(i, 0);
+			}
+			for (int h = 0; h < hiddenCount; h++)
+			{
+				if ((subset & (1L << h)) != 0)
+					layout.setValue(hidden[h], CellValues.CELL_MINE);
+			}
+			layout.countNeighbours();
+
+			boolean agrees = true;
+			for (int i = 0; i < board.size() && agrees; i++)
+			{
+				agrees = board.getState(i) != Board.STATE_CLICKED || layout.getValue(i) == board.getValue(i);
+			}
+
+			if (agrees)
+			{
+				layouts++;
+				for (int h = 0; h < hiddenCount; h++)
+				{
+					if ((subset & (1L << h)) != 0)
+						mineCounts[hidden[h]]++;
+				}
+			}
+		}
+
+		for (int i = 0; i < board.size(); i++)
+		{
+			mineCounts[i] = board.getState(i) == Board.STATE_CLICKED ? Double.NaN : mineCounts[i] / layouts;
+		}
+
+		return mineCounts;
+	}
+
+	private void open(Board board, int index)
+	{
+		for (int cell : new FloodFill(board).reveal(index))
+		{
+			board.setState(cell, Board.STATE_CLICKED);
+		}
+	}
+
+	@Test
+	@Parameters({ "4, 5, 4", "5, 5, 5", "4, 6, 6", "5, 4, 3" })
+	public void probabilitiesShouldMatchABruteForceCount(int rows, int cols, int mines)
+	{
+		Random random = new Random(rows * cols * mines);
+		ProbabilityEngine engine = new ProbabilityEngine();
+
+		for (int game = 0; game < 30; game++)
+		{
+			Board board = new ArrayBoard(rows, cols);
+			int first = random.nextInt(board.size());
+			new GameSeed(rows, cols, mines, random.nextLong(), board.rowOf(first), board.colOf(first)).generate(board);
+			open(board, first);
+
+			// Opens a few more safe cells, so there are several constraints.
+			for (int move = random.nextInt(4); move > 0; move--)
+			{
+				int cell = random.nextInt(board.size());
+				if (board.getValue(cell) != CellValues.CELL_MINE)
+					open(board, cell);
+			}
+
+			double[] expected = bruteForce(board, mines);
+			MineProbabilities probabilities = engine.compute(board, mines);
+			for (int i = 0; i < board.size(); i++)
+			{
+				assertEquals(expected[i], probabilities.get(i), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void confinedEngineShouldComputeTheSameProbabilities()
+	{
+		Random random = new Random(5);
+		ProbabilityEngine shared = new ProbabilityEngine();
+		ProbabilityEngine confined = ProbabilityEngine.confined();
+
+		for (int game = 0; game < 10; game++)
+		{
+			Board board = new ArrayBoard(16, 30);
+			new GameSeed(16, 30, 99, random.nextLong(), 8, 15).generate(board);
+			open(board, board.indexOf(8, 15));
+
+			MineProbabilities expected = shared.compute(board, 99);
+			MineProbabilities actual = confined.compute(board, 99);
+			for (int i = 0; i < board.size(); i++)
+			{
+				assertEquals(expected.get(i), actual.get(i), 1e-12);
+			}
+		}
+	}
+
+	@Test
+	public void certainCellsShouldMatchTheFrontierSolver()
+	{
+		Random random = new Random(3);
+		ProbabilityEngine engine = new ProbabilityEngine(new ForkJoinPool(4));
+
+		for (int game = 0; game < 20; game++)
+		{
+			Board board = new ArrayBoard(16, 30);
+			new GameSeed(16, 30, 99, random.nextLong(), 8, 15).generate(board);
+			open(board, board.indexOf(8, 15));
+			FrontierSolver solver = new FrontierSolver(board);
+			solver.rebuild();
+
+			MineProbabilities probabilities = engine.compute(board, 99);
+			for (int safe : solver.getSafeCells())
+			{
+				assertEquals(0, probabilities.get(safe), 1e-12);
+			}
+			for (int mine : solver.getMineCells())
+			{
+				assertEquals(1, probabilities.get(mine), 1e-12);
+			}
+
+			double sum = 0;
+			for (int i = 0; i < board.size(); i++)
+			{
+				if (board.getState(i) != Board.STATE_CLICKED)
+					sum += probabilities.get(i);
+			}
+			assertEquals(99, sum, 1e-6);
+			assertTrue(probabilities.get(probabilities.getSafest()) < 1);
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import org.junit.Test;
+
+import minesweeper.bot.HeadlessGame;
+import minesweeper.bot.Strategy;
+import minesweeper.engine.Board;
+import minesweeper.replay.ReplayFormat;
+import minesweeper.replay.ReplayPlayer;
+import minesweeper.replay.ReplayReader;
+import minesweeper.replay.ReplayWriter;
+import minesweeper.solver.ProbabilityEngine;
+
+public class ReplayPlayerTest
+{
+	private static ReplayPlayer player(byte[] replay, int snapshotInterval) throws IOException
+	{
+		return new ReplayPlayer(new ReplayReader(Channels.newChannel(new ByteArrayInputStream(replay))), snapshotInterval);
+	}
+
+	/**
+	 * Records a game of the bot, which flags every mine it finds, and sometimes undoes and redoes its last move.
+	 */
+	private static byte[] botGame(int rows, int cols, int mines, long seed) throws IOException
+	{
+		Strategy strategy = Strategy.standard(new ProbabilityEngine());
+		Random random = new Random(seed);
+		HeadlessGame game = new HeadlessGame(rows, cols, mines, seed);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), rows, cols, mines, seed);
+		boolean[] flagged = new boolean[rows * cols];
+		long time = 0;
+
+		while (!game.isOver())
+		{
+			int move = strategy.nextMove(game);
+			game.open(move);
+			writer.write(ReplayFormat.ACTION_OPEN, move, time += random.nextInt(1000));
+
+			for (int mine : game.getFrontierSolver().getMineCells())
+			{
+				if (!flagged[mine])
+				{
+					flagged[mine] = true;
+					writer.write(ReplayFormat.ACTION_MARK, mine, time += random.nextInt(1000));
+				}
+			}
+
+			if (random.nextInt(10) == 0)
+			{
+				writer.write(ReplayFormat.ACTION_UNDO, time += random.nextInt(1000));
+				writer.write(ReplayFormat.ACTION_REDO, time += random.nextInt(1000));
+			}
+		}
+		writer.close();
+
+		return out.toByteArray();
+	}
+
+	private static byte[] packed(Board board)
+	{
+		byte[] packed = new byte[board.size()];
+		for (int i = 0; i < packed.length; i++)
+		{
+			packed[i] = (byte) (board.getState(i) << 4 | board.getValue(i));
+		}
+		return packed;
+	}
+
+	@Test
+	public void seekingShouldShowTheSameBoardAsPlayingInOrder() throws IOException
+	{
+		byte[] replay = botGame(30, 40, 150, 3);
+		ReplayPlayer inOrder = player(replay, Integer.MAX_VALUE);
+		byte[][] boards = new byte[inOrder.getMoveCount() + 1][];
+		int[] hidden = new int[boards.length];
+		for (int position = 0; position < boards.length; position++)
+		{
+			inOrder.seek(position);
+			boards[position] = packed(inOrder.getBoard());
+			hidden[position] = inOrder.getHiddenCells();
+		}
+		assertEquals(1, inOrder.getSnapshotCount());
+
+		ReplayPlayer player = player(replay, 8);
+		Random random = new Random(1);
+		for (int i = 0; i < 500; i++)
+		{
+			int position = random.nextInt(boards.length);
+			player.seek(position);
+			assertArrayEquals("Position " + position, boards[position], packed(player.getBoard()));
+			assertEquals(hidden[position], player.getHiddenCells());
+		}
+	}
+
+	@Test
+	public void changedCellsShouldUpdateACopyOfTheBoard() throws IOException
+	{
+		ReplayPlayer player = player(botGame(16, 30, 99, 5), ReplayPlayer.DEFAULT_SNAPSHOT_INTERVAL);
+		byte[] copy = packed(player.getBoard());
+		player.drainChangedCells();
+		Random random = new Random(2);
+
+		for (int i = 0; i < 100; i++)
+		{
+			player.seek(random.nextInt(player.getMoveCount() + 1));
+			for (int cell : player.drainChangedCells())
+			{
+				copy[cell] = (byte) (player.getBoard().getState(cell) << 4 | player.getBoard().getValue(cell));
+			}
+			assertArrayEquals(packed(player.getBoard()), copy);
+		}
+	}
+
+	@Test
+	public void undoAndRedoShouldFollowTheMarks() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), 9, 9, 10, 8))
+		{
+			writer.write(ReplayFormat.ACTION_OPEN, 40, 0);
+		}
+		int hidden = 0;
+		ReplayPlayer opened = player(out.toByteArray(), 1);
+		opened.seek(1);
+		while (opened.getBoard().getState(hidden) != Board.STATE_HIDDEN)
+		{
+			hidden++;
+		}
+
+		out.reset();
+		try (ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), 9, 9, 10, 8))
+		{
+			writer.write(ReplayFormat.ACTION_OPEN, 40, 0);
+			writer.write(ReplayFormat.ACTION_MARK, hidden, 100);
+			writer.write(ReplayFormat.ACTION_MARK, hidden, 200);
+			writer.write(ReplayFormat.ACTION_UNDO, 300);
+			writer.write(ReplayFormat.ACTION_UNDO, 400);
+			writer.write(ReplayFormat.ACTION_REDO, 500);
+		}
+		ReplayPlayer player = player(out.toByteArray(), 2);
+
+		int[] states = { Board.STATE_HIDDEN, Board.STATE_HIDDEN, Board.STATE_FLAGGED, Board.STATE_QUESTION, Board.STATE_FLAGGED,
+				Board.STATE_HIDDEN, Board.STATE_FLAGGED };
+		for (int position : new int[] { 6, 0, 3, 1, 5, 2, 4 })
+		{
+			player.seek(position);
+			assertEquals("Position " + position, states[position], player.getBoard().getState(hidden));
+		}
+		player.seek(2);
+		assertEquals(9, player.getRemainingMines());
+		player.seek(5);
+		assertEquals(10, player.getRemainingMines());
+	}
+
+	@Test
+	public void lastPositionShouldEndTheGame() throws IOException
+	{
+		HeadlessGame game = new HeadlessGame(9, 9, 10, 4);
+		byte[] replay = botGame(9, 9, 10, 4);
+		Strategy strategy = Strategy.standard(new ProbabilityEngine());
+		while (!game.isOver())
+		{
+			game.open(strategy.nextMove(game));
+		}
+
+		ReplayPlayer player = player(replay, ReplayPlayer.DEFAULT_SNAPSHOT_INTERVAL);
+		assertFalse(player.isOver());
+		player.seek(player.getMoveCount());
+		assertTrue(player.isOver());
+		assertEquals(game.isWon(), player.isWon());
+		player.seek(0);
+		assertFalse(player.isOver());
+		assertEquals(81, player.getHiddenCells());
+	}
+
+	@Test
+	public void positionAtShouldReturnTheLastMoveBeforeTheTime() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), 9, 9, 10, 1))
+		{
+			writer.write(ReplayFormat.ACTION_OPEN, 40, 1000);
+			writer.write(ReplayFormat.ACTION_MARK, 0, 1500);
+			writer.write(ReplayFormat.ACTION_MARK, 0, 1500);
+			writer.write(ReplayFormat.ACTION_MARK, 0, 3000);
+		}
+		ReplayPlayer player = player(out.toByteArray(), 1);
+
+		assertEquals(2000, player.getDuration());
+		assertEquals(1, player.positionAt(0));
+		assertEquals(1, player.positionAt(499));
+		assertEquals(3, player.positionAt(500));
+		assertEquals(3, player.positionAt(1999));
+		assertEquals(4, player.positionAt(2000));
+		assertEquals(4, player.positionAt(100000));
+		assertEquals(500, player.getTime(3));
+	}
+}
@@ -0,0 +1,186 @@
+package minesweeper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import minesweeper.bot.HeadlessGame;
+import minesweeper.bot.Strategy;
+import minesweeper.engine.Difficulty;
+import minesweeper.replay.ReplayFormat;
+import minesweeper.replay.ReplayReader;
+import minesweeper.replay.ReplayWriter;
+import minesweeper.solver.ProbabilityEngine;
+
+public class ReplayTest
+{
+	private static ReplayReader reader(byte[] replay) throws IOException
+	{
+		return new ReplayReader(Channels.newChannel(new ByteArrayInputStream(replay)));
+	}
+
+	@Test
+	public void readerShouldReturnTheWrittenMoves() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), 16, 30, 99, -42))
+		{
+			writer.write(ReplayFormat.ACTION_OPEN, 255, 1000);
+			writer.write(ReplayFormat.ACTION_MARK, 3, 1500);
+			writer.write(ReplayFormat.ACTION_UNDO, 100000);
+			writer.write(ReplayFormat.ACTION_CHORD, 479, 100000);
+		}
+
+		try (ReplayReader reader = reader(out.toByteArray()))
+		{
+			assertEquals(16, reader.getRows());
+			assertEquals(30, reader.getCols());
+			assertEquals(99, reader.getMines());
+			assertEquals(-42, reader.getSeed());
+
+			int[][] expected = { { ReplayFormat.ACTION_OPEN, 255, 0 }, { ReplayFormat.ACTION_MARK, 3, 500 },
+					{ ReplayFormat.ACTION_UNDO, 3, 98500 }, { ReplayFormat.ACTION_CHORD, 479, 0 } };
+			for (int[] move : expected)
+			{
+				assertTrue(reader.next());
+				assertEquals(move[0], reader.getAction());
+				assertEquals(move[1], reader.getCell());
+				assertEquals(move[2], reader.getDelay());
+			}
+			assertEquals(99000, reader.getTime());
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	public void longReplayShouldBeWrittenThroughTheBuffer() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), 1000, 1000, 1, 0);
+		Random random = new Random(1);
+		int[] cells = new int[10000];
+		for (int i = 0; i < cells.length; i++)
+		{
+			cells[i] = random.nextInt(1000000);
+			writer.write(ReplayFormat.ACTION_OPEN, cells[i], i * 10L);
+		}
+		assertTrue(out.size() > 0);
+		writer.close();
+		assertEquals(writer.getSize(), out.size());
+
+		ReplayReader reader = reader(out.toByteArray());
+		for (int cell : cells)
+		{
+			assertTrue(reader.next());
+			assertEquals(cell, reader.getCell());
+		}
+		assertFalse(reader.next());
+	}
+
+	@Test(expected = IOException.class)
+	public void readerShouldThrowExceptionWhenItIsNotAReplay() throws IOException
+	{
+		reader("not a replay".getBytes());
+	}
+
+	@Test(expected = EOFException.class)
+	public void readerShouldThrowExceptionWhenTheLastMoveIsIncomplete() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), 9, 9, 10, 1))
+		{
+			writer.write(ReplayFormat.ACTION_OPEN, 40, 0);
+			writer.write(ReplayFormat.ACTION_OPEN, 0, 1000);
+		}
+		byte[] replay = out.toByteArray();
+
+		ReplayReader reader = reader(Arrays.copyOf(replay, replay.length - 1));
+		reader.next();
+		reader.next();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void writerShouldThrowExceptionWhenTheTimeGoesBackwards() throws IOException
+	{
+		ReplayWriter writer = new ReplayWriter(Channels.newChannel(new ByteArrayOutputStream()), 9, 9, 10, 1);
+		writer.write(ReplayFormat.ACTION_OPEN, 40, 1000);
+		writer.write(ReplayFormat.ACTION_OPEN, 41, 999);
+	}
+
+	@Test
+	public void wonHardGamesShouldFitInAKilobyte() throws IOException
+	{
+		// The bot plays like a careful player: it opens the safe cell closest to its last move, flags every mine it
+		// finds, and thinks 0.2-3 seconds before every move.
+		Strategy strategy = Strategy.standard(new ProbabilityEngine());
+		Random thinking = new Random(7);
+		Difficulty hard = Difficulty.HARD;
+		int won = 0;
+		long wonSize = 0;
+
+		for (long seed = 0; seed < 20; seed++)
+		{
+			HeadlessGame game = new HeadlessGame(hard.getRows(), hard.getCols(), hard.getMines(), seed);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ReplayWriter writer = new ReplayWriter(Channels.newChannel(out), game.getRows(), game.getCols(), game.getMines(), seed);
+			BitSet flagged = new BitSet();
+			long time = 0;
+			int move = strategy.nextMove(game);
+
+			while (!game.isOver())
+			{
+				game.open(move);
+				writer.write(ReplayFormat.ACTION_OPEN, move, time += 200 + thinking.nextInt(2800));
+
+				for (int mine : game.getFrontierSolver().getMineCells())
+				{
+					if (!flagged.get(mine))
+					{
+						flagged.set(mine);
+						writer.write(ReplayFormat.ACTION_MARK, mine, time += 200 + thinking.nextInt(2800));
+					}
+				}
+
+				if (!game.isOver())
+					move = closestSafeCell(game, move, strategy);
+			}
+			writer.close();
+
+			if (game.isWon())
+			{
+				wonSize += out.size();
+				won++;
+			}
+		}
+		assertTrue(won > 0);
+		assertTrue(wonSize / won + " bytes", wonSize / won < 1024);
+	}
+
+	private static int closestSafeCell(HeadlessGame game, int from, Strategy strategy)
+	{
+		int closest = Strategy.NO_MOVE;
+		int closestDistance = Integer.MAX_VALUE;
+		for (int cell : game.getFrontierSolver().getSafeCells())
+		{
+			int distance = Math.max(Math.abs(cell / game.getCols() - from / game.getCols()), Math.abs(cell % game.getCols() - from % game.getCols()));
+			if (distance < closestDistance)
+			{
+				closest = cell;
+				closestDistance = distance;
+			}
+		}
+
+		return closest != Strategy.NO_MOVE ? closest : strategy.nextMove(game);
+	}
+}
@@ -19,6 +19,10 @@ import javax.persistence.ManyToOne;
  * <li><b>Found mines</b>.</li>
  * <li><b>Total mines</b>.</li>
  * <li><b>Date</b>, as a {@link LocalDateTime}.
+ * <li><b>Game code</b>, the short code of the game, which can regenerate its board. Older clients don't send it, so it
+ * can be null.</li>
+ * <li><b>3BV</b>, the minimum number of clicks needed to clear the board of the game, computed from the game code. It's
+ * 0 if the score has no game code.</li>
  * </ul>
  * If you rename anything in this class, you might need to delete the old database, and let Hibernate create a new one
  * for proper functionality.
@@ -42,6 +46,8 @@ public class Score
 	private int time;
 	private int foundMines;
 	private int totalMines;
+	private String gameCode;
+	private int threeBV;
 
 	//Empty constructor, needed by Hibernate.
 	public Score()
@@ -119,11 +125,31 @@ public class Score
 		this.date = date;
 	}
 
+	public String getGameCode()
+	{
+		return gameCode;
+	}
+
+	public void setGameCode(String gameCode)
+	{
+		this.gameCode = gameCode;
+	}
+
+	public int get3BV()
+	{
+		return threeBV;
+	}
+
+	public void set3BV(int threeBV)
+	{
+		this.threeBV = threeBV;
+	}
+
 	@Override
 	public String toString()
 	{
 		return "Score [id=" + id + ", user=" + user + ", date=" + date + ", difficulty=" + difficulty + ", time=" + time + ", foundMines="
-				+ foundMines + ", totalMines=" + totalMines + "]";
+				+ foundMines + ", totalMines=" + totalMines + ", gameCode=" + gameCode + ", threeBV=" + threeBV + "]";
 	}
 
 }
@@ -42,6 +42,41 @@ public class ScoreService
 	 * @param date The date.
 	 */
 	public static void createScore(User user, String difficulty, int time, int foundMines, int totalMines, LocalDateTime date)
+	{
+		createScore(user, difficulty, time, foundMines, totalMines, date, null);
+	}
+
+	/**
+	 * Creates a new score with the code of its game, and inserts it into the database. The code is enough to
+	 * regenerate the board of the game, so the board itself is never stored.
+	 * 
+	 * @param user The user.
+	 * @param difficulty The difficulty.
+	 * @param time The elapsed time.
+	 * @param foundMines The number of found mines.
+	 * @param totalMines The total number of mines.
+	 * @param date The date.
+	 * @param gameCode The code of the game, or <b>null</b> if the client didn't send one.
+	 */
+	public static void createScore(User user, String difficulty, int time, int foundMines, int totalMines, LocalDateTime date, String gameCode)
+	{
+		createScore(user, difficulty, time, foundMines, totalMines, date, gameCode, 0);
+	}
+
+	/**
+	 * Creates a new score with the code and the 3BV of its game, and inserts it into the database.
+	 * 
+	 * @param user The user.
+	 * @param difficulty The difficulty.
+	 * @param time The elapsed time.
+	 * @param foundMines The number of found mines.
+	 * @param totalMines The total number of mines.
+	 * @param date The date.
+	 * @param gameCode The code of the game, or <b>null</b> if the client didn't send one.
+	 * @param threeBV The 3BV of the game, or 0 if it's unknown.
+	 */
+	public static void createScore(User user, String difficulty, int time, int foundMines, int totalMines, LocalDateTime date, String gameCode,
+			int threeBV)
 	{
 		Score score = new Score();
 		score.setUser(user);
@@ -50,6 +85,8 @@ public class ScoreService
 		score.setFoundMines(foundMines);
 		score.setTotalMines(totalMines);
 		score.setDate(date);
+		score.setGameCode(gameCode);
+		score.set3BV(threeBV);
 
 		em.getTransaction().begin();
 		em.persist(score);
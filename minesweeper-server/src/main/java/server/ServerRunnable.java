@@ -19,6 +19,11 @@ import com.restfb.types.User;
 import db.Score;
 import db.ScoreService;
 import db.UserService;
+import minesweeper.engine.ArrayBoard;
+import minesweeper.engine.Board;
+import minesweeper.engine.Difficulty;
+import minesweeper.engine.GameSeed;
+import minesweeper.engine.OpeningIndex;
 import server.LoggedInFacebookClient;
 
 /**
@@ -52,7 +57,8 @@ import server.LoggedInFacebookClient;
  * <td>Save score<br>
  * </td>
  * <td>"saveScore"</td>
- * <td>user ID, name, elapsed time, found mines, total mines, difficulty, date<br>
+ * <td>user ID, name, elapsed time, found mines, total mines, difficulty, date, game code (optional, the score is rejected
+ * if it doesn't match)<br>
  * </td>
  * <td>none<br>
  * </td>
@@ -62,7 +68,7 @@ import server.LoggedInFacebookClient;
  * </td>
  * <td>"loadScore"</td>
  * <td>difficulty</td>
- * <td>A list of objects, same as input data for save.<br>
+ * <td>A list of objects, same as input data for save, followed by the 3BV of the game (0 if it's unknown).<br>
  * </td>
  * </tr>
  * <tr>
@@ -82,6 +88,11 @@ import server.LoggedInFacebookClient;
  */
 public class ServerRunnable implements Runnable
 {
+	/**
+	 * The largest board whose 3BV is computed when a score is saved, the size of the largest custom board.
+	 */
+	public final static int MAX_3BV_CELLS = 30 * 60;
+
 	private Socket socket;
 
 	private String appSecret;
@@ -151,7 +162,10 @@ public class ServerRunnable implements Runnable
 
 	/**
 	 * Save a score to the database by converting the raw objects from the client's request to {@link db.User User},
-	 * then using {@link ScoreService#createScore(db.User, String, int, int, int, LocalDateTime)}.
+	 * then using {@link ScoreService#createScore(db.User, String, int, int, int, LocalDateTime, String, int)}.
+	 * <p>
+	 * The 3BV of the score is computed from its game code, the client doesn't send it.
+	 * </p>
 	 * 
 	 * @param data The list of objects, got from the client as input.
 	 */
@@ -164,13 +178,65 @@ public class ServerRunnable implements Runnable
 		Integer remainingMines = (Integer) data.get(5);
 		Integer totalMines = (Integer) data.get(6);
 		LocalDateTime date = (LocalDateTime) data.get(7);
+		String gameCode = data.size() > 8 ? (String) data.get(8) : null;
+
+		if (gameCode != null && !isValidGameCode(gameCode, diff, totalMines))
+		{
+			System.out.println("Score rejected, the game code doesn't match the score!");
+			return;
+		}
 
 		db.User dbUser = new db.User(Long.parseLong(fbUser.getId()), name);
-		ScoreService.createScore(dbUser, diff, time, remainingMines, totalMines, date);
+		int threeBV = gameCode != null ? compute3BV(gameCode) : 0;
+		ScoreService.createScore(dbUser, diff, time, remainingMines, totalMines, date, gameCode, threeBV);
 
 		System.out.println("Score saved!");
 	}
 
+	/**
+	 * Checks whether a game code belongs to a game with the given difficulty and number of mines. The code is decoded
+	 * with the same {@link GameSeed} the client used to generate the board, so the server knows the exact game the score
+	 * was made on.
+	 * 
+	 * @param gameCode The code of the game, sent with the score.
+	 * @param diff The difficulty of the score, in lower case.
+	 * @param totalMines The number of mines of the score.
+	 * @return <b>true</b> if the code is valid and matches the score.
+	 */
+	private boolean isValidGameCode(String gameCode, String diff, int totalMines)
+	{
+		GameSeed gameSeed;
+		try
+		{
+			gameSeed = GameSeed.decode(gameCode);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return false;
+		}
+
+		String gameDiff = Difficulty.nameOf(gameSeed.getRows(), gameSeed.getCols(), gameSeed.getMines()).toLowerCase();
+		return gameSeed.getMines() == totalMines && gameDiff.equals(diff);
+	}
+
+	/**
+	 * Regenerates the board of a valid game code, and computes its 3BV. Boards larger than {@link #MAX_3BV_CELLS} are
+	 * not generated, their 3BV is unknown.
+	 * 
+	 * @param gameCode The code of the game, already validated.
+	 * @return The 3BV of the game, or 0 if the board is too large.
+	 */
+	private int compute3BV(String gameCode)
+	{
+		GameSeed gameSeed = GameSeed.decode(gameCode);
+		if ((long) gameSeed.getRows() * gameSeed.getCols() > MAX_3BV_CELLS)
+			return 0;
+
+		Board board = new ArrayBoard(gameSeed.getRows(), gameSeed.getCols());
+		gameSeed.generate(board);
+		return OpeningIndex.of(board).get3BV();
+	}
+
 	/**
 	 * Reads the difficulty from the request data, queries the database for the required information, then sends the
 	 * result back to the client as an Object List.
@@ -223,6 +289,7 @@ public class ServerRunnable implements Runnable
 		objects.add(score.getTotalMines());
 		objects.add(score.getDifficulty());
 		objects.add(score.getDate());
+		objects.add(score.get3BV());
 
 		return objects;
 	}